@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hdds.protocol.DatanodeID;
+
+/**
+ * Tracks the read latency of each datanode to decide how long to wait for a
+ * read before hedging it to another replica.
+ * <p>
+ * The threshold of a datanode is its smoothed latency plus four times the
+ * smoothed deviation, the same estimator as TCP's retransmission timer
+ * (RFC 6298), bounded by the configured minimum and maximum. Datanodes
+ * without samples get the maximum. The EC reconstruction reader also uses
+ * it to prefer the fastest datanodes when choosing parity cells to read.
+ * <p>
+ * The estimate of a datanode not read from for {@link #EXPIRY_MINUTES} is
+ * dropped, and at most {@link #MAX_DATANODES} estimates are kept, so that
+ * datanodes leaving the cluster do not accumulate in long running clients.
+ */
+public final class HedgedReadThreshold {
+
+  static final long EXPIRY_MINUTES = 10;
+  static final long MAX_DATANODES = 10_000;
+
+  private final long minMillis;
+  private final long maxMillis;
+  private final Cache<DatanodeID, Estimate> estimates;
+
+  public HedgedReadThreshold(long minMillis, long maxMillis) {
+    this(minMillis, maxMillis, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  HedgedReadThreshold(long minMillis, long maxMillis, Ticker ticker) {
+    this.minMillis = minMillis;
+    this.maxMillis = Math.max(minMillis, maxMillis);
+    this.estimates = CacheBuilder.newBuilder()
+        .expireAfterAccess(EXPIRY_MINUTES, TimeUnit.MINUTES)
+        .maximumSize(MAX_DATANODES)
+        .ticker(ticker)
+        .build();
+  }
+
+  public void add(DatanodeID datanode, long latencyMillis) {
+    estimates.asMap().computeIfAbsent(datanode, k -> new Estimate())
+        .add(latencyMillis);
+  }
+
+  public long getMillis(DatanodeID datanode) {
+    final Estimate estimate = estimates.getIfPresent(datanode);
+    if (estimate == null) {
+      return maxMillis;
+    }
+    return Math.min(maxMillis, Math.max(minMillis, estimate.get()));
+  }
+
+  /** Smoothed latency and deviation of a single datanode. */
+  private static final class Estimate {
+    private double mean = -1;
+    private double deviation;
+
+    synchronized void add(long sample) {
+      if (mean < 0) {
+        mean = sample;
+        deviation = sample / 2.0;
+      } else {
+        deviation = 0.75 * deviation + 0.25 * Math.abs(mean - sample);
+        mean = 0.875 * mean + 0.125 * sample;
+      }
+    }
+
+    synchronized long get() {
+      return (long) Math.ceil(mean + 4 * deviation);
+    }
+  }
+}
@@ -319,6 +319,110 @@ public class OzoneClientConfig {
       description = "Timeout for receiving streaming read responses.")
   private Duration streamReadTimeout = Duration.ofSeconds(10);
 
+  @Config(key = "ozone.client.read.readahead.size",
+      defaultValue = "4MB",
+      type = ConfigType.SIZE,
+      tags = {ConfigTag.CLIENT},
+      description = "Maximum number of bytes of the next block prefetched "
+          + "in the background while a key is read sequentially. The "
+          + "readahead window starts at 1MB, doubles up to this size while "
+          + "reads stay sequential and is dropped on random seeks. "
+          + "Set to 0 to disable cross-block readahead.")
+  private int readaheadSize = 4 * 1024 * 1024;
+
+  @Config(key = "ozone.client.read.chunk.window",
+      defaultValue = "1",
+      type = ConfigType.INT,
+      tags = {ConfigTag.CLIENT},
+      description = "Number of ReadChunk requests kept outstanding per block "
+          + "while a block is read sequentially. Chunks after the current "
+          + "one are requested asynchronously and their checksums verified "
+          + "in the background. Set to 1 to read one chunk at a time.")
+  private int readChunkWindow = 1;
+
+  @Config(key = "ozone.client.key.write.parallel.blocks",
+      defaultValue = "1",
+      type = ConfigType.INT,
+      tags = {ConfigTag.CLIENT},
+      description = "Number of blocks of a single Ratis replicated key "
+          + "written concurrently, each to its own pipeline. Applies only to "
+          + "keys created with a known size of more than one block. "
+          + "Defaults to 1, which writes the blocks one after another.")
+  private int parallelBlockWrites = 1;
+
+  @Config(key = "ozone.client.key.write.parallel.buffer.size",
+      defaultValue = "32MB",
+      type = ConfigType.SIZE,
+      tags = {ConfigTag.CLIENT},
+      description = "Maximum number of bytes of a key written in parallel "
+          + "(see ozone.client.key.write.parallel.blocks) buffered by the "
+          + "client in addition to the stream buffers of each block. Writes "
+          + "block once this much data is waiting to be sent to datanodes.")
+  private long parallelWriteBufferSize = 32L << 20;
+
+  @Config(key = "ozone.client.key.write.small.max.size",
+      defaultValue = "0B",
+      type = ConfigType.SIZE,
+      tags = {ConfigTag.CLIENT},
+      description = "Ratis replicated keys created with a known size of at "
+          + "most this many bytes are buffered by the client and written to "
+          + "the datanodes with a single PutSmallFile request when closed, "
+          + "which stores the data and the block in one Ratis transaction "
+          + "instead of separate WriteChunk and PutBlock requests. "
+          + "Must not exceed ozone.client.stream.buffer.size. Defaults to 0, "
+          + "which writes all keys as a stream.")
+  private long smallKeyMaxSize = 0;
+
+  @Config(key = "ozone.client.ec.hedged.read.enabled",
+      defaultValue = "false",
+      type = ConfigType.BOOLEAN,
+      tags = {ConfigTag.CLIENT},
+      description = "If enabled, EC blocks are read a stripe at a time, "
+          + "with the cells of each stripe read in parallel. An extra parity "
+          + "cell is read when a cell of the stripe is late, and the stripe "
+          + "is decoded from the cells that arrive first. Parity cells are "
+          + "read from the datanodes with the lowest observed latency.")
+  private boolean ecHedgedReadEnabled = false;
+
+  @Config(key = "ozone.client.ec.hedged.read.threshold.min",
+      defaultValue = "50ms",
+      type = ConfigType.TIME,
+      tags = {ConfigTag.CLIENT},
+      description = "Lower bound of the time to wait for an EC cell before "
+          + "reading an extra parity cell. The wait for each datanode is "
+          + "derived from its observed latency and its variation.")
+  private Duration ecHedgedReadThresholdMin = Duration.ofMillis(50);
+
+  @Config(key = "ozone.client.ec.hedged.read.threshold.max",
+      defaultValue = "2s",
+      type = ConfigType.TIME,
+      tags = {ConfigTag.CLIENT},
+      description = "Upper bound of the time to wait for an EC cell before "
+          + "reading an extra parity cell, also used for datanodes without "
+          + "observed latency.")
+  private Duration ecHedgedReadThresholdMax = Duration.ofSeconds(2);
+
+  @Config(key = "ozone.client.write.buffer.arena.size",
+      defaultValue = "0B",
+      type = ConfigType.SIZE,
+      tags = {ConfigTag.CLIENT},
+      description = "Upper bound of the memory used by the write buffers of "
+          + "all key output streams in the process. Once reached, a stream "
+          + "waits for buffers of other streams to be released before "
+          + "allocating a new one, and waiting streams are served in arrival "
+          + "order. If zero, buffers are only bounded per stream by "
+          + "ozone.client.stream.buffer.max.size.")
+  private long writeBufferArenaSize = 0;
+
+  @Config(key = "ozone.client.write.buffer.arena.slab.size",
+      defaultValue = "1MB",
+      type = ConfigType.SIZE,
+      tags = {ConfigTag.CLIENT},
+      description = "Unit in which the write buffer arena "
+          + "(ozone.client.write.buffer.arena.size) hands out memory. "
+          + "Buffer sizes are rounded up to a multiple of this value.")
+  private int writeBufferArenaSlabSize = 1024 * 1024;
+
   @PostConstruct
   public void validate() {
     Preconditions.checkState(streamBufferSize > 0);
@@ -400,6 +504,31 @@ public void validate() {
           streamReadTimeout, defaultTimeout);
       streamReadTimeout = defaultTimeout;
     }
+
+    if (readaheadSize < 0) {
+      LOG.warn("Invalid ozone.client.read.readahead.size = {}. " +
+          "Disabling readahead.", readaheadSize);
+      readaheadSize = 0;
+    }
+
+    if (readChunkWindow < 1) {
+      LOG.warn("Invalid ozone.client.read.chunk.window = {}. " +
+          "Resetting to 1.", readChunkWindow);
+      readChunkWindow = 1;
+    }
+
+    if (parallelBlockWrites < 1) {
+      LOG.warn("Invalid ozone.client.key.write.parallel.blocks = {}. " +
+          "Resetting to 1.", parallelBlockWrites);
+      parallelBlockWrites = 1;
+    }
+
+    if (smallKeyMaxSize > streamBufferSize) {
+      LOG.warn("Invalid ozone.client.key.write.small.max.size = {}, larger " +
+          "than ozone.client.stream.buffer.size. Resetting to {}.",
+          smallKeyMaxSize, streamBufferSize);
+      smallKeyMaxSize = streamBufferSize;
+    }
   }
 
   public long getStreamBufferFlushSize() {
@@ -646,6 +775,86 @@ public void setStreamReadTimeout(Duration streamReadTimeout) {
     this.streamReadTimeout = streamReadTimeout;
   }
 
+  public int getReadaheadSize() {
+    return readaheadSize;
+  }
+
+  public void setReadaheadSize(int readaheadSize) {
+    this.readaheadSize = readaheadSize;
+  }
+
+  public int getReadChunkWindow() {
+    return readChunkWindow;
+  }
+
+  public void setReadChunkWindow(int readChunkWindow) {
+    this.readChunkWindow = readChunkWindow;
+  }
+
+  public int getParallelBlockWrites() {
+    return parallelBlockWrites;
+  }
+
+  public void setParallelBlockWrites(int parallelBlockWrites) {
+    this.parallelBlockWrites = parallelBlockWrites;
+  }
+
+  public long getParallelWriteBufferSize() {
+    return parallelWriteBufferSize;
+  }
+
+  public void setParallelWriteBufferSize(long parallelWriteBufferSize) {
+    this.parallelWriteBufferSize = parallelWriteBufferSize;
+  }
+
+  public long getSmallKeyMaxSize() {
+    return smallKeyMaxSize;
+  }
+
+  public void setSmallKeyMaxSize(long smallKeyMaxSize) {
+    this.smallKeyMaxSize = smallKeyMaxSize;
+  }
+
+  public boolean isEcHedgedReadEnabled() {
+    return ecHedgedReadEnabled;
+  }
+
+  public void setEcHedgedReadEnabled(boolean ecHedgedReadEnabled) {
+    this.ecHedgedReadEnabled = ecHedgedReadEnabled;
+  }
+
+  public Duration getEcHedgedReadThresholdMin() {
+    return ecHedgedReadThresholdMin;
+  }
+
+  public void setEcHedgedReadThresholdMin(Duration threshold) {
+    this.ecHedgedReadThresholdMin = threshold;
+  }
+
+  public Duration getEcHedgedReadThresholdMax() {
+    return ecHedgedReadThresholdMax;
+  }
+
+  public void setEcHedgedReadThresholdMax(Duration threshold) {
+    this.ecHedgedReadThresholdMax = threshold;
+  }
+
+  public long getWriteBufferArenaSize() {
+    return writeBufferArenaSize;
+  }
+
+  public void setWriteBufferArenaSize(long size) {
+    this.writeBufferArenaSize = size;
+  }
+
+  public int getWriteBufferArenaSlabSize() {
+    return writeBufferArenaSlabSize;
+  }
+
+  public void setWriteBufferArenaSlabSize(int size) {
+    this.writeBufferArenaSlabSize = size;
+  }
+
   /**
    * Enum for indicating what mode to use when combining chunk and block
    * checksums to define an aggregate FileChecksum. This should be considered
@@ -27,13 +27,18 @@
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -103,6 +108,8 @@ public class XceiverClientGrpc extends XceiverClientSpi {
   // Cache the DN which returned the GetBlock command so that the ReadChunk
   // command can be sent to the same DN.
   private final Map<DatanodeBlockID, DatanodeDetails> getBlockDNcache;
+  private final boolean hedgedReadEnabled;
+  private final HedgedReadThreshold hedgedReadThreshold;
 
   private final AtomicBoolean isClosed = new AtomicBoolean(false);
 
@@ -133,6 +140,18 @@ public XceiverClientGrpc(Pipeline pipeline, ConfigurationSource config,
         OzoneConfigKeys.OZONE_NETWORK_TOPOLOGY_AWARE_READ_DEFAULT);
     this.trustManager = trustManager;
     this.getBlockDNcache = new ConcurrentHashMap<>();
+    this.hedgedReadEnabled = config.getBoolean(
+        OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_ENABLED_KEY,
+        OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_ENABLED_DEFAULT);
+    this.hedgedReadThreshold = new HedgedReadThreshold(
+        config.getTimeDuration(
+            OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_MIN_KEY,
+            OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_MIN_DEFAULT,
+            TimeUnit.MILLISECONDS),
+        config.getTimeDuration(
+            OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_MAX_KEY,
+            OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_MAX_DEFAULT,
+            TimeUnit.MILLISECONDS));
   }
 
   /**
@@ -498,6 +517,9 @@ private XceiverClientReply sendCommandWithRetry(
     // datanodes in the pipeline in a round-robin fashion.
     XceiverClientReply reply = new XceiverClientReply(null);
     List<DatanodeDetails> datanodeList = sortDatanodes(request);
+    if (isHedgeable(request) && datanodeList.size() > 1) {
+      return sendCommandWithHedging(request, validators, datanodeList);
+    }
 
     for (DatanodeDetails dn : datanodeList) {
       try {
@@ -565,6 +587,117 @@ private XceiverClientReply sendCommandWithRetry(
     }
   }
 
+  private boolean isHedgeable(ContainerCommandRequestProto request) {
+    return hedgedReadEnabled
+        && request.getCmdType() == ContainerProtos.Type.ReadChunk
+        && pipeline.getReplicationConfig().getReplicationType()
+            != HddsProtos.ReplicationType.EC;
+  }
+
+  /**
+   * Send a read to the datanodes in order, but instead of waiting for a
+   * datanode to fail before trying the next one, also try the next one if the
+   * read takes longer than the hedged read threshold of the datanode. The
+   * first valid response is returned, the others are ignored.
+   */
+  private XceiverClientReply sendCommandWithHedging(
+      ContainerCommandRequestProto request, List<Validator> validators,
+      List<DatanodeDetails> datanodeList) throws IOException {
+    final XceiverClientReply reply = new XceiverClientReply(null);
+    final BlockingQueue<HedgedRead> completed = new LinkedBlockingQueue<>();
+    final Iterator<DatanodeDetails> candidates = datanodeList.iterator();
+    final Set<DatanodeDetails> hedges = new HashSet<>();
+    IOException ioException = null;
+    // the latest read started, whose threshold decides when to hedge
+    DatanodeDetails latest = null;
+    boolean hedge = false;
+    int inFlight = 0;
+
+    try {
+      while (true) {
+        if (inFlight == 0 || hedge) {
+          if (!candidates.hasNext()) {
+            if (inFlight == 0) {
+              break;
+            }
+          } else {
+            final DatanodeDetails dn = candidates.next();
+            reply.addDatanode(dn);
+            try {
+              final CompletableFuture<ContainerCommandResponseProto> future =
+                  sendCommandAsync(request, dn).getResponse();
+              future.whenComplete((r, e) ->
+                  completed.add(new HedgedRead(dn, future)));
+              inFlight++;
+              latest = dn;
+              if (hedge) {
+                hedges.add(dn);
+                metrics.incHedgedReadOps();
+                hedge = false;
+              }
+            } catch (IOException e) {
+              // move on to the next datanode right away
+              ioException = e;
+              LOG.debug("Failed to execute command {} on datanode {}",
+                  processForDebug(request), dn, e);
+              continue;
+            }
+          }
+        }
+
+        final HedgedRead done = candidates.hasNext() && latest != null
+            ? completed.poll(hedgedReadThreshold.getMillis(latest.getID()),
+                TimeUnit.MILLISECONDS)
+            : completed.take();
+        if (done == null) {
+          LOG.debug("Command {} on datanode {} is slow, hedging it",
+              processForDebug(request), latest);
+          hedge = true;
+          continue;
+        }
+        inFlight--;
+        try {
+          final ContainerCommandResponseProto responseProto =
+              done.getResponse().get();
+          if (validators != null && !validators.isEmpty()) {
+            for (Validator validator : validators) {
+              validator.accept(request, responseProto);
+            }
+          }
+          if (hedges.contains(done.getDatanode())) {
+            metrics.incHedgedReadWins();
+          }
+          reply.setResponse(CompletableFuture.completedFuture(responseProto));
+          return reply;
+        } catch (IOException e) {
+          ioException = e;
+          LOG.debug("Failed to execute command {} on datanode {}",
+              processForDebug(request), done.getDatanode(), e);
+        } catch (ExecutionException e) {
+          LOG.debug("Failed to execute command {} on datanode {}",
+              processForDebug(request), done.getDatanode(), e);
+          if (Status.fromThrowable(e.getCause()).getCode()
+              == Status.UNAUTHENTICATED.getCode()) {
+            throw new SCMSecurityException("Failed to authenticate with "
+                + "GRPC XceiverServer with Ozone block token.");
+          }
+          ioException = new IOException(e);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.error("Command execution was interrupted ", e);
+      Thread.currentThread().interrupt();
+      throw (IOException) new InterruptedIOException(
+          "Command " + processForDebug(request) + " was interrupted.")
+          .initCause(e);
+    }
+
+    Objects.requireNonNull(ioException, "ioException == null");
+    LOG.warn("Failed to execute command {} on the pipeline {}.",
+        request.getCmdType(), pipeline);
+    throw ioException;
+  }
+
   @Override
   public void streamRead(ContainerCommandRequestProto request,
       StreamingReadResponse streamObserver) {
@@ -651,15 +784,8 @@ public XceiverClientReply sendCommandAsync(
 
     try (TracingUtil.TraceCloseable ignored = TracingUtil.createActivatedSpan(
         "XceiverClientGrpc." + request.getCmdType().name())) {
-
-      ContainerCommandRequestProto.Builder builder =
-          ContainerCommandRequestProto.newBuilder(request)
-              .setTraceID(TracingUtil.exportCurrentSpan());
-      if (!request.hasVersion()) {
-        builder.setVersion(ClientVersion.CURRENT.toProtoValue());
-      }
-      XceiverClientReply asyncReply =
-          sendCommandAsync(builder.build(), pipeline.getFirstNode());
+      XceiverClientReply asyncReply = sendCommandAsync(
+          withTraceAndVersion(request), pipeline.getFirstNode());
       if (shouldBlockAndWaitAsyncReply(request)) {
         asyncReply.getResponse().get();
       }
@@ -667,6 +793,31 @@ public XceiverClientReply sendCommandAsync(
     }
   }
 
+  @Override
+  public XceiverClientReply sendReadCommandAsync(
+      ContainerCommandRequestProto request, DatanodeDetails datanode)
+      throws IOException, InterruptedException {
+    if (!HddsUtils.isReadOnly(request)) {
+      throw new IllegalArgumentException("Not a read-only request: "
+          + request.getCmdType());
+    }
+    try (TracingUtil.TraceCloseable ignored = TracingUtil.createActivatedSpan(
+        "XceiverClientGrpc." + request.getCmdType().name())) {
+      return sendCommandAsync(withTraceAndVersion(request), datanode);
+    }
+  }
+
+  private static ContainerCommandRequestProto withTraceAndVersion(
+      ContainerCommandRequestProto request) {
+    ContainerCommandRequestProto.Builder builder =
+        ContainerCommandRequestProto.newBuilder(request)
+            .setTraceID(TracingUtil.exportCurrentSpan());
+    if (!request.hasVersion()) {
+      builder.setVersion(ClientVersion.CURRENT.toProtoValue());
+    }
+    return builder.build();
+  }
+
   /**
    * During data writes the ordering of WriteChunk and PutBlock is not ensured
    * by any outside logic, therefore in this original implementation, all reads
@@ -704,6 +855,10 @@ public XceiverClientReply sendCommandAsync(
             .send(new StreamObserver<ContainerCommandResponseProto>() {
               @Override
               public void onNext(ContainerCommandResponseProto value) {
+                if (isHedgeable(request)) {
+                  hedgedReadThreshold.add(dnId,
+                      Time.monotonicNow() - requestTime);
+                }
                 replyFuture.complete(value);
                 decreasePendingMetricsAndReleaseSemaphore();
               }
@@ -736,6 +891,12 @@ private void decreasePendingMetricsAndReleaseSemaphore() {
             });
     requestObserver.onNext(request);
     requestObserver.onCompleted();
+    // Cancel the call if the caller abandons the reply.
+    replyFuture.whenComplete((reply, e) -> {
+      if (replyFuture.isCancelled()) {
+        requestObserver.onError(Status.CANCELLED.asException());
+      }
+    });
     return new XceiverClientReply(replyFuture);
   }
 
@@ -766,6 +927,29 @@ public void setTimeout(long timeout) {
     this.timeout = timeout;
   }
 
+  /**
+   * A read sent to one of the datanodes by
+   * {@link #sendCommandWithHedging}, once it has completed.
+   */
+  private static final class HedgedRead {
+    private final DatanodeDetails datanode;
+    private final CompletableFuture<ContainerCommandResponseProto> response;
+
+    HedgedRead(DatanodeDetails datanode,
+        CompletableFuture<ContainerCommandResponseProto> response) {
+      this.datanode = datanode;
+      this.response = response;
+    }
+
+    DatanodeDetails getDatanode() {
+      return datanode;
+    }
+
+    CompletableFuture<ContainerCommandResponseProto> getResponse() {
+      return response;
+    }
+  }
+
   /**
    * Group the channel and stub so that they are published together.
    */
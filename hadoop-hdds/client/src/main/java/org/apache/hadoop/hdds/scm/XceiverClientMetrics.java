@@ -48,6 +48,10 @@ public class XceiverClientMetrics implements MetricsSource {
   private @Metric MutableCounterLong totalOps;
   private @Metric MutableCounterLong ecReconstructionTotal;
   private @Metric MutableCounterLong ecReconstructionFailsTotal;
+  private @Metric MutableCounterLong hedgedReadOps;
+  private @Metric MutableCounterLong hedgedReadWins;
+  private @Metric MutableCounterLong ecHedgedReadOps;
+  private @Metric MutableCounterLong ecHedgedReadWins;
   private EnumMap<ContainerProtos.Type, MutableCounterLong> pendingOpsArray;
   private EnumMap<ContainerProtos.Type, MutableCounterLong> opsArray;
   private EnumMap<ContainerProtos.Type, PerformanceMetrics> containerOpsLatency;
@@ -115,6 +119,46 @@ public void incECReconstructionFailsTotal() {
     ecReconstructionFailsTotal.incr();
   }
 
+  /** A read was sent to another replica because the first one was slow. */
+  public void incHedgedReadOps() {
+    hedgedReadOps.incr();
+  }
+
+  /** A hedged read was answered before the original read. */
+  public void incHedgedReadWins() {
+    hedgedReadWins.incr();
+  }
+
+  /** An extra EC cell was read because a cell of the stripe was late. */
+  public void incECHedgedReadOps() {
+    ecHedgedReadOps.incr();
+  }
+
+  /** A stripe was decoded using a cell read because another one was late. */
+  public void incECHedgedReadWins() {
+    ecHedgedReadWins.incr();
+  }
+
+  @VisibleForTesting
+  public long getHedgedReadOps() {
+    return hedgedReadOps.value();
+  }
+
+  @VisibleForTesting
+  public long getHedgedReadWins() {
+    return hedgedReadWins.value();
+  }
+
+  @VisibleForTesting
+  public long getECHedgedReadOps() {
+    return ecHedgedReadOps.value();
+  }
+
+  @VisibleForTesting
+  public long getECHedgedReadWins() {
+    return ecHedgedReadWins.value();
+  }
+
   @VisibleForTesting
   public long getTotalOpCount() {
     return totalOps.value();
@@ -144,6 +188,10 @@ public void getMetrics(MetricsCollector collector, boolean b) {
     totalOps.snapshot(recordBuilder, true);
     ecReconstructionTotal.snapshot(recordBuilder, true);
     ecReconstructionFailsTotal.snapshot(recordBuilder, true);
+    hedgedReadOps.snapshot(recordBuilder, true);
+    hedgedReadWins.snapshot(recordBuilder, true);
+    ecHedgedReadOps.snapshot(recordBuilder, true);
+    ecHedgedReadWins.snapshot(recordBuilder, true);
 
     for (ContainerProtos.Type type : ContainerProtos.Type.values()) {
       pendingOpsArray.get(type).snapshot(recordBuilder, b);
@@ -19,12 +19,15 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import org.apache.hadoop.hdds.client.BlockID;
@@ -43,6 +46,7 @@
 import org.apache.hadoop.hdds.security.token.OzoneBlockTokenIdentifier;
 import org.apache.hadoop.io.retry.RetryPolicy;
 import org.apache.hadoop.security.token.Token;
+import org.apache.ratis.util.MemoizedSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +63,14 @@ public class BlockInputStream extends BlockExtendedInputStream {
   private static final List<Validator> VALIDATORS =
       ContainerProtocolCalls.toValidatorList((request, response) -> validate(response));
 
+  /** Verifies the checksums of chunks read ahead of the current one. */
+  private static final MemoizedSupplier<ExecutorService> VERIFY_EXECUTOR =
+      MemoizedSupplier.valueOf(() -> Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setNameFormat("ChunkVerify-%d")
+              .setDaemon(true)
+              .build()));
+
   private final BlockID blockID;
   private long length;
   private final BlockLocationInfo blockInfo;
@@ -108,6 +120,14 @@ public class BlockInputStream extends BlockExtendedInputStream {
 
   private BlockData blockData;
 
+  // Number of ReadChunk requests kept outstanding during sequential reads,
+  // including the one for the current chunk.
+  private final int readChunkWindow;
+
+  // Position at which the previous read ended. A read starting there is
+  // sequential and reads the following chunks ahead.
+  private long nextSequentialPos = 0;
+
   public BlockInputStream(
       BlockLocationInfo blockInfo,
       Pipeline pipeline,
@@ -124,6 +144,7 @@ public BlockInputStream(
     this.xceiverClientFactory = xceiverClientFactory;
     this.refreshFunction = refreshFunction;
     this.retryPolicy = getReadRetryPolicy(config);
+    this.readChunkWindow = config.getReadChunkWindow();
   }
 
   // only for unit tests
@@ -301,17 +322,26 @@ protected synchronized int readWithStrategy(ByteReaderStrategy strategy)
     }
 
     checkOpen();
+    final boolean sequential =
+        readChunkWindow > 1 && getPos() == nextSequentialPos;
     int totalReadLen = 0;
     int len = strategy.getTargetLength();
+    final long readLimit =
+        strategy.isBounded() ? getPos() + len : Long.MAX_VALUE;
     while (len > 0) {
       // if we are at the last chunk and have read the entire chunk, return
       if (chunkStreams.isEmpty() ||
           (chunkStreams.size() - 1 <= chunkIndex &&
               chunkStreams.get(chunkIndex)
                   .getRemaining() == 0)) {
+        nextSequentialPos = getPos();
         return totalReadLen == 0 ? EOF : totalReadLen;
       }
 
+      if (sequential) {
+        prefetchChunks(readLimit);
+      }
+
       // Get the current chunkStream and read data from it
       ChunkInputStream current = chunkStreams.get(chunkIndex);
       int numBytesToRead = Math.min(len, (int)current.getRemaining());
@@ -361,9 +391,39 @@ protected synchronized int readWithStrategy(ByteReaderStrategy strategy)
         chunkIndex += 1;
       }
     }
+    nextSequentialPos = getPos();
     return totalReadLen;
   }
 
+  /**
+   * Send asynchronous ReadChunk requests for the chunks following the current
+   * one, up to the configured window. Chunks already requested or read are
+   * skipped, as well as chunks extending past readLimit, which are read on
+   * demand up to the requested length instead.
+   */
+  private void prefetchChunks(long readLimit) {
+    final int end = Math.min(chunkStreams.size(), chunkIndex + readChunkWindow);
+    for (int i = chunkIndex + 1; i < end; i++) {
+      final ChunkInputStream chunk = chunkStreams.get(i);
+      if (chunkOffsets[i] + chunk.getLength() > readLimit) {
+        break;
+      }
+      chunk.prefetch(VERIFY_EXECUTOR.get());
+    }
+  }
+
+  /**
+   * Abandon the chunks read ahead of the previous position, which are not in
+   * the window of the current chunk.
+   */
+  private void cancelPrefetchOutsideWindow() {
+    for (int i = 0; i < chunkStreams.size(); i++) {
+      if (i < chunkIndex || i >= chunkIndex + readChunkWindow) {
+        chunkStreams.get(i).cancelPrefetch();
+      }
+    }
+  }
+
   /**
    * Seeks the BlockInputStream to the specified position. If the stream is
    * not initialized, save the seeked position via blockPosition. Otherwise,
@@ -418,6 +478,10 @@ public synchronized void seek(long pos) throws IOException {
       chunkIndex = -chunkIndex - 2;
     }
 
+    if (readChunkWindow > 1) {
+      cancelPrefetchOutsideWindow();
+    }
+
     // Reset the previous chunkStream's position
     chunkStreams.get(chunkIndexOfPrevPosition).resetPosition();
 
@@ -424,6 +424,13 @@ private void recordWatchForCommitAsync(CompletableFuture<PutBlockResult> putBloc
 
   private void allocateNewBufferIfNeeded() throws IOException {
     if (currentBufferRemaining == 0) {
+      if (totalWriteChunkLength > totalPutBlockLength && bufferPool.mustWaitForArena()) {
+        // Buffers are only released once committed by a putBlock. Send one for the chunks written so far,
+        // otherwise streams waiting for each other's buffers may never release any.
+        updatePutBlockLength();
+        recordWatchForCommitAsync(executePutBlock(false, false));
+        clientMetrics.getFlushesDuringWrite().incr();
+      }
       try {
         currentBuffer = bufferPool.allocateBuffer(config.getBufferIncrement());
         currentBufferRemaining = currentBuffer.remaining();
@@ -40,6 +40,8 @@
  * This pool is designed for concurrent access to allocation and release. It imposes a maximum number of buffers to be
  * allocated at the same time and once the limit has been approached, the thread requesting a new allocation needs to
  * wait until a allocated buffer is released.
+ * When a {@link WriteBufferArena} is given, each buffer is also charged to the arena shared by all pools of the
+ * process, and released buffers are freed instead of being kept for reuse.
  */
 public class BufferPool {
   private static final Logger LOG = LoggerFactory.getLogger(BufferPool.class);
@@ -48,12 +50,15 @@ public class BufferPool {
   private final int bufferSize;
   private final int capacity;
   private final Function<ByteBuffer, ByteString> byteStringConversion;
+  private final WriteBufferArena arena;
 
   private final LinkedList<ChunkBuffer> allocated = new LinkedList<>();
   private final LinkedList<ChunkBuffer> released = new LinkedList<>();
   private ChunkBuffer currentBuffer = null;
   private final Lock lock = new ReentrantLock();
   private final Condition notFull = lock.newCondition();
+  /** Number of allocations waiting for the arena. */
+  private int pending = 0;
 
   public static BufferPool empty() {
     return EMPTY;
@@ -66,9 +71,16 @@ public BufferPool(int bufferSize, int capacity) {
 
   public BufferPool(int bufferSize, int capacity,
       Function<ByteBuffer, ByteString> byteStringConversion) {
+    this(bufferSize, capacity, byteStringConversion, null);
+  }
+
+  public BufferPool(int bufferSize, int capacity,
+      Function<ByteBuffer, ByteString> byteStringConversion,
+      WriteBufferArena arena) {
     this.capacity = capacity;
     this.bufferSize = bufferSize;
     this.byteStringConversion = byteStringConversion;
+    this.arena = arena;
   }
 
   public Function<ByteBuffer, ByteString> byteStringConversion() {
@@ -84,6 +96,9 @@ ChunkBuffer getCurrentBuffer() {
    * capacity.
    */
   public ChunkBuffer allocateBuffer(int increment) throws InterruptedException {
+    if (arena != null) {
+      return allocateFromArena(increment);
+    }
     lock.lockInterruptibly();
     try {
       Preconditions.assertTrue(allocated.size() + released.size() <= capacity, () ->
@@ -107,13 +122,72 @@ public ChunkBuffer allocateBuffer(int increment) throws InterruptedException {
     }
   }
 
+  /**
+   * Allocate a new {@link ChunkBuffer} charged to the arena, waiting first for this pool to have room and then for
+   * the arena to have room.
+   */
+  private ChunkBuffer allocateFromArena(int increment) throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (allocated.size() + pending >= capacity) {
+        LOG.debug("Allocation needs to wait the pool is at capacity (allocated = capacity = {}).", capacity);
+        notFull.await();
+      }
+      pending++;
+    } finally {
+      lock.unlock();
+    }
+
+    boolean acquired = false;
+    try {
+      // Wait for the arena without holding the lock, so that buffers of this pool can still be released.
+      arena.acquire(bufferSize);
+      acquired = true;
+    } finally {
+      lock.lock();
+      try {
+        pending--;
+        if (!acquired) {
+          notFull.signal();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    lock.lock();
+    try {
+      final ChunkBuffer buffer;
+      try {
+        buffer = ChunkBuffer.allocate(bufferSize, increment);
+      } catch (RuntimeException | Error e) {
+        arena.release(bufferSize);
+        notFull.signal();
+        throw e;
+      }
+      allocated.add(buffer);
+      currentBuffer = buffer;
+
+      LOG.debug("Allocated new buffer {} from arena, number of used buffers {}, capacity {}.",
+          buffer, allocated.size(), capacity);
+      return buffer;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   void releaseBuffer(ChunkBuffer buffer) {
     LOG.debug("Releasing buffer {}", buffer);
     lock.lock();
     try {
       Preconditions.assertTrue(removeByIdentity(allocated, buffer), "Releasing unknown buffer");
-      buffer.clear();
-      released.add(buffer);
+      if (arena != null) {
+        buffer.close();
+        arena.release(bufferSize);
+      } else {
+        buffer.clear();
+        released.add(buffer);
+      }
       if (buffer == currentBuffer) {
         currentBuffer = null;
       }
@@ -164,6 +238,9 @@ public void clearBufferPool() {
     try {
       allocated.forEach(ChunkBuffer::close);
       released.forEach(ChunkBuffer::close);
+      if (arena != null) {
+        allocated.forEach(buffer -> arena.release(bufferSize));
+      }
       allocated.clear();
       released.clear();
       currentBuffer = null;
@@ -203,6 +280,13 @@ private <T> T doInLock(Supplier<T> supplier) {
     }
   }
 
+  /**
+   * @return true if the next allocation would wait for buffers of other pools to be released.
+   */
+  public boolean mustWaitForArena() {
+    return arena != null && !arena.hasAvailable(bufferSize);
+  }
+
   public boolean isAtCapacity() {
     return getNumberOfUsedBuffers() == capacity;
   }
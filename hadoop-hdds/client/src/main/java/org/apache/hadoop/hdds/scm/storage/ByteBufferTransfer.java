@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.ratis.util.Preconditions;
+import org.apache.ratis.util.function.CheckedConsumer;
+
+/**
+ * An {@link ByteReaderStrategy} implementation which passes the data to a
+ * consumer instead of copying it into a caller provided buffer.
+ * <p>
+ * Data read from a {@link ChunkInputStream} is passed as read-only views of
+ * the buffers received from the datanode, only valid until the consumer
+ * returns. Other streams are read into a temporary buffer.
+ * <p>
+ * Exceptions thrown by the consumer are wrapped in
+ * {@link UncheckedIOException}, so that they are not mistaken for read
+ * failures to be retried by {@link BlockInputStream}.
+ */
+public class ByteBufferTransfer implements ByteReaderStrategy {
+  /** Limit of the temporary buffer used for streams other than chunks. */
+  private static final int COPY_BUFFER_SIZE = 1 << 20;
+
+  private final CheckedConsumer<ByteBuffer, IOException> consumer;
+  private int targetLen;
+
+  public ByteBufferTransfer(
+      CheckedConsumer<ByteBuffer, IOException> consumer, int length) {
+    this.consumer = Objects.requireNonNull(consumer, "consumer == null");
+    Preconditions.assertTrue(length >= 0, () -> "length = " + length + " < 0");
+    this.targetLen = length;
+  }
+
+  @Override
+  public int readFromBlock(InputStream is, int numBytesToRead)
+      throws IOException {
+    final int numBytesRead;
+    if (is instanceof ChunkInputStream) {
+      numBytesRead = ((ChunkInputStream) is).transferTo(this::accept,
+          numBytesToRead);
+    } else if (is instanceof BlockInputStream) {
+      numBytesRead = ((BlockInputStream) is).read(
+          new ByteBufferTransfer(consumer, numBytesToRead));
+    } else {
+      numBytesRead = copy(is, numBytesToRead);
+    }
+    if (numBytesRead > 0) {
+      targetLen -= numBytesRead;
+    }
+    return numBytesRead;
+  }
+
+  private int copy(InputStream is, int numBytesToRead) throws IOException {
+    final ByteBufferReadable readable =
+        Preconditions.assertInstanceOf(is, ByteBufferReadable.class);
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(Math.min(numBytesToRead, COPY_BUFFER_SIZE));
+    int total = 0;
+    while (total < numBytesToRead) {
+      buffer.clear();
+      buffer.limit(Math.min(buffer.capacity(), numBytesToRead - total));
+      final int read = readable.read(buffer);
+      if (read < 0) {
+        return total > 0 ? total : read;
+      }
+      buffer.flip();
+      accept(buffer);
+      total += read;
+    }
+    return total;
+  }
+
+  private void accept(ByteBuffer buffer) {
+    try {
+      consumer.accept(buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public int getTargetLength() {
+    return targetLen;
+  }
+
+  @Override
+  public boolean isBounded() {
+    return true;
+  }
+}
@@ -37,4 +37,12 @@ public interface ByteReaderStrategy {
    * @return the target length to read.
    */
   int getTargetLength();
+
+  /**
+   * @return true if no more than the target length is going to be read, so
+   *         that data past it should not be read ahead.
+   */
+  default boolean isBounded() {
+    return false;
+  }
 }
@@ -22,10 +22,15 @@
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.fs.ByteBufferReadable;
@@ -48,6 +53,9 @@
 import org.apache.hadoop.ozone.common.utils.BufferUtils;
 import org.apache.hadoop.security.token.Token;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.util.function.CheckedConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An {@link InputStream} called from BlockInputStream to read a chunk from the
@@ -57,6 +65,9 @@
 public class ChunkInputStream extends InputStream
     implements Seekable, CanUnbuffer, ByteBufferReadable {
 
+  private static final Logger LOG =
+      LoggerFactory.getLogger(ChunkInputStream.class);
+
   private final ChunkInfo chunkInfo;
   private final long length;
   private final BlockID blockID;
@@ -98,6 +109,9 @@ public class ChunkInputStream extends InputStream
 
   private final Supplier<Token<?>> tokenSupplier;
 
+  // The whole chunk, if it was requested ahead of the first read by prefetch().
+  private CompletableFuture<ByteBuffer[]> prefetched;
+
   private static final int EOF = -1;
   private final List<Validator> validators;
 
@@ -225,6 +239,42 @@ public synchronized int read(ByteBuffer byteBuffer) throws IOException {
     return total;
   }
 
+  /**
+   * Pass up to len bytes of the chunk to the consumer as read-only views of
+   * the buffers received from the datanode, without copying them. The views
+   * are only valid until the consumer returns.
+   * @return the number of bytes passed, or EOF
+   */
+  public synchronized int transferTo(
+      CheckedConsumer<ByteBuffer, IOException> consumer, int len)
+      throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    acquireClient();
+    int total = 0;
+    while (len > 0) {
+      int available = prepareRead(len);
+      if (available == EOF) {
+        Preconditions.checkState(buffers == null);
+        return total != 0 ? total : EOF;
+      }
+      ByteBuffer readBuf = buffers[bufferIndex];
+      ByteBuffer view = readBuf.asReadOnlyBuffer();
+      view.limit(view.position() + available);
+      consumer.accept(view);
+      readBuf.position(readBuf.position() + available);
+
+      len -= available;
+      total += available;
+
+      if (bufferEOF()) {
+        releaseBuffers(bufferIndex);
+      }
+    }
+    return total;
+  }
+
   /**
    * Seeks the ChunkInputStream to the specified position. This is done by
    * updating the chunkPosition to the seeked position in case the buffers
@@ -285,6 +335,7 @@ public synchronized void close() {
   }
 
   protected synchronized void releaseClient() {
+    cancelPrefetch();
     if (xceiverClientFactory != null && xceiverClient != null) {
       xceiverClientFactory.releaseClientForReadData(xceiverClient, false);
       xceiverClient = null;
@@ -378,6 +429,14 @@ private synchronized void readChunkFromContainer(int len) throws IOException {
     // successful read in adjustBufferPosition()
     storePosition();
 
+    final ByteBuffer[] prefetchedBuffers = takePrefetched();
+    if (prefetchedBuffers != null) {
+      setBuffers(prefetchedBuffers, length);
+      bufferOffsetWrtChunkData = 0;
+      adjustBufferPosition(startByteIndex);
+      return;
+    }
+
     long adjustedBuffersOffset, adjustedBuffersLen;
     if (verifyChecksum) {
       // Adjust the chunk offset and length to include required checksum
@@ -414,8 +473,12 @@ private synchronized void readChunkFromContainer(int len) throws IOException {
 
   private void readChunkDataIntoBuffers(ChunkInfo readChunkInfo)
       throws IOException {
-    buffers = readChunk(readChunkInfo);
-    buffersSize = readChunkInfo.getLen();
+    setBuffers(readChunk(readChunkInfo), readChunkInfo.getLen());
+  }
+
+  private void setBuffers(ByteBuffer[] data, long dataSize) {
+    buffers = data;
+    buffersSize = dataSize;
 
     bufferOffsets = new long[buffers.length];
     int tempOffset = 0;
@@ -439,7 +502,84 @@ protected ByteBuffer[] readChunk(ChunkInfo readChunkInfo)
     ReadChunkResponseProto readChunkResponse =
         ContainerProtocolCalls.readChunk(xceiverClient, readChunkInfo, datanodeBlockID, validators,
             tokenSupplier.get());
+    return toByteBuffers(readChunkResponse);
+  }
+
+  /**
+   * Request the whole chunk from the container without waiting for the
+   * response, so that the first read of this stream finds the data ready.
+   * Does nothing if the chunk was already requested or read.
+   * A failed request is not reported here, the chunk is read again by the
+   * first read instead.
+   *
+   * @param executor to verify the checksums of the chunk
+   */
+  synchronized void prefetch(Executor executor) {
+    if (prefetched != null || allocated || length == 0) {
+      return;
+    }
+    try {
+      acquireClient();
+      prefetched = readChunkAsync(chunkInfo, executor);
+    } catch (IOException e) {
+      LOG.debug("Failed to prefetch chunk {} of block {}",
+          getChunkName(), blockID, e);
+    }
+  }
+
+  /**
+   * Send RPC call to get the chunk from the container asynchronously.
+   */
+  @VisibleForTesting
+  protected CompletableFuture<ByteBuffer[]> readChunkAsync(
+      ChunkInfo readChunkInfo, Executor executor) throws IOException {
+    final CompletableFuture<ReadChunkResponseProto> response =
+        ContainerProtocolCalls.readChunkAsync(xceiverClient, readChunkInfo,
+            datanodeBlockID, validators, tokenSupplier.get(), executor);
+    final CompletableFuture<ByteBuffer[]> data = response.thenApply(r -> {
+      try {
+        return toByteBuffers(r);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    });
+    ContainerProtocolCalls.cancelWith(data, response);
+    return data;
+  }
+
+  /**
+   * @return the prefetched chunk data, or null if the chunk was not
+   *         prefetched or the prefetch failed.
+   */
+  private ByteBuffer[] takePrefetched() throws IOException {
+    final CompletableFuture<ByteBuffer[]> future = prefetched;
+    if (future == null) {
+      return null;
+    }
+    prefetched = null;
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      LOG.debug("Prefetch of chunk {} of block {} failed, reading it again",
+          getChunkName(), blockID, e.getCause());
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for chunk "
+          + getChunkName() + " of block " + blockID);
+    }
+  }
+
+  /** Abandon the request for the chunk sent by prefetch(), if any. */
+  synchronized void cancelPrefetch() {
+    if (prefetched != null) {
+      prefetched.cancel(false);
+      prefetched = null;
+    }
+  }
 
+  private static ByteBuffer[] toByteBuffers(
+      ReadChunkResponseProto readChunkResponse) throws IOException {
     if (readChunkResponse.hasData()) {
       return readChunkResponse.getData().asReadOnlyByteBufferList()
           .toArray(new ByteBuffer[0]);
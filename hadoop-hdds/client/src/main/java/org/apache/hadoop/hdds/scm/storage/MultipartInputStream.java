@@ -103,8 +103,7 @@ protected synchronized int readWithStrategy(ByteReaderStrategy strategy)
       // Get the current partStream and read data from it
       PartInputStream current = partStreams.get(partIndex);
       int numBytesToRead = getNumBytesToRead(strategy, current);
-      int numBytesRead = strategy
-          .readFromBlock((InputStream) current, numBytesToRead);
+      int numBytesRead = readFromPart(strategy, partIndex, numBytesToRead);
       checkPartBytesRead(numBytesToRead, numBytesRead, current);
       totalReadLen += numBytesRead;
 
@@ -116,6 +115,17 @@ protected synchronized int readWithStrategy(ByteReaderStrategy strategy)
     return totalReadLen;
   }
 
+  /**
+   * Read from the part stream at the given index. Subclasses may serve the
+   * data from elsewhere, as long as the part stream ends up positioned after
+   * the bytes returned.
+   */
+  protected int readFromPart(ByteReaderStrategy strategy, int index,
+      int numBytesToRead) throws IOException {
+    return strategy.readFromBlock((InputStream) partStreams.get(index),
+        numBytesToRead);
+  }
+
   protected int getNumBytesToRead(ByteReaderStrategy strategy,
                                   PartInputStream current) throws IOException {
     return strategy.getTargetLength();
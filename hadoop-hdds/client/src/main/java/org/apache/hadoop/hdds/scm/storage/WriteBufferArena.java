@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.storage;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hdds.annotation.InterfaceAudience;
+import org.apache.hadoop.hdds.scm.OzoneClientConfig;
+import org.apache.hadoop.metrics2.MetricsCollector;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.hadoop.metrics2.lib.MetricsRegistry;
+import org.apache.hadoop.metrics2.lib.MutableCounterLong;
+import org.apache.hadoop.metrics2.lib.MutableGaugeLong;
+import org.apache.hadoop.metrics2.lib.MutableRate;
+import org.apache.hadoop.util.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A process-wide budget for the write buffers of key output streams.
+ * <p>
+ * The budget is divided into slabs of a fixed size and each buffer is charged
+ * a whole number of slabs. When the budget is exhausted, {@link #acquire}
+ * blocks until other streams release their buffers. Waiting streams are
+ * served in arrival order, so a stream writing many large buffers cannot
+ * starve the others.
+ * <p>
+ * The memory itself is still allocated by {@link BufferPool}; the arena only
+ * bounds how much of it may be in use at the same time.
+ */
+@InterfaceAudience.Private
+public final class WriteBufferArena implements MetricsSource {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(WriteBufferArena.class);
+
+  public static final String SOURCE_NAME =
+      WriteBufferArena.class.getSimpleName();
+
+  private static WriteBufferArena instance;
+
+  private final long capacity;
+  private final int slabSize;
+  private final int totalSlabs;
+  private final Semaphore slabs;
+
+  private final MetricsRegistry registry;
+  private final MutableGaugeLong capacityBytes;
+  private final MutableGaugeLong usedBytes;
+  private final MutableCounterLong allocations;
+  private final MutableCounterLong waits;
+  private final MutableRate waitTime;
+
+  /**
+   * @return the arena shared by all streams of this process, or null if
+   *         {@code ozone.client.write.buffer.arena.size} is not set.
+   *         The arena is sized by the first configuration that enables it.
+   */
+  public static synchronized WriteBufferArena get(OzoneClientConfig config) {
+    if (instance == null && config.getWriteBufferArenaSize() > 0) {
+      instance = new WriteBufferArena(config.getWriteBufferArenaSize(),
+          config.getWriteBufferArenaSlabSize());
+      DefaultMetricsSystem.instance().register(SOURCE_NAME,
+          "Write buffer arena shared by key output streams", instance);
+      LOG.info("Created write buffer arena of {} bytes in slabs of {} bytes",
+          instance.capacity, instance.slabSize);
+    }
+    return instance;
+  }
+
+  @VisibleForTesting
+  WriteBufferArena(long capacity, int slabSize) {
+    if (slabSize <= 0) {
+      throw new IllegalArgumentException(
+          "Slab size must be positive: " + slabSize);
+    }
+    this.totalSlabs = (int) Math.max(1,
+        Math.min(Integer.MAX_VALUE, capacity / slabSize));
+    this.slabSize = slabSize;
+    this.capacity = (long) totalSlabs * slabSize;
+    this.slabs = new Semaphore(totalSlabs, true);
+
+    this.registry = new MetricsRegistry(SOURCE_NAME);
+    this.capacityBytes = registry.newGauge("CapacityBytes",
+        "Maximum size of all write buffers", this.capacity);
+    this.usedBytes = registry.newGauge("UsedBytes",
+        "Size of the write buffers currently allocated", 0L);
+    this.allocations = registry.newCounter("Allocations",
+        "Number of write buffers allocated", 0L);
+    this.waits = registry.newCounter("Waits",
+        "Number of allocations that waited for other buffers to be released",
+        0L);
+    this.waitTime = registry.newRate("WaitTime",
+        "Time spent waiting for other buffers to be released, in ms");
+  }
+
+  /**
+   * Charge a buffer of the given size to the arena, waiting until enough of
+   * the budget is released by other buffers.
+   */
+  public void acquire(int bytes) throws InterruptedException {
+    final int n = slabsFor(bytes);
+    // tryAcquire with a timeout, unlike without, does not jump the queue.
+    if (!slabs.tryAcquire(n, 0, TimeUnit.SECONDS)) {
+      LOG.debug("Allocation of {} bytes needs to wait, the arena is full" +
+          " (used = {}, capacity = {}).", bytes, usedBytes.value(), capacity);
+      waits.incr();
+      final long start = Time.monotonicNow();
+      slabs.acquire(n);
+      waitTime.add(Time.monotonicNow() - start);
+    }
+    allocations.incr();
+    usedBytes.incr((long) n * slabSize);
+  }
+
+  /** Return the budget of a buffer previously charged by {@link #acquire}. */
+  public void release(int bytes) {
+    final int n = slabsFor(bytes);
+    usedBytes.decr((long) n * slabSize);
+    slabs.release(n);
+  }
+
+  /**
+   * @return true if a buffer of the given size can be charged without
+   *         waiting, false if {@link #acquire} would block.
+   */
+  public boolean hasAvailable(int bytes) {
+    return !slabs.hasQueuedThreads()
+        && slabs.availablePermits() >= slabsFor(bytes);
+  }
+
+  private int slabsFor(int bytes) {
+    final int n = (int) ((bytes + (long) slabSize - 1) / slabSize);
+    return Math.max(1, Math.min(n, totalSlabs));
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  public long getUsedBytes() {
+    return usedBytes.value();
+  }
+
+  public long getWaitCount() {
+    return waits.value();
+  }
+
+  @Override
+  public void getMetrics(MetricsCollector collector, boolean all) {
+    registry.snapshot(collector.addRecord(SOURCE_NAME), true);
+  }
+}
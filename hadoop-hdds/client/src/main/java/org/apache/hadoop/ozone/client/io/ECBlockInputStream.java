@@ -486,6 +486,17 @@ protected void closeStream(int i) {
     }
   }
 
+  /**
+   * Forget the stream of the given index without closing it, so that a read
+   * still running on it does not interfere with the next one. The read
+   * becomes responsible for closing the stream.
+   */
+  protected synchronized void detachStream(int i) {
+    blockStreams[i] = null;
+    // A new stream for this index will have to be positioned.
+    seeked = true;
+  }
+
   @Override
   public synchronized void unbuffer() {
     LOG.trace("{}: unbuffer", this);
@@ -42,6 +42,12 @@
  * based on the block availability, whether to use a reconstruction or non
  * reconstruction read and also handles errors from the non-reconstruction reads
  * failing over to a reconstruction read when they happen.
+ * <p>
+ * With hedged EC reads enabled, blocks with all data locations available are
+ * also read by the reconstruction reader, as long as a parity location is
+ * available. It reads the cells of each stripe in parallel, and reads a parity
+ * cell instead of a data cell which is late, so a slow datanode is bypassed
+ * without waiting for it to fail.
  */
 public class ECBlockInputStreamProxy extends BlockExtendedInputStream {
 
@@ -56,6 +62,8 @@ public class ECBlockInputStreamProxy extends BlockExtendedInputStream {
 
   private BlockExtendedInputStream blockReader;
   private boolean reconstructionReader = false;
+  // reconstruction reader used for hedging, not for missing locations
+  private boolean hedgedReader = false;
   private List<DatanodeDetails> failedLocations = new ArrayList<>();
   private boolean closed = false;
   private OzoneClientConfig config;
@@ -96,6 +104,16 @@ public static int availableDataLocations(Pipeline pipeline,
     return locations.size();
   }
 
+  private static boolean hasParityLocation(Pipeline pipeline,
+      ECReplicationConfig repConfig) {
+    for (DatanodeDetails dn : pipeline.getNodes()) {
+      if (pipeline.getReplicaIndex(dn) > repConfig.getData()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public ECBlockInputStreamProxy(ECReplicationConfig repConfig,
       BlockLocationInfo blockInfo,
       XceiverClientFactory xceiverClientFactory, Function<BlockID,
@@ -119,11 +137,15 @@ private synchronized void setReaderType() {
     reconstructionReader = available < expected;
     if (reconstructionReader) {
       LOG.info("Data locations available: {} < expected: {}, using reconstruction read", available, expected);
+    } else if (config.isEcHedgedReadEnabled()
+        && hasParityLocation(blockInfo.getPipeline(), repConfig)) {
+      reconstructionReader = true;
+      hedgedReader = true;
     }
   }
 
   private void createBlockReader() {
-    if (reconstructionReader) {
+    if (reconstructionReader && !hedgedReader) {
       XceiverClientManager.getXceiverClientMetrics()
           .incECReconstructionTotal();
     }
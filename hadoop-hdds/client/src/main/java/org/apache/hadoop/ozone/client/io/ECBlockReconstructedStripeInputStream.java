@@ -30,25 +30,33 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.hadoop.hdds.client.BlockID;
 import org.apache.hadoop.hdds.client.ECReplicationConfig;
 import org.apache.hadoop.hdds.protocol.DatanodeDetails;
+import org.apache.hadoop.hdds.scm.HedgedReadThreshold;
 import org.apache.hadoop.hdds.scm.OzoneClientConfig;
 import org.apache.hadoop.hdds.scm.XceiverClientFactory;
+import org.apache.hadoop.hdds.scm.XceiverClientManager;
 import org.apache.hadoop.hdds.scm.storage.BlockExtendedInputStream;
 import org.apache.hadoop.hdds.scm.storage.BlockLocationInfo;
 import org.apache.hadoop.hdds.scm.storage.ByteReaderStrategy;
@@ -110,12 +118,27 @@
  * caller should {@code setRecoveryIndexes([2, 3])}, and then can recover the
  * part of each stripe for these replicas by calling
  * {@code recoverChunks(bufs)}, passing two buffers.
+ *
+ * If hedged reads are enabled, readStripe() reads each cell into a buffer of
+ * its own. When a cell is late, an extra parity cell is read, and the stripe
+ * is decoded from whichever cells arrive first. The late read is abandoned and
+ * its stream is closed once it completes. Parity cells are chosen from the
+ * datanodes with the lowest observed latency.
  */
 public class ECBlockReconstructedStripeInputStream extends ECBlockInputStream {
 
   private static final Logger LOG =
       LoggerFactory.getLogger(ECBlockReconstructedStripeInputStream.class);
 
+  // Latency of cell reads from each datanode, shared by all readers in the
+  // JVM. It is a property of the datanode, not of the stream: a reader only
+  // reads the few stripes of its block, too few samples to learn from, while
+  // all readers see the same datanodes. One estimate is kept per datanode
+  // read from recently, see HedgedReadThreshold for the expiry. Bounds are
+  // applied by each reader according to its own configuration.
+  private static final HedgedReadThreshold CELL_READ_LATENCY =
+      new HedgedReadThreshold(0, Long.MAX_VALUE);
+
   // List of buffers, data + parity long, needed by the EC decoder. Missing
   // or not-need locations will be null.
   private ByteBuffer[] decoderInputBuffers;
@@ -150,6 +173,10 @@ public class ECBlockReconstructedStripeInputStream extends ECBlockInputStream {
   // for offline recovery: indexes to be recovered
   private final Set<Integer> recoveryIndexes = new TreeSet<>();
 
+  private final boolean hedgedReads;
+  private final long hedgeThresholdMinMillis;
+  private final long hedgeThresholdMaxMillis;
+
   @SuppressWarnings("checkstyle:ParameterNumber")
   public ECBlockReconstructedStripeInputStream(ECReplicationConfig repConfig,
       BlockLocationInfo blockInfo,
@@ -163,6 +190,11 @@ public ECBlockReconstructedStripeInputStream(ECReplicationConfig repConfig,
         refreshFunction, streamFactory, config);
     this.byteBufferPool = byteBufferPool;
     this.executor = ecReconstructExecutor;
+    this.hedgedReads = config.isEcHedgedReadEnabled();
+    this.hedgeThresholdMinMillis =
+        config.getEcHedgedReadThresholdMin().toMillis();
+    this.hedgeThresholdMaxMillis = Math.max(hedgeThresholdMinMillis,
+        config.getEcHedgedReadThresholdMax().toMillis());
 
     int expectedDataBlocks = calculateExpectedDataBlocks(repConfig);
     int d = repConfig.getData();
@@ -517,8 +549,10 @@ private void zeroFill(ByteBuffer buf) {
 
   /**
    * Take the parity indexes which are already used, and the others which are
-   * available, and select random indexes to meet numRequired. The resulting
-   * list is sorted in ascending order of the indexes.
+   * available, and select random indexes to meet numRequired. With hedged
+   * reads, the indexes on the datanodes with the lowest observed latency are
+   * selected instead. The resulting list is sorted in ascending order of the
+   * indexes.
    */
   @SuppressWarnings("java:S2245") // no need for secure random
   private SortedSet<Integer> selectInternalInputs(
@@ -534,7 +568,7 @@ private SortedSet<Integer> selectInternalInputs(
 
     SortedSet<Integer> selected = new TreeSet<>();
     for (int i : available) {
-      if (decoderInputBuffers[i] != null) {
+      if (decoderInputBuffers[i] != null && selected.size() < count) {
         // If we are re-initializing, we want to make sure we are re-using any
         // previously selected good parity indexes, as the block stream is
         // already opened.
@@ -544,6 +578,9 @@ private SortedSet<Integer> selectInternalInputs(
     List<Integer> candidates = new ArrayList<>(available);
     candidates.removeAll(selected);
     Collections.shuffle(candidates);
+    if (hedgedReads) {
+      candidates.sort(Comparator.comparingLong(this::estimatedLatency));
+    }
     selected.addAll(candidates.stream()
         .limit(count - selected.size())
         .collect(toSet()));
@@ -568,8 +605,25 @@ private void clearInternalBuffers() {
     }
   }
 
+  /**
+   * @return the estimated latency of reading a cell of the given index, or
+   * Long.MAX_VALUE if its datanode has not been read from yet
+   */
+  private long estimatedLatency(int index) {
+    return CELL_READ_LATENCY.getMillis(getDataLocations()[index].getID());
+  }
+
+  private long hedgeThresholdMillis(int index) {
+    return Math.min(hedgeThresholdMaxMillis,
+        Math.max(hedgeThresholdMinMillis, estimatedLatency(index)));
+  }
+
   protected void loadDataBuffersFromStream()
       throws IOException, InterruptedException {
+    if (hedgedReads && !isOfflineRecovery()) {
+      loadDataBuffersHedged();
+      return;
+    }
     Queue<ImmutablePair<Integer, Future<Void>>> pendingReads
         = new ArrayDeque<>();
     for (int i : selectedIndexes) {
@@ -652,6 +706,11 @@ private void readFromCurrentLocation(int ind, ByteBuffer buf)
       throws IOException {
     BlockExtendedInputStream stream = getOrOpenStream(ind);
     seekStreamIfNecessary(stream, 0);
+    readCell(ind, stream, buf);
+  }
+
+  private void readCell(int ind, BlockExtendedInputStream stream,
+      ByteBuffer buf) throws IOException {
     while (buf.hasRemaining()) {
       int read = stream.read(buf);
       if (read == EOF) {
@@ -674,6 +733,186 @@ private void readFromCurrentLocation(int ind, ByteBuffer buf)
     }
   }
 
+  /**
+   * Read the cells of the selected indexes, and read an extra parity cell
+   * each time a cell takes longer than the hedge threshold of its datanode or
+   * fails, until enough cells to decode the stripe have arrived. The cells
+   * are read into buffers of their own and copied to the decoder inputs once
+   * complete, so the reads which lost the race can be abandoned.
+   */
+  private void loadDataBuffersHedged()
+      throws IOException, InterruptedException {
+    final int toRead = (int)Math.min(getRemaining(), getStripeSize());
+    final int paritySize = Math.min(toRead, getRepConfig().getEcChunkSize());
+    final int required = dataIndexes.size();
+    final BlockingQueue<CellRead> completed = new LinkedBlockingQueue<>();
+    // The current read of each index, removed when it fails
+    final Map<Integer, CellRead> reads = new TreeMap<>();
+    final Queue<Integer> spares = selectSpareIndexes();
+    final Set<Integer> hedges = new HashSet<>();
+    final SortedSet<Integer> cells = new TreeSet<>();
+    boolean success = false;
+    try {
+      for (int i : selectedIndexes) {
+        startCellRead(i, decoderInputBuffers[i].remaining(), reads,
+            completed);
+      }
+      while (cells.size() < required && reads.size() >= required) {
+        CellRead late = spares.isEmpty() ? null : nextToHedge(reads, cells);
+        CellRead read;
+        if (late == null) {
+          read = completed.take();
+        } else {
+          read = completed.poll(late.hedgeNanos - System.nanoTime(),
+              TimeUnit.NANOSECONDS);
+          if (read == null) {
+            late.hedged = true;
+            int spare = spares.remove();
+            LOG.debug("{}: [{}] is late, reading [{}]", this, late.index,
+                spare);
+            hedges.add(spare);
+            startCellRead(spare, paritySize, reads, completed);
+            XceiverClientManager.getXceiverClientMetrics()
+                .incECHedgedReadOps();
+            continue;
+          }
+        }
+        if (read.getFailure() == null) {
+          cells.add(read.index);
+          continue;
+        }
+        final int length = read.buffer.limit();
+        reads.remove(read.index);
+        read.abandon();
+        closeStream(read.index);
+        if (shouldRetryFailedRead(read.index)) {
+          startCellRead(read.index, length, reads, completed);
+        } else {
+          failedDataIndexes.add(read.index);
+          LOG.info("{}: error reading [{}], marked as failed", this,
+              read.index, read.getFailure());
+          if (!spares.isEmpty()) {
+            startCellRead(spares.remove(), paritySize, reads, completed);
+          }
+        }
+      }
+      if (cells.size() < required) {
+        throw new IOException("One or more errors occurred reading block "
+            + getBlockID());
+      }
+      if (!cells.equals(selectedIndexes)) {
+        reassignInputs(cells, toRead);
+      }
+      for (int i : cells) {
+        ByteBuffer cell = reads.get(i).buffer;
+        cell.flip();
+        decoderInputBuffers[i].put(cell);
+      }
+      if (!Collections.disjoint(cells, hedges)) {
+        XceiverClientManager.getXceiverClientMetrics().incECHedgedReadWins();
+      }
+      success = true;
+    } finally {
+      for (CellRead read : reads.values()) {
+        if (success && cells.contains(read.index)) {
+          byteBufferPool.putBuffer(read.buffer);
+        } else {
+          read.abandon();
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the available parity indexes not selected as inputs, in
+   * ascending order of the observed latency of their datanodes
+   */
+  @SuppressWarnings("java:S2245") // no need for secure random
+  private Queue<Integer> selectSpareIndexes() {
+    List<Integer> spares = new ArrayList<>(parityIndexes);
+    spares.removeAll(failedDataIndexes);
+    spares.removeAll(selectedIndexes);
+    Collections.shuffle(spares);
+    spares.sort(Comparator.comparingLong(this::estimatedLatency));
+    return new ArrayDeque<>(spares);
+  }
+
+  /**
+   * @return the running read, not hedged yet, which reaches its hedge
+   * threshold first
+   */
+  private static CellRead nextToHedge(Map<Integer, CellRead> reads,
+      Set<Integer> cells) {
+    CellRead next = null;
+    for (CellRead read : reads.values()) {
+      if (!read.hedged && !cells.contains(read.index)
+          && (next == null || read.hedgeNanos < next.hedgeNanos)) {
+        next = read;
+      }
+    }
+    return next;
+  }
+
+  private void startCellRead(int index, int length,
+      Map<Integer, CellRead> reads, BlockingQueue<CellRead> completed) {
+    ByteBuffer buf =
+        byteBufferPool.getBuffer(false, getRepConfig().getEcChunkSize());
+    buf.clear();
+    buf.limit(length);
+    CellRead read = new CellRead(index, buf, completed);
+    reads.put(index, read);
+    read.start();
+  }
+
+  /**
+   * Use the given cells as the decoder inputs for the current stripe, and
+   * recover the data cells not among them into the buffers of the caller.
+   * The inputs are selected again for the next stripe.
+   */
+  private void reassignInputs(SortedSet<Integer> cells, int toRead) {
+    ByteBuffer[] callerBuffers = new ByteBuffer[getRepConfig().getData()];
+    Iterator<ByteBuffer> outputs =
+        Arrays.asList(decoderOutputBuffers).iterator();
+    for (int i : missingIndexes) {
+      callerBuffers[i] = outputs.next();
+    }
+    for (int i = 0; i < callerBuffers.length; i++) {
+      if (callerBuffers[i] == null) {
+        callerBuffers[i] = decoderInputBuffers[i];
+      }
+    }
+
+    missingIndexes.clear();
+    for (int i : dataIndexes) {
+      if (!cells.contains(i)) {
+        missingIndexes.add(i);
+      }
+    }
+    for (int i : parityIndexes) {
+      boolean input = cells.contains(i);
+      boolean hasBuffer = internalBuffers.contains(i);
+      if (input && !hasBuffer) {
+        allocateInternalBuffer(i);
+      } else if (!input && hasBuffer) {
+        releaseInternalBuffer(i);
+      }
+    }
+    decoderOutputBuffers = new ByteBuffer[missingIndexes.size()];
+    int recoveryIndex = 0;
+    for (int i : missingIndexes) {
+      decoderOutputBuffers[recoveryIndex++] = callerBuffers[i];
+      decoderInputBuffers[i] = null;
+    }
+    selectedIndexes.clear();
+    selectedIndexes.addAll(cells);
+    LOG.debug("{}: using {} as inputs, recovering {}", this, selectedIndexes,
+        missingIndexes);
+
+    clearInternalBuffers();
+    setBufferReadLimits(toRead);
+    initialized = false;
+  }
+
   /**
    * Take the populated input buffers and missing indexes and create the
    * outputs. Note that the input buffers have to be "ready for read", ie they
@@ -818,6 +1057,109 @@ private void selectIndexes() {
     selectedIndexes.addAll(internal);
   }
 
+  /**
+   * Reads a single cell into a buffer of its own. An abandoned read releases
+   * its buffer and closes its stream when it completes.
+   */
+  private final class CellRead implements Runnable {
+    private final int index;
+    private final DatanodeDetails datanode;
+    private final ByteBuffer buffer;
+    private final BlockingQueue<CellRead> completed;
+    private final long startNanos = System.nanoTime();
+    private final long hedgeNanos;
+    // set before the read is submitted
+    private BlockExtendedInputStream stream;
+    // accessed only by the thread waiting for the stripe
+    private boolean hedged;
+    // guarded by this
+    private boolean done;
+    private boolean abandoned;
+    private IOException failure;
+
+    CellRead(int index, ByteBuffer buffer, BlockingQueue<CellRead> completed) {
+      this.index = index;
+      this.datanode = getDataLocations()[index];
+      this.buffer = buffer;
+      this.completed = completed;
+      this.hedgeNanos = startNanos
+          + TimeUnit.MILLISECONDS.toNanos(hedgeThresholdMillis(index));
+    }
+
+    void start() {
+      try {
+        stream = getOrOpenStream(index);
+      } catch (IOException e) {
+        finish(e);
+        return;
+      }
+      executor.execute(this);
+    }
+
+    @Override
+    public void run() {
+      IOException error = null;
+      try {
+        seekStreamIfNecessary(stream, 0);
+        readCell(index, stream, buffer);
+        CELL_READ_LATENCY.add(datanode.getID(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      } catch (IOException e) {
+        error = e;
+      } catch (RuntimeException e) {
+        error = new IOException(e);
+      }
+      finish(error);
+    }
+
+    private void finish(IOException error) {
+      final boolean release;
+      synchronized (this) {
+        failure = error;
+        done = true;
+        release = abandoned;
+      }
+      if (release) {
+        byteBufferPool.putBuffer(buffer);
+        closeQuietly();
+      } else {
+        completed.add(this);
+      }
+    }
+
+    synchronized IOException getFailure() {
+      return failure;
+    }
+
+    /**
+     * Give up on the read. If it is still running, its stream is detached so
+     * the next stripe reads from a new one.
+     */
+    void abandon() {
+      final boolean running;
+      synchronized (this) {
+        running = !done;
+        abandoned = running;
+      }
+      if (running) {
+        detachStream(index);
+      } else {
+        byteBufferPool.putBuffer(buffer);
+      }
+    }
+
+    private void closeQuietly() {
+      if (stream == null) {
+        return;
+      }
+      try {
+        stream.close();
+      } catch (IOException e) {
+        LOG.debug("Failed to close abandoned stream [{}]", index, e);
+      }
+    }
+  }
+
   private static SortedSet<Integer> setOfRange(
       int startInclusive, int endExclusive) {
 
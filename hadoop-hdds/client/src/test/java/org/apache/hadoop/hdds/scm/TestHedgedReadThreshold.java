@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hadoop.hdds.protocol.DatanodeID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link HedgedReadThreshold}.
+ */
+public class TestHedgedReadThreshold {
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final HedgedReadThreshold threshold =
+      new HedgedReadThreshold(0, 1000, new Ticker() {
+        @Override
+        public long read() {
+          return nanos.get();
+        }
+      });
+
+  @Test
+  public void testEstimate() {
+    DatanodeID datanode = DatanodeID.randomID();
+    assertEquals(1000, threshold.getMillis(datanode));
+
+    threshold.add(datanode, 10);
+    assertEquals(30, threshold.getMillis(datanode));
+  }
+
+  @Test
+  public void testEstimateExpiresWithoutReads() {
+    DatanodeID read = DatanodeID.randomID();
+    DatanodeID idle = DatanodeID.randomID();
+    threshold.add(read, 10);
+    threshold.add(idle, 10);
+
+    advanceMinutes(HedgedReadThreshold.EXPIRY_MINUTES - 1);
+    threshold.add(read, 10);
+    advanceMinutes(1);
+
+    assertEquals(30, threshold.getMillis(read));
+    assertEquals(1000, threshold.getMillis(idle));
+  }
+
+  private void advanceMinutes(long minutes) {
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(minutes));
+  }
+}
@@ -20,6 +20,9 @@
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hadoop.hdds.client.BlockID;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ChunkInfo;
 import org.apache.hadoop.hdds.scm.XceiverClientFactory;
@@ -37,6 +40,11 @@ public class DummyChunkInputStream extends ChunkInputStream {
   // Stores the read chunk data in each readChunk call
   private final List<ByteString> readByteBuffers = new ArrayList<>();
 
+  private final AtomicInteger asyncReadCount = new AtomicInteger();
+  private final List<CompletableFuture<ByteBuffer[]>> asyncReads =
+      new ArrayList<>();
+  private volatile boolean completeAsyncReads = true;
+
   public DummyChunkInputStream(ChunkInfo chunkInfo,
       BlockID blockId,
       XceiverClientFactory xceiverClientFactory,
@@ -74,6 +82,17 @@ protected ByteBuffer[] readChunk(ChunkInfo readChunkInfo) {
         .toArray(new ByteBuffer[0]);
   }
 
+  @Override
+  protected CompletableFuture<ByteBuffer[]> readChunkAsync(
+      ChunkInfo readChunkInfo, Executor executor) {
+    asyncReadCount.incrementAndGet();
+    final CompletableFuture<ByteBuffer[]> read = completeAsyncReads
+        ? CompletableFuture.completedFuture(readChunk(readChunkInfo))
+        : new CompletableFuture<>();
+    asyncReads.add(read);
+    return read;
+  }
+
   @Override
   protected void acquireClient() {
     // No action needed
@@ -87,4 +106,17 @@ protected void releaseClient() {
   public List<ByteString> getReadByteBuffers() {
     return readByteBuffers;
   }
+
+  public int getAsyncReadCount() {
+    return asyncReadCount.get();
+  }
+
+  /** Leave the asynchronous reads pending instead of completing them. */
+  public void setCompleteAsyncReads(boolean complete) {
+    completeAsyncReads = complete;
+  }
+
+  public List<CompletableFuture<ByteBuffer[]>> getAsyncReads() {
+    return asyncReads;
+  }
 }
@@ -40,6 +40,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -265,6 +266,94 @@ public void testSeekAndRead() throws Exception {
     matchWithInputData(b2, 150, 100);
   }
 
+  @Test
+  public void testSequentialReadPrefetchesChunks() throws Exception {
+    OzoneClientConfig clientConfig = conf.getObject(OzoneClientConfig.class);
+    clientConfig.setChecksumVerify(false);
+    clientConfig.setReadChunkWindow(3);
+    BlockID blockID = new BlockID(new ContainerBlockID(1, 1));
+
+    try (BlockInputStream stream = new DummyBlockInputStream(blockID,
+        blockSize, MockPipeline.createSingleNodePipeline(), null, null,
+        refreshFunction, chunks, chunkDataMap, clientConfig)) {
+      byte[] b = new byte[blockSize];
+      int pos = 0;
+      while (pos < blockSize) {
+        int bytesRead = stream.read(b, pos, Math.min(30, blockSize - pos));
+        assertThat(bytesRead).isPositive();
+        pos += bytesRead;
+      }
+      matchWithInputData(b, 0, blockSize);
+
+      // All chunks but the first are read ahead of the current one.
+      List<ChunkInputStream> chunkStreams = stream.getChunkStreams();
+      assertEquals(0, asyncReadCount(chunkStreams.get(0)));
+      for (int i = 1; i < chunkStreams.size(); i++) {
+        assertEquals(1, asyncReadCount(chunkStreams.get(i)));
+      }
+    }
+
+    try (BlockInputStream stream = new DummyBlockInputStream(blockID,
+        blockSize, MockPipeline.createSingleNodePipeline(), null, null,
+        refreshFunction, chunks, chunkDataMap, clientConfig)) {
+      // A read after a seek is not sequential and does not read ahead.
+      stream.seek(250);
+      byte[] b = new byte[30];
+      assertEquals(30, stream.read(b, 0, 30));
+      matchWithInputData(b, 250, 30);
+      for (ChunkInputStream chunkStream : stream.getChunkStreams()) {
+        assertEquals(0, asyncReadCount(chunkStream));
+      }
+    }
+  }
+
+  @Test
+  public void testSeekCancelsPrefetchOutsideWindow() throws Exception {
+    OzoneClientConfig clientConfig = conf.getObject(OzoneClientConfig.class);
+    clientConfig.setChecksumVerify(false);
+    clientConfig.setReadChunkWindow(3);
+    BlockID blockID = new BlockID(new ContainerBlockID(1, 1));
+
+    try (BlockInputStream stream = new DummyBlockInputStream(blockID,
+        blockSize, MockPipeline.createSingleNodePipeline(), null, null,
+        refreshFunction, chunks, chunkDataMap, clientConfig)) {
+      stream.initialize();
+      List<ChunkInputStream> chunkStreams = stream.getChunkStreams();
+      for (ChunkInputStream chunkStream : chunkStreams) {
+        ((DummyChunkInputStream) chunkStream).setCompleteAsyncReads(false);
+      }
+      byte[] b = new byte[30];
+      assertEquals(30, stream.read(b, 0, 30));
+      matchWithInputData(b, 0, 30);
+      CompletableFuture<ByteBuffer[]> prefetch1 = asyncRead(chunkStreams.get(1));
+      CompletableFuture<ByteBuffer[]> prefetch2 = asyncRead(chunkStreams.get(2));
+
+      // Chunks 1 and 2 are still in the window of chunk 1.
+      stream.seek(CHUNK_SIZE + 10);
+      assertFalse(prefetch1.isCancelled());
+      assertFalse(prefetch2.isCancelled());
+
+      // Neither is in the window of chunk 4.
+      stream.seek(4 * CHUNK_SIZE + 10);
+      assertTrue(prefetch1.isCancelled());
+      assertTrue(prefetch2.isCancelled());
+      assertEquals(30, stream.read(b, 0, 30));
+      matchWithInputData(b, 4 * CHUNK_SIZE + 10, 30);
+    }
+  }
+
+  private static CompletableFuture<ByteBuffer[]> asyncRead(
+      ChunkInputStream chunkStream) {
+    List<CompletableFuture<ByteBuffer[]>> reads =
+        ((DummyChunkInputStream) chunkStream).getAsyncReads();
+    assertEquals(1, reads.size());
+    return reads.get(0);
+  }
+
+  private static int asyncReadCount(ChunkInputStream chunkStream) {
+    return ((DummyChunkInputStream) chunkStream).getAsyncReadCount();
+  }
+
   @Test
   public void testRefreshPipelineFunction() throws Exception {
     LogCapturer logCapturer = LogCapturer.captureLogs(BlockExtendedInputStream.class);
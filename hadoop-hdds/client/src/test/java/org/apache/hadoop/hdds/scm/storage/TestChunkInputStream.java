@@ -23,11 +23,13 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.nio.ByteBuffer;
 import java.util.List;
@@ -219,6 +221,27 @@ public void testSeekAndRead() throws Exception {
     matchWithInputData(b2, 70, 20);
   }
 
+  @Test
+  public void testTransfer() throws Exception {
+    seekAndVerify(25);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteBufferTransfer transfer = new ByteBufferTransfer(buffer -> {
+      assertTrue(buffer.isReadOnly());
+      while (buffer.hasRemaining()) {
+        out.write(buffer.get());
+      }
+    }, 50);
+
+    int bytesRead = transfer.readFromBlock(chunkStream, 50);
+    assertEquals(50, bytesRead, "Expected to transfer 50 bytes");
+    assertEquals(0, transfer.getTargetLength());
+    matchWithInputData(out.toByteArray(), 25, 50);
+    assertEquals(75, chunkStream.getPos());
+
+    // Data is read from and up to the checksum boundaries around the range.
+    matchWithInputData(chunkStream.getReadByteBuffers(), 20, 60);
+  }
+
   @Test
   public void testUnbuffered() throws Exception {
     byte[] b1 = new byte[20];
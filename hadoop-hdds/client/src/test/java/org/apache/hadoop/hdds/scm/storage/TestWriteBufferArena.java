@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hdds.scm.ByteStringConversion;
+import org.apache.hadoop.ozone.common.ChunkBuffer;
+import org.apache.ozone.test.GenericTestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link WriteBufferArena}.
+ */
+class TestWriteBufferArena {
+
+  private static final int SLAB = 1024;
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testBuffersRoundedUpToSlabs() throws Exception {
+    final WriteBufferArena arena = new WriteBufferArena(4 * SLAB, SLAB);
+    arena.acquire(SLAB + 1);
+    assertEquals(2 * SLAB, arena.getUsedBytes());
+    assertTrue(arena.hasAvailable(2 * SLAB));
+    assertFalse(arena.hasAvailable(3 * SLAB));
+
+    arena.release(SLAB + 1);
+    assertEquals(0, arena.getUsedBytes());
+  }
+
+  @Test
+  void testPoolsShareCapacity() throws Exception {
+    final WriteBufferArena arena = new WriteBufferArena(2 * SLAB, SLAB);
+    final BufferPool first = newPool(arena);
+    final BufferPool second = newPool(arena);
+
+    final ChunkBuffer buffer = first.allocateBuffer(0);
+    second.allocateBuffer(0);
+    assertEquals(2 * SLAB, arena.getUsedBytes());
+    assertTrue(first.mustWaitForArena());
+
+    // Each pool has room for more buffers, but the arena does not.
+    final CompletableFuture<ChunkBuffer> blocked =
+        CompletableFuture.supplyAsync(() -> allocate(second), executor);
+    GenericTestUtils.waitFor(() -> arena.getWaitCount() == 1, 10, 10_000);
+    assertFalse(blocked.isDone());
+
+    first.releaseBuffer(buffer);
+    blocked.get(10, TimeUnit.SECONDS);
+    assertEquals(2, second.getNumberOfUsedBuffers());
+    assertEquals(0, first.getNumberOfUsedBuffers());
+    assertEquals(0, first.getSize());
+    assertEquals(2 * SLAB, arena.getUsedBytes());
+
+    second.clearBufferPool();
+    assertEquals(0, arena.getUsedBytes());
+    assertFalse(first.mustWaitForArena());
+  }
+
+  @Test
+  void testWaitersServedInOrder() throws Exception {
+    final WriteBufferArena arena = new WriteBufferArena(2 * SLAB, SLAB);
+    arena.acquire(2 * SLAB);
+
+    final CompletableFuture<Void> large = CompletableFuture.runAsync(
+        () -> acquire(arena, 2 * SLAB), executor);
+    GenericTestUtils.waitFor(() -> arena.getWaitCount() == 1, 10, 10_000);
+    final CompletableFuture<Void> small = CompletableFuture.runAsync(
+        () -> acquire(arena, SLAB), executor);
+    GenericTestUtils.waitFor(() -> arena.getWaitCount() == 2, 10, 10_000);
+
+    // The small request would fit, but must not overtake the earlier one.
+    arena.release(SLAB);
+    Thread.sleep(100);
+    assertFalse(large.isDone());
+    assertFalse(small.isDone());
+
+    arena.release(SLAB);
+    large.get(10, TimeUnit.SECONDS);
+    assertFalse(small.isDone());
+
+    arena.release(2 * SLAB);
+    small.get(10, TimeUnit.SECONDS);
+    assertEquals(SLAB, arena.getUsedBytes());
+  }
+
+  private static BufferPool newPool(WriteBufferArena arena) {
+    return new BufferPool(SLAB, 4,
+        ByteStringConversion.createByteBufferConversion(false), arena);
+  }
+
+  private static ChunkBuffer allocate(BufferPool pool) {
+    try {
+      return pool.allocateBuffer(0);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void acquire(WriteBufferArena arena, int bytes) {
+    try {
+      arena.acquire(bytes);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
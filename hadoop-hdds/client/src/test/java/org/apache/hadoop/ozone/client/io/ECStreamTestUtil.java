@@ -29,6 +29,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
 import java.util.function.Function;
 import org.apache.hadoop.hdds.client.BlockID;
 import org.apache.hadoop.hdds.client.ECReplicationConfig;
@@ -224,6 +225,9 @@ public static class TestBlockInputStreamFactory implements
     private List<ByteBuffer> blockStreamData;
     // List of EC indexes that should fail immediately on read
     private final List<Integer> failIndexes = new ArrayList<>();
+    // EC indexes whose reads should block until the latch is released
+    private final List<Integer> stallIndexes = new ArrayList<>();
+    private CountDownLatch stallLatch;
 
     private Pipeline currentPipeline;
 
@@ -254,6 +258,13 @@ public synchronized void setFailIndexes(Integer... fail) {
       failIndexes.addAll(Arrays.asList(fail));
     }
 
+    // stall each stream of the given indexes until the latch is released
+    public synchronized void setStallIndexes(CountDownLatch latch,
+        Integer... stall) {
+      stallLatch = latch;
+      stallIndexes.addAll(Arrays.asList(stall));
+    }
+
     @Override
     public synchronized BlockExtendedInputStream create(
         ReplicationConfig repConfig,
@@ -270,6 +281,9 @@ public synchronized BlockExtendedInputStream create(
       if (failIndexes.remove(Integer.valueOf(repInd))) {
         stream.setShouldError(true);
       }
+      if (stallIndexes.contains(repInd)) {
+        stream.setStallLatch(stallLatch);
+      }
       blockStreams.put(repInd, stream);
       return stream;
     }
@@ -289,6 +303,7 @@ public static class TestBlockInputStream extends BlockExtendedInputStream {
     private boolean shouldErrorOnSeek = false;
     private IOException errorToThrow = null;
     private int ecReplicaIndex = 0;
+    private CountDownLatch stallLatch;
     private static final byte EOF = -1;
 
     TestBlockInputStream(BlockID blockId, long blockLen, ByteBuffer data) {
@@ -320,6 +335,13 @@ public void setShouldError(boolean val, int position,
       this.errorToThrow = errorThrowable;
     }
 
+    /**
+     * Make reads block until the latch is released, and then fail.
+     */
+    public void setStallLatch(CountDownLatch latch) {
+      this.stallLatch = latch;
+    }
+
     public int getEcReplicaIndex() {
       return ecReplicaIndex;
     }
@@ -342,6 +364,14 @@ public int read(byte[] b, int off, int len)
 
     @Override
     public int read(ByteBuffer buf) throws IOException {
+      if (stallLatch != null) {
+        try {
+          stallLatch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        throw new IOException("Simulated stalled read");
+      }
       if (shouldError && data.position() >= shouldErrorPosition) {
         throwError();
       }
@@ -191,6 +191,38 @@ public void testCorrectStreamCreatedDependingOnDataLocations()
     }
   }
 
+  @Test
+  public void testHedgedReadsUseReconstructionReader() throws IOException {
+    int blockLength = 5 * ONEMB;
+    generateData(blockLength);
+    OzoneClientConfig clientConfig = conf.getObject(OzoneClientConfig.class);
+    clientConfig.setEcHedgedReadEnabled(true);
+
+    Map<DatanodeDetails, Integer> dnMap =
+        ECStreamTestUtil.createIndexMap(1, 2, 3, 4, 5);
+    BlockLocationInfo blockInfo =
+        ECStreamTestUtil.createKeyInfo(repConfig, blockLength, dnMap);
+
+    try (ECBlockInputStreamProxy ignored =
+        createBISProxy(repConfig, blockInfo, clientConfig)) {
+      // All data locations are present, but reads may be hedged to parity.
+      assertThat(streamFactory.getStreams()).doesNotContainKey(false);
+      assertThat(streamFactory.getStreams()).containsKey(true);
+    }
+
+    streamFactory = new TestECBlockInputStreamFactory();
+    generateData(blockLength);
+    dnMap = ECStreamTestUtil.createIndexMap(1, 2, 3);
+    blockInfo = ECStreamTestUtil.createKeyInfo(repConfig, blockLength, dnMap);
+
+    try (ECBlockInputStreamProxy ignored =
+        createBISProxy(repConfig, blockInfo, clientConfig)) {
+      // No parity location to hedge to.
+      assertThat(streamFactory.getStreams()).containsKey(false);
+      assertThat(streamFactory.getStreams()).doesNotContainKey(true);
+    }
+  }
+
   @Test
   public void testCanReadNonReconstructionToEOF()
       throws IOException {
@@ -344,7 +376,12 @@ private void resetAndAdvanceDataGenerator(long position) {
 
   private ECBlockInputStreamProxy createBISProxy(ECReplicationConfig rConfig,
       BlockLocationInfo blockInfo) {
-    OzoneClientConfig clientConfig = conf.getObject(OzoneClientConfig.class);
+    return createBISProxy(rConfig, blockInfo,
+        conf.getObject(OzoneClientConfig.class));
+  }
+
+  private ECBlockInputStreamProxy createBISProxy(ECReplicationConfig rConfig,
+      BlockLocationInfo blockInfo, OzoneClientConfig clientConfig) {
     clientConfig.setChecksumVerify(true);
     return new ECBlockInputStreamProxy(
         rConfig, blockInfo, null, null, streamFactory,
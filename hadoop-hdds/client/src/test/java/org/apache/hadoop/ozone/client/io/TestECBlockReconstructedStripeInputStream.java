@@ -30,6 +30,7 @@
 import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -38,6 +39,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
@@ -47,6 +49,8 @@
 import org.apache.hadoop.hdds.protocol.DatanodeDetails;
 import org.apache.hadoop.hdds.protocol.MockDatanodeDetails;
 import org.apache.hadoop.hdds.scm.OzoneClientConfig;
+import org.apache.hadoop.hdds.scm.XceiverClientManager;
+import org.apache.hadoop.hdds.scm.XceiverClientMetrics;
 import org.apache.hadoop.hdds.scm.storage.BlockLocationInfo;
 import org.apache.hadoop.io.ByteBufferPool;
 import org.apache.hadoop.io.ElasticByteBufferPool;
@@ -807,9 +811,70 @@ public void testFailedLocationsAreNotRead() throws IOException {
     }
   }
 
+  @Test
+  public void testLateCellIsReplacedByParity() throws IOException {
+    int chunkSize = repConfig.getEcChunkSize();
+    int partialStripeSize = chunkSize * 2 - 1;
+    int blockLength = stripeSize() * 2 + partialStripeSize;
+    ByteBuffer[] dataBufs = allocateBuffers(repConfig.getData(), 3 * chunkSize);
+    ECStreamTestUtil.randomFill(dataBufs, chunkSize, dataGen, blockLength);
+    ByteBuffer[] parity = generateParity(dataBufs, repConfig);
+
+    // Data index 3 is missing and index 2 does not answer, so each stripe
+    // needs both parity cells.
+    CountDownLatch stalled = new CountDownLatch(1);
+    streamFactory = new TestBlockInputStreamFactory();
+    addDataStreamsToFactory(dataBufs, parity);
+    streamFactory.setStallIndexes(stalled, 2);
+    Map<DatanodeDetails, Integer> dnMap =
+        ECStreamTestUtil.createIndexMap(1, 2, 4, 5);
+    BlockLocationInfo keyInfo =
+        ECStreamTestUtil.createKeyInfo(repConfig, blockLength, dnMap);
+    streamFactory.setCurrentPipeline(keyInfo.getPipeline());
+
+    // Stalled reads hold their threads until the end of the test.
+    ecReconstructExecutor.shutdownNow();
+    ecReconstructExecutor = Executors.newCachedThreadPool();
+    OzoneClientConfig clientConfig = conf.getObject(OzoneClientConfig.class);
+    clientConfig.setEcHedgedReadEnabled(true);
+    clientConfig.setEcHedgedReadThresholdMin(Duration.ofMillis(10));
+    clientConfig.setEcHedgedReadThresholdMax(Duration.ofMillis(10));
+    XceiverClientMetrics metrics =
+        XceiverClientManager.getXceiverClientMetrics();
+    long hedgeWins = metrics.getECHedgedReadWins();
+
+    ByteBuffer[] bufs = allocateByteBuffers(repConfig);
+    try (ECBlockReconstructedStripeInputStream ecb =
+        createInputStream(keyInfo, clientConfig)) {
+      for (int i = 0; i < 2; i++) {
+        assertEquals(stripeSize(), ecb.read(bufs));
+        for (int j = 0; j < bufs.length; j++) {
+          validateContents(dataBufs[j], bufs[j], i * chunkSize, chunkSize);
+        }
+        clearBuffers(bufs);
+      }
+      assertEquals(partialStripeSize, ecb.read(bufs));
+      validateContents(dataBufs[0], bufs[0], 2 * chunkSize, chunkSize);
+      validateContents(dataBufs[1], bufs[1], 2 * chunkSize, chunkSize - 1);
+      assertEquals(0, bufs[2].remaining());
+      // Only the missing location (index 3, [2] in the reader) is marked as
+      // failed, not the late one.
+      assertEquals(singleton(2), ecb.getFailedIndexes());
+    } finally {
+      stalled.countDown();
+    }
+    assertThat(metrics.getECHedgedReadWins() - hedgeWins)
+        .isGreaterThanOrEqualTo(3);
+  }
+
   private ECBlockReconstructedStripeInputStream createInputStream(
       BlockLocationInfo keyInfo) {
     OzoneClientConfig clientConfig = conf.getObject(OzoneClientConfig.class);
+    return createInputStream(keyInfo, clientConfig);
+  }
+
+  private ECBlockReconstructedStripeInputStream createInputStream(
+      BlockLocationInfo keyInfo, OzoneClientConfig clientConfig) {
     clientConfig.setChecksumVerify(true);
     return new ECBlockReconstructedStripeInputStream(repConfig, keyInfo,
         null, null, streamFactory, bufferPool, ecReconstructExecutor,
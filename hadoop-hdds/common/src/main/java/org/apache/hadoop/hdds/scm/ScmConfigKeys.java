@@ -464,6 +464,16 @@ public final class ScmConfigKeys {
 
   public static final int OZONE_SCM_BLOCK_DELETION_PER_DN_DISTRIBUTION_FACTOR_DEFAULT = 8;
 
+  public static final String OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED =
+      "ozone.scm.block.deletion.per.dn.index.enabled";
+
+  public static final boolean OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED_DEFAULT = false;
+
+  public static final String OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY =
+      "ozone.scm.block.deletion.per.dn.index.capacity";
+
+  public static final int OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY_DEFAULT = 10000;
+
   public static final String OZONE_SCM_SEQUENCE_ID_BATCH_SIZE =
       "ozone.scm.sequence.id.batch.size";
   public static final int OZONE_SCM_SEQUENCE_ID_BATCH_SIZE_DEFAULT = 1000;
@@ -173,6 +173,22 @@ public static IOException getIOExceptionForSendCommand(
       sendCommandAsync(ContainerCommandRequestProto request)
       throws IOException, ExecutionException, InterruptedException;
 
+  /**
+   * Sends a read-only command to the given datanode of the pipeline, gets a
+   * waitable future back. Cancelling the future abandons the request.
+   * Clients which cannot choose the datanode send the command as
+   * {@link #sendCommandAsync(ContainerCommandRequestProto)}.
+   *
+   * @param request read-only request
+   * @param datanode the datanode to send the request to
+   * @return Response to the command
+   */
+  public XceiverClientReply sendReadCommandAsync(
+      ContainerCommandRequestProto request, DatanodeDetails datanode)
+      throws IOException, ExecutionException, InterruptedException {
+    return sendCommandAsync(request);
+  }
+
   /**
    * Returns pipeline Type.
    *
@@ -49,7 +49,8 @@ public final class ContainerInfo implements Comparable<ContainerInfo> {
       ContainerInfo::getProtobuf,
       ContainerInfo.class);
 
-  private HddsProtos.LifeCycleState state;
+  // volatile since SCM reads the state without holding a lock.
+  private volatile HddsProtos.LifeCycleState state;
   // The wall-clock ms since the epoch at which the current state enters.
   private Instant stateEnterTime;
   @JsonIgnore
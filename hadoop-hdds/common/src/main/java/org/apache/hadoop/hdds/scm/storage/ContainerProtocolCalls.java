@@ -22,6 +22,8 @@
 
 import io.opentelemetry.api.trace.Span;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,7 +31,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import org.apache.hadoop.hdds.annotation.InterfaceStability;
 import org.apache.hadoop.hdds.client.BlockID;
@@ -358,6 +363,82 @@ public static ContainerProtos.ReadChunkResponseProto readChunk(
       XceiverClientSpi xceiverClient, ChunkInfo chunk, DatanodeBlockID blockID,
       List<Validator> validators,
       Token<? extends TokenIdentifier> token) throws IOException {
+    final ContainerCommandRequestProto.Builder builder =
+        newReadChunkRequest(chunk, blockID, token);
+
+    try (TracingUtil.TraceCloseable ignored = TracingUtil.createActivatedSpan("readChunk")) {
+      Span span = TracingUtil.getActiveSpan();
+      span.setAttribute("offset", chunk.getOffset())
+          .setAttribute("length", chunk.getLen())
+          .setAttribute("block", blockID.toString());
+      return tryEachDatanode(xceiverClient.getPipeline(),
+          d -> readChunk(xceiverClient, chunk, blockID,
+              validators, builder, d),
+          d -> toErrorMessage(chunk, blockID, d));
+    }
+  }
+
+  /**
+   * Calls the container protocol to read a chunk asynchronously from the
+   * closest datanode of the pipeline. Unlike {@link #readChunk}, a failed read
+   * is not retried on the other datanodes.
+   *
+   * @param validators functions to validate the response, called by
+   *                   {@code executor}
+   * @return the future response, failing with {@link IOException} if the
+   *         response is not valid. Cancelling it abandons the request.
+   */
+  public static CompletableFuture<ReadChunkResponseProto> readChunkAsync(
+      XceiverClientSpi xceiverClient, ChunkInfo chunk, DatanodeBlockID blockID,
+      List<Validator> validators, Token<? extends TokenIdentifier> token,
+      Executor executor) throws IOException {
+    final DatanodeDetails d = xceiverClient.getPipeline().getClosestNode();
+    final ContainerCommandRequestProto request =
+        newReadChunkRequest(chunk, blockID, token)
+            .setDatanodeUuid(d.getUuidString())
+            .build();
+    final CompletableFuture<ContainerCommandResponseProto> reply;
+    try {
+      reply = xceiverClient.sendReadCommandAsync(request, d).getResponse();
+    } catch (ExecutionException e) {
+      throw new IOException(toErrorMessage(chunk, blockID, d), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(toErrorMessage(chunk, blockID, d));
+    }
+    final CompletableFuture<ReadChunkResponseProto> result =
+        reply.thenApplyAsync(response -> {
+          try {
+            for (Validator validator : validators) {
+              validator.accept(request, response);
+            }
+            final long readLen = getLen(response.getReadChunk());
+            if (readLen != chunk.getLen()) {
+              throw new IOException(toErrorMessage(chunk, blockID, d)
+                  + ": readLen=" + readLen);
+            }
+          } catch (IOException e) {
+            throw new CompletionException(e);
+          }
+          return response.getReadChunk();
+        }, executor);
+    cancelWith(result, reply);
+    return result;
+  }
+
+  /** Cancel the source of a dependent future when it is cancelled. */
+  public static void cancelWith(CompletableFuture<?> dependent,
+      CompletableFuture<?> source) {
+    dependent.whenComplete((value, e) -> {
+      if (dependent.isCancelled()) {
+        source.cancel(false);
+      }
+    });
+  }
+
+  private static ContainerCommandRequestProto.Builder newReadChunkRequest(
+      ChunkInfo chunk, DatanodeBlockID blockID,
+      Token<? extends TokenIdentifier> token) {
     ReadChunkRequestProto.Builder readChunkRequest =
         ReadChunkRequestProto.newBuilder()
             .setBlockID(blockID)
@@ -370,17 +451,7 @@ public static ContainerProtos.ReadChunkResponseProto readChunk(
     if (token != null) {
       builder.setEncodedToken(token.encodeToUrlString());
     }
-
-    try (TracingUtil.TraceCloseable ignored = TracingUtil.createActivatedSpan("readChunk")) {
-      Span span = TracingUtil.getActiveSpan();
-      span.setAttribute("offset", chunk.getOffset())
-          .setAttribute("length", chunk.getLen())
-          .setAttribute("block", blockID.toString());
-      return tryEachDatanode(xceiverClient.getPipeline(),
-          d -> readChunk(xceiverClient, chunk, blockID,
-              validators, builder, d),
-          d -> toErrorMessage(chunk, blockID, d));
-    }
+    return builder;
   }
 
   private static ContainerProtos.ReadChunkResponseProto readChunk(
@@ -486,7 +557,43 @@ public static XceiverClientReply writeChunkAsync(
   public static PutSmallFileResponseProto writeSmallFile(
       XceiverClientSpi client, BlockID blockID, byte[] data,
       Token<OzoneBlockTokenIdentifier> token) throws IOException {
+    Checksum checksum = new Checksum(ChecksumType.CRC32, 256);
+    ContainerCommandRequestProto request = getPutSmallFileRequest(
+        client.getPipeline(), blockID, ByteString.copyFrom(data),
+        checksum.computeChecksum(data),
+        token != null ? token.encodeToUrlString() : null);
+    ContainerCommandResponseProto response =
+        client.sendCommand(request, getValidatorList());
+    return response.getPutSmallFile();
+  }
+
+  /**
+   * Calls the container protocol to write a small file, i.e. the only chunk
+   * of a block and the block itself, in a single request.
+   *
+   * @param client client to perform call
+   * @param blockID ID of the block
+   * @param data the data of the block
+   * @param checksum checksum to compute for the data
+   * @param tokenString serialized block token (may be null)
+   * @return the reply, which carries the log index of the request for a
+   *         Ratis pipeline. The response is not validated.
+   * @throws IOException if there is an I/O error while performing the call
+   */
+  public static XceiverClientReply writeSmallFileAsync(
+      XceiverClientSpi client, BlockID blockID, ByteBuffer data,
+      Checksum checksum, String tokenString)
+      throws IOException, ExecutionException, InterruptedException {
+    final ChecksumData checksumData = checksum.computeChecksum(data.duplicate());
+    ContainerCommandRequestProto request = getPutSmallFileRequest(
+        client.getPipeline(), blockID, ByteString.copyFrom(data.duplicate()),
+        checksumData, tokenString);
+    return client.sendCommandAsync(request);
+  }
 
+  private static ContainerCommandRequestProto getPutSmallFileRequest(
+      Pipeline pipeline, BlockID blockID, ByteString data,
+      ChecksumData checksumData, String tokenString) {
     BlockData containerBlockData =
         BlockData.newBuilder().setBlockID(blockID.getDatanodeBlockIDProtobuf())
             .build();
@@ -498,36 +605,31 @@ public static PutSmallFileResponseProto writeSmallFile(
         KeyValue.newBuilder().setKey("OverWriteRequested").setValue("true")
             .build();
 
-    Checksum checksum = new Checksum(ChecksumType.CRC32, 256);
-    final ChecksumData checksumData = checksum.computeChecksum(data);
     ChunkInfo chunk =
         ChunkInfo.newBuilder()
             .setChunkName(blockID.getLocalID() + "_chunk")
             .setOffset(0)
-            .setLen(data.length)
+            .setLen(data.size())
             .addMetadata(keyValue)
             .setChecksumData(checksumData.getProtoBufMessage())
             .build();
 
     PutSmallFileRequestProto putSmallFileRequest =
         PutSmallFileRequestProto.newBuilder().setChunkInfo(chunk)
-            .setBlock(createBlockRequest).setData(ByteString.copyFrom(data))
+            .setBlock(createBlockRequest).setData(data)
             .build();
 
-    String id = client.getPipeline().getFirstNode().getUuidString();
+    String id = pipeline.getFirstNode().getUuidString();
     ContainerCommandRequestProto.Builder builder =
         ContainerCommandRequestProto.newBuilder()
             .setCmdType(Type.PutSmallFile)
             .setContainerID(blockID.getContainerID())
             .setDatanodeUuid(id)
             .setPutSmallFile(putSmallFileRequest);
-    if (token != null) {
-      builder.setEncodedToken(token.encodeToUrlString());
+    if (tokenString != null) {
+      builder.setEncodedToken(tokenString);
     }
-    ContainerCommandRequestProto request = builder.build();
-    ContainerCommandResponseProto response =
-        client.sendCommand(request, getValidatorList());
-    return response.getPutSmallFile();
+    return builder.build();
   }
 
   /**
@@ -465,6 +465,17 @@ public final class OzoneConfigKeys {
   public static final String OZONE_CLIENT_READ_TIMEOUT
           = "ozone.client.read.timeout";
   public static final String OZONE_CLIENT_READ_TIMEOUT_DEFAULT = "30s";
+  public static final String OZONE_CLIENT_HEDGED_READ_ENABLED_KEY =
+      "ozone.client.hedged.read.enabled";
+  public static final boolean OZONE_CLIENT_HEDGED_READ_ENABLED_DEFAULT = false;
+  public static final String OZONE_CLIENT_HEDGED_READ_THRESHOLD_MIN_KEY =
+      "ozone.client.hedged.read.threshold.min";
+  public static final String OZONE_CLIENT_HEDGED_READ_THRESHOLD_MIN_DEFAULT =
+      "50ms";
+  public static final String OZONE_CLIENT_HEDGED_READ_THRESHOLD_MAX_KEY =
+      "ozone.client.hedged.read.threshold.max";
+  public static final String OZONE_CLIENT_HEDGED_READ_THRESHOLD_MAX_DEFAULT =
+      "1s";
   public static final String OZONE_ACL_AUTHORIZER_CLASS =
       "ozone.acl.authorizer.class";
   public static final String OZONE_ACL_AUTHORIZER_CLASS_DEFAULT =
@@ -582,6 +593,15 @@ public final class OzoneConfigKeys {
   public static final long OZONE_CLIENT_KEY_PROVIDER_CACHE_EXPIRY_DEFAULT =
       TimeUnit.DAYS.toMillis(10); // 10 days
 
+  public static final String OZONE_CLIENT_KEY_LOCATION_CACHE_EXPIRY =
+      "ozone.client.key.location.cache.expiry";
+  public static final String OZONE_CLIENT_KEY_LOCATION_CACHE_EXPIRY_DEFAULT =
+      "0s";
+  public static final String OZONE_CLIENT_KEY_LOCATION_CACHE_MAX_ENTRIES =
+      "ozone.client.key.location.cache.max.entries";
+  public static final long
+      OZONE_CLIENT_KEY_LOCATION_CACHE_MAX_ENTRIES_DEFAULT = 10000;
+
   public static final String OZONE_CLIENT_KEY_LATEST_VERSION_LOCATION =
       "ozone.client.key.latest.version.location";
   public static final boolean OZONE_CLIENT_KEY_LATEST_VERSION_LOCATION_DEFAULT =
@@ -646,6 +666,17 @@ public final class OzoneConfigKeys {
   public static final String
       OZONE_FS_LISTING_PAGE_SIZE_MAX = "ozone.fs.listing.page.size.max";
 
+  public static final String OZONE_FS_METADATA_CACHE_TTL =
+      "ozone.fs.metadata.cache.ttl";
+  public static final String OZONE_FS_METADATA_CACHE_TTL_DEFAULT = "0s";
+  public static final String OZONE_FS_METADATA_CACHE_NEGATIVE_TTL =
+      "ozone.fs.metadata.cache.negative.ttl";
+  public static final String OZONE_FS_METADATA_CACHE_NEGATIVE_TTL_DEFAULT =
+      "0s";
+  public static final String OZONE_FS_METADATA_CACHE_MAX_ENTRIES =
+      "ozone.fs.metadata.cache.max.entries";
+  public static final int OZONE_FS_METADATA_CACHE_MAX_ENTRIES_DEFAULT = 10000;
+
   public static final String FS_TRASH_CLASSNAME = "fs.trash.classname";
   public static final String FS_TRASH_CLASSNAME_DEFAULT =
       "org.apache.hadoop.fs.ozone.OzoneTrashPolicy";
@@ -63,6 +63,13 @@ public class NetworkTopologyImpl implements NetworkTopology {
   private final Consumer<List<? extends Node>> shuffleOperation;
   /** Lock to coordinate cluster tree access. */
   private final ReadWriteLock netlock = new ReentrantReadWriteLock(true);
+  /** Version of the cluster tree, incremented on every change. */
+  private long version;
+  /**
+   * Lock-free view of the cluster tree, rebuilt on every change while
+   * holding the write lock.
+   */
+  private volatile NetworkTopologySnapshot snapshot;
 
   public NetworkTopologyImpl(ConfigurationSource conf) {
     schemaManager = NodeSchemaManager.getInstance();
@@ -73,6 +80,7 @@ public NetworkTopologyImpl(ConfigurationSource conf) {
     clusterTree = factory.newInnerNode(ROOT, null, null,
         NetConstants.ROOT_LEVEL,
         schemaManager.getCost(NetConstants.ROOT_LEVEL));
+    snapshot = new NetworkTopologySnapshot(version, clusterTree, maxLevel);
   }
 
   public NetworkTopologyImpl(String schemaFile, InnerNode clusterTree) {
@@ -82,6 +90,7 @@ public NetworkTopologyImpl(String schemaFile, InnerNode clusterTree) {
     shuffleOperation = Collections::shuffle;
     factory = InnerNodeImpl.FACTORY;
     this.clusterTree = clusterTree;
+    snapshot = new NetworkTopologySnapshot(version, clusterTree, maxLevel);
   }
 
   @VisibleForTesting
@@ -94,6 +103,7 @@ public NetworkTopologyImpl(NodeSchemaManager manager,
     clusterTree = factory.newInnerNode(ROOT, null, null,
         NetConstants.ROOT_LEVEL,
         schemaManager.getCost(NetConstants.ROOT_LEVEL));
+    snapshot = new NetworkTopologySnapshot(version, clusterTree, maxLevel);
   }
 
   @VisibleForTesting
@@ -125,6 +135,7 @@ public void add(Node node) {
     boolean add;
     try {
       add = clusterTree.add(node);
+      updateSnapshot();
     } finally {
       netlock.writeLock().unlock();
     }
@@ -179,6 +190,7 @@ public void update(Node oldNode, Node newNode) {
       }
 
       add = clusterTree.add(newNode);
+      updateSnapshot();
     } finally {
       netlock.writeLock().unlock();
     }
@@ -205,6 +217,7 @@ public void remove(Node node) {
     netlock.writeLock().lock();
     try {
       clusterTree.remove(node);
+      updateSnapshot();
     } finally {
       netlock.writeLock().unlock();
     }
@@ -214,6 +227,22 @@ public void remove(Node node) {
     }
   }
 
+  /**
+   * Rebuild the snapshot after a change of the cluster tree, called while
+   * holding the write lock.
+   */
+  private void updateSnapshot() {
+    snapshot = new NetworkTopologySnapshot(++version, clusterTree, maxLevel);
+  }
+
+  /**
+   * @return the snapshot of the current cluster tree.
+   */
+  @VisibleForTesting
+  NetworkTopologySnapshot getSnapshot() {
+    return snapshot;
+  }
+
   /**
    * Check if the tree already contains node <i>node</i>.
    * @param node a node
@@ -247,6 +276,12 @@ public boolean isSameAncestor(Node node1, Node node2, int ancestorGen) {
     if (node1 == null || node2 == null || ancestorGen <= 0) {
       return false;
     }
+    final NetworkTopologySnapshot current = getSnapshot();
+    final int index1 = current.getIndex(node1);
+    final int index2 = current.getIndex(node2);
+    if (index1 >= 0 && index2 >= 0 && current.isValidGeneration(ancestorGen)) {
+      return current.isSameAncestor(index1, index2, ancestorGen);
+    }
     netlock.readLock().lock();
     try {
       Node ancestor1 = node1.getAncestor(ancestorGen);
@@ -266,6 +301,12 @@ public boolean isSameParent(Node node1, Node node2) {
     if (node1 == null || node2 == null) {
       return false;
     }
+    final NetworkTopologySnapshot current = getSnapshot();
+    final int index1 = current.getIndex(node1);
+    final int index2 = current.getIndex(node2);
+    if (index1 >= 0 && index2 >= 0) {
+      return current.isSameParent(index1, index2);
+    }
     netlock.readLock().lock();
     try {
       node1 = node1.getParent();
@@ -723,6 +764,13 @@ public int getDistanceCost(Node node1, Node node2) {
       return Integer.MAX_VALUE;
     }
 
+    final NetworkTopologySnapshot current = getSnapshot();
+    final int index1 = current.getIndex(node1);
+    final int index2 = current.getIndex(node2);
+    if (index1 >= 0 && index2 >= 0) {
+      return current.getDistanceCost(index1, index2);
+    }
+
     // verify levels are in range
     int level1 = node1.getLevel();
     int level2 = node2.getLevel();
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.net;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, versioned snapshot of the leaves of a cluster tree.
+ * <p>
+ * Every leaf gets a dense integer index, and the ancestors of the leaves are
+ * numbered and stored in arrays together with the accumulated distance cost
+ * to each of them. Questions like "are these two nodes in the same rack" or
+ * "what is the distance cost between these two nodes" can then be answered
+ * with a few array lookups, without walking the tree and without holding
+ * the topology lock.
+ * <p>
+ * The leaves are looked up by their network path, so copies of the nodes in
+ * the tree (e.g. the {@code DatanodeDetails} passed by placement policies)
+ * are answered by the snapshot too. The callers fall back to the tree for
+ * nodes which are not leaves of the snapshot.
+ */
+final class NetworkTopologySnapshot {
+
+  private final long version;
+  private final Map<String, Integer> leafIndexes;
+  /** ancestors[leaf][generation - 1] is the index of the ancestor. */
+  private final int[][] ancestors;
+  /** costs[leaf][generation] is the sum of the costs of the ancestors. */
+  private final int[][] costs;
+  private final int generations;
+
+  /**
+   * Must be called while holding the topology lock.
+   *
+   * @param version the topology version this snapshot is built from
+   * @param clusterTree the root of the cluster tree
+   * @param maxLevel depth of the leaves
+   */
+  NetworkTopologySnapshot(long version, InnerNode clusterTree, int maxLevel) {
+    this.version = version;
+    this.generations = maxLevel - 1;
+    final List<Node> leaves = maxLevel > 1
+        ? clusterTree.getNodes(maxLevel) : Collections.emptyList();
+    this.leafIndexes = new HashMap<>(leaves.size() * 2);
+    this.ancestors = new int[leaves.size()][];
+    this.costs = new int[leaves.size()][];
+
+    final Map<Node, Integer> innerIndexes = new IdentityHashMap<>();
+    for (int i = 0; i < leaves.size(); i++) {
+      final Node leaf = leaves.get(i);
+      leafIndexes.put(leaf.getNetworkFullPath(), i);
+      ancestors[i] = new int[generations];
+      costs[i] = new int[generations + 1];
+      Node ancestor = leaf;
+      for (int gen = 1; gen <= generations; gen++) {
+        ancestor = ancestor.getParent();
+        ancestors[i][gen - 1] = innerIndexes.computeIfAbsent(ancestor,
+            k -> innerIndexes.size());
+        costs[i][gen] = costs[i][gen - 1] + ancestor.getCost();
+      }
+    }
+  }
+
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return the dense index of the leaf, or -1 if it is not in the snapshot.
+   */
+  int getIndex(Node node) {
+    final Integer index = node == null
+        ? null : leafIndexes.get(node.getNetworkFullPath());
+    return index == null ? -1 : index;
+  }
+
+  int getNumOfLeaves() {
+    return ancestors.length;
+  }
+
+  /**
+   * @return true if the two leaves share the ancestor of the given
+   * generation, which must be between 1 and the depth of the root.
+   */
+  boolean isSameAncestor(int leaf1, int leaf2, int generation) {
+    return ancestors[leaf1][generation - 1] == ancestors[leaf2][generation - 1];
+  }
+
+  boolean isSameParent(int leaf1, int leaf2) {
+    return isSameAncestor(leaf1, leaf2, 1);
+  }
+
+  boolean isValidGeneration(int generation) {
+    return generation >= 1 && generation <= generations;
+  }
+
+  /**
+   * Same as {@link NetworkTopology#getDistanceCost(Node, Node)}: the sum of
+   * the costs of the ancestors of both leaves up to their closest common
+   * ancestor.
+   */
+  int getDistanceCost(int leaf1, int leaf2) {
+    if (leaf1 == leaf2) {
+      return 0;
+    }
+    for (int gen = 1; gen <= generations; gen++) {
+      if (ancestors[leaf1][gen - 1] == ancestors[leaf2][gen - 1]) {
+        return costs[leaf1][gen] + costs[leaf2][gen];
+      }
+    }
+    return Integer.MAX_VALUE;
+  }
+}
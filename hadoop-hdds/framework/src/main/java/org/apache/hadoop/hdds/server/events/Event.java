@@ -39,4 +39,28 @@
    *
    */
   String getName();
+
+  /**
+   * The maximum number of not-yet processed payloads of this event which can
+   * be waiting for one handler. Zero or negative means unbounded.
+   */
+  default int getQueueCapacity() {
+    return 0;
+  }
+
+  /**
+   * What to do when a new payload arrives and the queue of the handler is
+   * full.
+   */
+  default EventOverflowPolicy getOverflowPolicy() {
+    return EventOverflowPolicy.BLOCK;
+  }
+
+  /**
+   * The key used by {@link EventOverflowPolicy#COALESCE_BY_KEY}, a pending
+   * payload is replaced by a new payload with the same key.
+   */
+  default Object getCoalescingKey(PAYLOAD payload) {
+    return payload;
+  }
 }
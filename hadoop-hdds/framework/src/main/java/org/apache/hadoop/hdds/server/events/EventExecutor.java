@@ -83,6 +83,29 @@ default long longWaitInQueueEvents() {
   default long longTimeExecutionEvents() {
     return 0;
   }
+
+  /**
+   * Return the number of events replaced by a newer event with the same key.
+   */
+  default long coalescedEvents() {
+    return 0;
+  }
+
+  /**
+   * Return the number of events waiting in the queue of the executor.
+   */
+  default long backlog() {
+    return Math.max(0, queuedEvents() - scheduledEvents());
+  }
+
+  /**
+   * Return true if the queue of the executor is full, publishers should
+   * avoid firing events which can be skipped safely. Always false for
+   * executors with an unbounded queue.
+   */
+  default boolean isOverloaded() {
+    return false;
+  }
   
   /**
    * The human readable name for the event executor.
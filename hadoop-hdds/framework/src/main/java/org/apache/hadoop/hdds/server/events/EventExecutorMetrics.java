@@ -26,12 +26,17 @@
 import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
 import org.apache.hadoop.metrics2.lib.MetricsRegistry;
 import org.apache.hadoop.metrics2.lib.MutableCounterLong;
+import org.apache.hadoop.metrics2.lib.MutableQuantiles;
+import org.apache.hadoop.metrics2.lib.MutableRate;
+import org.apache.hadoop.ozone.util.MetricUtil;
 
 /**
  * Metrics source for EventExecutor implementations.
  */
 @Metrics(about = "Executor Metrics", context = "EventQueue")
 public class EventExecutorMetrics implements MetricsSource {
+  private static final int QUANTILE_INTERVAL_SECONDS = 60;
+
   private final String name;
   private final String description;
   private final MetricsRegistry registry;
@@ -57,11 +62,32 @@ public class EventExecutorMetrics implements MetricsSource {
   @Metric("Number of tasks with long wait time in queue")
   private MutableCounterLong longWaitInQueue;
 
+  @Metric("Number of tasks replaced by a newer task with the same key")
+  private MutableCounterLong coalesced;
+
+  @Metric("Time spent by the tasks in the queue")
+  private MutableRate queueWaitTime;
+
+  @Metric("Time spent by the handler to process the tasks")
+  private MutableRate handlerTime;
+
+  private final MutableQuantiles queueWaitTimeQuantiles;
+
+  private final MutableQuantiles handlerTimeQuantiles;
+
   public EventExecutorMetrics(String name, String description) {
     this.name = name;
     this.description = description;
 
     registry = new MetricsRegistry(name);
+    queueWaitTimeQuantiles = registry.newQuantiles(
+        "queueWaitTime" + QUANTILE_INTERVAL_SECONDS + "s",
+        "Queue wait time in millisecond", "ops", "latency",
+        QUANTILE_INTERVAL_SECONDS);
+    handlerTimeQuantiles = registry.newQuantiles(
+        "handlerTime" + QUANTILE_INTERVAL_SECONDS + "s",
+        "Handler time in millisecond", "ops", "latency",
+        QUANTILE_INTERVAL_SECONDS);
     init();
   }
 
@@ -73,6 +99,7 @@ public void init() {
   public void unregister() {
     MetricsSystem ms = DefaultMetricsSystem.instance();
     ms.unregisterSource(name);
+    MetricUtil.stop(queueWaitTimeQuantiles, handlerTimeQuantiles);
   }
 
   @Override
@@ -113,6 +140,20 @@ public void incrementLongWaitInQueue() {
     longWaitInQueue.incr();
   }
 
+  public void incrementCoalesced() {
+    coalesced.incr();
+  }
+
+  public void addQueueWaitTime(long millis) {
+    queueWaitTime.add(millis);
+    queueWaitTimeQuantiles.add(millis);
+  }
+
+  public void addHandlerTime(long millis) {
+    handlerTime.add(millis);
+    handlerTimeQuantiles.add(millis);
+  }
+
   public long getQueued() {
     return queued.value();
   }
@@ -140,4 +181,8 @@ public long getLongExecution() {
   public long getLongWaitInQueue() {
     return longWaitInQueue.value();
   }
+
+  public long getCoalesced() {
+    return coalesced.value();
+  }
 }
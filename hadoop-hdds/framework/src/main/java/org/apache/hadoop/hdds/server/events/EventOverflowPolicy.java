@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.server.events;
+
+/**
+ * Defines how an {@link EventExecutor} with a bounded queue handles a new
+ * event payload when the queue is full.
+ */
+public enum EventOverflowPolicy {
+
+  /**
+   * The publisher is blocked until there is free space in the queue.
+   */
+  BLOCK,
+
+  /**
+   * A pending payload with the same {@link Event#getCoalescingKey(Object)}
+   * is replaced by the new payload, keeping its place in the queue. Useful
+   * for reports where only the latest one matters. If there is no pending
+   * payload with the same key and the queue is full, the publisher is
+   * blocked.
+   */
+  COALESCE_BY_KEY,
+
+  /**
+   * The oldest pending payload is dropped to make space for the new one.
+   */
+  DROP_OLDEST
+}
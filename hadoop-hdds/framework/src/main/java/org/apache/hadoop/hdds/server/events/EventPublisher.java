@@ -25,4 +25,13 @@ public interface EventPublisher {
   <PAYLOAD, EVENT_TYPE extends Event<PAYLOAD>> void
       fireEvent(EVENT_TYPE event, PAYLOAD payload);
 
+  /**
+   * Return true if any of the handlers of the event can not keep up with the
+   * incoming events. Producers may use it to skip events which will be
+   * resent later anyway, like periodic full reports.
+   */
+  default <PAYLOAD> boolean isOverloaded(Event<PAYLOAD> event) {
+    return false;
+  }
+
 }
@@ -173,7 +173,9 @@ abstract static class DatanodeDetailsJacksonMixIn {
    * Add new handler to the event queue.
    * <p>
    * By default a separated single thread executor will be dedicated to
-   * deliver the events to the registered event handler.
+   * deliver the events to the registered event handler. The queue of the
+   * executor is bounded according to {@link Event#getQueueCapacity()} and
+   * {@link Event#getOverflowPolicy()}.
    *
    * @param event        Triggering event.
    * @param handler      Handler of event (will be called from a separated
@@ -187,7 +189,9 @@ public <PAYLOAD, EVENT_TYPE extends Event<PAYLOAD>> void addHandler(
     validateEvent(event);
     String executorName = getExecutorName(event, handler);
     SingleThreadExecutor<PAYLOAD> executor =
-        new SingleThreadExecutor<>(executorName, threadNamePrefix);
+        new SingleThreadExecutor<>(executorName, threadNamePrefix,
+            event.getQueueCapacity(), event.getOverflowPolicy(),
+            event::getCoalescingKey);
     this.addHandler(event, executor, handler);
   }
 
@@ -303,6 +307,25 @@ public <PAYLOAD, EVENT_TYPE extends Event<PAYLOAD>> void fireEvent(
 
   }
 
+  @Override
+  public <PAYLOAD> boolean isOverloaded(Event<PAYLOAD> event) {
+    Map<EventExecutor, List<EventHandler>> eventExecutorListMap =
+        this.executors.get(event);
+    return eventExecutorListMap != null && eventExecutorListMap.keySet()
+        .stream().anyMatch(EventExecutor::isOverloaded);
+  }
+
+  /**
+   * Return the largest number of events of the given type waiting for any
+   * of its handlers.
+   */
+  public <PAYLOAD> long getBacklog(Event<PAYLOAD> event) {
+    Map<EventExecutor, List<EventHandler>> eventExecutorListMap =
+        this.executors.get(event);
+    return eventExecutorListMap == null ? 0 : eventExecutorListMap.keySet()
+        .stream().mapToLong(EventExecutor::backlog).max().orElse(0);
+  }
+
   /**
    * This is just for unit testing, don't use it for production code.
    * <p>
@@ -337,7 +360,8 @@ public void processAll(long timeout) {
 
       boolean allIdle =
           allExecutor.allMatch(executor -> executor.queuedEvents() == executor
-              .successfulEvents() + executor.failedEvents());
+              .successfulEvents() + executor.failedEvents()
+              + executor.droppedEvents() + executor.coalescedEvents());
 
       if (allIdle) {
         return;
@@ -189,6 +189,31 @@ public long longTimeExecutionEvents() {
     return metrics.getLongExecution();
   }
 
+  @Override
+  public long backlog() {
+    long backlog = 0;
+    for (BlockingQueue<Q> queue : workQueues) {
+      backlog += queue.size();
+    }
+    return backlog;
+  }
+
+  /**
+   * Payloads are routed to the queues by their hash, so the executor is
+   * overloaded as soon as any single queue is full: the next payload routed
+   * to that queue would be rejected. Publishers skipping events meanwhile
+   * also skip the payloads of the other queues.
+   */
+  @Override
+  public boolean isOverloaded() {
+    for (BlockingQueue<Q> queue : workQueues) {
+      if (queue.remainingCapacity() == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public void close() {
     isRunning.set(false);
@@ -245,6 +270,9 @@ public void run() {
           }
           
           long curTime = Time.monotonicNow();
+          if (createTime != 0) {
+            executor.metrics.addQueueWaitTime(curTime - createTime);
+          }
           if (createTime != 0
               && ((curTime - createTime) > executor.queueWaitThreshold)) {
             executor.metrics.incrementLongWaitInQueue();
@@ -253,11 +281,13 @@ public void run() {
           }
 
           executor.metrics.incrementScheduled();
+          final long startTime = curTime;
           try {
             executor.eventHandler.onMessage(report,
                 executor.eventPublisher);
             executor.metrics.incrementDone();
             curTime = Time.monotonicNow();
+            executor.metrics.addHandlerTime(curTime - startTime);
             if (createTime != 0
                 && (curTime - createTime) > executor.execWaitThreshold) {
               executor.metrics.incrementLongExecution();
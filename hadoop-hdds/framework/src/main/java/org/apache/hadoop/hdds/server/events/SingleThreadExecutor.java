@@ -17,13 +17,24 @@
 
 package org.apache.hadoop.hdds.server.events;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Function;
+import org.apache.hadoop.util.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Simple EventExecutor to call all the event handler one-by-one.
+ * <p>
+ * The pending events are kept in a queue which can be bounded, in which case
+ * the {@link EventOverflowPolicy} decides what happens with a new event when
+ * the queue is full.
  *
  * @param <P> the payload type of events
  */
@@ -37,21 +48,53 @@
   private final String name;
   private final ExecutorService executor;
   private final EventExecutorMetrics metrics;
+  private final int capacity;
+  private final EventOverflowPolicy overflowPolicy;
+  private final Function<P, Object> coalescingKey;
+
+  // The pending events, guarded by this. Every event in the queue has
+  // exactly one task submitted to the executor to process it.
+  private final Deque<PendingEvent<P>> pending = new ArrayDeque<>();
+  private final Map<Object, PendingEvent<P>> pendingByKey = new HashMap<>();
+  private boolean closed;
+  private volatile Thread workerThread;
 
   /**
-   * Create SingleThreadExecutor.
+   * Create SingleThreadExecutor with an unbounded queue.
    *
    * @param threadNamePrefix prefix prepended to thread names
    * @param name Unique name used in monitoring and metrics.
    */
   public SingleThreadExecutor(String name, String threadNamePrefix) {
+    this(name, threadNamePrefix, 0, EventOverflowPolicy.BLOCK,
+        payload -> payload);
+  }
+
+  /**
+   * Create SingleThreadExecutor.
+   *
+   * @param threadNamePrefix prefix prepended to thread names
+   * @param name Unique name used in monitoring and metrics.
+   * @param capacity max number of pending events, zero or negative means
+   *                 unbounded.
+   * @param overflowPolicy what to do with a new event if the queue is full.
+   * @param coalescingKey key of the payloads for
+   *                      {@link EventOverflowPolicy#COALESCE_BY_KEY}.
+   */
+  public SingleThreadExecutor(String name, String threadNamePrefix,
+      int capacity, EventOverflowPolicy overflowPolicy,
+      Function<P, Object> coalescingKey) {
     this.name = name;
+    this.capacity = capacity > 0 ? capacity : Integer.MAX_VALUE;
+    this.overflowPolicy = overflowPolicy;
+    this.coalescingKey = coalescingKey;
     this.metrics = new EventExecutorMetrics(EVENT_QUEUE + name, "Event Executor metrics");
 
     executor = Executors.newSingleThreadExecutor(
         runnable -> {
           Thread thread = new Thread(runnable);
           thread.setName(threadNamePrefix + EVENT_QUEUE + "-" + name);
+          workerThread = thread;
           return thread;
         });
   }
@@ -60,16 +103,96 @@ public SingleThreadExecutor(String name, String threadNamePrefix) {
   public void onMessage(EventHandler<P> handler, P message, EventPublisher
       publisher) {
     metrics.incrementQueued();
-    executor.execute(() -> {
-      metrics.incrementScheduled();
+    synchronized (this) {
+      Object key = null;
+      if (overflowPolicy == EventOverflowPolicy.COALESCE_BY_KEY) {
+        key = Arrays.asList(handler, coalescingKey.apply(message));
+        final PendingEvent<P> existing = pendingByKey.get(key);
+        if (existing != null) {
+          existing.payload = message;
+          existing.publisher = publisher;
+          metrics.incrementCoalesced();
+          return;
+        }
+      }
+      final PendingEvent<P> event =
+          new PendingEvent<>(handler, message, publisher, key);
+      if (pending.size() >= capacity
+          && overflowPolicy == EventOverflowPolicy.DROP_OLDEST) {
+        // The task submitted for the dropped event processes the new one.
+        final PendingEvent<P> oldest = pending.poll();
+        removeKey(oldest);
+        metrics.incrementDropped();
+        LOG.debug("Queue of {} is full, dropped {}", name, oldest.payload);
+        enqueue(event);
+        return;
+      }
+      if (!waitForSpace()) {
+        metrics.incrementDropped();
+        return;
+      }
+      enqueue(event);
+    }
+    executor.execute(this::processNext);
+  }
+
+  private void enqueue(PendingEvent<P> event) {
+    pending.add(event);
+    if (event.key != null) {
+      pendingByKey.put(event.key, event);
+    }
+  }
+
+  private void removeKey(PendingEvent<P> event) {
+    if (event.key != null) {
+      pendingByKey.remove(event.key, event);
+    }
+  }
+
+  /**
+   * Blocks the publisher until there is space in the queue. The worker
+   * thread itself is never blocked, as it would wait for itself forever.
+   *
+   * @return false if the executor is closed or the publisher is interrupted.
+   */
+  private boolean waitForSpace() {
+    if (Thread.currentThread() == workerThread) {
+      return true;
+    }
+    while (pending.size() >= capacity && !closed) {
       try {
-        handler.onMessage(message, publisher);
-        metrics.incrementDone();
-      } catch (Exception ex) {
-        LOG.error("Error on execution message {}", message, ex);
-        metrics.incrementFailed();
+        wait();
+      } catch (InterruptedException e) {
+        LOG.warn("Interrupted while waiting for the queue of {}", name);
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return !closed;
+  }
+
+  private void processNext() {
+    final PendingEvent<P> event;
+    synchronized (this) {
+      event = pending.poll();
+      if (event == null) {
+        return;
       }
-    });
+      removeKey(event);
+      notifyAll();
+    }
+    metrics.incrementScheduled();
+    final long startTime = Time.monotonicNow();
+    metrics.addQueueWaitTime(startTime - event.enqueueTime);
+    try {
+      event.handler.onMessage(event.payload, event.publisher);
+      metrics.incrementDone();
+    } catch (Exception ex) {
+      LOG.error("Error on execution message {}", event.payload, ex);
+      metrics.incrementFailed();
+    } finally {
+      metrics.addHandlerTime(Time.monotonicNow() - startTime);
+    }
   }
 
   @Override
@@ -92,8 +215,32 @@ public long scheduledEvents() {
     return metrics.getScheduled();
   }
 
+  @Override
+  public long droppedEvents() {
+    return metrics.getDropped();
+  }
+
+  @Override
+  public long coalescedEvents() {
+    return metrics.getCoalesced();
+  }
+
+  @Override
+  public synchronized long backlog() {
+    return pending.size();
+  }
+
+  @Override
+  public synchronized boolean isOverloaded() {
+    return capacity != Integer.MAX_VALUE && pending.size() >= capacity;
+  }
+
   @Override
   public void close() {
+    synchronized (this) {
+      closed = true;
+      notifyAll();
+    }
     executor.shutdown();
     metrics.unregister();
   }
@@ -102,4 +249,24 @@ public void close() {
   public String getName() {
     return name;
   }
+
+  /**
+   * An event waiting in the queue.
+   */
+  private static final class PendingEvent<P> {
+    private final EventHandler<P> handler;
+    private final Object key;
+    private final long enqueueTime = Time.monotonicNow();
+    // Replaced when a newer event is coalesced into this one.
+    private P payload;
+    private EventPublisher publisher;
+
+    PendingEvent(EventHandler<P> handler, P payload,
+        EventPublisher publisher, Object key) {
+      this.handler = handler;
+      this.payload = payload;
+      this.publisher = publisher;
+      this.key = key;
+    }
+  }
 }
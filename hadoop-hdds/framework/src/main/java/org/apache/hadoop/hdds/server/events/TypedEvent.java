@@ -17,6 +17,9 @@
 
 package org.apache.hadoop.hdds.server.events;
 
+import java.util.Objects;
+import java.util.function.Function;
+
 /**
  * Basic event implementation to implement custom events.
  *
@@ -28,14 +31,47 @@
 
   private final String name;
 
+  private final int queueCapacity;
+
+  private final EventOverflowPolicy overflowPolicy;
+
+  private final Function<T, ?> coalescingKey;
+
   public TypedEvent(Class<T> payloadType, String name) {
-    this.payloadType = payloadType;
-    this.name = name;
+    this(payloadType, name, 0, EventOverflowPolicy.BLOCK);
   }
 
   public TypedEvent(Class<T> payloadType) {
+    this(payloadType, payloadType.getSimpleName());
+  }
+
+  /**
+   * Create an event whose handlers have a bounded queue.
+   *
+   * @param queueCapacity max number of pending payloads per handler, zero
+   *                      or negative means unbounded.
+   * @param overflowPolicy what to do when the queue is full.
+   */
+  public TypedEvent(Class<T> payloadType, String name, int queueCapacity,
+      EventOverflowPolicy overflowPolicy) {
+    this(payloadType, name, queueCapacity, overflowPolicy,
+        Function.identity());
+  }
+
+  /**
+   * Create an event whose handlers have a bounded queue, the pending
+   * payloads are coalesced by the given key if the policy is
+   * {@link EventOverflowPolicy#COALESCE_BY_KEY}.
+   */
+  public TypedEvent(Class<T> payloadType, String name, int queueCapacity,
+      EventOverflowPolicy overflowPolicy, Function<T, ?> coalescingKey) {
     this.payloadType = payloadType;
-    this.name = payloadType.getSimpleName();
+    this.name = name;
+    this.queueCapacity = queueCapacity;
+    this.overflowPolicy = Objects.requireNonNull(overflowPolicy,
+        "overflowPolicy == null");
+    this.coalescingKey = Objects.requireNonNull(coalescingKey,
+        "coalescingKey == null");
   }
 
   @Override
@@ -48,6 +84,21 @@ public String getName() {
     return name;
   }
 
+  @Override
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  @Override
+  public EventOverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  @Override
+  public Object getCoalescingKey(T payload) {
+    return coalescingKey.apply(payload);
+  }
+
   @Override
   public String toString() {
     return "TypedEvent{" +
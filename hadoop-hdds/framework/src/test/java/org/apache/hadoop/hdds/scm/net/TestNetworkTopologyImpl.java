@@ -31,7 +31,9 @@
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -52,6 +54,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -287,6 +290,61 @@ void testAncestor(NodeSchema[] schemas, Node[] nodeArray) {
         maxLevel - 1));
   }
 
+  @ParameterizedTest
+  @MethodSource("topologies")
+  void testSnapshot(NodeSchema[] schemas, Node[] nodeArray) {
+    initNetworkTopology(schemas, nodeArray);
+    NetworkTopologyImpl topology = (NetworkTopologyImpl) cluster;
+    NetworkTopologySnapshot snapshot = topology.getSnapshot();
+    assertEquals(dataNodes.length, snapshot.getNumOfLeaves());
+    // the snapshot is reused as long as the topology does not change
+    assertSame(snapshot, topology.getSnapshot());
+
+    for (Node node1 : dataNodes) {
+      for (Node node2 : dataNodes) {
+        int index1 = snapshot.getIndex(node1);
+        int index2 = snapshot.getIndex(node2);
+        assertEquals(Objects.equals(node1.getParent(), node2.getParent()),
+            snapshot.isSameParent(index1, index2));
+        assertEquals(getDistanceCostByTree(node1, node2),
+            snapshot.getDistanceCost(index1, index2));
+      }
+    }
+
+    // copies of the nodes, as passed by placement policies, are found too
+    for (Node node : dataNodes) {
+      Node copy = new NodeImpl(node.getNetworkName(),
+          node.getNetworkLocation(), node.getCost());
+      assertEquals(snapshot.getIndex(node), snapshot.getIndex(copy));
+      assertEquals(getDistanceCostByTree(node, dataNodes[0]),
+          cluster.getDistanceCost(copy, dataNodes[0]));
+    }
+
+    cluster.remove(dataNodes[0]);
+    NetworkTopologySnapshot updated = topology.getSnapshot();
+    assertNotSame(snapshot, updated);
+    assertEquals(dataNodes.length - 1, updated.getNumOfLeaves());
+    assertEquals(-1, updated.getIndex(dataNodes[0]));
+
+    // published by the change, not rebuilt by queries
+    cluster.add(dataNodes[0]);
+    NetworkTopologySnapshot added = topology.getSnapshot();
+    assertNotSame(updated, added);
+    assertSame(added, topology.getSnapshot());
+    assertEquals(dataNodes.length, added.getNumOfLeaves());
+    assertNotEquals(-1, added.getIndex(dataNodes[0]));
+  }
+
+  private static int getDistanceCostByTree(Node node1, Node node2) {
+    int cost = 0;
+    while (node1 != node2) {
+      node1 = node1.getParent();
+      node2 = node2.getParent();
+      cost += node1.getCost() + node2.getCost();
+    }
+    return cost;
+  }
+
   @ParameterizedTest
   @MethodSource("topologies")
   void testAddRemove(NodeSchema[] schemas, Node[] nodeArray) {
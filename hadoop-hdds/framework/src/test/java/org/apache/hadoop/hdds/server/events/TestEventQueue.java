@@ -19,6 +19,8 @@
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -27,9 +29,13 @@
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.ozone.test.GenericTestUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -197,4 +203,116 @@ public void multipleSubscriber() {
     assertEquals(23, result[1]);
 
   }
+
+  @Test
+  public void boundedQueueDropOldest() throws Exception {
+    Event<Long> event = new TypedEvent<>(Long.class, "SCM_EVENT_DROP", 2,
+        EventOverflowPolicy.DROP_OLDEST);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Long> processed = new CopyOnWriteArrayList<>();
+    queue.addHandler(event, (payload, publisher) -> {
+      if (payload == 0L) {
+        blocked.countDown();
+        awaitQuietly(release);
+      }
+      processed.add(payload);
+    });
+
+    queue.fireEvent(event, 0L);
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+    for (long i = 1; i <= 4; i++) {
+      queue.fireEvent(event, i);
+    }
+    assertEquals(2, queue.getBacklog(event));
+    assertTrue(queue.isOverloaded(event));
+
+    release.countDown();
+    queue.processAll(10000);
+    assertThat(processed).containsExactly(0L, 3L, 4L);
+    assertFalse(queue.isOverloaded(event));
+
+    EventExecutor executor =
+        queue.getExecutorAndHandler(event).keySet().iterator().next();
+    assertEquals(2, executor.droppedEvents());
+  }
+
+  @Test
+  public void boundedQueueCoalesceByKey() throws Exception {
+    Event<Long> event = new TypedEvent<>(Long.class, "SCM_EVENT_COALESCE", 0,
+        EventOverflowPolicy.COALESCE_BY_KEY, payload -> payload % 10);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Long> processed = new CopyOnWriteArrayList<>();
+    queue.addHandler(event, (payload, publisher) -> {
+      if (payload == 0L) {
+        blocked.countDown();
+        awaitQuietly(release);
+      }
+      processed.add(payload);
+    });
+
+    queue.fireEvent(event, 0L);
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+    queue.fireEvent(event, 1L);
+    queue.fireEvent(event, 2L);
+    queue.fireEvent(event, 11L);
+    queue.fireEvent(event, 21L);
+    assertEquals(2, queue.getBacklog(event));
+    assertFalse(queue.isOverloaded(event));
+
+    release.countDown();
+    queue.processAll(10000);
+    // The latest payload of a key keeps the place of the first one.
+    assertThat(processed).containsExactly(0L, 21L, 2L);
+
+    EventExecutor executor =
+        queue.getExecutorAndHandler(event).keySet().iterator().next();
+    assertEquals(2, executor.coalescedEvents());
+  }
+
+  @Test
+  public void boundedQueueBlocksPublisher() throws Exception {
+    Event<Long> event = new TypedEvent<>(Long.class, "SCM_EVENT_BLOCK", 1,
+        EventOverflowPolicy.BLOCK);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Long> processed = new CopyOnWriteArrayList<>();
+    queue.addHandler(event, (payload, publisher) -> {
+      if (payload == 0L) {
+        blocked.countDown();
+        awaitQuietly(release);
+      }
+      processed.add(payload);
+    });
+
+    queue.fireEvent(event, 0L);
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+    queue.fireEvent(event, 1L);
+    assertTrue(queue.isOverloaded(event));
+
+    CountDownLatch published = new CountDownLatch(1);
+    Thread publisher = new Thread(() -> {
+      queue.fireEvent(event, 2L);
+      published.countDown();
+    });
+    publisher.start();
+    // the publisher waits for space in the queue
+    GenericTestUtils.waitFor(
+        () -> publisher.getState() == Thread.State.WAITING, 10, 10000);
+    assertEquals(1, published.getCount());
+
+    release.countDown();
+    assertTrue(published.await(10, TimeUnit.SECONDS));
+    queue.processAll(10000);
+    assertThat(processed).containsExactly(0L, 1L, 2L);
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
 }
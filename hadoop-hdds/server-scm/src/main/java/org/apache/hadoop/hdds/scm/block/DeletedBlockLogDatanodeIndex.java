@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.block;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.hadoop.hdds.protocol.DatanodeID;
+
+/**
+ * An in-memory secondary index of the deleted block log keyed by datanode.
+ * <p>
+ * For every datanode the index keeps a bounded queue of the IDs of pending
+ * {@link org.apache.hadoop.hdds.protocol.proto.StorageContainerDatanodeProtocolProtos.DeletedBlocksTransaction}s
+ * whose container has a replica on that datanode, ordered by transaction ID.
+ * The queues are filled when transactions are added to the log, refilled by
+ * an incremental scan of the log when they run low, and pruned when a
+ * datanode acknowledges a transaction or it is removed from the log. This allows
+ * {@link DeletedBlockLogImpl} to pick the next transactions of each
+ * datanode without re-reading the whole log in every interval.
+ * <p>
+ * The index is only maintained by the leader SCM and it is never persisted,
+ * it is cleared on leader change and rebuilt lazily from the log.
+ */
+public class DeletedBlockLogDatanodeIndex {
+
+  private final int capacityPerDatanode;
+  // Pending transaction IDs mapped to a certain datanode ID.
+  private final Map<DatanodeID, NavigableSet<Long>> datanodeQueues =
+      new HashMap<>();
+  // Reverse mapping, used to remove a transaction from all its queues.
+  private final Map<Long, Set<DatanodeID>> transactionToDatanodes =
+      new HashMap<>();
+  // Datanodes for which the last full scan of the log did not find enough
+  // transactions. All their transactions are indexed, new ones are indexed
+  // on insert, so there is no point to scan the log again for them until a
+  // transaction does not fit in their queue.
+  private final Set<DatanodeID> exhaustedDatanodes = new HashSet<>();
+  // Datanodes for which the current scan has indexed every transaction
+  // since it started from the beginning of the log.
+  private final Set<DatanodeID> scanDatanodes = new HashSet<>();
+  // The last transaction ID read by the refill scan.
+  private long scanCursor = -1;
+
+  public DeletedBlockLogDatanodeIndex(int capacityPerDatanode) {
+    Preconditions.checkArgument(capacityPerDatanode > 0,
+        "Capacity per datanode should be positive.");
+    this.capacityPerDatanode = capacityPerDatanode;
+  }
+
+  /**
+   * Adds the given transaction to the queues of the given datanodes, unless
+   * the queue of a datanode is already full.
+   *
+   * @return true if the transaction was added to at least one queue.
+   */
+  public synchronized boolean add(long txID, Collection<DatanodeID> dnIds) {
+    boolean added = false;
+    for (DatanodeID dnId : dnIds) {
+      final NavigableSet<Long> queue =
+          datanodeQueues.computeIfAbsent(dnId, k -> new TreeSet<>());
+      if (queue.size() < capacityPerDatanode) {
+        if (queue.add(txID)) {
+          transactionToDatanodes.computeIfAbsent(txID, k -> new HashSet<>())
+              .add(dnId);
+          added = true;
+        }
+      } else if (!queue.contains(txID)) {
+        // Dropped, the log has to be scanned again to find it.
+        exhaustedDatanodes.remove(dnId);
+        scanDatanodes.remove(dnId);
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Removes the given transaction from the queues of all datanodes.
+   */
+  public synchronized void remove(long txID) {
+    final Set<DatanodeID> dnIds = transactionToDatanodes.remove(txID);
+    if (dnIds == null) {
+      return;
+    }
+    for (DatanodeID dnId : dnIds) {
+      final NavigableSet<Long> queue = datanodeQueues.get(dnId);
+      if (queue != null) {
+        queue.remove(txID);
+        if (queue.isEmpty()) {
+          datanodeQueues.remove(dnId);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes the given transaction from the queue of the given datanode,
+   * when the datanode has acknowledged it.
+   */
+  public synchronized void remove(long txID, DatanodeID dnId) {
+    final Set<DatanodeID> dnIds = transactionToDatanodes.get(txID);
+    if (dnIds == null || !dnIds.remove(dnId)) {
+      return;
+    }
+    if (dnIds.isEmpty()) {
+      transactionToDatanodes.remove(txID);
+    }
+    final NavigableSet<Long> queue = datanodeQueues.get(dnId);
+    if (queue != null) {
+      queue.remove(txID);
+      if (queue.isEmpty()) {
+        datanodeQueues.remove(dnId);
+      }
+    }
+  }
+
+  public synchronized void removeAll(Collection<Long> txIDs) {
+    txIDs.forEach(this::remove);
+  }
+
+  /**
+   * @return a snapshot of the pending transaction IDs of the given datanode,
+   * in ascending order.
+   */
+  public synchronized List<Long> getTransactionIDs(DatanodeID dnId) {
+    final NavigableSet<Long> queue = datanodeQueues.get(dnId);
+    return queue == null ? new ArrayList<>() : new ArrayList<>(queue);
+  }
+
+  public synchronized int getQueueSize(DatanodeID dnId) {
+    final NavigableSet<Long> queue = datanodeQueues.get(dnId);
+    return queue == null ? 0 : queue.size();
+  }
+
+  public synchronized boolean isFull(DatanodeID dnId) {
+    return getQueueSize(dnId) >= capacityPerDatanode;
+  }
+
+  /**
+   * A refill is needed if any of the given datanodes has less than half of
+   * its queue capacity indexed, and the last scan did not already show that
+   * the log has no more transactions for it.
+   */
+  public synchronized boolean needsRefill(Collection<DatanodeID> dnIds) {
+    for (DatanodeID dnId : dnIds) {
+      if (!exhaustedDatanodes.contains(dnId)
+          && getQueueSize(dnId) < (capacityPerDatanode + 1) / 2) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Called when the refill scan starts from the beginning of the log, for
+   * the datanodes it is refilling.
+   */
+  public synchronized void startScan(Collection<DatanodeID> dnIds) {
+    scanDatanodes.clear();
+    scanDatanodes.addAll(dnIds);
+  }
+
+  /**
+   * Called when the refill scan reached the end of the log. The datanodes
+   * it has been refilling since the start, which still have free space in
+   * their queues, have no more transactions.
+   */
+  public synchronized void finishScan() {
+    for (DatanodeID dnId : scanDatanodes) {
+      if (!isFull(dnId)) {
+        exhaustedDatanodes.add(dnId);
+      }
+    }
+    scanDatanodes.clear();
+    scanCursor = -1;
+  }
+
+  public synchronized long getScanCursor() {
+    return scanCursor;
+  }
+
+  public synchronized void setScanCursor(long txID) {
+    this.scanCursor = txID;
+  }
+
+  /**
+   * @return the number of distinct transactions in the index.
+   */
+  public synchronized int size() {
+    return transactionToDatanodes.size();
+  }
+
+  public synchronized void clear() {
+    datanodeQueues.clear();
+    transactionToDatanodes.clear();
+    exhaustedDatanodes.clear();
+    scanDatanodes.clear();
+    scanCursor = -1;
+  }
+}
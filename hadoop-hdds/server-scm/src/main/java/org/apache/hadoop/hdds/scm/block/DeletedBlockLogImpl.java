@@ -19,6 +19,10 @@
 
 import static org.apache.hadoop.hdds.scm.ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_DISTRIBUTION_FACTOR;
 import static org.apache.hadoop.hdds.scm.ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_DISTRIBUTION_FACTOR_DEFAULT;
+import static org.apache.hadoop.hdds.scm.ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY;
+import static org.apache.hadoop.hdds.scm.ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY_DEFAULT;
+import static org.apache.hadoop.hdds.scm.ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED;
+import static org.apache.hadoop.hdds.scm.ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED_DEFAULT;
 import static org.apache.hadoop.hdds.scm.block.SCMDeletedBlockTransactionStatusManager.SCMDeleteBlocksCommandStatusManager.CmdStatus;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -26,6 +30,7 @@
 import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -73,6 +78,11 @@
  * of each transaction so as long as transaction is still valid, they get
  * equally same chance to be retrieved which only depends on the nature
  * order of the transaction ID.
+ * <p>
+ * When {@link ScmConfigKeys#OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED}
+ * is set, the transactions are picked per datanode from a
+ * {@link DeletedBlockLogDatanodeIndex} instead, and the log is only scanned
+ * to refill the index.
  */
 public class DeletedBlockLogImpl
     implements DeletedBlockLog, EventHandler<DeleteBlockStatus> {
@@ -126,7 +136,15 @@ public DeletedBlockLogImpl(ConfigurationSource conf,
     int deletionFactor = conf.getInt(OZONE_SCM_BLOCK_DELETION_PER_DN_DISTRIBUTION_FACTOR,
         OZONE_SCM_BLOCK_DELETION_PER_DN_DISTRIBUTION_FACTOR_DEFAULT);
     this.deletionFactorPerDatanode = deletionFactor <= 0 ? 1 : deletionFactor;
-
+    if (conf.getBoolean(OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED,
+        OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED_DEFAULT)) {
+      int capacity = conf.getInt(OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY,
+          OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY_DEFAULT);
+      transactionStatusManager.setDatanodeIndex(
+          new DeletedBlockLogDatanodeIndex(capacity <= 0
+              ? OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY_DEFAULT
+              : capacity));
+    }
   }
 
   @VisibleForTesting
@@ -328,11 +346,11 @@ private Boolean checkInadequateReplica(Set<ContainerReplica> replicas,
   }
 
   private void addTxToTxSizeMap(DeletedBlocksTransaction tx) {
-    if (tx.hasTotalBlockReplicatedSize()) {
-      transactionStatusManager.getTxSizeMap().put(tx.getTxID(),
-          new SCMDeletedBlockTransactionStatusManager.TxBlockInfo(tx.getLocalIDCount(),
-              tx.getTotalBlockSize(), tx.getTotalBlockReplicatedSize()));
-    }
+    // Transactions without sizes are kept too, to count reclaimed blocks.
+    transactionStatusManager.getTxSizeMap().put(tx.getTxID(),
+        new SCMDeletedBlockTransactionStatusManager.TxBlockInfo(tx.getLocalIDCount(),
+            tx.getTotalBlockSize(), tx.getTotalBlockReplicatedSize(),
+            tx.hasTotalBlockReplicatedSize()));
   }
 
   @Override
@@ -349,34 +367,6 @@ public DatanodeDeletedBlockTransactions getTransactions(
           new DatanodeDeletedBlockTransactions();
       try (Table.KeyValueIterator<Long, DeletedBlocksTransaction> iter =
                deletedBlockLogStateManager.getReadOnlyIterator()) {
-        if (lastProcessedTransactionId != -1) {
-          iter.seek(lastProcessedTransactionId);
-          /*
-           * We should start from (lastProcessedTransactionId + 1) transaction.
-           * Now the iterator (iter.next call) is pointing at
-           * lastProcessedTransactionId, read the current value to move
-           * the cursor.
-           */
-          if (iter.hasNext()) {
-            /*
-             * There is a possibility that the lastProcessedTransactionId got
-             * deleted from the table, in that case we have to set
-             * lastProcessedTransactionId to next available transaction in the table.
-             *
-             * By doing this there is a chance that we will skip processing the new
-             * lastProcessedTransactionId, that should be ok. We can get to it in the
-             * next run.
-             */
-            lastProcessedTransactionId = iter.next().getKey();
-          }
-
-          // If we have reached the end, go to beginning.
-          if (!iter.hasNext()) {
-            iter.seekToFirst();
-            lastProcessedTransactionId = -1;
-          }
-        }
-
         // Get the CmdStatus status of the aggregation, so that the current
         // status of the specified transaction can be found faster
         final Map<DatanodeID, Map<Long, CmdStatus>> commandStatus =
@@ -385,65 +375,23 @@ public DatanodeDeletedBlockTransactions getTransactions(
                 map(DatanodeDetails::getID).collect(Collectors.toSet()));
         ArrayList<Long> txIDs = new ArrayList<>();
         metrics.setNumBlockDeletionTransactionDataNodes(dnList.size());
-        Table.KeyValue<Long, DeletedBlocksTransaction> keyValue = null;
 
         int factor = dnList.size() / deletionFactorPerDatanode;
         int maxDeleteBlocksPerDatanode = (factor > 0)
             ? Math.min(blockDeletionLimit, blockDeletionLimit / factor)
             : blockDeletionLimit;
 
-        // Here takes block replica count as the threshold to avoid the case
-        // that part of replicas committed the TXN and recorded in the
-        // SCMDeletedBlockTransactionStatusManager, while they are counted
-        // in the threshold.
-        while (iter.hasNext() &&
-            transactions.getBlocksDeleted() < blockDeletionLimit) {
-          keyValue = iter.next();
-          DeletedBlocksTransaction txn = keyValue.getValue();
-          final ContainerID id = ContainerID.valueOf(txn.getContainerID());
-          try {
-            final ContainerInfo container = containerManager.getContainer(id);
-            // HDDS-7126. When container is under replicated, it is possible
-            // that container is deleted, but transactions are not deleted.
-            if (container.isDeleted()) {
-              LOG.warn("Container: {} was deleted for the transaction: {}.", id, txn);
-              txIDs.add(txn.getTxID());
-              addTxToTxSizeMap(txn);
-            } else if (!container.isOpen()) {
-              Set<ContainerReplica> replicas = containerManager
-                  .getContainerReplicas(
-                      ContainerID.valueOf(txn.getContainerID()));
-              if (!checkInadequateReplica(replicas, txn, dnList)) {
-                getTransaction(txn, transactions, replicas, commandStatus, maxDeleteBlocksPerDatanode);
-              } else {
-                metrics.incrSkippedTransaction();
-              }
-            } else if (containerManager.getContainer(id).isOpen()) {
-              metrics.incrSkippedTransaction();
-            }
-          } catch (ContainerNotFoundException ex) {
-            LOG.warn("Container: {} was not found for the transaction: {}.", id, txn);
-            txIDs.add(txn.getTxID());
-            addTxToTxSizeMap(txn);
-          }
-
-          if (lastProcessedTransactionId == keyValue.getKey()) {
-            // We have circled back to the last transaction.
-            break;
-          }
-
-          if (!iter.hasNext() && lastProcessedTransactionId != -1) {
-            /*
-             * We started from in-between and reached end of the table,
-             * now we should go to the start of the table and process
-             * the transactions.
-             */
-            iter.seekToFirst();
-          }
+        final DeletedBlockLogDatanodeIndex datanodeIndex =
+            transactionStatusManager.getDatanodeIndex();
+        if (datanodeIndex != null) {
+          getTransactionsFromIndex(datanodeIndex, iter, transactions,
+              blockDeletionLimit, dnList, commandStatus,
+              maxDeleteBlocksPerDatanode, txIDs);
+        } else {
+          getTransactionsByScan(iter, transactions, blockDeletionLimit,
+              dnList, commandStatus, maxDeleteBlocksPerDatanode, txIDs);
         }
 
-        lastProcessedTransactionId = keyValue != null ? keyValue.getKey() : -1;
-
         if (!txIDs.isEmpty()) {
           transactionStatusManager.removeTransactions(txIDs);
           getSCMDeletedBlockTransactionStatusManager().removeTransactionFromDNsCommitMap(txIDs);
@@ -457,6 +405,206 @@ public DatanodeDeletedBlockTransactions getTransactions(
     }
   }
 
+  /**
+   * Checks a single transaction read from the log and adds it to the
+   * datanodes holding its replicas if it can be sent.
+   * Transactions of deleted or missing containers are added to txIDs,
+   * so that they are removed from the log.
+   */
+  private void processTransaction(DeletedBlocksTransaction txn,
+      DatanodeDeletedBlockTransactions transactions,
+      Set<DatanodeDetails> dnList,
+      Map<DatanodeID, Map<Long, CmdStatus>> commandStatus,
+      int maxDeleteBlocksPerDatanode, List<Long> txIDs) throws IOException {
+    final ContainerID id = ContainerID.valueOf(txn.getContainerID());
+    try {
+      final ContainerInfo container = containerManager.getContainer(id);
+      // HDDS-7126. When container is under replicated, it is possible
+      // that container is deleted, but transactions are not deleted.
+      if (container.isDeleted()) {
+        LOG.warn("Container: {} was deleted for the transaction: {}.", id, txn);
+        txIDs.add(txn.getTxID());
+        addTxToTxSizeMap(txn);
+      } else if (!container.isOpen()) {
+        Set<ContainerReplica> replicas = containerManager
+            .getContainerReplicas(
+                ContainerID.valueOf(txn.getContainerID()));
+        if (!checkInadequateReplica(replicas, txn, dnList)) {
+          getTransaction(txn, transactions, replicas, commandStatus, maxDeleteBlocksPerDatanode);
+        } else {
+          metrics.incrSkippedTransaction();
+        }
+      } else if (containerManager.getContainer(id).isOpen()) {
+        metrics.incrSkippedTransaction();
+      }
+    } catch (ContainerNotFoundException ex) {
+      LOG.warn("Container: {} was not found for the transaction: {}.", id, txn);
+      txIDs.add(txn.getTxID());
+      addTxToTxSizeMap(txn);
+    }
+  }
+
+  private void getTransactionsByScan(
+      Table.KeyValueIterator<Long, DeletedBlocksTransaction> iter,
+      DatanodeDeletedBlockTransactions transactions,
+      int blockDeletionLimit, Set<DatanodeDetails> dnList,
+      Map<DatanodeID, Map<Long, CmdStatus>> commandStatus,
+      int maxDeleteBlocksPerDatanode, List<Long> txIDs) throws IOException {
+    if (lastProcessedTransactionId != -1) {
+      iter.seek(lastProcessedTransactionId);
+      /*
+       * We should start from (lastProcessedTransactionId + 1) transaction.
+       * Now the iterator (iter.next call) is pointing at
+       * lastProcessedTransactionId, read the current value to move
+       * the cursor.
+       */
+      if (iter.hasNext()) {
+        /*
+         * There is a possibility that the lastProcessedTransactionId got
+         * deleted from the table, in that case we have to set
+         * lastProcessedTransactionId to next available transaction in the table.
+         *
+         * By doing this there is a chance that we will skip processing the new
+         * lastProcessedTransactionId, that should be ok. We can get to it in the
+         * next run.
+         */
+        lastProcessedTransactionId = iter.next().getKey();
+      }
+
+      // If we have reached the end, go to beginning.
+      if (!iter.hasNext()) {
+        iter.seekToFirst();
+        lastProcessedTransactionId = -1;
+      }
+    }
+
+    Table.KeyValue<Long, DeletedBlocksTransaction> keyValue = null;
+    // Here takes block replica count as the threshold to avoid the case
+    // that part of replicas committed the TXN and recorded in the
+    // SCMDeletedBlockTransactionStatusManager, while they are counted
+    // in the threshold.
+    while (iter.hasNext() &&
+        transactions.getBlocksDeleted() < blockDeletionLimit) {
+      keyValue = iter.next();
+      processTransaction(keyValue.getValue(), transactions, dnList,
+          commandStatus, maxDeleteBlocksPerDatanode, txIDs);
+
+      if (lastProcessedTransactionId == keyValue.getKey()) {
+        // We have circled back to the last transaction.
+        break;
+      }
+
+      if (!iter.hasNext() && lastProcessedTransactionId != -1) {
+        /*
+         * We started from in-between and reached end of the table,
+         * now we should go to the start of the table and process
+         * the transactions.
+         */
+        iter.seekToFirst();
+      }
+    }
+
+    lastProcessedTransactionId = keyValue != null ? keyValue.getKey() : -1;
+  }
+
+  /**
+   * Picks the next transactions of every datanode from the per-datanode
+   * index, the log is only read for the picked transactions, and up to
+   * blockDeletionLimit transactions of it are scanned if the index of any of
+   * the datanodes runs low.
+   */
+  @SuppressWarnings("checkstyle:ParameterNumber")
+  private void getTransactionsFromIndex(
+      DeletedBlockLogDatanodeIndex datanodeIndex,
+      Table.KeyValueIterator<Long, DeletedBlocksTransaction> iter,
+      DatanodeDeletedBlockTransactions transactions,
+      int blockDeletionLimit, Set<DatanodeDetails> dnList,
+      Map<DatanodeID, Map<Long, CmdStatus>> commandStatus,
+      int maxDeleteBlocksPerDatanode, List<Long> txIDs) throws IOException {
+    final List<DatanodeID> dnIds = dnList.stream()
+        .map(DatanodeDetails::getID)
+        .collect(Collectors.toList());
+    if (datanodeIndex.needsRefill(dnIds)) {
+      refillIndex(datanodeIndex, iter, dnIds, txIDs, blockDeletionLimit);
+    }
+
+    final Set<Long> visited = new HashSet<>(txIDs);
+    for (DatanodeID dnId : dnIds) {
+      for (long txID : datanodeIndex.getTransactionIDs(dnId)) {
+        if (transactions.getBlocksDeleted() >= blockDeletionLimit) {
+          return;
+        }
+        if (transactions.getNumberOfBlocksForDatanode(dnId)
+            >= maxDeleteBlocksPerDatanode) {
+          break;
+        }
+        if (!visited.add(txID)) {
+          continue;
+        }
+        final Table.KeyValue<Long, DeletedBlocksTransaction> keyValue =
+            iter.seek(txID);
+        if (keyValue == null || keyValue.getKey() != txID) {
+          // Not flushed to the DB yet, or being removed.
+          continue;
+        }
+        // The transaction stays indexed until the datanode acknowledges it
+        // or it is removed from the log, skipped or failed transactions are
+        // picked again in the next round.
+        processTransaction(keyValue.getValue(), transactions, dnList,
+            commandStatus, maxDeleteBlocksPerDatanode, txIDs);
+      }
+    }
+  }
+
+  /**
+   * Scans at most scanLimit transactions of the log from the position where
+   * the previous refill stopped, or until the queues of all the given
+   * datanodes are full. The next refill continues from there, so the log is
+   * visited in several rounds without holding the lock for a full scan.
+   */
+  private void refillIndex(DeletedBlockLogDatanodeIndex datanodeIndex,
+      Table.KeyValueIterator<Long, DeletedBlocksTransaction> iter,
+      List<DatanodeID> dnIds, List<Long> txIDs, int scanLimit)
+      throws IOException {
+    final long startCursor = datanodeIndex.getScanCursor();
+    if (startCursor == -1) {
+      datanodeIndex.startScan(dnIds);
+      iter.seekToFirst();
+    } else {
+      iter.seek(startCursor + 1);
+    }
+    long cursor = startCursor;
+    for (int scanned = 0; scanned < scanLimit; scanned++) {
+      if (!iter.hasNext()) {
+        // The whole log has been visited.
+        datanodeIndex.finishScan();
+        return;
+      }
+      final Table.KeyValue<Long, DeletedBlocksTransaction> keyValue =
+          iter.next();
+      final long txID = keyValue.getKey();
+      cursor = txID;
+      final DeletedBlocksTransaction txn = keyValue.getValue();
+      final ContainerID id = ContainerID.valueOf(txn.getContainerID());
+      try {
+        // Datanodes which already acknowledged the transaction do not need it.
+        datanodeIndex.add(txID, containerManager.getContainerReplicas(id)
+            .stream()
+            .map(replica -> replica.getDatanodeDetails().getID())
+            .filter(dnId -> !transactionStatusManager.alreadyExecuted(dnId, txID))
+            .collect(Collectors.toSet()));
+      } catch (ContainerNotFoundException ex) {
+        LOG.warn("Container: {} was not found for the transaction: {}.", id, txn);
+        txIDs.add(txID);
+        addTxToTxSizeMap(txn);
+      }
+      if (dnIds.stream().allMatch(datanodeIndex::isFull)) {
+        break;
+      }
+    }
+    datanodeIndex.setScanCursor(cursor);
+  }
+
   public void setScmCommandTimeoutMs(long scmCommandTimeoutMs) {
     this.scmCommandTimeoutMs = scmCommandTimeoutMs;
   }
@@ -469,6 +617,7 @@ public void setScmCommandTimeoutMs(long scmCommandTimeoutMs) {
 
   @VisibleForTesting
   public void setSCMDeletedBlockTransactionStatusManager(SCMDeletedBlockTransactionStatusManager manager) {
+    manager.setDatanodeIndex(transactionStatusManager.getDatanodeIndex());
     this.transactionStatusManager = manager;
   }
 
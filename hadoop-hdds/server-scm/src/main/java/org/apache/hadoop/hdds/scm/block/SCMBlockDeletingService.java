@@ -153,6 +153,7 @@ public EmptyTaskResult call() throws Exception {
       }
 
       long startTime = Time.monotonicNow();
+      metrics.updateReclamationThroughput(startTime);
       // Scan SCM DB in HB interval and collect a throttled list of
       // to delete blocks.
 
@@ -80,6 +80,8 @@ public class SCMDeletedBlockTransactionStatusManager {
   private final ContainerManager containerManager;
   private final ScmBlockDeletingServiceMetrics metrics;
   private final long scmCommandTimeoutMs;
+  // Optional per-datanode index of the pending transactions.
+  private DeletedBlockLogDatanodeIndex datanodeIndex;
 
   private Table<String, ByteString> statefulConfigTable;
   public static final HddsProtos.DeletedBlocksTransactionSummary EMPTY_SUMMARY =
@@ -424,6 +426,9 @@ public void onBecomeLeader() {
     scmDeleteBlocksCommandStatusManager.clear();
     transactionToDNsCommitMap.clear();
     txSizeMap.clear();
+    if (datanodeIndex != null) {
+      datanodeIndex.clear();
+    }
     try {
       initDataDistributionData();
     } catch (IOException e) {
@@ -449,17 +454,28 @@ boolean isDuplication(DatanodeID datanodeID, long tx, Map<DatanodeID, Map<Long,
     return inProcessing(datanodeID, tx, commandStatus);
   }
 
-  private boolean alreadyExecuted(DatanodeID dnId, long txId) {
+  boolean alreadyExecuted(DatanodeID dnId, long txId) {
     final Set<DatanodeID> dnsWithTransactionCommitted = transactionToDNsCommitMap.get(txId);
     return dnsWithTransactionCommitted != null && dnsWithTransactionCommitted
         .contains(dnId);
   }
 
+  void setDatanodeIndex(DeletedBlockLogDatanodeIndex datanodeIndex) {
+    this.datanodeIndex = datanodeIndex;
+  }
+
+  DeletedBlockLogDatanodeIndex getDatanodeIndex() {
+    return datanodeIndex;
+  }
+
   @VisibleForTesting
   public void addTransactions(ArrayList<DeletedBlocksTransaction> txList) throws IOException {
     if (txList.isEmpty()) {
       return;
     }
+    if (datanodeIndex != null) {
+      indexTransactions(txList);
+    }
     if (VersionedDatanodeFeatures.isFinalized(HDDSLayoutFeature.STORAGE_SPACE_DISTRIBUTION) &&
         !disableDataDistributionForTest) {
       for (DeletedBlocksTransaction tx: txList) {
@@ -473,6 +489,23 @@ public void addTransactions(ArrayList<DeletedBlocksTransaction> txList) throws I
     deletedBlockLogStateManager.addTransactionsToDB(txList);
   }
 
+  private void indexTransactions(List<DeletedBlocksTransaction> txList) {
+    for (DeletedBlocksTransaction tx : txList) {
+      try {
+        final Set<DatanodeID> dnIds = containerManager
+            .getContainerReplicas(ContainerID.valueOf(tx.getContainerID()))
+            .stream()
+            .map(replica -> replica.getDatanodeDetails().getID())
+            .collect(Collectors.toSet());
+        datanodeIndex.add(tx.getTxID(), dnIds);
+      } catch (IOException e) {
+        // The transaction will be indexed by the next refill scan.
+        LOG.debug("Failed to index transaction {} of container {}",
+            tx.getTxID(), tx.getContainerID(), e);
+      }
+    }
+  }
+
   private void incrDeletedBlocksSummary(DeletedBlocksTransaction tx) {
     totalTxCount.addAndGet(1);
     totalBlockCount.addAndGet(tx.getLocalIDCount());
@@ -485,14 +518,22 @@ public void removeTransactions(ArrayList<Long> txIDs) throws IOException {
     if (txIDs.isEmpty()) {
       return;
     }
-    if (VersionedDatanodeFeatures.isFinalized(HDDSLayoutFeature.STORAGE_SPACE_DISTRIBUTION) &&
-        !disableDataDistributionForTest) {
-      for (Long txID: txIDs) {
-        TxBlockInfo txBlockInfo = txSizeMap.remove(txID);
-        if (txBlockInfo != null) {
+    if (datanodeIndex != null) {
+      datanodeIndex.removeAll(txIDs);
+    }
+    final boolean summaryEnabled = VersionedDatanodeFeatures.isFinalized(
+        HDDSLayoutFeature.STORAGE_SPACE_DISTRIBUTION) && !disableDataDistributionForTest;
+    for (Long txID: txIDs) {
+      TxBlockInfo txBlockInfo = txSizeMap.remove(txID);
+      if (txBlockInfo != null) {
+        if (summaryEnabled && txBlockInfo.hasSize()) {
           descDeletedBlocksSummary(txBlockInfo);
         }
+        metrics.incrBlockDeletionReclaimed(txBlockInfo.getTotalBlockCount(),
+            txBlockInfo.getTotalReplicatedBlockSize());
       }
+    }
+    if (summaryEnabled) {
       deletedBlockLogStateManager.removeTransactionsFromDB(txIDs, getSummary());
       return;
     }
@@ -536,6 +577,9 @@ public void commitTransactions(List<DeleteBlockTransactionResult> transactionRes
         }
 
         dnsWithCommittedTxn.add(dnId);
+        if (datanodeIndex != null) {
+          datanodeIndex.remove(txID, dnId);
+        }
         final ContainerInfo container =
             containerManager.getContainer(containerId);
         final Set<ContainerReplica> replicas =
@@ -709,11 +753,24 @@ public static class TxBlockInfo {
     private long totalBlockCount;
     private long totalBlockSize;
     private long totalReplicatedBlockSize;
+    // False for transactions created by OMs which do not send block sizes,
+    // these are only counted in the reclaimed blocks metric.
+    private final boolean hasSize;
 
     public TxBlockInfo(long blockCount, long blockSize, long replicatedSize) {
+      this(blockCount, blockSize, replicatedSize, true);
+    }
+
+    TxBlockInfo(long blockCount, long blockSize, long replicatedSize,
+        boolean hasSize) {
       this.totalBlockCount = blockCount;
       this.totalBlockSize = blockSize;
       this.totalReplicatedBlockSize = replicatedSize;
+      this.hasSize = hasSize;
+    }
+
+    public boolean hasSize() {
+      return hasSize;
     }
 
     public long getTotalBlockCount() {
@@ -100,6 +100,27 @@ public final class ScmBlockDeletingServiceMetrics implements MetricsSource {
   @Metric(about = "Total blocks sent to DN for deletion.")
   private MutableGaugeLong numBlockAddedForDeletionToDN;
 
+  @Metric(about = "The number of blocks of completed txs, which are " +
+      "reclaimed on all replicas.")
+  private MutableCounterLong numBlockDeletionBlocksReclaimed;
+
+  @Metric(about = "The replicated size of blocks of completed txs, which " +
+      "are reclaimed on all replicas.")
+  private MutableCounterLong numBlockDeletionBytesReclaimed;
+
+  @Metric(about = "Blocks reclaimed per second in the last interval of the " +
+      "block deleting service.")
+  private MutableGaugeLong blockDeletionBlocksReclaimedPerSecond;
+
+  @Metric(about = "Replicated bytes reclaimed per second in the last " +
+      "interval of the block deleting service.")
+  private MutableGaugeLong blockDeletionBytesReclaimedPerSecond;
+
+  // Snapshot of the reclaimed counters, used to compute the throughput.
+  private long lastReclaimedBlocks;
+  private long lastReclaimedBytes;
+  private long lastReclaimedUpdateTime = -1;
+
   private final Map<DatanodeID, DatanodeCommandDetails> numCommandsDatanode = new ConcurrentHashMap<>();
 
   private static final MetricsInfo NUM_BLOCK_DELETION_TRANSACTIONS = Interns.info(
@@ -215,6 +236,32 @@ public void incrTotalBlockSentToDNForDeletion(long count) {
     this.numBlockAddedForDeletionToDN.incr(count);
   }
 
+  public void incrBlockDeletionReclaimed(long blocks, long bytes) {
+    this.numBlockDeletionBlocksReclaimed.incr(blocks);
+    this.numBlockDeletionBytesReclaimed.incr(bytes);
+  }
+
+  /**
+   * Updates the cluster-wide reclamation throughput with the blocks
+   * reclaimed since the previous call.
+   *
+   * @param nowMillis current monotonic time in milliseconds.
+   */
+  public synchronized void updateReclamationThroughput(long nowMillis) {
+    final long blocks = numBlockDeletionBlocksReclaimed.value();
+    final long bytes = numBlockDeletionBytesReclaimed.value();
+    if (lastReclaimedUpdateTime >= 0 && nowMillis > lastReclaimedUpdateTime) {
+      final long elapsed = nowMillis - lastReclaimedUpdateTime;
+      blockDeletionBlocksReclaimedPerSecond.set(
+          (blocks - lastReclaimedBlocks) * 1000 / elapsed);
+      blockDeletionBytesReclaimedPerSecond.set(
+          (bytes - lastReclaimedBytes) * 1000 / elapsed);
+    }
+    lastReclaimedBlocks = blocks;
+    lastReclaimedBytes = bytes;
+    lastReclaimedUpdateTime = nowMillis;
+  }
+
   public long getNumBlockDeletionCommandSent() {
     return numBlockDeletionCommandSent.value();
   }
@@ -259,6 +306,22 @@ public long getNumBlockDeletionTransactionDataNodes() {
     return numBlockDeletionTransactionDataNodes.value();
   }
 
+  public long getNumBlockDeletionBlocksReclaimed() {
+    return numBlockDeletionBlocksReclaimed.value();
+  }
+
+  public long getNumBlockDeletionBytesReclaimed() {
+    return numBlockDeletionBytesReclaimed.value();
+  }
+
+  public long getBlockDeletionBlocksReclaimedPerSecond() {
+    return blockDeletionBlocksReclaimedPerSecond.value();
+  }
+
+  public long getBlockDeletionBytesReclaimedPerSecond() {
+    return blockDeletionBytesReclaimedPerSecond.value();
+  }
+
   @Override
   public void getMetrics(MetricsCollector metricsCollector, boolean all) {
     MetricsRecordBuilder builder = metricsCollector.addRecord(SOURCE_NAME);
@@ -274,6 +337,10 @@ public void getMetrics(MetricsCollector metricsCollector, boolean all) {
     numProcessedTransactions.snapshot(builder, all);
     numBlockDeletionTransactionDataNodes.snapshot(builder, all);
     numBlockAddedForDeletionToDN.snapshot(builder, all);
+    numBlockDeletionBlocksReclaimed.snapshot(builder, all);
+    numBlockDeletionBytesReclaimed.snapshot(builder, all);
+    blockDeletionBlocksReclaimedPerSecond.snapshot(builder, all);
+    blockDeletionBytesReclaimedPerSecond.snapshot(builder, all);
 
     // add metrics for deleted block transaction summary
     HddsProtos.DeletedBlocksTransactionSummary summary = blockManager.getDeletedBlockLog().getTransactionSummary();
@@ -431,6 +498,10 @@ public String toString() {
         .append(numBlockDeletionTransactionFailureOnDatanodes.value()).append('\t')
         .append("numBlockAddedForDeletionToDN = ")
         .append(numBlockAddedForDeletionToDN.value()).append('\t')
+        .append("numBlockDeletionBlocksReclaimed = ")
+        .append(numBlockDeletionBlocksReclaimed.value()).append('\t')
+        .append("numBlockDeletionBytesReclaimed = ")
+        .append(numBlockDeletionBytesReclaimed.value()).append('\t')
         .append("numDeletionCommandsPerDatanode = ").append(numCommandsDatanode);
     return buffer.toString();
   }
@@ -77,7 +77,9 @@
  * holds the Container States in-memory which is backed by a persistent store.
  * The persistent store is always kept in sync with the in-memory state changes.
  *
- * This class is NOT thread safe. All the calls are idempotent.
+ * The queries do not take any lock, they read the concurrent maps of
+ * {@link ContainerStateMap} directly. The updates are serialized by the
+ * global and the striped locks. All the calls are idempotent.
  */
 public final class ContainerStateManagerImpl
     implements ContainerStateManager {
@@ -97,8 +99,9 @@
 
   /**
    * In-memory representation of Container States.
+   * Replaced as a whole by {@link #reinitialize}.
    */
-  private ContainerStateMap containers;
+  private volatile ContainerStateMap containers;
 
   /**
    * Persistent store for Container States.
@@ -282,51 +285,37 @@ private void initialize() throws IOException {
 
   @Override
   public List<ContainerID> getContainerIDs(LifeCycleState state, ContainerID start, int count) {
-    try (AutoCloseableLock ignored = readLock()) {
-      return containers.getContainerIDs(state, start, count);
-    }
+    return containers.getContainerIDs(state, start, count);
   }
 
   @Override
   public List<ContainerInfo> getContainerInfos(ContainerID start, int count) {
-    try (AutoCloseableLock ignored = readLock()) {
-      return containers.getContainerInfos(start, count);
-    }
+    return containers.getContainerInfos(start, count);
   }
 
   @Override
   public List<ContainerInfo> getContainerInfos(LifeCycleState state, ContainerID start, int count) {
-    try (AutoCloseableLock ignored = readLock()) {
-      return containers.getContainerInfos(state, start, count);
-    }
+    return containers.getContainerInfos(state, start, count);
   }
 
   @Override
   public List<ContainerInfo> getContainerInfos(final LifeCycleState state) {
-    try (AutoCloseableLock ignored = readLock()) {
-      return containers.getContainerInfos(state);
-    }
+    return containers.getContainerInfos(state);
   }
 
   @Override
   public List<ContainerInfo> getContainerInfos(ReplicationType type) {
-    try (AutoCloseableLock ignored = readLock()) {
-      return containers.getContainerInfos(type);
-    }
+    return containers.getContainerInfos(type);
   }
 
   @Override
   public int getContainerCount(final LifeCycleState state) {
-    try (AutoCloseableLock ignored = readLock()) {
-      return containers.getContainerCount(state);
-    }
+    return containers.getContainerCount(state);
   }
 
   @Override
   public ContainerInfo getContainer(final ContainerID id) {
-    try (AutoCloseableLock ignored = readLock(id)) {
-      return containers.getContainerInfo(id);
-    }
+    return containers.getContainerInfo(id);
   }
 
   @Override
@@ -380,9 +369,7 @@ public void addContainer(final ContainerInfoProto containerInfo)
 
   @Override
   public boolean contains(ContainerID id) {
-    try (AutoCloseableLock ignored = readLock(id)) {
-      return containers.contains(id);
-    }
+    return containers.contains(id);
   }
 
   @Override
@@ -456,9 +443,7 @@ public void transitionDeletingOrDeletedToTargetState(HddsProtos.ContainerID cont
 
   @Override
   public Set<ContainerReplica> getContainerReplicas(final ContainerID id) {
-    try (AutoCloseableLock ignored = readLock(id)) {
-      return containers.getContainerReplicas(id);
-    }
+    return containers.getContainerReplicas(id);
   }
 
   @Override
@@ -553,12 +538,11 @@ private ContainerInfo findContainerWithSpace(final long size,
                                                    searchSet) {
       // Get the container with space to meet our request.
     for (ContainerID id : searchSet) {
-      try (AutoCloseableLock ignored = readLock(id)) {
-        final ContainerInfo containerInfo = containers.getContainerInfo(id);
-        if (containerInfo.getUsedBytes() + size <= this.containerSize) {
-          containerInfo.updateLastUsedTime();
-          return containerInfo;
-        }
+      final ContainerInfo containerInfo = containers.getContainerInfo(id);
+      if (containerInfo != null
+          && containerInfo.getUsedBytes() + size <= this.containerSize) {
+        containerInfo.updateLastUsedTime();
+        return containerInfo;
       }
     }
     return null;
@@ -607,18 +591,10 @@ public void updateContainerInfo(HddsProtos.ContainerInfoProto updatedInfoProto)
     }
   }
 
-  private AutoCloseableLock readLock() {
-    return AutoCloseableLock.acquire(lock.readLock());
-  }
-
   private AutoCloseableLock writeLock() {
     return AutoCloseableLock.acquire(lock.writeLock());
   }
 
-  private AutoCloseableLock readLock(ContainerID id) {
-    return AutoCloseableLock.acquire(stripedLock.get(id).readLock());
-  }
-
   private AutoCloseableLock writeLock(ContainerID id) {
     return AutoCloseableLock.acquire(stripedLock.get(id).writeLock());
   }
@@ -27,7 +27,8 @@
 import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hadoop.hdds.scm.container.ContainerID;
 import org.apache.hadoop.hdds.scm.container.ContainerInfo;
 import org.apache.hadoop.hdds.scm.exceptions.SCMException;
@@ -49,7 +50,7 @@
  * container size --say we make it 10GB average size, then we can deal with a
  * cluster size of 1.5 exa bytes with the same metadata in SCMs memory.
  * <p>
- * Please note: **This class is not thread safe**. This used to be thread safe,
+ * Please note: **Writers are not thread safe**. This used to be thread safe,
  * while bench marking we found that ContainerStateMap would be taking 5
  * locks for a single container insert. If we remove locks in this class,
  * then we are able to perform about 540K operations per second, with the
@@ -57,12 +58,19 @@
  * are going to rely on ContainerStateMap locks to maintain consistency of
  * data in these classes too, since ContainerAttribute is only used by
  * ContainerStateMap class.
+ * <p>
+ * Readers do not need any lock. Each attribute bucket is a concurrent
+ * sorted map, so readers see a weakly consistent view of a bucket while
+ * writers are updating it. A container moved by
+ * {@link #update} may be briefly missing from both buckets.
  *
  * @param <T> Attribute type
  */
 public class ContainerAttribute<T extends Enum<T>> {
   private final Class<T> attributeClass;
   private final ImmutableMap<T, NavigableMap<ContainerID, ContainerInfo>> attributeMap;
+  // Size of each bucket, since the size of a concurrent map is not O(1).
+  private final ImmutableMap<T, AtomicInteger> counts;
 
   /**
    * Create an empty Container Attribute map.
@@ -71,10 +79,13 @@ public ContainerAttribute(Class<T> attributeClass) {
     this.attributeClass = attributeClass;
 
     final EnumMap<T, NavigableMap<ContainerID, ContainerInfo>> map = new EnumMap<>(attributeClass);
+    final EnumMap<T, AtomicInteger> sizes = new EnumMap<>(attributeClass);
     for (T t : attributeClass.getEnumConstants()) {
-      map.put(t, new TreeMap<>());
+      map.put(t, new ConcurrentSkipListMap<>());
+      sizes.put(t, new AtomicInteger());
     }
     this.attributeMap = Maps.immutableEnumMap(map);
+    this.counts = Maps.immutableEnumMap(sizes);
   }
 
   /**
@@ -85,6 +96,7 @@ public void addNonExisting(T key, ContainerInfo info) {
     Objects.requireNonNull(info, "value == null");
     final ContainerInfo previous = get(key).put(info.containerID(), info);
     Preconditions.assertNull(previous, "previous");
+    counts.get(key).incrementAndGet();
   }
 
   /**
@@ -94,6 +106,7 @@ public void addNonExisting(T key, ContainerInfo info) {
    */
   public void clearSet(T key) {
     get(key).clear();
+    counts.get(key).set(0);
   }
 
   /**
@@ -102,7 +115,11 @@ public void clearSet(T key) {
    */
   public ContainerInfo remove(T key, ContainerID id) {
     Objects.requireNonNull(id, "id == null");
-    return get(key).remove(id);
+    final ContainerInfo removed = get(key).remove(id);
+    if (removed != null) {
+      counts.get(key).decrementAndGet();
+    }
+    return removed;
   }
 
   /** Remove an existing {@link ContainerInfo}. */
@@ -139,7 +156,8 @@ public SortedMap<ContainerID, ContainerInfo> tailMap(T key, ContainerID start) {
   }
 
   public int count(T key) {
-    return get(key).size();
+    Objects.requireNonNull(key, "key == null");
+    return counts.get(key).get();
   }
 
   /**
@@ -34,7 +34,9 @@
 public class ContainerEntry {
   private final ContainerInfo info;
   private final Map<DatanodeID, ContainerReplica> replicasMap = new TreeMap<>();
-  private Set<ContainerReplica> replicas = Collections.emptySet();
+  // Immutable copy of replicasMap, replaced on every change so that it can
+  // be read without holding a lock.
+  private volatile Set<ContainerReplica> replicas = Collections.emptySet();
 
   ContainerEntry(ContainerInfo info) {
     this.info = info;
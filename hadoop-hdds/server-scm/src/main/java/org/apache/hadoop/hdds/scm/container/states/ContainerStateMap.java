@@ -67,7 +67,9 @@
  * <p>
  * All the calls are idempotent.
  * <p>
- * This class is NOT thread-safe.
+ * The update methods of this class are NOT thread-safe, they must be
+ * serialized by the caller. The query methods can be called concurrently
+ * with the updates without any lock.
  */
 public class ContainerStateMap {
   private static final Logger LOG =
@@ -30,6 +30,7 @@
 import org.apache.hadoop.hdds.scm.server.SCMDatanodeHeartbeatDispatcher.PipelineReportFromDatanode;
 import org.apache.hadoop.hdds.scm.server.SCMDatanodeProtocolServer.NodeRegistrationContainerReport;
 import org.apache.hadoop.hdds.server.events.Event;
+import org.apache.hadoop.hdds.server.events.EventOverflowPolicy;
 import org.apache.hadoop.hdds.server.events.TypedEvent;
 import org.apache.hadoop.ozone.protocol.commands.CommandForDatanode;
 
@@ -41,9 +42,13 @@ public final class SCMEvents {
   /**
    * NodeReports are  sent out by Datanodes. This report is received by
    * SCMDatanodeHeartbeatDispatcher and NodeReport Event is generated.
+   * A pending report is replaced by a newer report of the same datanode,
+   * so at most one report per datanode is queued.
    */
   public static final TypedEvent<NodeReportFromDatanode> NODE_REPORT =
-      new TypedEvent<>(NodeReportFromDatanode.class, "Node_Report");
+      new TypedEvent<>(NodeReportFromDatanode.class, "Node_Report", 0,
+          EventOverflowPolicy.COALESCE_BY_KEY,
+          report -> report.getDatanodeDetails().getID());
 
   /**
    * After node manager processes a COMMAND_QUEUE_REPORT it fires
@@ -97,9 +102,13 @@ public final class SCMEvents {
   /**
    * PipelineReports are send out by Datanodes. This report is received by
    * SCMDatanodeHeartbeatDispatcher and Pipeline_Report Event is generated.
+   * A pending report is replaced by a newer report of the same datanode,
+   * so at most one report per datanode is queued.
    */
   public static final TypedEvent<PipelineReportFromDatanode> PIPELINE_REPORT =
-          new TypedEvent<>(PipelineReportFromDatanode.class, "Pipeline_Report");
+      new TypedEvent<>(PipelineReportFromDatanode.class, "Pipeline_Report", 0,
+          EventOverflowPolicy.COALESCE_BY_KEY,
+          report -> report.getDatanodeDetails().getID());
 
   /**
    * Open pipeline event sent by PipelineReportHandler. This event is
@@ -127,6 +127,8 @@ public List<SCMCommand<?>> dispatch(SCMHeartbeatRequestProto heartbeat) {
 
       if (heartbeat.hasContainerReport()) {
         LOG.debug("Dispatching Container Report.");
+        // Not skipped when the queue of the datanode is full: the heartbeat
+        // fails, and the datanode sends the report again with the next one.
         eventPublisher.fireEvent(
             CONTAINER_REPORT,
             new ContainerReportFromDatanode(
@@ -21,6 +21,8 @@
 import static org.apache.hadoop.ozone.common.BlockGroup.SIZE_NOT_AVAILABLE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.Mockito.any;
@@ -753,6 +755,145 @@ public void testDeletedBlockTransactions() throws IOException {
     assertEquals(2, blocks.size());
   }
 
+  @Test
+  public void testGetTransactionsFromDatanodeIndex() throws Exception {
+    conf.setBoolean(ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED, true);
+    conf.setInt(ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY, 4);
+    deletedBlockLog = new DeletedBlockLogImpl(conf,
+        scm,
+        containerManager,
+        scmHADBTransactionBuffer,
+        metrics);
+    deletedBlockLog.setScmCommandTimeoutMs(Long.MAX_VALUE);
+    mockContainerHealthResult(true);
+    int txNum = 10;
+    addTransactions(generateData(txNum), true);
+
+    DeletedBlockLogDatanodeIndex index = deletedBlockLog
+        .getSCMDeletedBlockTransactionStatusManager().getDatanodeIndex();
+    // New transactions are indexed on insert, up to the capacity.
+    assertEquals(4, index.size());
+
+    // Every round sends the indexed transactions, the log is scanned
+    // to refill the index once it runs low.
+    Set<Long> sentTxIDs = new HashSet<>();
+    List<DeletedBlocksTransaction> blocks =
+        getTransactions(txNum * BLOCKS_PER_TXN * THREE);
+    while (!blocks.isEmpty()) {
+      assertThat(blocks.size()).isLessThanOrEqualTo(4 * THREE);
+      blocks.forEach(tx -> sentTxIDs.add(tx.getTxID()));
+      commitTransactions(blocks);
+      blocks = getTransactions(txNum * BLOCKS_PER_TXN * THREE);
+    }
+    assertEquals(txNum, sentTxIDs.size());
+    assertEquals(0, index.size());
+    assertEquals(0, deletedBlockLog.getNumOfValidTransactions());
+  }
+
+  @Test
+  public void testDatanodeIndexResendsSkippedAndFailedTransactions()
+      throws Exception {
+    conf.setBoolean(ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED, true);
+    conf.setInt(ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY, 4);
+    deletedBlockLog = new DeletedBlockLogImpl(conf,
+        scm,
+        containerManager,
+        scmHADBTransactionBuffer,
+        metrics);
+    deletedBlockLog.setScmCommandTimeoutMs(Long.MAX_VALUE);
+    addTransactions(generateData(2), true);
+
+    // Transactions of unhealthy containers are skipped, the index is
+    // refilled and the whole log is visited meanwhile.
+    mockContainerHealthResult(false);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, deletedBlockLog.getTransactions(Integer.MAX_VALUE,
+          new HashSet<>(dnList)).getDatanodeTransactionMap().size());
+    }
+
+    // Skipped transactions are sent once the containers are healthy.
+    mockContainerHealthResult(true);
+    DatanodeDeletedBlockTransactions transactions =
+        deletedBlockLog.getTransactions(Integer.MAX_VALUE, new HashSet<>(dnList));
+    assertEquals(2, transactions.getDatanodeTransactionMap().values().stream()
+        .flatMap(List::stream)
+        .map(DeletedBlocksTransaction::getTxID)
+        .distinct()
+        .count());
+
+    // Failed transactions are sent again.
+    createDeleteBlocksCommandAndAction(transactions, (dnId, command) -> {
+      recordScmCommandToStatusManager(dnId, command);
+      sendSCMDeleteBlocksCommand(dnId, command);
+      commitSCMCommandStatus(command.getId(), dnId,
+          StorageContainerDatanodeProtocolProtos.CommandStatus.Status.FAILED);
+    });
+    deletedBlockLog.setScmCommandTimeoutMs(-1L);
+    DatanodeDeletedBlockTransactions transactions2 =
+        deletedBlockLog.getTransactions(Integer.MAX_VALUE, new HashSet<>(dnList));
+    assertContainsAllTransactions(transactions2, transactions);
+  }
+
+  @Test
+  public void testDatanodeIndexRefillIsBounded() throws Exception {
+    conf.setBoolean(ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_ENABLED, true);
+    conf.setInt(ScmConfigKeys.OZONE_SCM_BLOCK_DELETION_PER_DN_INDEX_CAPACITY, 100);
+    deletedBlockLog = new DeletedBlockLogImpl(conf,
+        scm,
+        containerManager,
+        scmHADBTransactionBuffer,
+        metrics);
+    deletedBlockLog.setScmCommandTimeoutMs(Long.MAX_VALUE);
+    mockContainerHealthResult(true);
+    int txNum = 10;
+    addTransactions(generateData(txNum), true);
+
+    DeletedBlockLogDatanodeIndex index = deletedBlockLog
+        .getSCMDeletedBlockTransactionStatusManager().getDatanodeIndex();
+    // Rebuild the index from the log, as after a leader change.
+    index.clear();
+
+    // Each round scans at most as many transactions as the block limit.
+    int limit = 3;
+    deletedBlockLog.getTransactions(limit, new HashSet<>(dnList));
+    assertEquals(limit, index.size());
+    assertNotEquals(-1, index.getScanCursor());
+    deletedBlockLog.getTransactions(limit, new HashSet<>(dnList));
+    assertEquals(2 * limit, index.size());
+
+    // The datanodes are exhausted only once the scan reaches the end.
+    List<DatanodeID> dnIds = dnList.stream()
+        .map(DatanodeDetails::getID)
+        .collect(Collectors.toList());
+    while (index.getScanCursor() != -1 || index.size() < txNum) {
+      assertTrue(index.needsRefill(dnIds));
+      deletedBlockLog.getTransactions(limit, new HashSet<>(dnList));
+    }
+    assertEquals(txNum, index.size());
+    assertFalse(index.needsRefill(dnIds));
+  }
+
+  @Test
+  public void testReclaimedBlocksCountedWithoutDataDistribution()
+      throws Exception {
+    SCMDeletedBlockTransactionStatusManager.setDisableDataDistributionForTest(true);
+    try {
+      mockContainerHealthResult(true);
+      int txNum = 4;
+      addTransactions(generateData(txNum), true);
+      List<DeletedBlocksTransaction> blocks = getAllTransactions();
+      assertEquals(txNum, blocks.stream()
+          .map(DeletedBlocksTransaction::getTxID).distinct().count());
+      commitTransactions(blocks);
+
+      assertEquals(0, deletedBlockLog.getNumOfValidTransactions());
+      assertEquals(txNum * BLOCKS_PER_TXN,
+          metrics.getNumBlockDeletionBlocksReclaimed());
+    } finally {
+      SCMDeletedBlockTransactionStatusManager.setDisableDataDistributionForTest(false);
+    }
+  }
+
   @ParameterizedTest
   @ValueSource(ints = {30, 45})
   public void testGetTransactionsWithMaxBlocksPerDatanode(int maxAllowedBlockNum) throws IOException {
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.block;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.hadoop.hdds.protocol.DatanodeID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link DeletedBlockLogDatanodeIndex}.
+ */
+public class TestDeletedBlockLogDatanodeIndex {
+
+  private final DatanodeID dn1 = DatanodeID.randomID();
+  private final DatanodeID dn2 = DatanodeID.randomID();
+
+  @Test
+  public void testAddAndRemove() {
+    DeletedBlockLogDatanodeIndex index = new DeletedBlockLogDatanodeIndex(10);
+    assertTrue(index.add(3, Arrays.asList(dn1, dn2)));
+    assertTrue(index.add(1, Collections.singletonList(dn1)));
+    assertEquals(2, index.size());
+    assertEquals(Arrays.asList(1L, 3L), index.getTransactionIDs(dn1));
+    assertEquals(Collections.singletonList(3L), index.getTransactionIDs(dn2));
+
+    index.remove(3);
+    assertEquals(1, index.size());
+    assertEquals(Collections.singletonList(1L), index.getTransactionIDs(dn1));
+    assertTrue(index.getTransactionIDs(dn2).isEmpty());
+  }
+
+  @Test
+  public void testRemoveAcknowledged() {
+    DeletedBlockLogDatanodeIndex index = new DeletedBlockLogDatanodeIndex(10);
+    index.add(1, Arrays.asList(dn1, dn2));
+    // Acknowledged by dn1, still pending on dn2.
+    index.remove(1, dn1);
+    assertEquals(1, index.size());
+    assertTrue(index.getTransactionIDs(dn1).isEmpty());
+    assertEquals(Collections.singletonList(1L), index.getTransactionIDs(dn2));
+
+    index.remove(1, dn2);
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  public void testCapacityPerDatanode() {
+    DeletedBlockLogDatanodeIndex index = new DeletedBlockLogDatanodeIndex(2);
+    assertTrue(index.add(1, Arrays.asList(dn1, dn2)));
+    assertTrue(index.add(2, Collections.singletonList(dn1)));
+    assertTrue(index.isFull(dn1));
+    // dn1 is full, the transaction is only indexed for dn2.
+    assertTrue(index.add(3, Arrays.asList(dn1, dn2)));
+    assertFalse(index.add(4, Arrays.asList(dn1, dn2)));
+    assertEquals(Arrays.asList(1L, 2L), index.getTransactionIDs(dn1));
+    assertEquals(Arrays.asList(1L, 3L), index.getTransactionIDs(dn2));
+  }
+
+  @Test
+  public void testRefill() {
+    DeletedBlockLogDatanodeIndex index = new DeletedBlockLogDatanodeIndex(4);
+    List<DatanodeID> dnIds = Arrays.asList(dn1, dn2);
+    assertTrue(index.needsRefill(dnIds));
+    index.add(1, dnIds);
+    index.add(2, dnIds);
+    assertFalse(index.needsRefill(dnIds));
+
+    // No more transactions in the log for the datanodes.
+    index.removeAll(Arrays.asList(1L, 2L));
+    index.startScan(dnIds);
+    index.setScanCursor(2);
+    index.finishScan();
+    assertEquals(-1, index.getScanCursor());
+    assertFalse(index.needsRefill(dnIds));
+
+    // New transactions are indexed on insert, no refill is needed for them.
+    index.add(5, Collections.singletonList(dn1));
+    assertFalse(index.needsRefill(dnIds));
+
+    // A transaction which does not fit in the queue needs a refill later.
+    for (long txID = 6; txID < 10; txID++) {
+      index.add(txID, Collections.singletonList(dn1));
+    }
+    index.removeAll(Arrays.asList(5L, 6L, 7L, 8L));
+    assertTrue(index.needsRefill(Collections.singletonList(dn1)));
+    assertFalse(index.needsRefill(Collections.singletonList(dn2)));
+
+    // Datanodes which joined the scan after it started are not exhausted.
+    index.clear();
+    index.startScan(Collections.singletonList(dn1));
+    index.finishScan();
+    assertFalse(index.needsRefill(Collections.singletonList(dn1)));
+    assertTrue(index.needsRefill(Collections.singletonList(dn2)));
+
+    index.clear();
+    assertEquals(0, index.size());
+    assertEquals(-1, index.getScanCursor());
+    assertTrue(index.needsRefill(dnIds));
+  }
+}
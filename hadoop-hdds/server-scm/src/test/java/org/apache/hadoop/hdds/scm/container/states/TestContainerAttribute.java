@@ -24,6 +24,8 @@
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.hadoop.hdds.scm.container.ContainerID;
 import org.apache.hadoop.hdds.scm.container.ContainerInfo;
 import org.apache.hadoop.hdds.scm.exceptions.SCMException;
@@ -122,5 +124,53 @@ public void tesUpdate() throws SCMException {
         () -> containerAttribute.update(key3, key1, id));
   }
 
+  @Test
+  public void testCount() throws SCMException {
+    ContainerAttribute<Key> containerAttribute = new ContainerAttribute<>(Key.class);
+    for (int x = 1; x < 11; x++) {
+      ContainerInfo info = new ContainerInfo.Builder().setContainerID(x).build();
+      containerAttribute.addNonExisting(key1, info);
+    }
+    assertEquals(10, containerAttribute.count(key1));
+    assertEquals(0, containerAttribute.count(key2));
+
+    containerAttribute.update(key1, key2, ContainerID.valueOf(1));
+    containerAttribute.remove(key1, ContainerID.valueOf(2));
+    // Removing a non-existing container does not change the count.
+    containerAttribute.remove(key1, ContainerID.valueOf(2));
+    assertEquals(8, containerAttribute.count(key1));
+    assertEquals(1, containerAttribute.count(key2));
+
+    containerAttribute.clearSet(key1);
+    assertEquals(0, containerAttribute.count(key1));
+  }
+
+  @Test
+  public void testReadWhileUpdating() throws Exception {
+    ContainerAttribute<Key> containerAttribute = new ContainerAttribute<>(Key.class);
+    for (int x = 1; x < 1001; x++) {
+      ContainerInfo info = new ContainerInfo.Builder().setContainerID(x).build();
+      containerAttribute.addNonExisting(key1, info);
+    }
+
+    // Readers do not take any lock while the writer moves containers.
+    AtomicBoolean done = new AtomicBoolean();
+    CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+      while (!done.get()) {
+        assertThat(containerAttribute.getCollection(key1).size()).isLessThanOrEqualTo(1000);
+        containerAttribute.tailMap(key2, ContainerID.valueOf(500)).keySet()
+            .forEach(id -> assertThat(id.getId()).isGreaterThanOrEqualTo(500));
+      }
+    });
+    for (int x = 1; x < 1001; x++) {
+      containerAttribute.update(key1, key2, ContainerID.valueOf(x));
+    }
+    done.set(true);
+    reader.get();
+
+    assertEquals(0, containerAttribute.count(key1));
+    assertEquals(1000, containerAttribute.count(key2));
+  }
+
   enum Key { K1, K2, K3 }
 }
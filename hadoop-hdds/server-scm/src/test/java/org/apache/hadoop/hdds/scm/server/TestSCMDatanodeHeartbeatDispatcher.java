@@ -22,6 +22,7 @@
 import static org.apache.hadoop.hdds.scm.events.SCMEvents.CONTAINER_REPORT;
 import static org.apache.hadoop.hdds.scm.events.SCMEvents.NODE_REPORT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
@@ -139,6 +140,41 @@ public <PAYLOAD, EVENT extends Event<PAYLOAD>> void fireEvent(
 
   }
 
+  /**
+   * A container report which does not fit in the queue fails the heartbeat,
+   * so that the datanode sends it again, instead of being dropped.
+   */
+  @Test
+  public void testContainerReportQueueFull() {
+    NodeManager mockNodeManager = mock(NodeManager.class);
+    when(mockNodeManager.isNodeRegistered(any()))
+        .thenReturn(true);
+
+    SCMDatanodeHeartbeatDispatcher dispatcher =
+        new SCMDatanodeHeartbeatDispatcher(
+            mockNodeManager,
+            new EventPublisher() {
+              @Override
+              public <PAYLOAD, EVENT extends Event<PAYLOAD>> void fireEvent(
+                  EVENT event, PAYLOAD payload) {
+                throw new IllegalStateException("capacity not available");
+              }
+
+              @Override
+              public <PAYLOAD> boolean isOverloaded(Event<PAYLOAD> event) {
+                return true;
+              }
+            });
+
+    SCMHeartbeatRequestProto heartbeat =
+        SCMHeartbeatRequestProto.newBuilder()
+            .setDatanodeDetails(randomDatanodeDetails().getProtoBufMessage())
+            .setContainerReport(ContainerReportsProto.getDefaultInstance())
+            .build();
+    assertThrows(IllegalStateException.class,
+        () -> dispatcher.dispatch(heartbeat));
+  }
+
   /**
    * Asserts scm informs datanodes to re-register on a restart.
    *
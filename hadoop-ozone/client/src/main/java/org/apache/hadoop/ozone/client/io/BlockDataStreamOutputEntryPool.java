@@ -64,6 +64,7 @@ public class BlockDataStreamOutputEntryPool implements KeyMetadataAware {
   private final ExcludeList excludeList;
   private List<StreamBuffer> bufferList;
   private ContainerBlockID lastUpdatedBlockId = new ContainerBlockID(-1, -1);
+  private Runnable commitListener;
 
   @SuppressWarnings({"parameternumber", "squid:S00107"})
   public BlockDataStreamOutputEntryPool(
@@ -241,6 +242,10 @@ private void allocateNewBlock() throws IOException {
     addKeyLocationInfo(subKeyInfo);
   }
 
+  void setCommitListener(Runnable listener) {
+    this.commitListener = listener;
+  }
+
   void commitKey(long offset) throws IOException {
     if (keyArgs != null) {
       // in test, this could be null
@@ -256,6 +261,9 @@ void commitKey(long offset) throws IOException {
             omClient.commitMultipartUploadPart(buildKeyArgs(), openID);
       } else {
         omClient.commitKey(buildKeyArgs(), openID);
+        if (commitListener != null) {
+          commitListener.run();
+        }
       }
     } else {
       LOG.warn("Closing KeyDataStreamOutput, but key args is null");
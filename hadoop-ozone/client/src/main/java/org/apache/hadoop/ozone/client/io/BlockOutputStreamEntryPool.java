@@ -39,6 +39,7 @@
 import org.apache.hadoop.hdds.scm.container.common.helpers.ExcludeList;
 import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
 import org.apache.hadoop.hdds.scm.storage.BufferPool;
+import org.apache.hadoop.hdds.scm.storage.WriteBufferArena;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
@@ -88,6 +89,7 @@ public class BlockOutputStreamEntryPool implements KeyMetadataAware {
   private final ContainerClientMetrics clientMetrics;
   private final StreamBufferArgs streamBufferArgs;
   private final Supplier<ExecutorService> executorServiceSupplier;
+  private final Runnable commitListener;
   // update blocks on OM
   private ContainerBlockID lastUpdatedBlockId = new ContainerBlockID(-1, -1);
 
@@ -113,9 +115,11 @@ public BlockOutputStreamEntryPool(KeyOutputStream.Builder b) {
             (int) (streamBufferArgs.getStreamBufferMaxSize() / streamBufferArgs
                 .getStreamBufferSize()),
             ByteStringConversion
-                .createByteBufferConversion(b.isUnsafeByteBufferConversionEnabled()));
+                .createByteBufferConversion(b.isUnsafeByteBufferConversionEnabled()),
+            WriteBufferArena.get(b.getClientConfig()));
     this.clientMetrics = b.getClientMetrics();
     this.executorServiceSupplier = b.getExecutorServiceSupplier();
+    this.commitListener = b.getCommitListener();
   }
 
   ExcludeList createExcludeList() {
@@ -321,27 +325,54 @@ void commitKey(long offset) throws IOException {
       long length = getKeyLength();
       Preconditions.checkArgument(offset == length,
           "Expected offset: " + offset + " expected len: " + length);
-      keyArgs.setDataSize(length);
-      keyArgs.setLocationInfoList(getLocationInfoList());
-      // When the key is multipart upload part file upload, we should not
-      // commit the key, as this is not an actual key, this is a just a
-      // partial key of a large file.
-      if (keyArgs.getIsMultipartKey()) {
-        commitUploadPartInfo =
-            omClient.commitMultipartUploadPart(buildKeyArgs(), openID);
-      } else {
-        omClient.commitKey(buildKeyArgs(), openID);
-      }
+      commitKey(length, getLocationInfoList());
     } else {
       LOG.warn("Closing KeyOutputStream, but key args is null");
     }
   }
 
+  /**
+   * Commits the key with Ozone Manager(s) as the given blocks, which were
+   * written outside of the stream entries of this pool.
+   * @param length total length of the key.
+   * @param locations the blocks of the key, in order.
+   * @throws IOException in case there is an I/O problem during communication.
+   */
+  void commitKey(long length, List<OmKeyLocationInfo> locations)
+      throws IOException {
+    keyArgs.setDataSize(length);
+    keyArgs.setLocationInfoList(locations);
+    // When the key is multipart upload part file upload, we should not
+    // commit the key, as this is not an actual key, this is a just a
+    // partial key of a large file.
+    if (keyArgs.getIsMultipartKey()) {
+      commitUploadPartInfo =
+          omClient.commitMultipartUploadPart(buildKeyArgs(), openID);
+    } else {
+      omClient.commitKey(buildKeyArgs(), openID);
+      if (commitListener != null) {
+        commitListener.run();
+      }
+    }
+  }
+
   void hsyncKey(long offset) throws IOException {
+    hsyncKey(offset, getLocationInfoList());
+  }
+
+  /**
+   * Makes the key visible to readers as the given blocks, which were
+   * written outside of the stream entries of this pool.
+   * @param length length of the key synced.
+   * @param locations the blocks of the key written so far, in order.
+   * @throws IOException in case there is an I/O problem during communication.
+   */
+  void hsyncKey(long length, List<OmKeyLocationInfo> locations)
+      throws IOException {
     if (keyArgs != null) {
       // in test, this could be null
-      keyArgs.setDataSize(offset);
-      keyArgs.setLocationInfoList(getLocationInfoList());
+      keyArgs.setDataSize(length);
+      keyArgs.setLocationInfoList(locations);
       // When the key is multipart upload part file upload, we should not
       // commit the key, as this is not an actual key, this is a just a
       // partial key of a large file.
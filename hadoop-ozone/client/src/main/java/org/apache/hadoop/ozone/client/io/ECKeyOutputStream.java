@@ -23,6 +23,7 @@
 import java.io.IOException;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -33,6 +34,7 @@
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -56,6 +58,13 @@
 /**
  * ECKeyOutputStream handles the EC writes by writing the data into underlying
  * block output streams chunk by chunk.
+ * <p>
+ * Stripes are written in a pipeline of three stages: the caller fills a
+ * stripe, a background thread encodes its parity cells, and another one
+ * writes the cells to the datanodes. The stripes are recycled through a ring
+ * of at most {@code 2 * ozone.client.ec.stripe.queue.size + 3} buffers, one
+ * being filled, encoded and written each plus the ones queued between the
+ * stages, so memory stays bounded while the stages overlap.
  */
 public final class ECKeyOutputStream extends KeyOutputStream
     implements KeyMetadataAware {
@@ -64,14 +73,21 @@ public final class ECKeyOutputStream extends KeyOutputStream
 
   private OzoneClientConfig config;
   private ECChunkBuffers ecChunkBufferCache;
+  private final BlockingQueue<ECChunkBuffers> ecEncodeQueue;
   private final BlockingQueue<ECChunkBuffers> ecStripeQueue;
+  private final BlockingQueue<ECChunkBuffers> freeStripes;
+  private final List<ECChunkBuffers> allocatedStripes = new ArrayList<>();
+  private final int maxStripes;
   private int chunkIndex;
   private int ecChunkSize;
   private final int numDataBlks;
   private final int numParityBlks;
   private final ByteBufferPool bufferPool;
   private final RawErasureEncoder encoder;
+  private final Future<Boolean> encodeFuture;
   private final Future<Boolean> flushFuture;
+  /** Number of the encode and flush threads which have not ended yet. */
+  private final AtomicInteger runningStages = new AtomicInteger(2);
   private final AtomicLong flushCheckpoint;
 
   private volatile boolean closed;
@@ -98,6 +114,15 @@ public long getFlushCheckpoint() {
     return flushCheckpoint.get();
   }
 
+  /**
+   * @return true if the encode and flush threads have ended, and the buffers
+   *         of the stripe ring have been returned to the pool
+   */
+  @VisibleForTesting
+  public synchronized boolean isStripeRingReleased() {
+    return runningStages.get() == 0 && allocatedStripes.isEmpty();
+  }
+
   private ECKeyOutputStream(Builder builder) {
     super(builder.getReplicationConfig(), new ECBlockOutputStreamEntryPool(builder));
     this.config = builder.getClientConfig();
@@ -106,10 +131,11 @@ private ECKeyOutputStream(Builder builder) {
     ecChunkSize = builder.getReplicationConfig().getEcChunkSize();
     this.numDataBlks = builder.getReplicationConfig().getData();
     this.numParityBlks = builder.getReplicationConfig().getParity();
-    ecChunkBufferCache = new ECChunkBuffers(
-        ecChunkSize, numDataBlks, numParityBlks, bufferPool);
     chunkIndex = 0;
+    ecEncodeQueue = new ArrayBlockingQueue<>(config.getEcStripeQueueSize());
     ecStripeQueue = new ArrayBlockingQueue<>(config.getEcStripeQueueSize());
+    maxStripes = 2 * config.getEcStripeQueueSize() + 3;
+    freeStripes = new ArrayBlockingQueue<>(maxStripes);
 
     this.writeOffset = 0;
     this.encoder = CodecUtil.createRawEncoderWithFallback(
@@ -119,9 +145,22 @@ private ECKeyOutputStream(Builder builder) {
         builder.getS3CredentialsProvider();
     this.flushFuture = builder.getExecutorServiceSupplier().get().submit(() -> {
       s3CredentialsProvider.set(s3Auth);
-      return flushStripeFromQueue();
+      try {
+        return flushStripeFromQueue();
+      } finally {
+        stageEnded();
+      }
     });
+    this.encodeFuture = builder.getExecutorServiceSupplier().get().submit(
+        () -> {
+          try {
+            return encodeStripeFromQueue();
+          } finally {
+            stageEnded();
+          }
+        });
     this.flushCheckpoint = new AtomicLong(0);
+    this.ecChunkBufferCache = allocateStripe();
   }
 
   @Override
@@ -262,9 +301,9 @@ protected boolean checkIfContainerToExclude(Throwable t) {
         && t instanceof ContainerNotOpenException;
   }
 
-  private void generateParityCells() throws IOException {
-    final ByteBuffer[] dataBuffers = ecChunkBufferCache.getDataBuffers();
-    final ByteBuffer[] parityBuffers = ecChunkBufferCache.getParityBuffers();
+  private void generateParityCells(ECChunkBuffers stripe) throws IOException {
+    final ByteBuffer[] dataBuffers = stripe.getDataBuffers();
+    final ByteBuffer[] parityBuffers = stripe.getParityBuffers();
 
     // parityCellSize = min(ecChunkSize, stripeSize)
     //                = min(cellSize, sum(dataBuffers positions))
@@ -343,12 +382,10 @@ private int handleWrite(byte[] b, int off, int len) throws IOException {
       chunkIndex++;
 
       // if this is last data cell in the stripe,
-      // compute parity cells and write data
+      // hand it over to compute parity cells and write data
       if (chunkIndex == numDataBlks) {
-        generateParityCells();
         addStripeToQueue(ecChunkBufferCache);
-        ecChunkBufferCache = new ECChunkBuffers(ecChunkSize,
-            numDataBlks, numParityBlks, bufferPool);
+        ecChunkBufferCache = nextStripe();
         chunkIndex = 0;
       }
     }
@@ -468,13 +505,13 @@ public void close() throws IOException {
       if (!closing) {
         // If stripe buffer is not empty, encode and flush the stripe.
         if (ecChunkBufferCache.getFirstDataCell().position() > 0) {
-          generateParityCells();
           addStripeToQueue(ecChunkBufferCache);
         }
-        // Send EOF mark to flush thread.
+        // Send EOF mark to encode and flush threads.
         addStripeToQueue(new EOFDummyStripe());
 
         // Wait for all the stripes to be written.
+        encodeFuture.get();
         flushFuture.get();
 
         Preconditions.checkArgument(writeOffset == offset,
@@ -497,34 +534,133 @@ public void close() throws IOException {
     } catch (InterruptedException e) {
       throw new IOException("Flushing thread was interrupted", e);
     } finally {
+      stopStages();
       closeCurrentStreamEntry();
       blockOutputStreamEntryPool.cleanup();
+      releaseStripes();
     }
   }
 
+  /**
+   * Interrupt the encode and flush threads which are still running. They only
+   * are if the stream is closed without sending them EOF, after a failure of
+   * the other thread or of the caller, and would wait for stripes forever.
+   */
+  private void stopStages() {
+    encodeFuture.cancel(true);
+    flushFuture.cancel(true);
+  }
+
   private void addStripeToQueue(ECChunkBuffers stripe) throws IOException {
     try {
       do {
-        // If flushFuture is done, it means that the flush thread has
-        // encountered an exception. Call get() to throw that exception here.
-        if (flushFuture.isDone()) {
-          flushFuture.get();
-          // We should never reach here.
-          throw new IOException("Flush thread has ended before stream close");
-        }
-      } while (!ecStripeQueue.offer(stripe, 1, TimeUnit.SECONDS));
+        checkStages(encodeFuture, flushFuture);
+      } while (!ecEncodeQueue.offer(stripe, 1, TimeUnit.SECONDS));
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new IOException("Interrupted while adding stripe to queue", e);
-    } catch (ExecutionException e) {
-      if (e.getCause() instanceof IOException) {
-        throw (IOException) e.getCause();
-      } else if (e.getCause() instanceof RuntimeException) {
-        throw (RuntimeException) e.getCause();
-      } else {
-        throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * If any of the encode and flush threads is done, it has encountered an
+   * exception (or the stream is closing). Call get() to throw that exception
+   * here.
+   */
+  private void checkStages(Future<?>... stages) throws IOException {
+    for (Future<?> stage : stages) {
+      if (stage.isDone()) {
+        try {
+          stage.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while checking stripe writers", e);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+          } else if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          } else {
+            throw new IOException(e.getCause());
+          }
+        }
+        // We should never reach here.
+        throw new IOException((stage == encodeFuture ? "Encode" : "Flush")
+            + " thread has ended before stream close");
+      }
+    }
+  }
+
+  /**
+   * @return a stripe from the ring to fill, waiting for one to be written
+   *         if all of them are in use
+   */
+  private ECChunkBuffers nextStripe() throws IOException {
+    ECChunkBuffers stripe = freeStripes.poll();
+    if (stripe != null) {
+      return stripe;
+    }
+    if (allocatedStripes.size() < maxStripes) {
+      return allocateStripe();
+    }
+    try {
+      while ((stripe = freeStripes.poll(1, TimeUnit.SECONDS)) == null) {
+        checkStages(encodeFuture, flushFuture);
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a free stripe", e);
     }
+    return stripe;
+  }
+
+  private ECChunkBuffers allocateStripe() {
+    final ECChunkBuffers stripe = new ECChunkBuffers(ecChunkSize,
+        numDataBlks, numParityBlks, bufferPool);
+    allocatedStripes.add(stripe);
+    return stripe;
+  }
+
+  private void stageEnded() {
+    runningStages.decrementAndGet();
+    releaseStripes();
+  }
+
+  /**
+   * Return the buffers of the stripe ring to the pool once the stream is
+   * closed and both the encode and flush threads have ended, by whichever of
+   * close and the two threads comes last.
+   */
+  private synchronized void releaseStripes() {
+    if (!closed || runningStages.get() > 0) {
+      return;
+    }
+    allocatedStripes.forEach(ECChunkBuffers::release);
+    allocatedStripes.clear();
+    freeStripes.clear();
+  }
+
+  private boolean encodeStripeFromQueue() throws IOException {
+    try {
+      ECChunkBuffers stripe = ecEncodeQueue.take();
+      while (!closing) {
+        if (!(stripe instanceof EOFDummyStripe)
+            && !(stripe instanceof CheckpointDummyStripe)) {
+          generateParityCells(stripe);
+        }
+        do {
+          checkStages(flushFuture);
+        } while (!ecStripeQueue.offer(stripe, 1, TimeUnit.SECONDS));
+        if (stripe instanceof EOFDummyStripe) {
+          break;
+        }
+        stripe = ecEncodeQueue.take();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while encoding stripe from queue", e);
+    }
+    return true;
   }
 
   private boolean flushStripeFromQueue() throws IOException {
@@ -535,7 +671,8 @@ private boolean flushStripeFromQueue() throws IOException {
           flushCheckpoint.set(((CheckpointDummyStripe) stripe).version);
         } else {
           flushStripeToDatanodes(stripe);
-          stripe.release();
+          stripe.clear();
+          freeStripes.offer(stripe);
         }
         stripe = ecStripeQueue.take();
       }
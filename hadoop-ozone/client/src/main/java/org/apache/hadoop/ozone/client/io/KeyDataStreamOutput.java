@@ -486,6 +486,7 @@ public static class Builder {
     private boolean unsafeByteBufferConversion;
     private OzoneClientConfig clientConfig;
     private ReplicationConfig replicationConfig;
+    private Runnable commitListener;
 
     public Builder setMultipartUploadID(String uploadID) {
       this.multipartUploadID = uploadID;
@@ -537,8 +538,17 @@ public Builder setReplicationConfig(ReplicationConfig replConfig) {
       return this;
     }
 
+    /**
+     * @param listener called after the key, but not a multipart upload part,
+     *                 is committed to OM
+     */
+    public Builder setCommitListener(Runnable listener) {
+      this.commitListener = listener;
+      return this;
+    }
+
     public KeyDataStreamOutput build() {
-      return new KeyDataStreamOutput(
+      KeyDataStreamOutput out = new KeyDataStreamOutput(
           clientConfig,
           openHandler,
           xceiverManager,
@@ -550,6 +560,8 @@ public KeyDataStreamOutput build() {
           multipartNumber,
           isMultipartKey,
           unsafeByteBufferConversion);
+      out.blockDataStreamOutputEntryPool.setCommitListener(commitListener);
+      return out;
     }
 
   }
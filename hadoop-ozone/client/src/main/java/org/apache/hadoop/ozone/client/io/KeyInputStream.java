@@ -20,13 +20,27 @@
 import static java.util.stream.Collectors.groupingBy;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.hadoop.fs.FileRange;
+import org.apache.hadoop.fs.VectoredReadUtils;
+import org.apache.hadoop.fs.impl.CombinedFileRange;
 import org.apache.hadoop.hdds.client.BlockID;
 import org.apache.hadoop.hdds.scm.OzoneClientConfig;
 import org.apache.hadoop.hdds.scm.XceiverClientFactory;
@@ -38,6 +52,7 @@
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.ratis.util.MemoizedSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,9 +64,50 @@ public class KeyInputStream extends MultipartInputStream {
   private static final Logger LOG =
       LoggerFactory.getLogger(KeyInputStream.class);
 
+  /**
+   * Shared pool for reading ranges of vectored reads in the background.
+   * Callers run the task themselves once all threads are busy.
+   */
+  private static final MemoizedSupplier<ExecutorService> READ_EXECUTOR =
+      MemoizedSupplier.valueOf(() -> new ThreadPoolExecutor(0,
+          Math.max(4, Runtime.getRuntime().availableProcessors() * 2),
+          60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+          new ThreadFactoryBuilder().setNameFormat("KeyRead-%d")
+              .setDaemon(true).build(),
+          new ThreadPoolExecutor.CallerRunsPolicy()));
+
+  /**
+   * Shared pool for readahead. Rejects tasks once all threads are busy, in
+   * which case the prefetch is skipped rather than run by the reader.
+   */
+  private static final MemoizedSupplier<ExecutorService> READAHEAD_EXECUTOR =
+      MemoizedSupplier.valueOf(() -> new ThreadPoolExecutor(0,
+          Math.max(4, Runtime.getRuntime().availableProcessors() * 2),
+          60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+          new ThreadFactoryBuilder().setNameFormat("KeyReadahead-%d")
+              .setDaemon(true).build(),
+          new ThreadPoolExecutor.AbortPolicy()));
+
+  private final KeyReadahead readahead;
+
   public KeyInputStream(String keyName,
                         List<? extends BlockExtendedInputStream> inputStreams) {
+    this(keyName, inputStreams, 0);
+  }
+
+  /**
+   * @param readaheadSize maximum number of bytes of the next block to
+   *                      prefetch during sequential reads, 0 to disable
+   */
+  public KeyInputStream(String keyName,
+      List<? extends BlockExtendedInputStream> inputStreams,
+      int readaheadSize) {
     super(keyName, inputStreams);
+    this.readahead = readaheadSize > 0 && inputStreams.size() > 1
+        && !isStreamBlockInputStream()
+        ? new KeyReadahead(getPartStreams(), readaheadSize,
+            READAHEAD_EXECUTOR.get())
+        : null;
   }
 
   private static List<BlockExtendedInputStream> createStreams(
@@ -131,8 +187,8 @@ private static LengthInputStream getFromOmKeyInfo(
     List<BlockExtendedInputStream> streams = createStreams(keyInfo,
         locationInfos, xceiverClientFactory, retryFunction,
         blockStreamFactory, config);
-    KeyInputStream keyInputStream =
-        new KeyInputStream(keyInfo.getKeyName(), streams);
+    KeyInputStream keyInputStream = new KeyInputStream(keyInfo.getKeyName(),
+        streams, config.getReadaheadSize());
     return new LengthInputStream(keyInputStream, keyInputStream.getLength());
   }
 
@@ -177,6 +233,253 @@ public static List<LengthInputStream> getStreamsFromKeyInfo(OmKeyInfo keyInfo,
     return lengthInputStreams;
   }
 
+  /**
+   * Read a list of ranges, completing the future of each range once its data
+   * is available.
+   * <p>
+   * Ranges closer than {@code minSeek} to each other are coalesced into a
+   * single read of at most {@code maxMergedSize} bytes. Coalesced reads are
+   * then split at block boundaries and the blocks are fetched in parallel,
+   * each block by a single task, so that reads spanning multiple blocks are
+   * served by several datanodes at once. The position of the stream is not
+   * changed.
+   *
+   * @param ranges the ranges to read
+   * @param allocate allocates the buffer for each coalesced read
+   * @param minSeek ranges closer than this are read together
+   * @param maxMergedSize upper limit for the size of a coalesced read
+   */
+  public synchronized void readVectored(List<? extends FileRange> ranges,
+      IntFunction<ByteBuffer> allocate, int minSeek, int maxMergedSize)
+      throws IOException {
+    if (readahead != null) {
+      readahead.reset();
+    }
+    initialize();
+    final List<? extends FileRange> sortedRanges =
+        VectoredReadUtils.validateAndSortRanges(ranges,
+            Optional.of(getLength()));
+    for (FileRange range : sortedRanges) {
+      range.setData(new CompletableFuture<>());
+    }
+    final List<CombinedFileRange> combinedRanges =
+        VectoredReadUtils.mergeSortedRanges(sortedRanges, 1, minSeek,
+            maxMergedSize);
+
+    // Split the coalesced reads at block boundaries, grouped by block.
+    final List<BlockExtendedInputStream> blocks = getPartStreams();
+    final long[] blockOffsets = new long[blocks.size() + 1];
+    for (int i = 0; i < blocks.size(); i++) {
+      blockOffsets[i + 1] = blockOffsets[i] + blocks.get(i).getLength();
+    }
+    final Map<Integer, List<VectoredReadSegment>> segmentsByBlock =
+        new TreeMap<>();
+    for (CombinedFileRange combined : combinedRanges) {
+      final VectoredRead read = new VectoredRead(combined, allocate);
+      final List<VectoredReadSegment> segments = new ArrayList<>();
+      long offset = combined.getOffset();
+      final long end = offset + combined.getLength();
+      int block = 0;
+      while (block + 1 < blocks.size() && blockOffsets[block + 1] <= offset) {
+        block++;
+      }
+      while (offset < end) {
+        final long segmentEnd = Math.min(end, blockOffsets[block + 1]);
+        if (segmentEnd > offset) {
+          final VectoredReadSegment segment = new VectoredReadSegment(read,
+              offset - blockOffsets[block],
+              (int) (offset - combined.getOffset()),
+              (int) (segmentEnd - offset));
+          segments.add(segment);
+          segmentsByBlock.computeIfAbsent(block, k -> new ArrayList<>())
+              .add(segment);
+        }
+        offset = segmentEnd;
+        block++;
+      }
+      read.setPendingSegments(segments.size());
+    }
+
+    final long oldPos = getPos();
+    try {
+      final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+      for (Map.Entry<Integer, List<VectoredReadSegment>> entry
+          : segmentsByBlock.entrySet()) {
+        final BlockExtendedInputStream block = blocks.get(entry.getKey());
+        final List<VectoredReadSegment> segments = entry.getValue();
+        if (segmentsByBlock.size() == 1) {
+          readSegments(block, segments);
+        } else {
+          tasks.add(CompletableFuture.runAsync(
+              () -> readSegments(block, segments),
+              READ_EXECUTOR.get()));
+        }
+      }
+      CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+    } finally {
+      seek(oldPos);
+    }
+  }
+
+  private static void readSegments(BlockExtendedInputStream block,
+      List<VectoredReadSegment> segments) {
+    for (VectoredReadSegment segment : segments) {
+      try {
+        segment.readFrom(block);
+        segment.getRead().segmentDone(null);
+      } catch (IOException | RuntimeException e) {
+        segment.getRead().segmentDone(e);
+      }
+    }
+  }
+
+  /**
+   * A coalesced read, which completes its underlying ranges once all of its
+   * block segments have been read.
+   */
+  private static final class VectoredRead {
+    private final CombinedFileRange combined;
+    private final ByteBuffer buffer;
+    private final AtomicInteger pendingSegments = new AtomicInteger();
+    private volatile Throwable failure;
+
+    VectoredRead(CombinedFileRange combined,
+        IntFunction<ByteBuffer> allocate) {
+      this.combined = combined;
+      this.buffer = allocate.apply(combined.getLength());
+      buffer.limit(buffer.position() + combined.getLength());
+    }
+
+    ByteBuffer getBuffer() {
+      return buffer;
+    }
+
+    void setPendingSegments(int count) {
+      pendingSegments.set(count);
+      if (count == 0) {
+        complete();
+      }
+    }
+
+    void segmentDone(Throwable error) {
+      if (error != null) {
+        failure = error;
+      }
+      if (pendingSegments.decrementAndGet() == 0) {
+        complete();
+      }
+    }
+
+    private void complete() {
+      for (FileRange range : combined.getUnderlying()) {
+        if (failure != null) {
+          range.getData().completeExceptionally(failure);
+        } else {
+          range.getData().complete(VectoredReadUtils.sliceTo(
+              buffer.slice(), combined.getOffset(), range));
+        }
+      }
+    }
+  }
+
+  /**
+   * The part of a coalesced read that falls into a single block.
+   */
+  private static final class VectoredReadSegment {
+    private final VectoredRead read;
+    private final long blockOffset;
+    private final int bufferOffset;
+    private final int length;
+
+    VectoredReadSegment(VectoredRead read, long blockOffset,
+        int bufferOffset, int length) {
+      this.read = read;
+      this.blockOffset = blockOffset;
+      this.bufferOffset = bufferOffset;
+      this.length = length;
+    }
+
+    VectoredRead getRead() {
+      return read;
+    }
+
+    void readFrom(BlockExtendedInputStream block) throws IOException {
+      final ByteBuffer target = read.getBuffer().duplicate();
+      target.position(target.position() + bufferOffset);
+      target.limit(target.position() + length);
+      block.seek(blockOffset);
+      while (target.hasRemaining()) {
+        if (block.read(target) < 0) {
+          throw new IOException(String.format("Inconsistent read for " +
+                  "blockID=%s length=%d position=%d remaining=%d",
+              block.getBlockID(), block.getLength(), block.getPos(),
+              target.remaining()));
+        }
+      }
+    }
+  }
+
+  @Override
+  protected synchronized int readWithStrategy(ByteReaderStrategy strategy)
+      throws IOException {
+    if (readahead == null) {
+      return super.readWithStrategy(strategy);
+    }
+    readahead.beforeRead(getCurrentStreamIndex(), strategy.getTargetLength());
+    final int read = super.readWithStrategy(strategy);
+    if (read > 0) {
+      readahead.afterRead(getCurrentStreamIndex());
+    }
+    return read;
+  }
+
+  @Override
+  protected int readFromPart(ByteReaderStrategy strategy, int index,
+      int numBytesToRead) throws IOException {
+    int read = 0;
+    if (readahead != null) {
+      read = readahead.read(strategy, index, numBytesToRead);
+    }
+    if (read < numBytesToRead) {
+      final int remaining =
+          super.readFromPart(strategy, index, numBytesToRead - read);
+      if (remaining < 0) {
+        return read > 0 ? read : remaining;
+      }
+      read += remaining;
+    }
+    return read;
+  }
+
+  @Override
+  public synchronized void seek(long pos) throws IOException {
+    if (readahead != null) {
+      if (pos != getPos()) {
+        readahead.reset();
+      } else if (readahead.isPrefetching()) {
+        // Nothing to do, and seeking would reset the prefetched block.
+        return;
+      }
+    }
+    super.seek(pos);
+  }
+
+  @Override
+  public synchronized void unbuffer() {
+    if (readahead != null) {
+      readahead.reset();
+    }
+    super.unbuffer();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (readahead != null) {
+      readahead.reset();
+    }
+    super.close();
+  }
+
   @Override
   protected int getNumBytesToRead(ByteReaderStrategy strategy,
                                   PartInputStream current) throws IOException {
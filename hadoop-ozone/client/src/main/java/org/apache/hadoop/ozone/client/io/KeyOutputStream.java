@@ -112,6 +112,10 @@ public void setPreCommits(@Nonnull List<CheckedRunnable<IOException>> preCommits
     this.preCommits = preCommits;
   }
 
+  List<CheckedRunnable<IOException>> getPreCommits() {
+    return preCommits;
+  }
+
   @VisibleForTesting
   KeyOutputStreamSemaphore getRequestSemaphore() {
     return keyOutputStreamSemaphore;
@@ -169,8 +173,12 @@ public long getClientID() {
   }
 
   public KeyOutputStream(Builder b) {
+    this(b, new BlockOutputStreamEntryPool(b));
+  }
+
+  KeyOutputStream(Builder b, BlockOutputStreamEntryPool blockOutputStreamEntryPool) {
     this.replication = b.replicationConfig;
-    this.blockOutputStreamEntryPool = new BlockOutputStreamEntryPool(b);
+    this.blockOutputStreamEntryPool = blockOutputStreamEntryPool;
     final OzoneClientConfig config = b.getClientConfig();
     this.maxConcurrentWritePerKey = config.getMaxConcurrentWritePerKey();
     this.keyOutputStreamSemaphore = new KeyOutputStreamSemaphore(maxConcurrentWritePerKey);
@@ -524,19 +532,7 @@ public void hsync() throws IOException {
     try {
       getRequestSemaphore().acquire();
 
-      if (replication.getReplicationType() != ReplicationType.RATIS) {
-        throw new UnsupportedOperationException(
-            "Replication type is not " + ReplicationType.RATIS);
-      }
-      if (replication.getRequiredNodes() <= 1) {
-        throw new UnsupportedOperationException("The replication factor = "
-            + replication.getRequiredNodes() + " <= 1");
-      }
-      if (ozoneManagerVersion.compareTo(OzoneManagerVersion.HBASE_SUPPORT) < 0) {
-        throw new UnsupportedOperationException("Hsync API requires OM version "
-            + OzoneManagerVersion.HBASE_SUPPORT + " or later. Current OM version "
-            + ozoneManagerVersion);
-      }
+      checkHsyncSupported();
       checkNotClosed();
       final long hsyncPos = writeOffset;
       handleFlushOrClose(StreamAction.HSYNC);
@@ -552,6 +548,22 @@ public void hsync() throws IOException {
     }
   }
 
+  void checkHsyncSupported() {
+    if (replication.getReplicationType() != ReplicationType.RATIS) {
+      throw new UnsupportedOperationException(
+          "Replication type is not " + ReplicationType.RATIS);
+    }
+    if (replication.getRequiredNodes() <= 1) {
+      throw new UnsupportedOperationException("The replication factor = "
+          + replication.getRequiredNodes() + " <= 1");
+    }
+    if (ozoneManagerVersion.compareTo(OzoneManagerVersion.HBASE_SUPPORT) < 0) {
+      throw new UnsupportedOperationException("Hsync API requires OM version "
+          + OzoneManagerVersion.HBASE_SUPPORT + " or later. Current OM version "
+          + ozoneManagerVersion);
+    }
+  }
+
   /**
    * Close or Flush the latest outputStream depending upon the action.
    * This function gets called when while write is going on, the current stream
@@ -692,6 +704,7 @@ public static class Builder {
     private StreamBufferArgs streamBufferArgs;
     private Supplier<ExecutorService> executorServiceSupplier;
     private OzoneManagerVersion ozoneManagerVersion;
+    private Runnable commitListener;
 
     public String getMultipartUploadID() {
       return multipartUploadID;
@@ -814,7 +827,26 @@ public OzoneManagerVersion getOmVersion() {
       return ozoneManagerVersion;
     }
 
+    /**
+     * @param listener called after the key, but not a multipart upload part,
+     *                 is committed to OM
+     */
+    public Builder setCommitListener(Runnable listener) {
+      this.commitListener = listener;
+      return this;
+    }
+
+    public Runnable getCommitListener() {
+      return commitListener;
+    }
+
     public KeyOutputStream build() {
+      if (SmallKeyOutputStream.isApplicable(this)) {
+        return new SmallKeyOutputStream(this);
+      }
+      if (ParallelKeyOutputStream.isApplicable(this)) {
+        return new ParallelKeyOutputStream(this);
+      }
       return new KeyOutputStream(this);
     }
 
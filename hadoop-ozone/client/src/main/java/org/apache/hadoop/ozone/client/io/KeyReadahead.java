@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.hdds.scm.storage.BlockExtendedInputStream;
+import org.apache.hadoop.hdds.scm.storage.ByteReaderStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prefetches the beginning of the next block of a key while the current block
+ * is being read sequentially, so that moving on to the next block does not
+ * have to wait for its pipeline.
+ * <p>
+ * The readahead window starts at {@link #MIN_WINDOW} and doubles, up to the
+ * configured maximum, each time a prefetched window is fully consumed. Seeking
+ * to another position cancels the prefetch and resets the window. At most one
+ * block is prefetched at a time, so the memory held by a stream is bounded by
+ * the maximum window. If the executor rejects a prefetch, e.g. because all
+ * its threads are busy, the next block is simply read on demand.
+ * <p>
+ * While a prefetch of block {@code i} is in flight the owning stream must not
+ * touch that block; {@link #beforeRead} waits for the prefetch whenever a read
+ * may reach it. Not thread safe, callers synchronize on the owning stream.
+ */
+final class KeyReadahead {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(KeyReadahead.class);
+
+  static final int MIN_WINDOW = 1 << 20;
+
+  /** Number of reads without a seek in between to detect sequential access. */
+  static final int SEQUENTIAL_READS = 2;
+
+  private final List<BlockExtendedInputStream> blocks;
+  private final int maxWindow;
+  private final Executor executor;
+
+  private int window;
+  private int sequentialReads;
+  private Prefetch prefetch;
+
+  KeyReadahead(List<BlockExtendedInputStream> blocks, int maxWindow,
+      Executor executor) {
+    this.blocks = blocks;
+    this.maxWindow = maxWindow;
+    this.executor = executor;
+    this.window = Math.min(MIN_WINDOW, maxWindow);
+  }
+
+  boolean isPrefetching() {
+    return prefetch != null;
+  }
+
+  /**
+   * Wait for the prefetch if a read of {@code length} bytes starting in the
+   * block at {@code index} may reach the prefetched block.
+   */
+  void beforeRead(int index, int length) {
+    if (prefetch == null) {
+      return;
+    }
+    if (prefetch.index < index) {
+      reset();
+    } else if (prefetch.index == index
+        || length >= blocks.get(index).getRemaining()) {
+      prefetch.await();
+    }
+  }
+
+  /**
+   * Start prefetching the block after {@code index} if the reads so far
+   * look sequential and the current block is close to its end.
+   */
+  void afterRead(int index) {
+    sequentialReads++;
+    if (prefetch != null || sequentialReads < SEQUENTIAL_READS
+        || index + 1 >= blocks.size()
+        || blocks.get(index).getRemaining() > 2L * window) {
+      return;
+    }
+    BlockExtendedInputStream next = blocks.get(index + 1);
+    int length = (int) Math.min(window, next.getLength());
+    if (length > 0 && next.getPos() == 0) {
+      try {
+        prefetch = new Prefetch(index + 1, next, length);
+      } catch (RejectedExecutionException e) {
+        LOG.debug("Skipping readahead of block {}", next.getBlockID(), e);
+      }
+    }
+  }
+
+  /**
+   * Serve a read of the block at {@code index} from the prefetched data, and
+   * position the block after the bytes served.
+   *
+   * @return number of bytes read, 0 if there is no prefetched data for the
+   *         current position of the block
+   */
+  int read(ByteReaderStrategy strategy, int index, int numBytesToRead)
+      throws IOException {
+    if (prefetch == null || prefetch.index != index) {
+      return 0;
+    }
+    ByteBuffer data = prefetch.await();
+    BlockExtendedInputStream block = blocks.get(index);
+    long pos = block.getPos();
+    if (data == null || pos >= data.limit()) {
+      prefetch = null;
+      return 0;
+    }
+
+    ByteBuffer slice = data.duplicate();
+    slice.position((int) pos);
+    slice.limit((int) Math.min(data.limit(), pos + numBytesToRead));
+    int read = strategy.readFromBlock(new PrefetchedData(slice),
+        slice.remaining());
+    block.seek(pos + read);
+    if (pos + read >= data.limit()) {
+      prefetch = null;
+      window = (int) Math.min(2L * window, maxWindow);
+    }
+    return read;
+  }
+
+  /**
+   * Cancel any prefetch and start detecting sequential access from scratch.
+   */
+  void reset() {
+    if (prefetch != null) {
+      prefetch.cancelled = true;
+      prefetch.await();
+      prefetch = null;
+    }
+    sequentialReads = 0;
+    window = Math.min(MIN_WINDOW, maxWindow);
+  }
+
+  /**
+   * The beginning of a block being read in the background. The block is
+   * positioned back at its start once the prefetch completes.
+   */
+  private final class Prefetch {
+    private final int index;
+    private final CompletableFuture<ByteBuffer> future;
+    private volatile boolean cancelled;
+
+    Prefetch(int index, BlockExtendedInputStream block, int length) {
+      this.index = index;
+      this.future = CompletableFuture.supplyAsync(
+          () -> fetch(block, length), executor);
+    }
+
+    private ByteBuffer fetch(BlockExtendedInputStream block, int length) {
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      try {
+        try {
+          while (buffer.hasRemaining() && !cancelled) {
+            if (block.read(buffer) < 0) {
+              break;
+            }
+          }
+        } finally {
+          block.seek(0);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      buffer.flip();
+      return buffer;
+    }
+
+    /**
+     * @return the prefetched data, null if the prefetch failed
+     */
+    ByteBuffer await() {
+      try {
+        return future.join();
+      } catch (CompletionException | CancellationException e) {
+        LOG.debug("Readahead of block {} failed, reading it on demand",
+            blocks.get(index).getBlockID(), e);
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Exposes prefetched data to the {@link ByteReaderStrategy} of a read.
+   */
+  private static final class PrefetchedData extends InputStream
+      implements ByteBufferReadable {
+    private final ByteBuffer data;
+
+    PrefetchedData(ByteBuffer data) {
+      this.data = data;
+    }
+
+    @Override
+    public int read() {
+      return data.hasRemaining() ? Byte.toUnsignedInt(data.get()) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (!data.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, data.remaining());
+      data.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int read(ByteBuffer buf) {
+      if (!data.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(buf.remaining(), data.remaining());
+      ByteBuffer src = data.duplicate();
+      src.limit(src.position() + n);
+      buf.put(src);
+      data.position(data.position() + n);
+      return n;
+    }
+  }
+}
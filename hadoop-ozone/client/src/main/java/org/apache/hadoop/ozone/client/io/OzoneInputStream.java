@@ -19,10 +19,14 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import org.apache.hadoop.fs.ByteBufferReadable;
 import org.apache.hadoop.fs.CanUnbuffer;
 import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.hdds.scm.storage.ByteBufferTransfer;
+import org.apache.hadoop.hdds.scm.storage.ExtendedInputStream;
+import org.apache.ratis.util.function.CheckedConsumer;
 
 /**
  * OzoneInputStream is used to read data from Ozone.
@@ -31,6 +35,9 @@
 public class OzoneInputStream extends InputStream implements CanUnbuffer,
     ByteBufferReadable, Seekable {
 
+  /** Size of the buffer to copy data of streams not supporting transfer. */
+  private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
   private final InputStream inputStream;
 
   public OzoneInputStream() {
@@ -66,6 +73,50 @@ public int read(ByteBuffer byteBuffer) throws IOException {
     }
   }
 
+  /**
+   * Pass up to length bytes from the current position to the consumer.
+   * <p>
+   * For replicated keys the buffers are read-only views of the data received
+   * from datanodes, which are only valid until the consumer returns, and no
+   * data past the requested length is read ahead. Other streams, e.g. for
+   * encrypted keys, are copied through a temporary buffer.
+   *
+   * @return the number of bytes passed, less than length only at the end of
+   *         the stream.
+   */
+  public long transferTo(CheckedConsumer<ByteBuffer, IOException> consumer,
+      long length) throws IOException {
+    long total = 0;
+    if (inputStream instanceof ExtendedInputStream) {
+      final ExtendedInputStream in = (ExtendedInputStream) inputStream;
+      try {
+        while (total < length) {
+          final int read = in.read(new ByteBufferTransfer(consumer,
+              (int) Math.min(length - total, Integer.MAX_VALUE)));
+          if (read < 0) {
+            break;
+          }
+          total += read;
+        }
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    } else {
+      final byte[] buffer =
+          new byte[(int) Math.min(length, TRANSFER_BUFFER_SIZE)];
+      while (total < length) {
+        final int read = inputStream.read(buffer, 0,
+            (int) Math.min(length - total, buffer.length));
+        if (read < 0) {
+          break;
+        }
+        consumer.accept(ByteBuffer.wrap(buffer, 0, read));
+        total += read;
+      }
+    }
+    return total;
+  }
+
   @Override
   public synchronized void close() throws IOException {
     inputStream.close();
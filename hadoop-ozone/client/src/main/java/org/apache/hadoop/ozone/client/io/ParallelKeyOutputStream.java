@@ -0,0 +1,561 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.io;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import org.apache.hadoop.fs.FSExceptionMessages;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
+import org.apache.hadoop.hdds.scm.OzoneClientConfig;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
+import org.apache.hadoop.ozone.om.helpers.OpenKeySession;
+import org.apache.ratis.util.MemoizedSupplier;
+import org.apache.ratis.util.function.CheckedRunnable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link KeyOutputStream} that writes the blocks of a large key
+ * concurrently, to saturate more than a single pipeline with one sequential
+ * writer.
+ * <p>
+ * The key is split into block sized segments. Data written to the stream is
+ * copied into chunks and handed to the writer of its segment, each of which
+ * writes its segment to its own block(s) with a separate
+ * {@link KeyOutputStream} in the background, including the usual retries on
+ * another pipeline. Up to {@link OzoneClientConfig#getParallelBlockWrites()}
+ * segments are written at the same time, and the chunks handed off but not
+ * yet sent are bounded by
+ * {@link OzoneClientConfig#getParallelWriteBufferSize()}; {@link #write}
+ * blocks when either limit is reached. On {@link #close()} the blocks of all
+ * segments are committed in order as one key.
+ * <p>
+ * {@link #flush()} and {@link #hsync()} drain the segments in flight: they
+ * wait for the segments already handed off in full to be written, and flush
+ * or hsync the data of the segment being written. Hsync then makes the
+ * blocks of all segments so far visible in OM, as for a sequential write.
+ * <p>
+ * Only used for Ratis keys created with a known size of more than one block,
+ * see {@link #isApplicable}.
+ */
+class ParallelKeyOutputStream extends KeyOutputStream {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(ParallelKeyOutputStream.class);
+
+  private static final MemoizedSupplier<ExecutorService> WRITE_EXECUTOR =
+      MemoizedSupplier.valueOf(() -> Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setNameFormat("KeyWrite-%d")
+              .setDaemon(true).build()));
+
+  /** Marks the end of the data of a segment. */
+  private static final ByteBuffer END = ByteBuffer.allocate(0);
+  /** Asks the writer of a segment to flush or hsync the data so far. */
+  private static final ByteBuffer SYNC = ByteBuffer.allocate(0);
+
+  private final KeyOutputStream.Builder builder;
+  private final long segmentSize;
+  private final int chunkSize;
+  private final int maxChunks;
+  private final Semaphore segmentSlots;
+  private final BlockingQueue<byte[]> freeChunks = new LinkedBlockingQueue<>();
+  private final List<Segment> segments = new ArrayList<>();
+  private final Deque<OmKeyLocationInfo> preallocatedBlocks =
+      new ArrayDeque<>();
+  private long openVersion;
+
+  private int allocatedChunks;
+  private Segment current;
+  private byte[] chunk;
+  private int chunkLength;
+  private long writeOffset;
+  private boolean closed;
+  private volatile IOException failure;
+
+  ParallelKeyOutputStream(KeyOutputStream.Builder b) {
+    super(b);
+    this.builder = b;
+    this.segmentSize = getBlockSize(b.getOpenHandler());
+    final OzoneClientConfig config = b.getClientConfig();
+    this.chunkSize = (int) Math.min(
+        b.getStreamBufferArgs().getStreamBufferSize(), segmentSize);
+    this.maxChunks = (int) Math.max(1,
+        config.getParallelWriteBufferSize() / chunkSize);
+    this.segmentSlots = new Semaphore(config.getParallelBlockWrites());
+  }
+
+  /**
+   * @return true if the key described by the builder should be written
+   *         with a {@link ParallelKeyOutputStream}
+   */
+  static boolean isApplicable(KeyOutputStream.Builder b) {
+    final OzoneClientConfig config = b.getClientConfig();
+    if (config == null || config.getParallelBlockWrites() <= 1
+        || b.getOpenHandler() == null || b.getReplicationConfig() == null
+        || b.getReplicationConfig().getReplicationType()
+            != ReplicationType.RATIS) {
+      return false;
+    }
+    final long blockSize = getBlockSize(b.getOpenHandler());
+    return blockSize > 0
+        && b.getOpenHandler().getKeyInfo().getDataSize() > blockSize;
+  }
+
+  /**
+   * OM preallocates blocks for keys created with a known size, the size of
+   * those is the block size used to split the key into segments.
+   *
+   * @return the block size, 0 if no block was preallocated
+   */
+  private static long getBlockSize(OpenKeySession session) {
+    final OmKeyLocationInfoGroup version =
+        session.getKeyInfo().getLatestVersionLocations();
+    if (version == null) {
+      return 0;
+    }
+    final List<OmKeyLocationInfo> blocks =
+        version.getLocationList(session.getOpenVersion());
+    return blocks.isEmpty() ? 0 : blocks.get(0).getLength();
+  }
+
+  @Override
+  public synchronized void addPreallocateBlocks(
+      OmKeyLocationInfoGroup version, long openKeyVersion) {
+    this.openVersion = openKeyVersion;
+    preallocatedBlocks.addAll(version.getLocationList(openKeyVersion));
+  }
+
+  @Override
+  public synchronized void write(byte[] b, int off, int len)
+      throws IOException {
+    checkNotClosed();
+    if (b == null) {
+      throw new NullPointerException();
+    }
+    if ((off < 0) || (off > b.length) || (len < 0) || ((off + len) > b.length)
+        || ((off + len) < 0)) {
+      throw new IndexOutOfBoundsException();
+    }
+    while (len > 0) {
+      if (chunk == null) {
+        if (current == null) {
+          current = startSegment();
+        }
+        chunk = takeChunk();
+        chunkLength = 0;
+      }
+      final int n = (int) Math.min(Math.min(len, chunk.length - chunkLength),
+          segmentSize - current.length - chunkLength);
+      System.arraycopy(b, off, chunk, chunkLength, n);
+      chunkLength += n;
+      writeOffset += n;
+      off += n;
+      len -= n;
+      if (chunkLength == chunk.length
+          || current.length + chunkLength == segmentSize) {
+        handOffChunk();
+      }
+      if (current.length == segmentSize) {
+        finishSegment();
+      }
+    }
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    checkNotClosed();
+    sync(false);
+  }
+
+  @Override
+  public synchronized void hsync() throws IOException {
+    checkHsyncSupported();
+    checkNotClosed();
+    final List<OmKeyLocationInfo> locations = sync(true);
+    getBlockOutputStreamEntryPool().hsyncKey(writeOffset, locations);
+  }
+
+  /**
+   * Waits for the data written so far to be sent to the datanodes.
+   *
+   * @param hsync whether to hsync instead of flush the current segment
+   * @return the blocks written so far, in order
+   */
+  private List<OmKeyLocationInfo> sync(boolean hsync) throws IOException {
+    if (chunkLength > 0) {
+      handOffChunk();
+    }
+    final List<OmKeyLocationInfo> locations = new ArrayList<>();
+    for (Segment segment : segments) {
+      locations.addAll(segment == current ? segment.sync(hsync)
+          : segment.await());
+    }
+    checkFailure();
+    return locations;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (failure == null && chunkLength > 0) {
+        handOffChunk();
+      }
+      if (current != null) {
+        finishSegment();
+      }
+      final List<OmKeyLocationInfo> locations = new ArrayList<>();
+      for (Segment segment : segments) {
+        locations.addAll(segment.await());
+      }
+      checkFailure();
+      final long length = locations.stream()
+          .mapToLong(OmKeyLocationInfo::getLength).sum();
+      Preconditions.checkState(length == writeOffset,
+          "Written %s bytes, but blocks have %s", writeOffset, length);
+      for (CheckedRunnable<IOException> preCommit : getPreCommits()) {
+        preCommit.run();
+      }
+      getBlockOutputStreamEntryPool().commitKey(length, locations);
+    } finally {
+      if (chunk != null) {
+        freeChunks.offer(chunk);
+        chunk = null;
+      }
+      getBlockOutputStreamEntryPool().cleanup();
+    }
+  }
+
+  @VisibleForTesting
+  int getSegmentCount() {
+    return segments.size();
+  }
+
+  @VisibleForTesting
+  int getAllocatedChunks() {
+    return allocatedChunks;
+  }
+
+  private Segment startSegment() throws IOException {
+    try {
+      segmentSlots.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(
+          "Interrupted waiting to write key " + getKeyName());
+    }
+    if (failure != null) {
+      segmentSlots.release();
+      checkFailure();
+    }
+    final Segment segment = new Segment(segments.size(),
+        preallocatedBlocks.poll());
+    segments.add(segment);
+    WRITE_EXECUTOR.get().execute(segment::run);
+    return segment;
+  }
+
+  private byte[] takeChunk() throws IOException {
+    byte[] free = freeChunks.poll();
+    if (free == null) {
+      if (allocatedChunks < maxChunks) {
+        allocatedChunks++;
+        return new byte[chunkSize];
+      }
+      try {
+        free = freeChunks.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(
+            "Interrupted waiting for buffer to write key " + getKeyName());
+      }
+    }
+    return free;
+  }
+
+  private void handOffChunk() throws IOException {
+    final ByteBuffer data = ByteBuffer.wrap(chunk, 0, chunkLength);
+    current.length += chunkLength;
+    chunk = null;
+    chunkLength = 0;
+    current.chunks.add(data);
+    checkFailure();
+  }
+
+  private void finishSegment() {
+    current.chunks.add(END);
+    current = null;
+  }
+
+  private void checkFailure() throws IOException {
+    final IOException e = failure;
+    if (e != null) {
+      throw new IOException("Failed to write key " + getKeyName(), e);
+    }
+  }
+
+  private void checkNotClosed() throws IOException {
+    if (closed) {
+      throw new IOException(
+          ": " + FSExceptionMessages.STREAM_IS_CLOSED + " Key: "
+              + getKeyName());
+    }
+  }
+
+  private String getKeyName() {
+    return getBlockOutputStreamEntryPool().getKeyName();
+  }
+
+  /**
+   * Opens the output of a segment, called from the thread writing it.
+   *
+   * @param block preallocated block for the segment, may be null
+   */
+  @VisibleForTesting
+  SegmentOutput openSegment(int index, OmKeyLocationInfo block) {
+    final SegmentEntryPool pool = new SegmentEntryPool(builder);
+    final KeyOutputStream out = new KeyOutputStream(builder, pool);
+    if (block != null) {
+      out.addPreallocateBlocks(new OmKeyLocationInfoGroup(openVersion,
+          Collections.singletonList(block)), openVersion);
+    }
+    return new SegmentOutput() {
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+      @Override
+      public List<OmKeyLocationInfo> sync(boolean hsync) throws IOException {
+        if (hsync) {
+          out.hsync();
+        } else {
+          out.flush();
+        }
+        return pool.getLocationInfoList();
+      }
+
+      @Override
+      public List<OmKeyLocationInfo> close() throws IOException {
+        out.close();
+        return pool.getLocations();
+      }
+
+      @Override
+      public void abort() {
+        pool.cleanup();
+      }
+    };
+  }
+
+  /** Destination of the data of a segment. */
+  interface SegmentOutput {
+    void write(byte[] b, int off, int len) throws IOException;
+
+    /**
+     * Flushes or hsyncs the data written so far to the datanodes.
+     *
+     * @return the blocks of the segment written so far, in order
+     */
+    List<OmKeyLocationInfo> sync(boolean hsync) throws IOException;
+
+    /** @return the blocks the segment was written to, in order */
+    List<OmKeyLocationInfo> close() throws IOException;
+
+    void abort();
+  }
+
+  /**
+   * Stream entries of a single segment. Closing the segment records its
+   * blocks instead of committing them to OM.
+   */
+  private static final class SegmentEntryPool
+      extends BlockOutputStreamEntryPool {
+    private List<OmKeyLocationInfo> locations;
+
+    SegmentEntryPool(KeyOutputStream.Builder b) {
+      super(b);
+    }
+
+    @Override
+    void commitKey(long offset) {
+      final long length = getKeyLength();
+      Preconditions.checkArgument(offset == length,
+          "Expected offset: " + offset + " expected len: " + length);
+      locations = getLocationInfoList();
+    }
+
+    @Override
+    void hsyncKey(long offset) {
+      // the stream makes the blocks of all segments visible at once
+    }
+
+    List<OmKeyLocationInfo> getLocations() {
+      return locations;
+    }
+  }
+
+  /**
+   * A block sized part of the key, written by its own thread from the
+   * chunks handed off by the stream.
+   */
+  private final class Segment {
+    private final int index;
+    private final OmKeyLocationInfo block;
+    private final BlockingQueue<ByteBuffer> chunks =
+        new LinkedBlockingQueue<>();
+    private final CompletableFuture<List<OmKeyLocationInfo>> result =
+        new CompletableFuture<>();
+    /** Bytes handed off to the segment, only accessed by the stream. */
+    private long length;
+    /** The pending {@link #SYNC} request, at most one at a time. */
+    private volatile boolean hsync;
+    private volatile CompletableFuture<List<OmKeyLocationInfo>> synced;
+
+    Segment(int index, OmKeyLocationInfo block) {
+      this.index = index;
+      this.block = block;
+    }
+
+    void run() {
+      try {
+        result.complete(write());
+      } catch (Throwable t) {
+        final IOException e = t instanceof IOException ? (IOException) t
+            : new IOException("Failed to write block " + index, t);
+        if (failure == null) {
+          failure = e;
+        }
+        result.completeExceptionally(e);
+      } finally {
+        segmentSlots.release();
+      }
+    }
+
+    /**
+     * Writes the chunks until the end of the segment. Chunks are returned
+     * to the stream even after a failure, so that it is never blocked on a
+     * chunk held by a failed segment.
+     */
+    private List<OmKeyLocationInfo> write() throws Exception {
+      final SegmentOutput out = openSegment(index, block);
+      boolean done = false;
+      try {
+        for (ByteBuffer data = chunks.take(); data != END;
+             data = chunks.take()) {
+          if (data == SYNC) {
+            handleSync(out);
+            continue;
+          }
+          try {
+            if (failure == null) {
+              out.write(data.array(), data.position(), data.remaining());
+            }
+          } catch (IOException e) {
+            failure = e;
+          } finally {
+            freeChunks.offer(data.array());
+          }
+        }
+        checkFailure();
+        done = true;
+        final List<OmKeyLocationInfo> locations = out.close();
+        LOG.debug("Wrote block {} of key {} to {}", index, getKeyName(),
+            locations);
+        return locations;
+      } finally {
+        if (!done) {
+          out.abort();
+        }
+      }
+    }
+
+    private void handleSync(SegmentOutput out) {
+      final CompletableFuture<List<OmKeyLocationInfo>> request = synced;
+      final IOException e = failure;
+      if (e != null) {
+        request.completeExceptionally(e);
+        return;
+      }
+      try {
+        request.complete(out.sync(hsync));
+      } catch (IOException ex) {
+        failure = ex;
+        request.completeExceptionally(ex);
+      } catch (RuntimeException ex) {
+        request.completeExceptionally(ex);
+      }
+    }
+
+    /**
+     * Called by the stream to wait for the data handed off so far to be
+     * flushed, or hsynced, by the writer.
+     *
+     * @return the blocks of the segment written so far, in order
+     */
+    List<OmKeyLocationInfo> sync(boolean hsyncRequested) throws IOException {
+      final CompletableFuture<List<OmKeyLocationInfo>> request =
+          new CompletableFuture<>();
+      hsync = hsyncRequested;
+      synced = request;
+      chunks.add(SYNC);
+      // the writer may have failed before taking the request
+      return get(CompletableFuture.anyOf(request, result)
+          .thenCompose(ignored -> request));
+    }
+
+    List<OmKeyLocationInfo> await() throws IOException {
+      return get(result);
+    }
+
+    private List<OmKeyLocationInfo> get(
+        CompletableFuture<List<OmKeyLocationInfo>> future) throws IOException {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(
+            "Interrupted waiting for block " + index + " of key "
+                + getKeyName());
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to write key " + getKeyName(),
+            e.getCause());
+      }
+    }
+  }
+}
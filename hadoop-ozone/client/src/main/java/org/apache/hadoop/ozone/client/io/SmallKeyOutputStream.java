@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.io;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.apache.hadoop.fs.FSExceptionMessages;
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandResponseProto;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
+import org.apache.hadoop.hdds.scm.OzoneClientConfig;
+import org.apache.hadoop.hdds.scm.XceiverClientFactory;
+import org.apache.hadoop.hdds.scm.XceiverClientReply;
+import org.apache.hadoop.hdds.scm.XceiverClientSpi;
+import org.apache.hadoop.hdds.scm.container.ContainerID;
+import org.apache.hadoop.hdds.scm.container.common.helpers.ContainerNotOpenException;
+import org.apache.hadoop.hdds.scm.storage.ContainerProtocolCalls;
+import org.apache.hadoop.ozone.common.Checksum;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
+import org.apache.ratis.util.function.CheckedRunnable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link KeyOutputStream} that writes a small key to the datanodes with a
+ * single PutSmallFile request, which stores the data and the block in one
+ * Ratis transaction instead of separate WriteChunk and PutBlock requests.
+ * <p>
+ * Data written to the stream is buffered until {@link #close()}, which
+ * runs the pre-commit checks before sending anything, writes the data to
+ * the block preallocated by OM, waits for the request to be
+ * committed on all datanodes of the pipeline (as a streamed block does on
+ * close), and commits the key. The buffered data is written as a stream
+ * instead if more data is written than the size the key was created with,
+ * on {@link #hsync()}, if no block was preallocated, or if the PutSmallFile
+ * request fails, in which case a new block is allocated for the stream.
+ * <p>
+ * Only used for Ratis keys created with a known size of at most
+ * {@link OzoneClientConfig#getSmallKeyMaxSize()}, see {@link #isApplicable}.
+ */
+class SmallKeyOutputStream extends KeyOutputStream {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(SmallKeyOutputStream.class);
+
+  private final XceiverClientFactory xceiverClientFactory;
+  private final Checksum checksum;
+  private final ByteBuffer buffer;
+
+  private OmKeyLocationInfoGroup preallocatedBlocks;
+  private long openVersion;
+  /** Whether the data is written by the {@link KeyOutputStream}. */
+  private boolean streaming;
+  private boolean closed;
+
+  SmallKeyOutputStream(KeyOutputStream.Builder b) {
+    super(b);
+    this.xceiverClientFactory = b.getXceiverManager();
+    final OzoneClientConfig config = b.getClientConfig();
+    this.checksum = new Checksum(config.getChecksumType(),
+        config.getBytesPerChecksum());
+    this.buffer = ByteBuffer.allocate(
+        (int) b.getOpenHandler().getKeyInfo().getDataSize());
+  }
+
+  /**
+   * @return true if the key described by the builder should be written
+   *         with a {@link SmallKeyOutputStream}
+   */
+  static boolean isApplicable(KeyOutputStream.Builder b) {
+    final OzoneClientConfig config = b.getClientConfig();
+    if (config == null || config.getSmallKeyMaxSize() <= 0
+        || b.getOpenHandler() == null || b.getReplicationConfig() == null
+        || b.getReplicationConfig().getReplicationType()
+            != ReplicationType.RATIS) {
+      return false;
+    }
+    final long size = b.getOpenHandler().getKeyInfo().getDataSize();
+    return size > 0 && size <= config.getSmallKeyMaxSize();
+  }
+
+  @Override
+  public synchronized void addPreallocateBlocks(
+      OmKeyLocationInfoGroup version, long openKeyVersion) {
+    this.preallocatedBlocks = version;
+    this.openVersion = openKeyVersion;
+  }
+
+  @Override
+  public synchronized void write(byte[] b, int off, int len)
+      throws IOException {
+    if (streaming) {
+      super.write(b, off, len);
+      return;
+    }
+    checkNotClosed();
+    if (b == null) {
+      throw new NullPointerException();
+    }
+    if ((off < 0) || (off > b.length) || (len < 0) || ((off + len) > b.length)
+        || ((off + len) < 0)) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len > buffer.remaining()) {
+      startStreaming(true);
+      super.write(b, off, len);
+      return;
+    }
+    buffer.put(b, off, len);
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    if (streaming) {
+      super.flush();
+      return;
+    }
+    // the data is sent to the datanodes in one request on close
+    checkNotClosed();
+  }
+
+  @Override
+  public synchronized void hsync() throws IOException {
+    if (!streaming) {
+      checkHsyncSupported();
+      checkNotClosed();
+      startStreaming(true);
+    }
+    super.hsync();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (streaming) {
+      super.close();
+      return;
+    }
+    if (closed) {
+      return;
+    }
+    closed = true;
+    final OmKeyLocationInfo block = getPreallocatedBlock();
+    if (block == null || buffer.position() == 0) {
+      startStreaming(true);
+      super.close();
+      return;
+    }
+
+    boolean streamed = false;
+    try {
+      // nothing is sent to the datanodes if the data is rejected
+      for (CheckedRunnable<IOException> preCommit : getPreCommits()) {
+        preCommit.run();
+      }
+      buffer.flip();
+      final OmKeyLocationInfo written;
+      try {
+        written = writeBlock(block, buffer);
+      } catch (IOException e) {
+        LOG.warn("Failed to write {} bytes of key {} to block {}, retrying"
+            + " as a stream", buffer.remaining(), getKeyName(),
+            block.getBlockID(), e);
+        excludeBlock(block, e);
+        buffer.position(buffer.limit());
+        streamed = true;
+        startStreaming(false);
+        super.close();
+        return;
+      }
+      getBlockOutputStreamEntryPool().commitKey(written.getLength(),
+          Collections.singletonList(written));
+    } finally {
+      if (!streamed) {
+        getBlockOutputStreamEntryPool().cleanup();
+      }
+    }
+  }
+
+  /**
+   * Writes the data to the block with a single request and waits for it to
+   * be committed.
+   *
+   * @return the written block, with the commit sequence ID of the request
+   */
+  @VisibleForTesting
+  OmKeyLocationInfo writeBlock(OmKeyLocationInfo block, ByteBuffer data)
+      throws IOException {
+    final XceiverClientSpi client =
+        xceiverClientFactory.acquireClient(block.getPipeline());
+    try {
+      final XceiverClientReply reply =
+          ContainerProtocolCalls.writeSmallFileAsync(client,
+              block.getBlockID(), data, checksum,
+              block.getToken() == null ? null
+                  : block.getToken().encodeToUrlString());
+      final ContainerCommandResponseProto response =
+          reply.getResponse().get();
+      ContainerProtocolCalls.validateContainerResponse(response);
+      client.watchForCommit(reply.getLogIndex()).get();
+      final BlockID blockID = BlockID.getFromProtobuf(response
+          .getPutSmallFile().getCommittedBlockLength().getBlockID());
+      return new OmKeyLocationInfo.Builder()
+          .setBlockID(blockID)
+          .setLength(data.remaining())
+          .setOffset(0)
+          .setToken(block.getToken())
+          .setPipeline(block.getPipeline())
+          .build();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted writing block "
+          + block.getBlockID() + " of key " + getKeyName());
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+          : new IOException("Failed to write block " + block.getBlockID()
+              + " of key " + getKeyName(), e.getCause());
+    } finally {
+      xceiverClientFactory.releaseClient(client, false);
+    }
+  }
+
+  /**
+   * Switches to writing the buffered data and any later writes as a stream.
+   *
+   * @param usePreallocatedBlocks whether the stream may write to the blocks
+   *        preallocated by OM, otherwise it allocates a new block
+   */
+  private void startStreaming(boolean usePreallocatedBlocks)
+      throws IOException {
+    streaming = true;
+    if (usePreallocatedBlocks && preallocatedBlocks != null) {
+      super.addPreallocateBlocks(preallocatedBlocks, openVersion);
+    }
+    if (buffer.position() > 0) {
+      super.write(buffer.array(), 0, buffer.position());
+    }
+  }
+
+  private OmKeyLocationInfo getPreallocatedBlock() {
+    if (preallocatedBlocks == null) {
+      return null;
+    }
+    final List<OmKeyLocationInfo> blocks =
+        preallocatedBlocks.getLocationList(openVersion);
+    return blocks.isEmpty() || blocks.get(0).getLength() < buffer.position()
+        ? null : blocks.get(0);
+  }
+
+  private void excludeBlock(OmKeyLocationInfo block, IOException e) {
+    if (e instanceof ContainerNotOpenException) {
+      getExcludeList().addConatinerId(
+          ContainerID.valueOf(block.getContainerID()));
+    } else {
+      getExcludeList().addPipeline(block.getPipeline().getId());
+    }
+  }
+
+  private void checkNotClosed() throws IOException {
+    if (closed) {
+      throw new IOException(
+          ": " + FSExceptionMessages.STREAM_IS_CLOSED + " Key: "
+              + getKeyName());
+    }
+  }
+
+  private String getKeyName() {
+    return getBlockOutputStreamEntryPool().getKeyName();
+  }
+}
@@ -52,6 +52,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUploadCompleteInfo;
 import org.apache.hadoop.ozone.om.helpers.OmVolumeArgs;
@@ -418,6 +419,31 @@ OzoneOutputStream rewriteKeyIfMatch(String volumeName, String bucketName,
       ReplicationConfig replicationConfig, Map<String, String> metadata,
       Map<String, String> tags) throws IOException;
 
+  /**
+   * Copies a key by sharing the blocks of the source key, without reading or
+   * writing its data. The copy keeps the replication of the source key.
+   *
+   * @param sourceVolumeName Name of the Volume of the source key
+   * @param sourceBucketName Name of the Bucket of the source key
+   * @param sourceKeyName Name of the source key
+   * @param sourceGeneration expected generation of the source key, or null
+   * @param volumeName Name of the Volume
+   * @param bucketName Name of the Bucket
+   * @param keyName Name of the Key
+   * @param metadata custom key value metadata
+   * @param tags Tags used for S3 object tags
+   * @throws OMException with NOT_SUPPORTED_OPERATION if the key cannot be
+   *         copied this way, e.g. either bucket is FILE_SYSTEM_OPTIMIZED, the
+   *         source key is encrypted, or OzoneManager does not support it;
+   *         with ATOMIC_WRITE_CONFLICT if the source key is not of
+   *         sourceGeneration any more.
+   */
+  @SuppressWarnings("checkstyle:parameternumber")
+  void copyKey(String sourceVolumeName, String sourceBucketName,
+      String sourceKeyName, Long sourceGeneration, String volumeName,
+      String bucketName, String keyName, Map<String, String> metadata,
+      Map<String, String> tags) throws IOException;
+
   /**
    * Writes a key in an existing bucket.
    * @param volumeName Name of the Volume
@@ -694,6 +720,32 @@ OzoneOutputStream createMultipartKey(String volumeName, String bucketName,
                                        int partNumber, String uploadID)
       throws IOException;
 
+  /**
+   * Create a part key for a multipart upload key by sharing the blocks of the
+   * source key, see {@link #copyKey}. The source key must have the same
+   * replication as the multipart upload.
+   * @param sourceVolumeName Name of the Volume of the source key
+   * @param sourceBucketName Name of the Bucket of the source key
+   * @param sourceKeyName Name of the source key
+   * @param sourceGeneration expected generation of the source key, or null
+   * @param volumeName
+   * @param bucketName
+   * @param keyName
+   * @param partNumber
+   * @param uploadID
+   * @param metadata custom key value metadata of the part; its ETag is that
+   *        of the source key
+   * @return the committed part
+   * @throws OMException with NOT_SUPPORTED_OPERATION if the part cannot be
+   *         copied this way; with ATOMIC_WRITE_CONFLICT if the source key is
+   *         not of sourceGeneration any more.
+   */
+  @SuppressWarnings("checkstyle:parameternumber")
+  OmMultipartCommitUploadPartInfo copyMultipartKey(String sourceVolumeName,
+      String sourceBucketName, String sourceKeyName, Long sourceGeneration,
+      String volumeName, String bucketName, String keyName, int partNumber,
+      String uploadID, Map<String, String> metadata) throws IOException;
+
   /**
    * Create a part key for a multipart upload key.
    * @param volumeName
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.rpc;
+
+import static org.apache.hadoop.ozone.OzoneConsts.OM_KEY_PREFIX;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OzoneFSUtils;
+import org.apache.ratis.util.function.CheckedSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client side cache of the {@link OmKeyInfo}, including block locations, of
+ * keys opened for read, so that opening the same committed key repeatedly
+ * does not require a lookup in OM each time.
+ * <p>
+ * Entries expire a fixed time after they were loaded, so a key overwritten by
+ * another client may be read in its previous version for up to that long.
+ * Entries are dropped when this client opens the key for write and again once
+ * the write is committed, when it renames or deletes the key or a directory
+ * containing it, and replaced when a read fails and the stream refreshes the
+ * block locations of the key. Keys still being written (hsync'ed) are not
+ * cached.
+ */
+final class KeyLocationCache {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(KeyLocationCache.class);
+
+  private final Cache<String, OmKeyInfo> cache;
+
+  KeyLocationCache(long maxEntries, long expiryMillis) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(expiryMillis, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  /**
+   * @return the cached key info, or the one returned by {@code loader}
+   */
+  OmKeyInfo get(String volumeName, String bucketName, String keyName,
+      CheckedSupplier<OmKeyInfo, IOException> loader) throws IOException {
+    final String cacheKey = getCacheKey(volumeName, bucketName, keyName);
+    final OmKeyInfo cached = cache.getIfPresent(cacheKey);
+    if (cached != null) {
+      return cached.copyObject();
+    }
+    final OmKeyInfo keyInfo = loader.get();
+    put(cacheKey, keyInfo);
+    return keyInfo;
+  }
+
+  /**
+   * Replace the cached key info with the one looked up again after a failed
+   * read.
+   */
+  void refreshed(OmKeyInfo stale, OmKeyInfo refreshed) {
+    final String cacheKey = getCacheKey(stale.getVolumeName(),
+        stale.getBucketName(), stale.getKeyName());
+    cache.invalidate(cacheKey);
+    if (refreshed == null) {
+      return;
+    }
+    if (refreshed.getObjectID() != stale.getObjectID()
+        || refreshed.getUpdateID() != stale.getUpdateID()) {
+      LOG.debug("Key {} changed from objectID={} updateID={} to "
+              + "objectID={} updateID={}", cacheKey, stale.getObjectID(),
+          stale.getUpdateID(), refreshed.getObjectID(),
+          refreshed.getUpdateID());
+    }
+    put(cacheKey, refreshed);
+  }
+
+  void invalidate(String volumeName, String bucketName, String keyName) {
+    cache.invalidate(getCacheKey(volumeName, bucketName, keyName));
+  }
+
+  /**
+   * Drop the key and, if it is a directory, all the keys under it.
+   */
+  void invalidateTree(String volumeName, String bucketName, String keyName) {
+    final String cacheKey = getCacheKey(volumeName, bucketName,
+        OzoneFSUtils.removeTrailingSlashIfNeeded(keyName));
+    cache.invalidate(cacheKey);
+    final String prefix = cacheKey + OM_KEY_PREFIX;
+    cache.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+  }
+
+  void invalidateTrees(String volumeName, String bucketName,
+      Collection<String> keyNames) {
+    for (String keyName : keyNames) {
+      invalidateTree(volumeName, bucketName, keyName);
+    }
+  }
+
+  void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  private void put(String cacheKey, OmKeyInfo keyInfo) {
+    if (keyInfo != null && !keyInfo.isHsync()
+        && keyInfo.getLatestVersionLocations() != null) {
+      cache.put(cacheKey, keyInfo.copyObject());
+    }
+  }
+
+  private static String getCacheKey(String volumeName, String bucketName,
+      String keyName) {
+    return OM_KEY_PREFIX + volumeName + OM_KEY_PREFIX + bucketName
+        + OM_KEY_PREFIX + keyName;
+  }
+}
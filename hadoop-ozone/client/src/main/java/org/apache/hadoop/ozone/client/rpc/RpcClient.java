@@ -141,6 +141,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
+import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUploadCompleteInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUploadCompleteList;
@@ -182,6 +183,7 @@
 import org.apache.hadoop.util.Time;
 import org.apache.ratis.protocol.ClientId;
 import org.apache.ratis.util.MemoizedSupplier;
+import org.apache.ratis.util.function.CheckedSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -215,6 +217,7 @@ public class RpcClient implements ClientProtocol {
   private final OzoneClientConfig clientConfig;
   private final ReplicationConfigValidator replicationConfigValidator;
   private final Cache<URI, KeyProvider> keyProviderCache;
+  private final KeyLocationCache keyLocationCache;
   private final boolean getLatestVersionLocation;
   private final ByteBufferPool byteBufferPool;
   private final BlockInputStreamFactory blockInputStreamFactory;
@@ -321,6 +324,16 @@ public void onRemoval(
             }
           }
         }).build();
+    long keyLocationCacheExpiryMs = conf.getTimeDuration(
+        OzoneConfigKeys.OZONE_CLIENT_KEY_LOCATION_CACHE_EXPIRY,
+        OzoneConfigKeys.OZONE_CLIENT_KEY_LOCATION_CACHE_EXPIRY_DEFAULT,
+        TimeUnit.MILLISECONDS);
+    keyLocationCache = keyLocationCacheExpiryMs > 0
+        ? new KeyLocationCache(conf.getLong(
+            OzoneConfigKeys.OZONE_CLIENT_KEY_LOCATION_CACHE_MAX_ENTRIES,
+            OzoneConfigKeys.OZONE_CLIENT_KEY_LOCATION_CACHE_MAX_ENTRIES_DEFAULT),
+            keyLocationCacheExpiryMs)
+        : null;
     long maxPoolSize = (long) conf.getStorageSize(
         OZONE_CLIENT_ELASTIC_BYTE_BUFFER_POOL_MAX_SIZE,
         OZONE_CLIENT_ELASTIC_BYTE_BUFFER_POOL_MAX_SIZE_DEFAULT,
@@ -1457,6 +1470,45 @@ public OzoneOutputStream rewriteKeyIfMatch(String volumeName,
     return openOutputStream(builder.build(), size);
   }
 
+  @Override
+  @SuppressWarnings("checkstyle:parameternumber")
+  public void copyKey(String sourceVolumeName, String sourceBucketName,
+      String sourceKeyName, Long sourceGeneration, String volumeName,
+      String bucketName, String keyName, Map<String, String> metadata,
+      Map<String, String> tags) throws IOException {
+    checkServerSideCopySupport();
+    OmKeyArgs.Builder builder = createWriteKeyArgsBuilder(volumeName,
+        bucketName, keyName, 0, null, metadata, tags);
+    invalidateKeyLocation(volumeName, bucketName, keyName);
+    // No blocks are allocated for an empty key, the blocks of the source are
+    // added to the key on commit.
+    OpenKeySession openKey = ozoneManagerClient.openKey(builder.build());
+    ozoneManagerClient.commitKey(builder
+        .setLocationInfoList(Collections.emptyList())
+        .setCopySource(copySourceArgs(sourceVolumeName, sourceBucketName,
+            sourceKeyName, sourceGeneration))
+        .build(), openKey.getId());
+  }
+
+  private void checkServerSideCopySupport() throws OMException {
+    if (omVersion.compareTo(OzoneManagerVersion.SERVER_SIDE_COPY) < 0) {
+      throw new OMException("OzoneManager does not support server-side copy.",
+          OMException.ResultCodes.NOT_SUPPORTED_OPERATION);
+    }
+  }
+
+  private static OmKeyArgs copySourceArgs(String volumeName,
+      String bucketName, String keyName, Long generation) {
+    OmKeyArgs.Builder builder = new OmKeyArgs.Builder()
+        .setVolumeName(volumeName)
+        .setBucketName(bucketName)
+        .setKeyName(keyName);
+    if (generation != null) {
+      builder.setExpectedDataGeneration(generation);
+    }
+    return builder.build();
+  }
+
   private OmKeyArgs.Builder createWriteKeyArgsBuilder(String volumeName,
       String bucketName, String keyName, long size,
       ReplicationConfig replicationConfig, Map<String, String> metadata,
@@ -1470,6 +1522,8 @@ private OmKeyArgs.Builder createWriteKeyArgsBuilder(String volumeName,
 
   private OzoneOutputStream openOutputStream(OmKeyArgs keyArgs, long size)
       throws IOException {
+    invalidateKeyLocation(keyArgs.getVolumeName(), keyArgs.getBucketName(),
+        keyArgs.getKeyName());
     OpenKeySession openKey = ozoneManagerClient.openKey(keyArgs);
     return createOutputStream(openKey);
   }
@@ -1576,6 +1630,8 @@ private OmKeyArgs.Builder createStreamKeyArgsBuilder(String volumeName,
 
   private OzoneDataStreamOutput openDataStreamOutput(OmKeyArgs keyArgs)
       throws IOException {
+    invalidateKeyLocation(keyArgs.getVolumeName(), keyArgs.getBucketName(),
+        keyArgs.getKeyName());
     OpenKeySession openKey = ozoneManagerClient.openKey(keyArgs);
     return createDataStreamOutput(openKey);
   }
@@ -1622,7 +1678,8 @@ public OzoneInputStream getKey(
     verifyVolumeName(volumeName);
     verifyBucketName(bucketName);
     Objects.requireNonNull(keyName, "keyName == null");
-    OmKeyInfo keyInfo = getKeyInfo(volumeName, bucketName, keyName, false);
+    OmKeyInfo keyInfo = getCachedKeyInfo(volumeName, bucketName, keyName,
+        () -> getKeyInfo(volumeName, bucketName, keyName, false));
     return getInputStreamWithRetryFunction(keyInfo);
   }
 
@@ -1713,6 +1770,7 @@ public void deleteKey(
         .setKeyName(keyName)
         .setRecursive(recursive)
         .build();
+    invalidateKeyLocationTree(volumeName, bucketName, keyName);
     ozoneManagerClient.deleteKey(keyArgs);
   }
 
@@ -1725,6 +1783,9 @@ public void deleteKeys(
     Objects.requireNonNull(keyNameList, "keyNameList == null");
     OmDeleteKeys omDeleteKeys = new OmDeleteKeys(volumeName, bucketName,
         keyNameList);
+    if (keyLocationCache != null) {
+      keyLocationCache.invalidateTrees(volumeName, bucketName, keyNameList);
+    }
     ozoneManagerClient.deleteKeys(omDeleteKeys);
   }
 
@@ -1737,6 +1798,9 @@ public Map<String, ErrorInfo> deleteKeys(
     Objects.requireNonNull(keyNameList, "keyNameList == null");
     OmDeleteKeys omDeleteKeys = new OmDeleteKeys(volumeName, bucketName,
         keyNameList);
+    if (keyLocationCache != null) {
+      keyLocationCache.invalidateTrees(volumeName, bucketName, keyNameList);
+    }
     return ozoneManagerClient.deleteKeys(omDeleteKeys, quiet);
   }
 
@@ -1754,6 +1818,8 @@ public void renameKey(String volumeName, String bucketName,
         .setBucketName(bucketName)
         .setKeyName(fromKeyName)
         .build();
+    invalidateKeyLocationTree(volumeName, bucketName, fromKeyName);
+    invalidateKeyLocationTree(volumeName, bucketName, toKeyName);
     ozoneManagerClient.renameKey(keyArgs, toKeyName);
   }
 
@@ -1766,6 +1832,12 @@ public void renameKeys(String volumeName, String bucketName,
     HddsClientUtils.checkNotNull(keyMap);
     OmRenameKeys omRenameKeys =
         new OmRenameKeys(volumeName, bucketName, keyMap, null);
+    if (keyLocationCache != null) {
+      keyLocationCache.invalidateTrees(volumeName, bucketName,
+          keyMap.keySet());
+      keyLocationCache.invalidateTrees(volumeName, bucketName,
+          keyMap.values());
+    }
     ozoneManagerClient.renameKeys(omRenameKeys);
   }
 
@@ -1957,6 +2029,9 @@ public void close() throws IOException {
     IOUtils.cleanupWithLogger(LOG, ozoneManagerClient, xceiverClientManager);
     keyProviderCache.invalidateAll();
     keyProviderCache.cleanUp();
+    if (keyLocationCache != null) {
+      keyLocationCache.invalidateAll();
+    }
     ContainerClientMetrics.release();
   }
 
@@ -2061,6 +2136,7 @@ private OpenKeySession newMultipartOpenKey(
         .setSortDatanodesInPipeline(sortDatanodesInPipeline)
         .setOwnerName(ownerName)
         .build();
+    invalidateKeyLocation(volumeName, bucketName, keyName);
     return ozoneManagerClient.openKey(keyArgs);
   }
 
@@ -2073,6 +2149,32 @@ public OzoneOutputStream createMultipartKey(
     return createMultipartOutputStream(openKey, uploadID, partNumber);
   }
 
+  @Override
+  @SuppressWarnings("checkstyle:parameternumber")
+  public OmMultipartCommitUploadPartInfo copyMultipartKey(
+      String sourceVolumeName, String sourceBucketName, String sourceKeyName,
+      Long sourceGeneration, String volumeName, String bucketName,
+      String keyName, int partNumber, String uploadID,
+      Map<String, String> metadata) throws IOException {
+    checkServerSideCopySupport();
+    final OpenKeySession openKey = newMultipartOpenKey(
+        volumeName, bucketName, keyName, 0, partNumber, uploadID, false);
+    OmKeyArgs keyArgs = new OmKeyArgs.Builder()
+        .setVolumeName(volumeName)
+        .setBucketName(bucketName)
+        .setKeyName(keyName)
+        .setIsMultipartKey(true)
+        .setMultipartUploadID(uploadID)
+        .setMultipartUploadPartNumber(partNumber)
+        .setLocationInfoList(Collections.emptyList())
+        .addAllMetadata(metadata)
+        .setCopySource(copySourceArgs(sourceVolumeName, sourceBucketName,
+            sourceKeyName, sourceGeneration))
+        .build();
+    return ozoneManagerClient.commitMultipartUploadPart(keyArgs,
+        openKey.getId());
+  }
+
   private OzoneOutputStream createMultipartOutputStream(
       OpenKeySession openKey, String uploadID, int partNumber
   ) throws IOException {
@@ -2137,6 +2239,7 @@ public OmMultipartUploadCompleteInfo completeMultipartUpload(
         omMultipartUploadCompleteList = new OmMultipartUploadCompleteList(
         partsMap);
 
+    invalidateKeyLocation(volumeName, bucketName, keyName);
     OmMultipartUploadCompleteInfo omMultipartUploadCompleteInfo =
         ozoneManagerClient.completeMultipartUpload(keyArgs,
             omMultipartUploadCompleteList);
@@ -2174,6 +2277,7 @@ public OmMultipartUploadCompleteInfo completeMultipartUpload(
     OmMultipartUploadCompleteList omMultipartUploadCompleteList =
         new OmMultipartUploadCompleteList(partsMap);
 
+    invalidateKeyLocation(volumeName, bucketName, keyName);
     return ozoneManagerClient.completeMultipartUpload(keyArgs,
         omMultipartUploadCompleteList);
   }
@@ -2291,14 +2395,15 @@ public OzoneInputStream readFile(String volumeName, String bucketName,
         .build();
     final OmKeyInfo keyInfo;
     if (omVersion.compareTo(OzoneManagerVersion.OPTIMIZED_GET_KEY_INFO) >= 0) {
-      keyInfo = ozoneManagerClient.getKeyInfo(keyArgs, false)
-          .getKeyInfo();
+      keyInfo = getCachedKeyInfo(volumeName, bucketName, keyName,
+          () -> ozoneManagerClient.getKeyInfo(keyArgs, false).getKeyInfo());
       if (!keyInfo.isFile()) {
         throw new OMException(keyName + " is not a file.",
             OMException.ResultCodes.NOT_A_FILE);
       }
     } else {
-      keyInfo = ozoneManagerClient.lookupFile(keyArgs);
+      keyInfo = getCachedKeyInfo(volumeName, bucketName, keyName,
+          () -> ozoneManagerClient.lookupFile(keyArgs));
     }
     return getInputStreamWithRetryFunction(keyInfo);
   }
@@ -2324,16 +2429,71 @@ public OzoneOutputStream createFile(String volumeName, String bucketName,
   private OzoneInputStream getInputStreamWithRetryFunction(
       OmKeyInfo keyInfo) throws IOException {
     return createInputStream(keyInfo, omKeyInfo -> {
+      OmKeyInfo refreshed = null;
       try {
-        return getKeyInfo(omKeyInfo.getVolumeName(), omKeyInfo.getBucketName(),
-            omKeyInfo.getKeyName(), true);
+        refreshed = getKeyInfo(omKeyInfo.getVolumeName(),
+            omKeyInfo.getBucketName(), omKeyInfo.getKeyName(), true);
+        return refreshed;
       } catch (IOException e) {
         LOG.error("Unable to lookup key {} on retry.", keyInfo.getKeyName(), e);
         return null;
+      } finally {
+        if (keyLocationCache != null) {
+          // only invalidate for S3 requests, see getCachedKeyInfo
+          keyLocationCache.refreshed(omKeyInfo,
+              getThreadLocalS3Auth() == null ? refreshed : null);
+        }
       }
     });
   }
 
+  /**
+   * Look up the key info of a key opened for read, from the key location
+   * cache if it is enabled.
+   * <p>
+   * The cache is bypassed for S3 requests: S3 Gateway shares the client
+   * between users, and cached key info would skip the ACL check of OM for
+   * the user of the request.
+   */
+  private OmKeyInfo getCachedKeyInfo(String volumeName, String bucketName,
+      String keyName, CheckedSupplier<OmKeyInfo, IOException> lookup)
+      throws IOException {
+    if (keyLocationCache == null || getThreadLocalS3Auth() != null) {
+      return lookup.get();
+    }
+    return keyLocationCache.get(volumeName, bucketName, keyName, lookup);
+  }
+
+  private void invalidateKeyLocation(String volumeName, String bucketName,
+      String keyName) {
+    if (keyLocationCache != null) {
+      keyLocationCache.invalidate(volumeName, bucketName, keyName);
+    }
+  }
+
+  private void invalidateKeyLocationTree(String volumeName, String bucketName,
+      String keyName) {
+    if (keyLocationCache != null) {
+      keyLocationCache.invalidateTree(volumeName, bucketName, keyName);
+    }
+  }
+
+  /**
+   * Drops the key from the location cache once the stream commits it, as a
+   * read between opening and committing the key may have cached the previous
+   * version.
+   */
+  private Runnable invalidateKeyLocationOnCommit(OpenKeySession openKey) {
+    final OmKeyInfo keyInfo = openKey.getKeyInfo();
+    return () -> invalidateKeyLocation(keyInfo.getVolumeName(),
+        keyInfo.getBucketName(), keyInfo.getKeyName());
+  }
+
+  @VisibleForTesting
+  KeyLocationCache getKeyLocationCache() {
+    return keyLocationCache;
+  }
+
   @Override
   public OzoneOutputStream createFile(String volumeName, String bucketName,
       String keyName, long size, ReplicationConfig replicationConfig,
@@ -2357,6 +2517,7 @@ public OzoneOutputStream createFile(String volumeName, String bucketName,
         .setLatestVersionLocation(getLatestVersionLocation)
         .setOwnerName(ownerName)
         .build();
+    invalidateKeyLocation(volumeName, bucketName, keyName);
     OpenKeySession keySession =
         ozoneManagerClient.createFile(keyArgs, overWrite, recursive);
     return createOutputStream(keySession);
@@ -2389,6 +2550,7 @@ public OzoneDataStreamOutput createStreamFile(String volumeName,
         .setSortDatanodesInPipeline(true)
         .setOwnerName(ownerName)
         .build();
+    invalidateKeyLocation(volumeName, bucketName, keyName);
     OpenKeySession keySession =
         ozoneManagerClient.createFile(keyArgs, overWrite, recursive);
     return createDataStreamOutput(keySession);
@@ -2566,6 +2728,7 @@ private OzoneDataStreamOutput createDataStreamOutput(OpenKeySession openKey)
       KeyDataStreamOutput keyOutputStream = newKeyOutputStreamBuilder()
           .setHandler(openKey)
           .setReplicationConfig(replicationConfig)
+          .setCommitListener(invalidateKeyLocationOnCommit(openKey))
           .build();
       keyOutputStream.addPreallocateBlocks(
           openKey.getKeyInfo().getLatestVersionLocations(),
@@ -2661,7 +2824,8 @@ private KeyOutputStream.Builder createKeyOutputStream(
         .setClientMetrics(clientMetrics)
         .setExecutorServiceSupplier(writeExecutor)
         .setStreamBufferArgs(streamBufferArgs)
-        .setOmVersion(omVersion);
+        .setOmVersion(omVersion)
+        .setCommitListener(invalidateKeyLocationOnCommit(openKey));
   }
 
   @Override
@@ -32,6 +32,8 @@
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.GetCommittedBlockLengthResponseProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.PutBlockRequestProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.PutBlockResponseProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.PutSmallFileRequestProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.PutSmallFileResponseProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ReadChunkRequestProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ReadChunkResponseProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result;
@@ -87,6 +89,18 @@ public XceiverClientReply sendCommandAsync(
               return r.setResult(Result.IO_EXCEPTION);
             }
           });
+    case PutSmallFile:
+      return result(request,
+          r -> {
+            try {
+              return r.setPutSmallFile(
+                  putSmallFile(request.getPutSmallFile()));
+            } catch (ContainerNotOpenException e) {
+              return r.setResult(Result.CLOSED_CONTAINER_IO);
+            } catch (IOException e) {
+              return r.setResult(Result.IO_EXCEPTION);
+            }
+          });
     case ReadChunk:
       return result(request,
           r -> r.setReadChunk(readChunk(request.getReadChunk())));
@@ -149,6 +163,19 @@ private GetCommittedBlockLengthResponseProto doPutBlock(
                 .build();
   }
 
+  private PutSmallFileResponseProto putSmallFile(
+      PutSmallFileRequestProto putSmallFile) throws IOException {
+    ContainerProtos.BlockData blockData =
+        putSmallFile.getBlock().getBlockData();
+    datanodeStorage.writeChunk(blockData.getBlockID(),
+        putSmallFile.getChunkInfo(), putSmallFile.getData());
+    return PutSmallFileResponseProto.newBuilder()
+        .setCommittedBlockLength(doPutBlock(blockData.toBuilder()
+            .addChunks(putSmallFile.getChunkInfo())
+            .build()))
+        .build();
+  }
+
   private XceiverClientReply result(
       ContainerCommandRequestProto request,
       Function<ContainerCommandResponseProto.Builder,
@@ -20,23 +20,40 @@
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.hadoop.hdds.client.ReplicationFactor.ONE;
 import static org.apache.ozone.test.GenericTestUtils.getTestStartTime;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
 
 import jakarta.annotation.Nonnull;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hadoop.conf.StorageUnit;
 import org.apache.hadoop.hdds.client.ECReplicationConfig;
 import org.apache.hadoop.hdds.client.ReplicationConfigValidator;
 import org.apache.hadoop.hdds.client.ReplicationType;
 import org.apache.hadoop.hdds.conf.ConfigurationSource;
 import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandRequestProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandResponseProto;
+import org.apache.hadoop.hdds.scm.OzoneClientConfig;
 import org.apache.hadoop.hdds.scm.XceiverClientFactory;
+import org.apache.hadoop.hdds.scm.XceiverClientReply;
+import org.apache.hadoop.hdds.scm.XceiverClientSpi;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
 import org.apache.hadoop.ozone.OzoneConfigKeys;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.client.io.OzoneInputStream;
@@ -45,7 +62,11 @@
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfoEx;
+import org.apache.hadoop.ozone.om.protocol.S3Auth;
 import org.apache.hadoop.ozone.om.protocolPB.OmTransport;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.Type;
 import org.apache.ozone.test.LambdaTestUtils.VoidCallable;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -77,18 +98,29 @@ public void init() throws IOException {
 
   private void createNewClient(ConfigurationSource config,
       MockBlockAllocator blkAllocator) throws IOException {
+    createNewClient(config, new MockOmTransport(blkAllocator));
+  }
+
+  private void createNewClient(ConfigurationSource config,
+      OmTransport omTransport) throws IOException {
+    createNewClient(config, omTransport, new MockXceiverClientFactory());
+  }
+
+  private void createNewClient(ConfigurationSource config,
+      OmTransport omTransport, XceiverClientFactory xceiverClientFactory)
+      throws IOException {
     client = new OzoneClient(config, new RpcClient(config, null) {
 
       @Override
       protected OmTransport createOmTransport(String omServiceId) {
-        return new MockOmTransport(blkAllocator);
+        return omTransport;
       }
 
       @Nonnull
       @Override
       protected XceiverClientFactory createXceiverClientFactory(
           ServiceInfoEx serviceInfo) {
-        return new MockXceiverClientFactory();
+        return xceiverClientFactory;
       }
     });
 
@@ -220,6 +252,185 @@ public void testPutKeyWithECReplicationConfig() throws IOException {
     }
   }
 
+  @Test
+  public void testKeyLocationCacheBypassedForS3Requests() throws IOException {
+    close();
+    OzoneConfiguration config = new OzoneConfiguration();
+    config.set(OzoneConfigKeys.OZONE_CLIENT_KEY_LOCATION_CACHE_EXPIRY, "1m");
+    AtomicInteger lookups = new AtomicInteger();
+    createNewClient(config,
+        new MockOmTransport(new SinglePipelineBlockAllocator(config)) {
+          @Override
+          public OMResponse submitRequest(OMRequest payload)
+              throws IOException {
+            if (payload.getCmdType() == Type.GetKeyInfo
+                || payload.getCmdType() == Type.LookupKey) {
+              lookups.incrementAndGet();
+            }
+            return super.submitRequest(payload);
+          }
+        });
+    OzoneBucket bucket = getOzoneBucket();
+    String keyName = UUID.randomUUID().toString();
+    byte[] value = "sample value".getBytes(UTF_8);
+    try (OzoneOutputStream out = bucket.createKey(keyName, value.length,
+        ReplicationType.RATIS, ONE, new HashMap<>())) {
+      out.write(value);
+    }
+
+    // each S3 request is checked by OM for its own user
+    client.getProxy().setThreadLocalS3Auth(
+        new S3Auth("stringToSign", "signature", "accessID", "user"));
+    try {
+      readKey(bucket, keyName, value);
+      readKey(bucket, keyName, value);
+      assertEquals(2, lookups.get());
+    } finally {
+      client.getProxy().clearThreadLocalS3Auth();
+    }
+
+    readKey(bucket, keyName, value);
+    readKey(bucket, keyName, value);
+    assertEquals(3, lookups.get());
+  }
+
+  @Test
+  public void testKeyLocationCacheInvalidatedOnCommit() throws IOException {
+    close();
+    OzoneConfiguration config = new OzoneConfiguration();
+    config.set(OzoneConfigKeys.OZONE_CLIENT_KEY_LOCATION_CACHE_EXPIRY, "1m");
+    createNewClient(config,
+        new MockOmTransport(new SinglePipelineBlockAllocator(config)));
+    OzoneBucket bucket = getOzoneBucket();
+    String keyName = UUID.randomUUID().toString();
+    byte[] first = "first value".getBytes(UTF_8);
+    byte[] second = "other value".getBytes(UTF_8);
+    try (OzoneOutputStream out = bucket.createKey(keyName, first.length,
+        ReplicationType.RATIS, ONE, new HashMap<>())) {
+      out.write(first);
+    }
+    readKey(bucket, keyName, first);
+
+    try (OzoneOutputStream out = bucket.createKey(keyName, second.length,
+        ReplicationType.RATIS, ONE, new HashMap<>())) {
+      out.write(second);
+      // caches the previous version while the new one is being written
+      readKey(bucket, keyName, first);
+    }
+    readKey(bucket, keyName, second);
+  }
+
+  @Test
+  public void testSmallKeyWrittenWithSingleRequest() throws IOException {
+    final RecordingClientFactory factory = createSmallKeyClient();
+    OzoneBucket bucket = getOzoneBucket();
+    String keyName = UUID.randomUUID().toString();
+    byte[] value = "sample value".getBytes(UTF_8);
+    try (OzoneOutputStream out = bucket.createKey(keyName, value.length,
+        ReplicationType.RATIS, ONE, new HashMap<>())) {
+      out.write(value, 0, 6);
+      out.write(value, 6, value.length - 6);
+    }
+
+    assertEquals(Collections.singletonList(ContainerProtos.Type.PutSmallFile),
+        factory.getCommands());
+    readKey(bucket, keyName, value);
+  }
+
+  @Test
+  public void testSmallKeyWrittenAsStream() throws IOException {
+    final RecordingClientFactory factory = createSmallKeyClient();
+    OzoneBucket bucket = getOzoneBucket();
+    byte[] value = "sample value".getBytes(UTF_8);
+
+    // more data than the size the key was created with
+    String longerKey = UUID.randomUUID().toString();
+    try (OzoneOutputStream out = bucket.createKey(longerKey, 6,
+        ReplicationType.RATIS, ONE, new HashMap<>())) {
+      out.write(value);
+    }
+    assertThat(factory.getCommands())
+        .doesNotContain(ContainerProtos.Type.PutSmallFile)
+        .contains(ContainerProtos.Type.WriteChunk);
+    readKey(bucket, longerKey, value);
+
+    // PutSmallFile failed, the data is written to a new block
+    factory.getCommands().clear();
+    factory.setFailPutSmallFile(true);
+    String retriedKey = UUID.randomUUID().toString();
+    try (OzoneOutputStream out = bucket.createKey(retriedKey, value.length,
+        ReplicationType.RATIS, ONE, new HashMap<>())) {
+      out.write(value);
+    }
+    assertEquals(ContainerProtos.Type.PutSmallFile,
+        factory.getCommands().get(0));
+    assertThat(factory.getCommands())
+        .contains(ContainerProtos.Type.WriteChunk);
+    readKey(bucket, retriedKey, value);
+  }
+
+  private RecordingClientFactory createSmallKeyClient() throws IOException {
+    close();
+    OzoneConfiguration config = new OzoneConfiguration();
+    OzoneClientConfig clientConfig = config.getObject(OzoneClientConfig.class);
+    clientConfig.setSmallKeyMaxSize(1024);
+    config.setFromObject(clientConfig);
+    final RecordingClientFactory factory = new RecordingClientFactory();
+    createNewClient(config,
+        new MockOmTransport(new SinglePipelineBlockAllocator(config)),
+        factory);
+    return factory;
+  }
+
+  /**
+   * Records the commands sent to datanodes to write keys, optionally
+   * failing PutSmallFile requests.
+   */
+  private static final class RecordingClientFactory
+      extends MockXceiverClientFactory {
+    private final List<ContainerProtos.Type> commands =
+        new CopyOnWriteArrayList<>();
+    private volatile boolean failPutSmallFile;
+
+    @Override
+    public XceiverClientSpi acquireClient(Pipeline pipeline,
+        boolean topologyAware) throws IOException {
+      final XceiverClientSpi xceiverClient =
+          spy(super.acquireClient(pipeline, topologyAware));
+      doAnswer(invocation -> {
+        final ContainerCommandRequestProto request = invocation.getArgument(0);
+        commands.add(request.getCmdType());
+        if (failPutSmallFile
+            && request.getCmdType() == ContainerProtos.Type.PutSmallFile) {
+          return new XceiverClientReply(CompletableFuture.completedFuture(
+              ContainerCommandResponseProto.newBuilder()
+                  .setCmdType(request.getCmdType())
+                  .setResult(ContainerProtos.Result.CLOSED_CONTAINER_IO)
+                  .build()));
+        }
+        return invocation.callRealMethod();
+      }).when(xceiverClient).sendCommandAsync(any());
+      return xceiverClient;
+    }
+
+    List<ContainerProtos.Type> getCommands() {
+      return commands;
+    }
+
+    void setFailPutSmallFile(boolean fail) {
+      failPutSmallFile = fail;
+    }
+  }
+
+  private static void readKey(OzoneBucket bucket, String keyName,
+      byte[] expected) throws IOException {
+    byte[] content = new byte[expected.length];
+    try (OzoneInputStream is = bucket.readKey(keyName)) {
+      assertEquals(expected.length, is.read(content));
+    }
+    assertArrayEquals(expected, content);
+  }
+
   private OzoneBucket getOzoneBucket() throws IOException {
     String volumeName = UUID.randomUUID().toString();
     String bucketName = UUID.randomUUID().toString();
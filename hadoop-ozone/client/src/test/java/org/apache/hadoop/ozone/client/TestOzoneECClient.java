@@ -272,6 +272,15 @@ public void test12ChunksInSingleWriteOp() throws IOException {
     testMultipleChunksInSingleWriteOp(12);
   }
 
+  @Test
+  public void testMoreStripesThanStripeRing() throws IOException {
+    // With a queue size of 1 the stripe ring has 5 stripes, write 12.
+    OzoneConfiguration con = createConfiguration();
+    con.setInt("ozone.client.ec.stripe.queue.size", 1);
+    createNewClient(con, transportStub);
+    testMultipleChunksInSingleWriteOp(12 * dataBlocks);
+  }
+
   private void testMultipleChunksInSingleWriteOp(int numChunks)
           throws IOException {
     testMultipleChunksInSingleWriteOp(0, numChunks, numChunks);
@@ -717,6 +726,42 @@ public void testStripeWriteRetriesOn4FailuresWith3RetriesAllowed()
         e.getMessage());
   }
 
+  @Test
+  public void testStripeRingReleasedAfterFlushFailure() throws Exception {
+    close();
+    OzoneConfiguration con = createConfiguration();
+    con.setInt(OzoneClientConfig.Keys.OZONE_CLIENT_MAX_EC_STRIPE_WRITE_RETRIES, 0);
+    MultiNodePipelineBlockAllocator blkAllocator =
+        new MultiNodePipelineBlockAllocator(con, dataBlocks + parityBlocks, 15);
+    createNewClient(con, blkAllocator);
+    store.createVolume(volumeName);
+    OzoneVolume volume = store.getVolume(volumeName);
+    volume.createBucket(bucketName);
+    OzoneBucket bucket = volume.getBucket(bucketName);
+
+    List<DatanodeDetails> failedDNs = new ArrayList<>();
+    failedDNs.add(DatanodeDetails.getFromProtoBuf(
+        blkAllocator.getClusterDns().get(0)));
+    factoryStub.setFailedStorages(failedDNs);
+
+    OzoneOutputStream out = bucket.createKey(keyName, inputSize,
+        new ECReplicationConfig(dataBlocks, parityBlocks,
+            ECReplicationConfig.EcCodec.RS, chunkSize), new HashMap<>());
+    ECKeyOutputStream ecOut = (ECKeyOutputStream) out.getOutputStream();
+    // The flush thread fails writing the first stripe, while the encode
+    // thread waits for the next one.
+    assertThrows(IOException.class, () -> {
+      try {
+        for (int i = 0; i < dataBlocks; i++) {
+          out.write(inputChunks[i]);
+        }
+      } finally {
+        out.close();
+      }
+    });
+    GenericTestUtils.waitFor(ecOut::isStripeRingReleased, 100, 10000);
+  }
+
   public void testStripeWriteRetriesOnFailures(OzoneConfiguration con,
       int clusterSize, int[] nodesIndexesToMarkFailure) throws Exception {
     close();
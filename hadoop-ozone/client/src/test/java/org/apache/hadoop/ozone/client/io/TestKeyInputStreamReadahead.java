@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.scm.storage.BlockExtendedInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for cross-block readahead in {@link KeyInputStream}.
+ */
+public class TestKeyInputStreamReadahead {
+
+  private static final int BLOCK_SIZE = 100;
+  private static final int BLOCK_COUNT = 4;
+  private static final int READAHEAD = 40;
+
+  private byte[] data;
+  private List<ECStreamTestUtil.TestBlockInputStream> blocks;
+
+  @BeforeEach
+  public void setup() {
+    data = RandomUtils.secure().randomBytes(BLOCK_SIZE * BLOCK_COUNT);
+    blocks = new ArrayList<>();
+    for (int i = 0; i < BLOCK_COUNT; i++) {
+      blocks.add(new ECStreamTestUtil.TestBlockInputStream(
+          new BlockID(1, i), BLOCK_SIZE,
+          ByteBuffer.wrap(data, i * BLOCK_SIZE, BLOCK_SIZE).slice()));
+    }
+  }
+
+  @Test
+  public void testSequentialRead() throws IOException {
+    try (KeyInputStream in = new KeyInputStream("key", blocks, READAHEAD)) {
+      byte[] buf = new byte[data.length];
+      int pos = 0;
+      while (pos < data.length) {
+        int read = in.read(buf, pos, Math.min(7, data.length - pos));
+        assertEquals(Math.min(7, data.length - pos), read);
+        pos += read;
+      }
+      assertEquals(-1, in.read());
+      assertArrayEquals(data, buf);
+    }
+  }
+
+  @Test
+  public void testNextBlockServedFromReadahead() throws IOException {
+    try (KeyInputStream in = new KeyInputStream("key", blocks, READAHEAD)) {
+      byte[] buf = new byte[BLOCK_SIZE];
+      for (int i = 0; i < 10; i++) {
+        assertEquals(10, in.read(buf, i * 10, 10));
+      }
+      assertArrayEquals(Arrays.copyOfRange(data, 0, BLOCK_SIZE), buf);
+
+      // the prefetched window is served without touching the block
+      blocks.get(1).setShouldError(true);
+      ByteBuffer prefetched = ByteBuffer.allocate(READAHEAD);
+      assertEquals(READAHEAD, in.read(prefetched));
+      assertArrayEquals(
+          Arrays.copyOfRange(data, BLOCK_SIZE, BLOCK_SIZE + READAHEAD),
+          prefetched.array());
+      assertEquals(BLOCK_SIZE + READAHEAD, in.getPos());
+
+      assertThrows(IOException.class, in::read);
+    }
+  }
+
+  @Test
+  public void testSeekCancelsReadahead() throws IOException {
+    try (KeyInputStream in = new KeyInputStream("key", blocks, READAHEAD)) {
+      byte[] buf = new byte[30];
+      in.seek(BLOCK_SIZE - 90);
+      assertEquals(30, in.read(buf));
+      assertEquals(30, in.read(buf));
+      assertEquals(30, in.read(buf));
+
+      in.seek(BLOCK_SIZE + 10);
+      blocks.get(1).setShouldError(true);
+      assertThrows(IOException.class, () -> in.read(buf));
+
+      blocks.get(1).setShouldError(false);
+      in.seek(BLOCK_SIZE + 10);
+      assertEquals(30, in.read(buf));
+      assertArrayEquals(
+          Arrays.copyOfRange(data, BLOCK_SIZE + 10, BLOCK_SIZE + 40), buf);
+    }
+  }
+
+  @Test
+  public void testReadaheadSkippedWhenExecutorRejects() throws IOException {
+    KeyReadahead readahead = new KeyReadahead(
+        new ArrayList<BlockExtendedInputStream>(blocks), READAHEAD,
+        task -> {
+          throw new RejectedExecutionException("busy");
+        });
+    blocks.get(0).seek(BLOCK_SIZE - 10);
+    for (int i = 0; i < KeyReadahead.SEQUENTIAL_READS; i++) {
+      readahead.afterRead(0);
+    }
+    assertFalse(readahead.isPrefetching());
+    assertEquals(0, blocks.get(1).getPos());
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.hadoop.fs.FileRange;
+import org.apache.hadoop.hdds.client.BlockID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link KeyInputStream#readVectored}.
+ */
+public class TestKeyInputStreamVectoredRead {
+
+  private static final int BLOCK_SIZE = 100;
+  private static final int BLOCK_COUNT = 4;
+
+  private byte[] data;
+  private List<ECStreamTestUtil.TestBlockInputStream> blocks;
+
+  @BeforeEach
+  public void setup() {
+    data = RandomUtils.secure().randomBytes(BLOCK_SIZE * BLOCK_COUNT);
+    blocks = new ArrayList<>();
+    for (int i = 0; i < BLOCK_COUNT; i++) {
+      blocks.add(new ECStreamTestUtil.TestBlockInputStream(
+          new BlockID(1, i), BLOCK_SIZE,
+          ByteBuffer.wrap(data, i * BLOCK_SIZE, BLOCK_SIZE).slice()));
+    }
+  }
+
+  @Test
+  public void testRangesAcrossBlocks() throws Exception {
+    List<FileRange> ranges = Arrays.asList(
+        FileRange.createFileRange(250, 30),
+        FileRange.createFileRange(10, 20),
+        FileRange.createFileRange(35, 5),
+        FileRange.createFileRange(90, 150),
+        FileRange.createFileRange(399, 1));
+
+    try (KeyInputStream in = new KeyInputStream("key", blocks)) {
+      in.seek(42);
+      in.readVectored(ranges, ByteBuffer::allocate, 16, 1024);
+      assertEquals(42, in.getPos());
+      assertRanges(ranges);
+
+      // sequential reads continue from the original position
+      byte[] buf = new byte[10];
+      assertEquals(10, in.read(buf, 0, 10));
+      assertArrayEquals(Arrays.copyOfRange(data, 42, 52), buf);
+    }
+  }
+
+  @Test
+  public void testDirectBuffersWithoutMerging() throws Exception {
+    List<FileRange> ranges = new ArrayList<>();
+    for (int offset = 0; offset < data.length; offset += 37) {
+      ranges.add(FileRange.createFileRange(offset,
+          Math.min(11, data.length - offset)));
+    }
+
+    try (KeyInputStream in = new KeyInputStream("key", blocks)) {
+      in.readVectored(ranges, ByteBuffer::allocateDirect, 0, 0);
+      assertRanges(ranges);
+    }
+  }
+
+  @Test
+  public void testFailedBlockCompletesItsRangesExceptionally()
+      throws Exception {
+    blocks.get(1).setShouldError(true);
+    FileRange good = FileRange.createFileRange(10, 10);
+    FileRange bad = FileRange.createFileRange(150, 10);
+    FileRange spanning = FileRange.createFileRange(190, 20);
+
+    try (KeyInputStream in = new KeyInputStream("key", blocks)) {
+      in.readVectored(Arrays.asList(good, bad, spanning),
+          ByteBuffer::allocate, 0, 1024);
+      assertRanges(Arrays.asList(good));
+      assertThrows(ExecutionException.class, () -> bad.getData().get());
+      assertThrows(ExecutionException.class, () -> spanning.getData().get());
+    }
+  }
+
+  @Test
+  public void testRangeBeyondEndOfKey() throws IOException {
+    try (KeyInputStream in = new KeyInputStream("key", blocks)) {
+      assertThrows(EOFException.class, () -> in.readVectored(
+          Arrays.asList(FileRange.createFileRange(data.length - 5, 10)),
+          ByteBuffer::allocate, 0, 1024));
+    }
+  }
+
+  private void assertRanges(List<FileRange> ranges) throws Exception {
+    for (FileRange range : ranges) {
+      ByteBuffer buffer = range.getData().get();
+      assertEquals(range.getLength(), buffer.remaining());
+      byte[] actual = new byte[range.getLength()];
+      buffer.get(actual);
+      int offset = (int) range.getOffset();
+      assertArrayEquals(
+          Arrays.copyOfRange(data, offset, offset + range.getLength()),
+          actual, "range " + range);
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.client.RatisReplicationConfig;
+import org.apache.hadoop.hdds.client.ReplicationConfig;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.hdds.scm.ContainerClientMetrics;
+import org.apache.hadoop.hdds.scm.OzoneClientConfig;
+import org.apache.hadoop.hdds.scm.StreamBufferArgs;
+import org.apache.hadoop.ozone.OzoneManagerVersion;
+import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
+import org.apache.hadoop.ozone.om.helpers.OpenKeySession;
+import org.apache.hadoop.ozone.om.protocol.OzoneManagerProtocol;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests for {@link ParallelKeyOutputStream}.
+ */
+public class TestParallelKeyOutputStream {
+
+  private static final int BLOCK_SIZE = 1000;
+
+  private final Map<Integer, ByteArrayOutputStream> written =
+      new ConcurrentHashMap<>();
+  private final Map<Integer, Boolean> synced = new ConcurrentHashMap<>();
+  private OzoneManagerProtocol omClient;
+  private OzoneClientConfig config;
+
+  @BeforeEach
+  public void setup() {
+    omClient = mock(OzoneManagerProtocol.class);
+    config = new OzoneClientConfig();
+    config.setParallelBlockWrites(2);
+    config.setParallelWriteBufferSize(4 * BLOCK_SIZE);
+  }
+
+  @Test
+  public void testNotApplicable() {
+    config.setParallelBlockWrites(1);
+    assertFalse(ParallelKeyOutputStream.isApplicable(
+        builder(3 * BLOCK_SIZE, 2)));
+
+    config.setParallelBlockWrites(2);
+    assertFalse(ParallelKeyOutputStream.isApplicable(builder(BLOCK_SIZE, 1)));
+    assertFalse(ParallelKeyOutputStream.isApplicable(builder(0, 0)));
+    assertTrue(ParallelKeyOutputStream.isApplicable(
+        builder(3 * BLOCK_SIZE, 2)));
+    assertInstanceOf(ParallelKeyOutputStream.class,
+        builder(3 * BLOCK_SIZE, 2).build());
+  }
+
+  @Test
+  public void testKeyCommittedInOrder() throws IOException {
+    final byte[] data = RandomUtils.secure().randomBytes(3 * BLOCK_SIZE + 500);
+    final ParallelKeyOutputStream out = createStream(data.length, null);
+    for (int off = 0; off < data.length; off += 333) {
+      out.write(data, off, Math.min(333, data.length - off));
+    }
+    out.close();
+
+    final ArgumentCaptor<OmKeyArgs> args =
+        ArgumentCaptor.forClass(OmKeyArgs.class);
+    verify(omClient).commitKey(args.capture(), anyLong());
+    assertEquals(data.length, args.getValue().getDataSize());
+    final List<OmKeyLocationInfo> blocks = args.getValue().getLocationInfoList();
+    assertEquals(4, blocks.size());
+    for (int i = 0; i < blocks.size(); i++) {
+      assertEquals(i, blocks.get(i).getLocalID());
+      final int end = Math.min(data.length, (i + 1) * BLOCK_SIZE);
+      assertEquals(end - i * BLOCK_SIZE, blocks.get(i).getLength());
+      assertArrayEquals(Arrays.copyOfRange(data, i * BLOCK_SIZE, end),
+          written.get(i).toByteArray());
+    }
+    assertThat(out.getAllocatedChunks()).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  public void testSegmentsWrittenConcurrently() throws IOException {
+    final CountDownLatch bothWriting = new CountDownLatch(2);
+    final ParallelKeyOutputStream out = createStream(2 * BLOCK_SIZE,
+        index -> {
+          bothWriting.countDown();
+          if (!bothWriting.await(10, TimeUnit.SECONDS)) {
+            throw new IOException("Block " + index + " written alone");
+          }
+        });
+    out.write(new byte[2 * BLOCK_SIZE]);
+    out.close();
+
+    assertEquals(2, out.getSegmentCount());
+    verify(omClient).commitKey(any(), anyLong());
+  }
+
+  @Test
+  public void testFailedSegmentFailsKey() throws IOException {
+    final ParallelKeyOutputStream out = createStream(3 * BLOCK_SIZE,
+        index -> {
+          if (index == 1) {
+            throw new IOException("injected");
+          }
+        });
+    final IOException e = assertThrows(IOException.class, () -> {
+      try {
+        out.write(new byte[3 * BLOCK_SIZE]);
+      } finally {
+        out.close();
+      }
+    });
+    assertThat(e).hasStackTraceContaining("injected");
+    verify(omClient, never()).commitKey(any(), anyLong());
+  }
+
+  @Test
+  public void testFlushWaitsForSegments() throws IOException {
+    final byte[] data = RandomUtils.secure().randomBytes(BLOCK_SIZE + 500);
+    final ParallelKeyOutputStream out = createStream(2 * BLOCK_SIZE, null);
+    out.write(data);
+    out.flush();
+
+    // the first segment was written in full, the second one flushed
+    assertEquals(BLOCK_SIZE, written.get(0).size());
+    assertEquals(500, written.get(1).size());
+    assertEquals(Collections.singletonMap(1, false), synced);
+
+    out.write(new byte[BLOCK_SIZE - 500]);
+    out.close();
+    verify(omClient).commitKey(any(), anyLong());
+  }
+
+  @Test
+  public void testHsyncMakesAllSegmentsVisible() throws IOException {
+    final byte[] data = RandomUtils.secure().randomBytes(BLOCK_SIZE + 500);
+    final ParallelKeyOutputStream out = createStream(2 * BLOCK_SIZE, null);
+    out.write(data);
+    out.hsync();
+
+    assertEquals(Collections.singletonMap(1, true), synced);
+    final ArgumentCaptor<OmKeyArgs> args =
+        ArgumentCaptor.forClass(OmKeyArgs.class);
+    verify(omClient).hsyncKey(args.capture(), anyLong());
+    assertEquals(data.length, args.getValue().getDataSize());
+    final List<OmKeyLocationInfo> blocks = args.getValue().getLocationInfoList();
+    assertEquals(2, blocks.size());
+    assertEquals(BLOCK_SIZE, blocks.get(0).getLength());
+    assertEquals(500, blocks.get(1).getLength());
+
+    out.write(new byte[BLOCK_SIZE - 500]);
+    out.close();
+    verify(omClient).commitKey(any(), anyLong());
+  }
+
+  private ParallelKeyOutputStream createStream(long size,
+      SegmentHook hook) {
+    final int preallocated = (int) Math.min(2, size / BLOCK_SIZE);
+    final KeyOutputStream.Builder b = builder(size, preallocated);
+    final ParallelKeyOutputStream out = new ParallelKeyOutputStream(b) {
+      @Override
+      SegmentOutput openSegment(int index, OmKeyLocationInfo block) {
+        return new SegmentOutput() {
+          private final ByteArrayOutputStream buffer =
+              written.computeIfAbsent(index, k -> new ByteArrayOutputStream());
+
+          @Override
+          public void write(byte[] bytes, int off, int len)
+              throws IOException {
+            if (hook != null) {
+              try {
+                hook.beforeWrite(index);
+              } catch (InterruptedException e) {
+                throw new IOException(e);
+              }
+            }
+            buffer.write(bytes, off, len);
+          }
+
+          @Override
+          public List<OmKeyLocationInfo> sync(boolean hsync) {
+            synced.put(index, hsync);
+            return close();
+          }
+
+          @Override
+          public List<OmKeyLocationInfo> close() {
+            return Collections.singletonList(new OmKeyLocationInfo.Builder()
+                .setBlockID(new BlockID(1, index))
+                .setLength(buffer.size())
+                .build());
+          }
+
+          @Override
+          public void abort() {
+          }
+        };
+      }
+    };
+    out.addPreallocateBlocks(b.getOpenHandler().getKeyInfo()
+        .getLatestVersionLocations(), 0);
+    return out;
+  }
+
+  private KeyOutputStream.Builder builder(long size, int preallocated) {
+    final ReplicationConfig replication =
+        RatisReplicationConfig.getInstance(ReplicationFactor.THREE);
+    final List<OmKeyLocationInfo> blocks = new ArrayList<>();
+    for (int i = 0; i < preallocated; i++) {
+      blocks.add(new OmKeyLocationInfo.Builder()
+          .setBlockID(new BlockID(1, 100 + i))
+          .setLength(BLOCK_SIZE)
+          .build());
+    }
+    final OmKeyInfo keyInfo = new OmKeyInfo.Builder()
+        .setVolumeName("vol")
+        .setBucketName("bucket")
+        .setKeyName("key")
+        .setDataSize(size)
+        .setReplicationConfig(replication)
+        .addOmKeyLocationInfoGroup(new OmKeyLocationInfoGroup(0, blocks))
+        .build();
+    return new KeyOutputStream.Builder()
+        .setHandler(new OpenKeySession(1, keyInfo, 0))
+        .setOmClient(omClient)
+        .setConfig(config)
+        .setReplicationConfig(replication)
+        .setClientMetrics(mock(ContainerClientMetrics.class))
+        .setOmVersion(OzoneManagerVersion.CURRENT)
+        .setStreamBufferArgs(
+            StreamBufferArgs.getDefaultStreamBufferArgs(replication, config));
+  }
+
+  /** Called by the segments before writing each chunk. */
+  private interface SegmentHook {
+    void beforeWrite(int index) throws IOException, InterruptedException;
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.client.ECReplicationConfig;
+import org.apache.hadoop.hdds.client.RatisReplicationConfig;
+import org.apache.hadoop.hdds.client.ReplicationConfig;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ChecksumData;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ChecksumType;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandRequestProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Type;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.hdds.scm.ContainerClientMetrics;
+import org.apache.hadoop.hdds.scm.OzoneClientConfig;
+import org.apache.hadoop.hdds.scm.StreamBufferArgs;
+import org.apache.hadoop.hdds.scm.XceiverClientFactory;
+import org.apache.hadoop.hdds.scm.XceiverClientReply;
+import org.apache.hadoop.hdds.scm.XceiverClientSpi;
+import org.apache.hadoop.hdds.scm.pipeline.MockPipeline;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.ozone.OzoneManagerVersion;
+import org.apache.hadoop.ozone.client.MockDatanodeStorage;
+import org.apache.hadoop.ozone.client.MockXceiverClientSpi;
+import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
+import org.apache.hadoop.ozone.om.helpers.OpenKeySession;
+import org.apache.hadoop.ozone.om.protocol.OzoneManagerProtocol;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests for {@link SmallKeyOutputStream}.
+ */
+public class TestSmallKeyOutputStream {
+
+  private static final int BLOCK_SIZE = 4096;
+  private static final int MAX_SIZE = 1024;
+
+  private final List<ContainerCommandRequestProto> requests =
+      new ArrayList<>();
+  private final MockDatanodeStorage storage = new MockDatanodeStorage();
+  private final Pipeline pipeline = MockPipeline.createRatisPipeline();
+  private OzoneManagerProtocol omClient;
+  private XceiverClientFactory xceiverClientFactory;
+  private OzoneClientConfig config;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    omClient = mock(OzoneManagerProtocol.class);
+    xceiverClientFactory = mock(XceiverClientFactory.class);
+    when(xceiverClientFactory.acquireClient(any())).thenAnswer(invocation ->
+        new MockXceiverClientSpi(invocation.getArgument(0), storage) {
+          @Override
+          public XceiverClientReply sendCommandAsync(
+              ContainerCommandRequestProto request) {
+            requests.add(request);
+            return super.sendCommandAsync(request);
+          }
+        });
+    config = new OzoneClientConfig();
+    config.setSmallKeyMaxSize(MAX_SIZE);
+    config.setChecksumType(ChecksumType.CRC32C);
+    config.setBytesPerChecksum(256);
+  }
+
+  @Test
+  public void testNotApplicable() {
+    final ReplicationConfig ratis =
+        RatisReplicationConfig.getInstance(ReplicationFactor.THREE);
+    assertFalse(SmallKeyOutputStream.isApplicable(builder(0, ratis)));
+    assertFalse(SmallKeyOutputStream.isApplicable(
+        builder(MAX_SIZE + 1, ratis)));
+    assertFalse(SmallKeyOutputStream.isApplicable(
+        builder(MAX_SIZE, new ECReplicationConfig(3, 2))));
+
+    config.setSmallKeyMaxSize(0);
+    assertFalse(SmallKeyOutputStream.isApplicable(builder(MAX_SIZE, ratis)));
+
+    config.setSmallKeyMaxSize(MAX_SIZE);
+    assertTrue(SmallKeyOutputStream.isApplicable(builder(MAX_SIZE, ratis)));
+    assertInstanceOf(SmallKeyOutputStream.class,
+        builder(MAX_SIZE, ratis).build());
+  }
+
+  @Test
+  public void testKeyWrittenWithSingleRequest() throws IOException {
+    final byte[] data = RandomUtils.secure().randomBytes(1000);
+    final KeyOutputStream out = createStream(data.length);
+    for (int off = 0; off < data.length; off += 300) {
+      out.write(data, off, Math.min(300, data.length - off));
+    }
+    out.flush();
+    assertEquals(0, requests.size());
+    out.close();
+
+    assertEquals(1, requests.size());
+    final ContainerCommandRequestProto request = requests.get(0);
+    assertEquals(Type.PutSmallFile, request.getCmdType());
+    final ChecksumData checksum =
+        request.getPutSmallFile().getChunkInfo().getChecksumData();
+    assertEquals(ChecksumType.CRC32C, checksum.getType());
+    assertEquals(256, checksum.getBytesPerChecksum());
+    assertEquals(4, checksum.getChecksumsCount());
+    assertArrayEquals(data,
+        storage.getAllBlockData().get("1_100").toByteArray());
+
+    final ArgumentCaptor<OmKeyArgs> args =
+        ArgumentCaptor.forClass(OmKeyArgs.class);
+    verify(omClient).commitKey(args.capture(), anyLong());
+    assertEquals(data.length, args.getValue().getDataSize());
+    final List<OmKeyLocationInfo> blocks =
+        args.getValue().getLocationInfoList();
+    assertEquals(1, blocks.size());
+    assertEquals(100, blocks.get(0).getLocalID());
+    assertEquals(data.length, blocks.get(0).getLength());
+  }
+
+  @Test
+  public void testRejectedDataNotWritten() throws IOException {
+    final KeyOutputStream out = createStream(100);
+    out.setPreCommits(Collections.singletonList(() -> {
+      throw new IOException("rejected");
+    }));
+    out.write(new byte[100]);
+
+    assertThrows(IOException.class, out::close);
+    assertEquals(0, requests.size());
+    verify(omClient, never()).commitKey(any(), anyLong());
+  }
+
+  private KeyOutputStream createStream(long size) {
+    final KeyOutputStream.Builder b = builder(size,
+        RatisReplicationConfig.getInstance(ReplicationFactor.THREE));
+    final KeyOutputStream out = b.build();
+    assertInstanceOf(SmallKeyOutputStream.class, out);
+    out.addPreallocateBlocks(b.getOpenHandler().getKeyInfo()
+        .getLatestVersionLocations(), 0);
+    return out;
+  }
+
+  private KeyOutputStream.Builder builder(long size,
+      ReplicationConfig replication) {
+    final OmKeyLocationInfo block = new OmKeyLocationInfo.Builder()
+        .setBlockID(new BlockID(1, 100))
+        .setLength(BLOCK_SIZE)
+        .setPipeline(pipeline)
+        .build();
+    final OmKeyInfo keyInfo = new OmKeyInfo.Builder()
+        .setVolumeName("vol")
+        .setBucketName("bucket")
+        .setKeyName("key")
+        .setDataSize(size)
+        .setReplicationConfig(replication)
+        .addOmKeyLocationInfoGroup(new OmKeyLocationInfoGroup(0,
+            Collections.singletonList(block)))
+        .build();
+    return new KeyOutputStream.Builder()
+        .setHandler(new OpenKeySession(1, keyInfo, 0))
+        .setOmClient(omClient)
+        .setXceiverClientManager(xceiverClientFactory)
+        .setConfig(config)
+        .setReplicationConfig(replication)
+        .setClientMetrics(mock(ContainerClientMetrics.class))
+        .setOmVersion(OzoneManagerVersion.CURRENT)
+        .setStreamBufferArgs(
+            StreamBufferArgs.getDefaultStreamBufferArgs(replication, config));
+  }
+}
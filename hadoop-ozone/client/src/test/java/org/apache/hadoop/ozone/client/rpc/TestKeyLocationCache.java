@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client.rpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hadoop.hdds.client.RatisReplicationConfig;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.ozone.OzoneConsts;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link KeyLocationCache}.
+ */
+public class TestKeyLocationCache {
+
+  private final KeyLocationCache cache = new KeyLocationCache(100, 60_000);
+  private final AtomicInteger lookups = new AtomicInteger();
+
+  @Test
+  public void testRepeatedOpenServedFromCache() throws IOException {
+    OmKeyInfo keyInfo = createKeyInfo("key", 1, false);
+
+    OmKeyInfo first = get("key", keyInfo);
+    OmKeyInfo second = get("key", keyInfo);
+
+    assertEquals(1, lookups.get());
+    assertNotSame(first, second);
+    assertEquals(keyInfo.getUpdateID(), second.getUpdateID());
+  }
+
+  @Test
+  public void testInvalidate() throws IOException {
+    get("key", createKeyInfo("key", 1, false));
+    cache.invalidate("vol", "bucket", "key");
+    OmKeyInfo reloaded = get("key", createKeyInfo("key", 2, false));
+
+    assertEquals(2, lookups.get());
+    assertEquals(2, reloaded.getUpdateID());
+  }
+
+  @Test
+  public void testInvalidateTree() throws IOException {
+    get("dir/key", createKeyInfo("dir/key", 1, false));
+    get("dir/sub/key", createKeyInfo("dir/sub/key", 1, false));
+    get("dir2/key", createKeyInfo("dir2/key", 1, false));
+    get("dir", createKeyInfo("dir", 1, false));
+
+    cache.invalidateTree("vol", "bucket", "dir/");
+    assertEquals(1, cache.size());
+
+    get("dir2/key", createKeyInfo("dir2/key", 1, false));
+    assertEquals(4, lookups.get());
+  }
+
+  @Test
+  public void testRefreshReplacesEntry() throws IOException {
+    OmKeyInfo stale = get("key", createKeyInfo("key", 1, false));
+    cache.refreshed(stale, createKeyInfo("key", 2, false));
+
+    assertEquals(2, get("key", createKeyInfo("key", 3, false)).getUpdateID());
+    assertEquals(1, lookups.get());
+
+    cache.refreshed(stale, null);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testKeyBeingWrittenIsNotCached() throws IOException {
+    get("key", createKeyInfo("key", 1, true));
+    get("key", createKeyInfo("key", 1, true));
+
+    assertEquals(2, lookups.get());
+    assertEquals(0, cache.size());
+  }
+
+  private OmKeyInfo get(String keyName, OmKeyInfo result) throws IOException {
+    return cache.get("vol", "bucket", keyName, () -> {
+      lookups.incrementAndGet();
+      return result;
+    });
+  }
+
+  private static OmKeyInfo createKeyInfo(String keyName, long updateID,
+      boolean hsync) {
+    OmKeyInfo.Builder builder = new OmKeyInfo.Builder()
+        .setVolumeName("vol")
+        .setBucketName("bucket")
+        .setKeyName(keyName)
+        .setObjectID(1)
+        .setUpdateID(updateID)
+        .setReplicationConfig(
+            RatisReplicationConfig.getInstance(ReplicationFactor.THREE))
+        .addOmKeyLocationInfoGroup(
+            new OmKeyLocationInfoGroup(0, new ArrayList<>()));
+    if (hsync) {
+      builder.addMetadata(OzoneConsts.HSYNC_CLIENT_ID, "1");
+    }
+    return builder.build();
+  }
+}
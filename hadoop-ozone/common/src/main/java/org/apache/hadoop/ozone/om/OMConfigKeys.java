@@ -476,6 +476,19 @@ public final class OMConfigKeys {
   public static final boolean OZONE_OM_NAMESPACE_STRICT_S3_DEFAULT =
       true;
 
+  /**
+   * Number of SigV4 signing keys derived from S3 secrets to keep, 0 to
+   * derive the key for each request.
+   */
+  public static final String OZONE_OM_S3_SIGNING_KEY_CACHE_SIZE =
+      "ozone.om.s3.signing.key.cache.size";
+  public static final int OZONE_OM_S3_SIGNING_KEY_CACHE_SIZE_DEFAULT = 10000;
+
+  public static final String OZONE_OM_S3_SIGNING_KEY_CACHE_EXPIRY =
+      "ozone.om.s3.signing.key.cache.expiry";
+  public static final String OZONE_OM_S3_SIGNING_KEY_CACHE_EXPIRY_DEFAULT =
+      "10m";
+
   /**
    * Configuration properties for OMAdminProtcol service.
    */
@@ -62,6 +62,9 @@ public final class OmKeyArgs extends WithMetadata implements Auditable {
   // been modified.
   private Long expectedDataGeneration = null;
   private final String expectedETag;
+  // When set on commit, the key shares the blocks of this existing key
+  // instead of any blocks written by the client.
+  private final OmKeyArgs copySource;
 
   private OmKeyArgs(Builder b) {
     super(b);
@@ -84,6 +87,7 @@ private OmKeyArgs(Builder b) {
     this.tags = b.tags.build();
     this.expectedDataGeneration = b.expectedDataGeneration;
     this.expectedETag = b.expectedETag;
+    this.copySource = b.copySource;
   }
 
   public boolean getIsMultipartKey() {
@@ -170,6 +174,10 @@ public String getExpectedETag() {
     return expectedETag;
   }
 
+  public OmKeyArgs getCopySource() {
+    return copySource;
+  }
+
   @Override
   public Map<String, String> toAuditMap() {
     Map<String, String> auditMap = new LinkedHashMap<>();
@@ -218,6 +226,9 @@ public KeyArgs toProtobuf() {
     if (expectedETag != null) {
       builder.setExpectedETag(expectedETag);
     }
+    if (copySource != null) {
+      builder.setCopySource(copySource.toProtobuf());
+    }
     return builder.build();
   }
 
@@ -244,6 +255,7 @@ public static class Builder extends WithMetadata.Builder {
     private final MapBuilder<String, String> tags;
     private Long expectedDataGeneration = null;
     private String expectedETag;
+    private OmKeyArgs copySource;
 
     public Builder() {
       this(AclListBuilder.empty());
@@ -290,6 +302,7 @@ public Builder(OmKeyArgs obj) {
           obj.forceUpdateContainerCacheFromSCM;
       this.expectedDataGeneration = obj.expectedDataGeneration;
       this.expectedETag = obj.expectedETag;
+      this.copySource = obj.copySource;
       this.tags = MapBuilder.of(obj.tags);
       this.acls = AclListBuilder.of(obj.acls);
     }
@@ -430,6 +443,11 @@ public Builder setExpectedETag(String eTag) {
       return this;
     }
 
+    public Builder setCopySource(OmKeyArgs source) {
+      this.copySource = source;
+      return this;
+    }
+
     public OmKeyArgs build() {
       return new OmKeyArgs(this);
     }
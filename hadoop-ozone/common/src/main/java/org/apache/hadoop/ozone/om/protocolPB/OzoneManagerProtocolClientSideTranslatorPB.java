@@ -854,6 +854,9 @@ private void updateKey(OmKeyArgs args, long clientId, boolean hsync, boolean rec
             .collect(Collectors.toList()));
 
     setReplicationConfig(args.getReplicationConfig(), keyArgsBuilder);
+    if (args.getCopySource() != null) {
+      keyArgsBuilder.setCopySource(args.getCopySource().toProtobuf());
+    }
 
     req.setKeyArgs(keyArgsBuilder.build());
     req.setClientID(clientId);
@@ -1768,6 +1771,9 @@ public OmMultipartCommitUploadPartInfo commitMultipartUploadPart(
             // TODO use OM version?
             .map(info -> info.getProtobuf(ClientVersion.CURRENT_VERSION))
             .collect(Collectors.toList()));
+    if (omKeyArgs.getCopySource() != null) {
+      keyArgs.setCopySource(omKeyArgs.getCopySource().toProtobuf());
+    }
     multipartCommitUploadPartRequest.setClientID(clientId);
     multipartCommitUploadPartRequest.setKeyArgs(keyArgs.build());
 
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.awssdk;
+
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.ozone.s3.S3GatewayConfigKeys;
+
+/**
+ * Runs the S3 SDK tests with requests handled off the Jetty thread pool by
+ * {@link org.apache.hadoop.ozone.s3.RequestExecutionFilter}, which needs the
+ * request scoped beans of the gateway to be available on its threads.
+ */
+class TestS3SDKWithAsyncExecution extends OzoneS3SDKTests {
+  @Override
+  protected OzoneConfiguration createOzoneConfig() {
+    OzoneConfiguration conf = super.createOzoneConfig();
+    conf.setBoolean(S3GatewayConfigKeys.OZONE_S3G_ASYNC_ENABLED, true);
+    // Run on the bounded pool of platform threads on any JVM.
+    conf.setBoolean(S3GatewayConfigKeys.OZONE_S3G_ASYNC_VIRTUAL_THREADS_ENABLED, false);
+    conf.setInt(S3GatewayConfigKeys.OZONE_S3G_ASYNC_MAX_THREADS, 8);
+    conf.setInt(S3GatewayConfigKeys.OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS, 4);
+    return conf;
+  }
+}
@@ -150,6 +150,61 @@ public XceiverClientReply sendCommandAsync(
     assertEquals(0, allDNs.size());
   }
 
+  @Test
+  public void testReadChunkHedgedToAnotherNode() throws IOException {
+    conf.setBoolean(OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_ENABLED_KEY,
+        true);
+    conf.set(OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_MIN_KEY,
+        "10ms");
+    conf.set(OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_MAX_KEY,
+        "10ms");
+    final XceiverClientMetrics metrics =
+        XceiverClientManager.getXceiverClientMetrics();
+    final long hedgedOps = metrics.getHedgedReadOps();
+    final long hedgedWins = metrics.getHedgedReadWins();
+    final List<DatanodeDetails> seenDNs = new ArrayList<>();
+    try (XceiverClientGrpc client = new XceiverClientGrpc(pipeline, conf) {
+      @Override
+      public XceiverClientReply sendCommandAsync(
+          ContainerProtos.ContainerCommandRequestProto request,
+          DatanodeDetails dn) {
+        seenDNs.add(dn);
+        // the first datanode never answers
+        return seenDNs.size() == 1
+            ? new XceiverClientReply(new CompletableFuture<>())
+            : buildValidResponse();
+      }
+    }) {
+      invokeXceiverClientReadChunk(client);
+    }
+    assertEquals(2, seenDNs.size());
+    assertEquals(hedgedOps + 1, metrics.getHedgedReadOps());
+    assertEquals(hedgedWins + 1, metrics.getHedgedReadWins());
+  }
+
+  @Test
+  public void testHedgedReadChunkRetryAllNodes() {
+    conf.setBoolean(OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_ENABLED_KEY,
+        true);
+    final ArrayList<DatanodeDetails> allDNs = new ArrayList<>(dns);
+    try (XceiverClientGrpc client = new XceiverClientGrpc(pipeline, conf) {
+      @Override
+      public XceiverClientReply sendCommandAsync(
+          ContainerProtos.ContainerCommandRequestProto request,
+          DatanodeDetails dn) {
+        allDNs.remove(dn);
+        final CompletableFuture<ContainerProtos.ContainerCommandResponseProto>
+            failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("Failed " + dn));
+        return new XceiverClientReply(failed);
+      }
+    }) {
+      assertThrows(IOException.class,
+          () -> invokeXceiverClientReadChunk(client));
+    }
+    assertEquals(0, allDNs.size());
+  }
+
   @Test
   public void testInterruptedCommandThrowsInterruptedIOException()
       throws IOException {
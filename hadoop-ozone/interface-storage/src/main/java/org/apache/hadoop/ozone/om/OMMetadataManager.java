@@ -495,6 +495,12 @@ String getMultipartKeyFSO(String volume, String bucket, String key, String
 
   Table<String, CompactionLogEntry> getCompactionLogTable();
 
+  /**
+   * Gets the number of keys referring to each block shared by more than one
+   * key, e.g. by a key and its server-side copy.
+   */
+  Table<String, Long> getBlockReferenceTable();
+
   /**
    * Gets the OM Meta table.
    * @return meta table reference.
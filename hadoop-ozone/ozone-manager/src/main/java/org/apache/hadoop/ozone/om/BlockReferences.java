@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om;
+
+import static org.apache.hadoop.ozone.OzoneConsts.OM_KEY_PREFIX;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.hadoop.hdds.client.ContainerBlockID;
+import org.apache.hadoop.hdds.utils.db.BatchOperation;
+import org.apache.hadoop.hdds.utils.db.Table;
+import org.apache.hadoop.ozone.om.codec.OMDBDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reference counts of blocks shared by more than one key, kept in
+ * {@link OMDBDefinition#BLOCK_REFERENCE_TABLE_DEF}.
+ * <p>
+ * A server-side copy adds a reference to each block of its source key.
+ * When a key sharing blocks is purged, the key deleting service asks SCM to
+ * delete only the blocks no other key refers to, and releases the references
+ * of the key to the others along with the purge.
+ * <p>
+ * Updates are made in the table cache while the request is applied, and
+ * returned to be written to the DB by the response.
+ */
+public final class BlockReferences {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(BlockReferences.class);
+
+  private BlockReferences() {
+  }
+
+  /** @return the key of the block in the block reference table. */
+  public static String getKey(ContainerBlockID block) {
+    return OM_KEY_PREFIX + block.getContainerID()
+        + OM_KEY_PREFIX + block.getLocalID();
+  }
+
+  /**
+   * @return the number of keys referring to the block, 1 for blocks which are
+   *         not shared.
+   */
+  public static long getCount(OMMetadataManager omMetadataManager,
+      ContainerBlockID block) throws IOException {
+    final Long count =
+        omMetadataManager.getBlockReferenceTable().get(getKey(block));
+    return count == null ? 1 : count;
+  }
+
+  /**
+   * Add a reference to each of the given blocks.
+   *
+   * @return the updated reference counts, to be written by
+   *         {@link #addToDBBatch}.
+   */
+  public static Map<String, Long> addReferences(
+      OMMetadataManager omMetadataManager,
+      Collection<ContainerBlockID> blocks, long trxnLogIndex)
+      throws IOException {
+    final Table<String, Long> table =
+        omMetadataManager.getBlockReferenceTable();
+    final Map<String, Long> updates = new HashMap<>();
+    for (ContainerBlockID block : blocks) {
+      final String key = getKey(block);
+      final Long current = updates.containsKey(key)
+          ? updates.get(key) : table.get(key);
+      final long count = (current == null ? 1 : current) + 1;
+      updates.put(key, count);
+      table.addCacheEntry(key, count, trxnLogIndex);
+    }
+    return updates;
+  }
+
+  /**
+   * Release a reference to each of the given blocks. The entry of a block is
+   * removed once a single key refers to it.
+   *
+   * @return the updated reference counts, null for removed entries, to be
+   *         written by {@link #addToDBBatch}.
+   */
+  public static Map<String, Long> releaseReferences(
+      OMMetadataManager omMetadataManager,
+      Collection<ContainerBlockID> blocks, long trxnLogIndex)
+      throws IOException {
+    final Table<String, Long> table =
+        omMetadataManager.getBlockReferenceTable();
+    final Map<String, Long> updates = new HashMap<>();
+    for (ContainerBlockID block : blocks) {
+      final String key = getKey(block);
+      final Long current = updates.containsKey(key)
+          ? updates.get(key) : table.get(key);
+      if (current == null) {
+        // Released concurrently by another purge, the block may be leaked
+        // but is never deleted while still in use.
+        LOG.warn("Block {} released more times than it was shared.", key);
+        continue;
+      }
+      final long count = current - 1;
+      if (count <= 1) {
+        updates.put(key, null);
+        table.addCacheEntry(key, trxnLogIndex);
+      } else {
+        updates.put(key, count);
+        table.addCacheEntry(key, count, trxnLogIndex);
+      }
+    }
+    return updates;
+  }
+
+  /** Write reference counts returned by this class to the DB. */
+  public static void addToDBBatch(OMMetadataManager omMetadataManager,
+      BatchOperation batchOperation, Map<String, Long> updates)
+      throws IOException {
+    if (updates == null) {
+      return;
+    }
+    final Table<String, Long> table =
+        omMetadataManager.getBlockReferenceTable();
+    for (Map.Entry<String, Long> entry : updates.entrySet()) {
+      if (entry.getValue() == null) {
+        table.deleteWithBatch(batchOperation, entry.getKey());
+      } else {
+        table.putWithBatch(batchOperation, entry.getKey(), entry.getValue());
+      }
+    }
+  }
+}
@@ -169,6 +169,13 @@ public class OMPerformanceMetrics {
   @Metric(about = "creteKeySuccess latency in nanoseconds")
   private MutableRate createKeySuccessLatencyNs;
 
+  @Metric(about = "S3 request authentication latency in nanoseconds")
+  private MutableRate s3AuthLatencyNs;
+
+  @Metric(about = "S3 secret lookup and signing key derivation latency in " +
+      "nanoseconds, for signing keys not cached")
+  private MutableRate s3AuthSigningKeyLoadLatencyNs;
+
   public static OMPerformanceMetrics register() {
     MetricsSystem ms = DefaultMetricsSystem.instance();
     return ms.register(SOURCE_NAME,
@@ -332,6 +339,14 @@ public void addCreateKeyFailureLatencyNs(long latencyInNs) {
   public void addCreateKeySuccessLatencyNs(long latencyInNs) {
     createKeySuccessLatencyNs.add(latencyInNs);
   }
+
+  public void addS3AuthLatencyNs(long latencyInNs) {
+    s3AuthLatencyNs.add(latencyInNs);
+  }
+
+  public void addS3AuthSigningKeyLoadLatencyNs(long latencyInNs) {
+    s3AuthSigningKeyLoadLatencyNs.add(latencyInNs);
+  }
     
   public void addListKeysReadFromRocksDbLatencyNs(long latencyInNs) {
     listKeysReadFromRocksDbLatencyNs.add(latencyInNs);
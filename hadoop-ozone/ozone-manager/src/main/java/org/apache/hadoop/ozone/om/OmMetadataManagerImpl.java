@@ -185,6 +185,8 @@ public class OmMetadataManagerImpl implements OMMetadataManager,
   private Table<String, String> snapshotRenamedTable;
   private Table<String, CompactionLogEntry> compactionLogTable;
 
+  private Table<String, Long> blockReferenceTable;
+
   private OzoneManager ozoneManager;
 
   // Epoch is used to generate the objectIDs. The most significant 2 bits of
@@ -532,6 +534,9 @@ protected void initializeOmTables(CacheType cacheType,
     // TODO: [SNAPSHOT] Initialize table lock for snapshotRenamedTable.
 
     compactionLogTable = initializer.get(OMDBDefinition.COMPACTION_LOG_TABLE_DEF);
+
+    // /containerID/localID -> number of keys sharing the block
+    blockReferenceTable = initializer.get(OMDBDefinition.BLOCK_REFERENCE_TABLE_DEF);
   }
 
   /**
@@ -1734,6 +1739,11 @@ public Table<String, CompactionLogEntry> getCompactionLogTable() {
     return compactionLogTable;
   }
 
+  @Override
+  public Table<String, Long> getBlockReferenceTable() {
+    return blockReferenceTable;
+  }
+
   /**
    * Get Snapshot Chain Manager.
    *
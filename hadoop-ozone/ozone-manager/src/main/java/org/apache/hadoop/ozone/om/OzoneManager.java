@@ -982,7 +982,8 @@ private void instantiateServices(boolean withNewSnapshot) throws IOException {
     s3SecretManager = new S3SecretLockedManager(
         new S3SecretManagerImpl(
             store,
-            secretCacheProvider.get(configuration)
+            secretCacheProvider.get(configuration),
+            S3SigningKeyCache.create(configuration)
         ),
         metadataManager.getLock()
     );
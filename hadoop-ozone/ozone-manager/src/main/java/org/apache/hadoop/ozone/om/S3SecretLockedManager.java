@@ -108,4 +108,9 @@ public S3Batcher batcher() {
   public S3SecretCache cache() {
     return secretManager.cache();
   }
+
+  @Override
+  public S3SigningKeyCache signingKeyCache() {
+    return secretManager.signingKeyCache();
+  }
 }
@@ -97,12 +97,21 @@ default boolean isBatchSupported() {
    */
   S3SecretCache cache();
 
+  /**
+   * Cache of signing keys derived from the secrets.
+   * @return signing key cache, or {@code null} if disabled.
+   */
+  default S3SigningKeyCache signingKeyCache() {
+    return null;
+  }
+
   default void updateCache(String accessId, S3SecretValue secret) {
     S3SecretCache cache = cache();
     if (cache != null) {
       LOG.info("Updating cache for accessId/user: {}.", accessId);
       cache.put(accessId, secret);
     }
+    invalidateSigningKeys(accessId);
   }
 
   default void invalidateCacheEntry(String id) {
@@ -110,6 +119,18 @@ default void invalidateCacheEntry(String id) {
     if (cache != null) {
       cache.invalidate(id);
     }
+    invalidateSigningKeys(id);
+  }
+
+  /**
+   * Invalidate signing keys derived from the secret of the access ID, called
+   * after the secret is changed in the cache.
+   */
+  default void invalidateSigningKeys(String accessId) {
+    S3SigningKeyCache signingKeyCache = signingKeyCache();
+    if (signingKeyCache != null) {
+      signingKeyCache.invalidate(accessId);
+    }
   }
 
   default void clearCache(List<Long> flushedTransactionIds) {
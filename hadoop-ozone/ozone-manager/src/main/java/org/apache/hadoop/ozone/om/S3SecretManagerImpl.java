@@ -37,6 +37,7 @@ public class S3SecretManagerImpl implements S3SecretManager {
 
   private final S3SecretStore s3SecretStore;
   private final S3SecretCache s3SecretCache;
+  private final S3SigningKeyCache signingKeyCache;
 
   /**
    * Constructs S3SecretManager.
@@ -45,8 +46,21 @@ public class S3SecretManagerImpl implements S3SecretManager {
    */
   public S3SecretManagerImpl(S3SecretStore s3SecretStore,
                              S3SecretCache s3SecretCache) {
+    this(s3SecretStore, s3SecretCache, null);
+  }
+
+  /**
+   * Constructs S3SecretManager.
+   * @param s3SecretStore s3 secret store.
+   * @param s3SecretCache s3 secret cache.
+   * @param signingKeyCache cache of signing keys, may be null.
+   */
+  public S3SecretManagerImpl(S3SecretStore s3SecretStore,
+                             S3SecretCache s3SecretCache,
+                             S3SigningKeyCache signingKeyCache) {
     this.s3SecretStore = s3SecretStore;
     this.s3SecretCache = s3SecretCache;
+    this.signingKeyCache = signingKeyCache;
   }
 
   @Override
@@ -64,7 +78,7 @@ public S3SecretValue getSecret(String kerberosID) throws IOException {
     }
     S3SecretValue result = s3SecretStore.getSecret(kerberosID);
     if (result != null) {
-      updateCache(kerberosID, result);
+      fillCache(kerberosID, result);
     }
     return result;
   }
@@ -85,10 +99,21 @@ public String getSecretString(String awsAccessKey)
       throw new OzoneSecurityException("S3 secret not found for " +
           "awsAccessKeyId " + awsAccessKey, S3_SECRET_NOT_FOUND);
     }
-    updateCache(awsAccessKey, s3Secret);
+    fillCache(awsAccessKey, s3Secret);
     return s3Secret.getAwsSecret();
   }
 
+  /**
+   * Cache a secret read from the store. Unlike {@link #updateCache}, the
+   * secret is unchanged, so signing keys derived from it remain valid.
+   */
+  private void fillCache(String id, S3SecretValue secret) {
+    if (s3SecretCache != null) {
+      LOG.debug("Caching secret for accessId/user: {}.", id);
+      s3SecretCache.put(id, secret);
+    }
+  }
+
   @Override
   public void storeSecret(String kerberosId, S3SecretValue secretValue)
       throws IOException {
@@ -122,6 +147,11 @@ public S3SecretCache cache() {
     return s3SecretCache;
   }
 
+  @Override
+  public S3SigningKeyCache signingKeyCache() {
+    return signingKeyCache;
+  }
+
   @Override
   public S3Batcher batcher() {
     return s3SecretStore.batcher();
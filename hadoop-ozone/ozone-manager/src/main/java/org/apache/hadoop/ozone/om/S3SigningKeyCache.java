@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om;
+
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_S3_SIGNING_KEY_CACHE_EXPIRY;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_S3_SIGNING_KEY_CACHE_EXPIRY_DEFAULT;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_S3_SIGNING_KEY_CACHE_SIZE;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_S3_SIGNING_KEY_CACHE_SIZE_DEFAULT;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hadoop.hdds.conf.ConfigurationSource;
+import org.apache.ratis.util.function.CheckedSupplier;
+
+/**
+ * Cache of AWS SigV4 signing keys derived from S3 secrets, by access ID and
+ * credential scope (date, region and service).
+ * <p>
+ * Entries of an access ID are invalidated by {@link S3SecretManager} when its
+ * secret is stored or revoked. Concurrent misses of the same entry share a
+ * single secret lookup, and keys loaded while an invalidation is in progress
+ * are not kept, as they may be derived from the previous secret.
+ */
+public class S3SigningKeyCache {
+  private final Cache<Key, byte[]> cache;
+  /** Incremented by each invalidation. */
+  private final AtomicLong generation = new AtomicLong();
+
+  public S3SigningKeyCache(long maxSize, long expiry, TimeUnit unit) {
+    cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(expiry, unit)
+        .build();
+  }
+
+  /**
+   * @return the cache configured by {@code ozone.om.s3.signing.key.cache.*},
+   *         or null if disabled.
+   */
+  public static S3SigningKeyCache create(ConfigurationSource conf) {
+    final int maxSize = conf.getInt(OZONE_OM_S3_SIGNING_KEY_CACHE_SIZE,
+        OZONE_OM_S3_SIGNING_KEY_CACHE_SIZE_DEFAULT);
+    if (maxSize <= 0) {
+      return null;
+    }
+    final long expiry = conf.getTimeDuration(
+        OZONE_OM_S3_SIGNING_KEY_CACHE_EXPIRY,
+        OZONE_OM_S3_SIGNING_KEY_CACHE_EXPIRY_DEFAULT, TimeUnit.MILLISECONDS);
+    return new S3SigningKeyCache(maxSize, expiry, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Get the signing key, deriving it with the loader if not cached.
+   *
+   * @param accessId access ID of the secret.
+   * @param scope credential scope, e.g. 20130524/us-east-1/s3/aws4_request.
+   * @param loader looks up the secret and derives the key.
+   * @return the signing key, which must not be modified.
+   * @throws IOException thrown by the loader.
+   */
+  public byte[] get(String accessId, String scope,
+      CheckedSupplier<byte[], IOException> loader) throws IOException {
+    final Key key = new Key(accessId, scope);
+    final long before = generation.get();
+    final byte[] signingKey;
+    try {
+      signingKey = cache.get(key, loader::get);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    if (generation.get() != before) {
+      cache.invalidate(key);
+    }
+    return signingKey;
+  }
+
+  /** Invalidate all the signing keys of the access ID. */
+  public void invalidate(String accessId) {
+    generation.incrementAndGet();
+    cache.asMap().keySet().removeIf(key -> key.accessId.equals(accessId));
+  }
+
+  /** Cache key. */
+  private static final class Key {
+    private final String accessId;
+    private final String scope;
+
+    private Key(String accessId, String scope) {
+      this.accessId = accessId;
+      this.scope = scope;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) o;
+      return accessId.equals(that.accessId) && scope.equals(that.scope);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(accessId, scope);
+    }
+  }
+}
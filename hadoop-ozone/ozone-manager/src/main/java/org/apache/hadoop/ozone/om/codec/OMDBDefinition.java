@@ -325,9 +325,26 @@ public final class OMDBDefinition extends DBDefinition.WithMap {
           StringCodec.get(),
           CompactionLogEntry.getCodec());
 
+  //---------------------------------------------------------------------------
+  // Block Tables
+  public static final String BLOCK_REFERENCE_TABLE = "blockReferenceTable";
+  /**
+   * blockReferenceTable: /containerID/localID :- referenceCount.
+   * <p>
+   * Blocks are normally owned by a single key. A server-side copy makes the
+   * copy share the blocks of its source instead; this table counts the keys
+   * (committed, deleted or multipart upload parts) referring to such a block.
+   * Blocks owned by a single key have no entry.
+   */
+  public static final DBColumnFamilyDefinition<String, Long> BLOCK_REFERENCE_TABLE_DEF
+      = new DBColumnFamilyDefinition<>(BLOCK_REFERENCE_TABLE,
+          StringCodec.get(),
+          LongCodec.get());
+
   //---------------------------------------------------------------------------
   private static final Map<String, DBColumnFamilyDefinition<?, ?>> COLUMN_FAMILIES
       = DBColumnFamilyDefinition.newUnmodifiableMap(
+          BLOCK_REFERENCE_TABLE_DEF,
           BUCKET_TABLE_DEF,
           DELETED_DIR_TABLE_DEF,
           DELETED_TABLE_DEF,
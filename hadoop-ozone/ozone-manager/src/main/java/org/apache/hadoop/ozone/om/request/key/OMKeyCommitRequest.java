@@ -130,6 +130,14 @@ public OMRequest preExecute(OzoneManager ozoneManager) throws IOException {
         resolveBucketAndCheckOpenKeyAcls(newKeyArgs.build(), ozoneManager,
             IAccessAuthorizer.ACLType.WRITE, commitKeyRequest.getClientID());
 
+    if (keyArgs.hasCopySource()) {
+      if (isHsync || isRecovery || getBucketLayout().isFileSystemOptimized()) {
+        throw new OMException("Server-side copy is not supported for key "
+            + keyPath, NOT_SUPPORTED_OPERATION);
+      }
+      resolvedKeyArgs = resolveCopySource(resolvedKeyArgs, ozoneManager);
+    }
+
     return request.toBuilder()
         .setCommitKeyRequest(commitKeyRequest.toBuilder()
             .setKeyArgs(resolvedKeyArgs)).build();
@@ -302,23 +310,49 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager, Execut
         }
       }
 
+      // A server-side copy shares the blocks of its source instead of any
+      // blocks written by the client.
+      OmKeyInfo copySource = null;
+      if (commitKeyArgs.hasCopySource()) {
+        copySource = getCopySourceKeyInfo(omMetadataManager,
+            commitKeyArgs.getCopySource(), omKeyInfo);
+        locationInfoList = getCopyLocations(copySource);
+      }
+
       validateAtomicRewrite(keyToDelete, omKeyInfo, auditMap);
       // Optimistic locking validation has passed. Now set the rewrite fields to null so they are
       // not persisted in the key table.
       // Combination
       // Set the UpdateID to current transactionLogIndex
-      omKeyInfo = omKeyInfo.toBuilder()
+      OmKeyInfo.Builder committed = omKeyInfo.toBuilder()
           .setExpectedDataGeneration(null)
           .addAllMetadata(KeyValueUtil.getFromProtobuf(
                 commitKeyArgs.getMetadataList()))
           .setUpdateID(trxnLogIndex)
-          .setDataSize(commitKeyArgs.getDataSize())
-          .build();
+          .setDataSize(copySource != null ? copySource.getDataSize()
+              : commitKeyArgs.getDataSize())
+          .setReplicationConfig(copySource != null
+              ? copySource.getReplicationConfig()
+              : omKeyInfo.getReplicationConfig());
+      // The ETag of a copy is that of the data actually shared, not the one
+      // the client saw before the source may have been replaced.
+      final String copyETag = copySource != null
+          ? getCopyETag(copySource) : null;
+      if (copyETag != null) {
+        committed.addMetadata(OzoneConsts.ETAG, copyETag);
+      }
+      omKeyInfo = committed.build();
 
       // Update the block length for each block, return the allocated but
       // uncommitted blocks
-      List<OmKeyLocationInfo> uncommitted =
-          omKeyInfo.updateLocationInfoList(locationInfoList, false);
+      List<OmKeyLocationInfo> uncommitted;
+      if (copySource != null) {
+        uncommitted = new ArrayList<>(
+            omKeyInfo.getLatestVersionLocations().getLocationList());
+        omKeyInfo.updateLocationInfoList(locationInfoList, false, true);
+      } else {
+        uncommitted = omKeyInfo.updateLocationInfoList(locationInfoList, false);
+      }
 
       Map<String, RepeatedOmKeyInfo> oldKeyVersionsToDeleteMap = null;
       long correctedSpace = omKeyInfo.getReplicatedSize();
@@ -404,6 +438,12 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager, Execut
             dbOpenKey, newOpenKeyInfo, trxnLogIndex);
       }
 
+      Map<String, Long> blockReferences = null;
+      if (copySource != null) {
+        blockReferences = addCopyReferences(omMetadataManager,
+            locationInfoList, keyToDelete, trxnLogIndex);
+      }
+
       omMetadataManager.getKeyTable(getBucketLayout()).addCacheEntry(
           dbOzoneKey, omKeyInfo, trxnLogIndex);
 
@@ -411,7 +451,8 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager, Execut
 
       omClientResponse = new OMKeyCommitResponse(omResponse.build(),
           omKeyInfo, dbOzoneKey, dbOpenKey, omBucketInfo.copyObject(),
-          oldKeyVersionsToDeleteMap, isHSync, newOpenKeyInfo, dbOpenKeyToDeleteKey, openKeyToDelete);
+          oldKeyVersionsToDeleteMap, isHSync, newOpenKeyInfo, dbOpenKeyToDeleteKey, openKeyToDelete,
+          blockReferences);
 
       result = Result.SUCCESS;
     } catch (IOException | InvalidPathException ex) {
@@ -23,9 +23,12 @@
 import static org.apache.hadoop.ozone.OzoneAcl.AclScope.DEFAULT;
 import static org.apache.hadoop.ozone.OzoneConsts.OBJECT_ID_RECLAIM_BLOCKS;
 import static org.apache.hadoop.ozone.OzoneConsts.OZONE_URI_DELIMITER;
+import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.ATOMIC_WRITE_CONFLICT;
 import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.BUCKET_NOT_FOUND;
 import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.INVALID_KEY_NAME;
 import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.INVALID_REQUEST;
+import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.KEY_NOT_FOUND;
+import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.NOT_SUPPORTED_OPERATION;
 import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.VOLUME_NOT_FOUND;
 import static org.apache.hadoop.ozone.om.helpers.OzoneAclUtil.getDefaultAclList;
 import static org.apache.hadoop.ozone.om.lock.OzoneManagerLock.LeveledResource.BUCKET_LOCK;
@@ -41,11 +44,13 @@
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
@@ -66,6 +71,8 @@
 import org.apache.hadoop.ozone.OmUtils;
 import org.apache.hadoop.ozone.OzoneAcl;
 import org.apache.hadoop.ozone.OzoneConsts;
+import org.apache.hadoop.ozone.OzoneManagerVersion;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.OMMetrics;
 import org.apache.hadoop.ozone.om.OmConfig;
@@ -92,6 +99,7 @@
 import org.apache.hadoop.ozone.om.request.OMClientRequest;
 import org.apache.hadoop.ozone.om.request.OMClientRequestUtils;
 import org.apache.hadoop.ozone.om.request.file.OMFileRequest;
+import org.apache.hadoop.ozone.om.upgrade.OMLayoutFeature;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.KeyArgs;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.UserInfo;
@@ -1300,6 +1308,138 @@ protected Pair<Map<OmKeyInfo, List<OmKeyLocationInfo>>, Integer> filterOutBlocks
     return Pair.of(filteredOutBlocks, emptyKeyRemovedCount);
   }
 
+  /**
+   * Resolve the bucket of the source of a server-side copy, and check that
+   * the user may read the source key.
+   * <p>
+   * Copies are rejected until the upgrade is finalized, as OMs without
+   * support for them would apply the request as a plain commit.
+   *
+   * @return keyArgs with the resolved copy source
+   */
+  protected KeyArgs resolveCopySource(KeyArgs keyArgs,
+      OzoneManager ozoneManager) throws IOException {
+    ozoneManager.checkFeatureEnabled(OzoneManagerVersion.SERVER_SIDE_COPY);
+    if (!ozoneManager.getVersionManager()
+        .isAllowed(OMLayoutFeature.SERVER_SIDE_COPY)) {
+      throw new OMException("Server-side copy is not allowed before "
+          + "finalizing the upgrade", NOT_SUPPORTED_OPERATION);
+    }
+    KeyArgs source = resolveBucketAndCheckKeyAcls(keyArgs.getCopySource(),
+        ozoneManager, IAccessAuthorizer.ACLType.READ);
+    return keyArgs.toBuilder().setCopySource(source).build();
+  }
+
+  /**
+   * Get the key whose blocks are shared by a server-side copy.
+   * <p>
+   * Only keys of buckets without FSO layout can be copied this way, as long
+   * as they are neither encrypted nor still being written. The copy itself
+   * cannot be encrypted either, since it shares the data of the source as is.
+   * If the request names the expected generation of the source, the copy
+   * fails with {@code ATOMIC_WRITE_CONFLICT} once the source is replaced.
+   *
+   * @param copySource volume, bucket and name of the source key
+   * @param copy the open key of the copy
+   */
+  protected static OmKeyInfo getCopySourceKeyInfo(
+      OMMetadataManager omMetadataManager, KeyArgs copySource, OmKeyInfo copy)
+      throws IOException {
+    final OmBucketInfo bucketInfo = getBucketInfo(omMetadataManager,
+        copySource.getVolumeName(), copySource.getBucketName());
+    if (bucketInfo == null) {
+      throw new OMException("Bucket not found: " + copySource.getVolumeName()
+          + OZONE_URI_DELIMITER + copySource.getBucketName(), BUCKET_NOT_FOUND);
+    }
+    if (bucketInfo.getBucketLayout().isFileSystemOptimized()) {
+      throw new OMException("Server-side copy is not supported from bucket "
+          + bucketInfo.getBucketName() + " with layout "
+          + bucketInfo.getBucketLayout(), NOT_SUPPORTED_OPERATION);
+    }
+    final String sourceKey = omMetadataManager.getOzoneKey(
+        copySource.getVolumeName(), copySource.getBucketName(),
+        copySource.getKeyName());
+    final OmKeyInfo source = omMetadataManager
+        .getKeyTable(bucketInfo.getBucketLayout()).get(sourceKey);
+    if (source == null) {
+      throw new OMException("Copy source " + sourceKey + " not found",
+          KEY_NOT_FOUND);
+    }
+    if (copySource.hasExpectedDataGeneration()
+        && copySource.getExpectedDataGeneration() != source.getUpdateID()) {
+      throw new OMException("Copy source " + sourceKey + " was modified, "
+          + "generation " + source.getUpdateID() + " does not match expected "
+          + copySource.getExpectedDataGeneration(), ATOMIC_WRITE_CONFLICT);
+    }
+    if (source.getFileEncryptionInfo() != null
+        || copy.getFileEncryptionInfo() != null
+        || source.getMetadata().containsKey(OzoneConsts.GDPR_FLAG)
+        || source.getMetadata().containsKey(OzoneConsts.HSYNC_CLIENT_ID)) {
+      throw new OMException("Server-side copy is not supported for key "
+          + sourceKey, NOT_SUPPORTED_OPERATION);
+    }
+    return source;
+  }
+
+  /**
+   * @return the ETag of the source of a server-side copy without quotes, to
+   *         be set on the copy, or null if the source has none.
+   */
+  protected static String getCopyETag(OmKeyInfo source) {
+    final String eTag = source.getMetadata().get(OzoneConsts.ETAG);
+    if (eTag != null && eTag.length() > 1
+        && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+      return eTag.substring(1, eTag.length() - 1);
+    }
+    return eTag;
+  }
+
+  /**
+   * @return the locations of the latest version of the source of a
+   *         server-side copy, as new objects to be set on the copy.
+   */
+  protected static List<OmKeyLocationInfo> getCopyLocations(OmKeyInfo source) {
+    final OmKeyLocationInfoGroup latest = source.getLatestVersionLocations();
+    final List<OmKeyLocationInfo> locations = new ArrayList<>();
+    if (latest != null) {
+      for (OmKeyLocationInfo location : latest.getLocationList()) {
+        locations.add(new OmKeyLocationInfo.Builder()
+            .setBlockID(location.getBlockID())
+            .setOffset(location.getOffset())
+            .setLength(location.getLength())
+            .build());
+      }
+    }
+    return locations;
+  }
+
+  /**
+   * Add a reference to the blocks shared by a server-side copy, except those
+   * which the key replaced by the copy already refers to.
+   *
+   * @param replacedKey the key replaced by the copy, or null
+   * @return the updated reference counts, to be written by the response.
+   */
+  protected static Map<String, Long> addCopyReferences(
+      OMMetadataManager omMetadataManager, List<OmKeyLocationInfo> locations,
+      OmKeyInfo replacedKey, long trxnLogIndex) throws IOException {
+    final Set<ContainerBlockID> replacedBlocks = new HashSet<>();
+    if (replacedKey != null) {
+      replacedKey.getKeyLocationVersions().stream()
+          .flatMap(group -> group.getLocationList().stream())
+          .forEach(l -> replacedBlocks.add(l.getBlockID().getContainerBlockID()));
+    }
+    final Set<ContainerBlockID> blocks = new HashSet<>();
+    for (OmKeyLocationInfo location : locations) {
+      final ContainerBlockID block = location.getBlockID().getContainerBlockID();
+      if (!replacedBlocks.contains(block)) {
+        blocks.add(block);
+      }
+    }
+    return BlockReferences.addReferences(omMetadataManager, blocks,
+        trxnLogIndex);
+  }
+
   protected void validateEncryptionKeyInfo(OmBucketInfo bucketInfo, KeyArgs keyArgs) throws OMException {
     if (bucketInfo.getEncryptionKeyInfo() != null && !keyArgs.hasFileEncryptionInfo()) {
       throw new OMException("Attempting to create unencrypted file " +
@@ -18,11 +18,13 @@
 package org.apache.hadoop.ozone.om.request.s3.multipart;
 
 import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.KEY_NOT_FOUND;
+import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.NOT_SUPPORTED_OPERATION;
 import static org.apache.hadoop.ozone.om.lock.OzoneManagerLock.LeveledResource.BUCKET_LOCK;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
 import java.nio.file.InvalidPathException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -93,6 +95,9 @@ public OMRequest preExecute(OzoneManager ozoneManager) throws IOException {
     KeyArgs resolvedArgs = resolveBucketAndCheckOpenKeyAcls(newKeyArgs,
         ozoneManager, ACLType.WRITE,
         multipartCommitUploadPartRequest.getClientID());
+    if (keyArgs.hasCopySource()) {
+      resolvedArgs = resolveCopySource(resolvedArgs, ozoneManager);
+    }
     return getOmRequest().toBuilder().setCommitMultiPartUploadRequest(
         multipartCommitUploadPartRequest.toBuilder().setKeyArgs(
             resolvedArgs)).setUserInfo(getUserInfo()).build();
@@ -169,12 +174,47 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager, Execut
           .setUpdateID(trxnLogIndex)
           .build();
 
+      // A part copied on the server shares the blocks of its source instead
+      // of any blocks written by the client. If the upload was aborted, the
+      // open part key is deleted below, so it must not refer to those blocks.
+      OmKeyInfo copySource = null;
+      List<OmKeyLocationInfo> locations;
+      if (keyArgs.hasCopySource() && multipartKeyInfo != null) {
+        copySource = getCopySourceKeyInfo(omMetadataManager,
+            keyArgs.getCopySource(), omKeyInfo);
+        if (!copySource.getReplicationConfig()
+            .equals(omKeyInfo.getReplicationConfig())) {
+          throw new OMException("Cannot copy " + copySource.getKeyName()
+              + " with replication " + copySource.getReplicationConfig()
+              + " to a part of upload " + keyArgs.getMultipartUploadID()
+              + " with replication " + omKeyInfo.getReplicationConfig(),
+              NOT_SUPPORTED_OPERATION);
+        }
+        locations = getCopyLocations(copySource);
+        // The ETag of the part is that of the data actually shared.
+        final String sourceETag = getCopyETag(copySource);
+        if (sourceETag != null) {
+          omKeyInfo = omKeyInfo.toBuilder()
+              .addMetadata(OzoneConsts.ETAG, sourceETag)
+              .build();
+        }
+      } else {
+        locations = keyArgs.getKeyLocationsList().stream()
+            .map(OmKeyLocationInfo::getFromProtobuf)
+            .collect(Collectors.toList());
+      }
+
       // set the data size and location info list
-      omKeyInfo.setDataSize(keyArgs.getDataSize());
-      List<OmKeyLocationInfo> uncommitted = omKeyInfo.updateLocationInfoList(
-          keyArgs.getKeyLocationsList().stream()
-          .map(OmKeyLocationInfo::getFromProtobuf)
-          .collect(Collectors.toList()), true);
+      List<OmKeyLocationInfo> uncommitted;
+      if (copySource != null) {
+        omKeyInfo.setDataSize(copySource.getDataSize());
+        uncommitted = new ArrayList<>(
+            omKeyInfo.getLatestVersionLocations().getLocationList());
+        omKeyInfo.updateLocationInfoList(locations, true, true);
+      } else {
+        omKeyInfo.setDataSize(keyArgs.getDataSize());
+        uncommitted = omKeyInfo.updateLocationInfoList(locations, true);
+      }
       // Set Modification time
       omKeyInfo.setModificationTime(keyArgs.getModificationTime());
 
@@ -256,6 +296,12 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager, Execut
           correctedSpace);
       omBucketInfo.incrUsedBytes(correctedSpace);
 
+      Map<String, Long> blockReferences = null;
+      if (copySource != null) {
+        blockReferences = addCopyReferences(omMetadataManager, locations,
+            null, trxnLogIndex);
+      }
+
       // let the uncommitted blocks pretend as key's old version blocks
       // which will be deleted as RepeatedOmKeyInfo
       final OmKeyInfo pseudoKeyInfo = wrapUncommittedBlocksAsPseudoKey(uncommitted, omKeyInfo);
@@ -272,7 +318,7 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager, Execut
       omClientResponse =
           getOmClientResponse(ozoneManager, keyVersionsToDeleteMap, openKey,
               omKeyInfo, multipartKey, multipartKeyInfo, omResponse.build(),
-              omBucketInfo.copyObject(), bucketId);
+              omBucketInfo.copyObject(), bucketId, blockReferences);
 
       result = Result.SUCCESS;
     } catch (IOException | InvalidPathException ex) {
@@ -281,7 +327,8 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager, Execut
       omClientResponse =
           getOmClientResponse(ozoneManager, null, openKey,
               omKeyInfo, multipartKey, multipartKeyInfo,
-              createErrorOMResponse(omResponse, exception), copyBucketInfo, bucketId);
+              createErrorOMResponse(omResponse, exception), copyBucketInfo, bucketId,
+              null);
     } finally {
       if (acquiredLock) {
         mergeOmLockDetails(omMetadataManager.getLock()
@@ -310,11 +357,12 @@ protected S3MultipartUploadCommitPartResponse getOmClientResponse(
       OzoneManager ozoneManager, Map<String, RepeatedOmKeyInfo> keyToDeleteMap,
       String openKey, OmKeyInfo omKeyInfo, String multipartKey,
       OmMultipartKeyInfo multipartKeyInfo, OMResponse build,
-      OmBucketInfo omBucketInfo, long bucketId) {
+      OmBucketInfo omBucketInfo, long bucketId,
+      Map<String, Long> blockReferences) {
 
     return new S3MultipartUploadCommitPartResponse(build, multipartKey, openKey,
         multipartKeyInfo, keyToDeleteMap, omKeyInfo,
-        omBucketInfo, bucketId, getBucketLayout());
+        omBucketInfo, bucketId, getBucketLayout(), blockReferences);
   }
 
   protected OmKeyInfo getOmKeyInfo(OMMetadataManager omMetadataManager,
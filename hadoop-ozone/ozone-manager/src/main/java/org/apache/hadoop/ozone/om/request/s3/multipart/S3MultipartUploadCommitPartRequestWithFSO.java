@@ -72,10 +72,11 @@ protected S3MultipartUploadCommitPartResponse getOmClientResponse(
       Map<String, RepeatedOmKeyInfo> keyToDeleteMap, String openKey,
       OmKeyInfo omKeyInfo, String multipartKey,
       OmMultipartKeyInfo multipartKeyInfo,
-      OzoneManagerProtocolProtos.OMResponse build, OmBucketInfo omBucketInfo, long bucketId) {
+      OzoneManagerProtocolProtos.OMResponse build, OmBucketInfo omBucketInfo, long bucketId,
+      Map<String, Long> blockReferences) {
 
     return new S3MultipartUploadCommitPartResponseWithFSO(build, multipartKey,
         openKey, multipartKeyInfo, keyToDeleteMap, omKeyInfo,
-        omBucketInfo, bucketId, getBucketLayout());
+        omBucketInfo, bucketId, getBucketLayout(), blockReferences);
   }
 }
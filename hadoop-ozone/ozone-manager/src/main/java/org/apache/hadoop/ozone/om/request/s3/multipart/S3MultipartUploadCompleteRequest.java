@@ -25,15 +25,20 @@
 import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
+import java.util.stream.IntStream;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.hdds.client.ReplicationConfig;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
 import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
 import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
 import org.apache.hadoop.ozone.OzoneConsts;
@@ -44,7 +49,6 @@
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.execution.flowcontrol.ExecutionContext;
 import org.apache.hadoop.ozone.om.helpers.BucketLayout;
-import org.apache.hadoop.ozone.om.helpers.KeyValueUtil;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmDirectoryInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
@@ -63,6 +67,7 @@
 import org.apache.hadoop.ozone.om.upgrade.OMLayoutFeature;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.KeyArgs;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.KeyInfo;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.MultipartUploadCompleteRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.MultipartUploadCompleteResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
@@ -84,6 +89,9 @@ public class S3MultipartUploadCompleteRequest extends OMKeyRequest {
   private static final Logger LOG =
       LoggerFactory.getLogger(S3MultipartUploadCompleteRequest.class);
 
+  /** Minimum number of parts to validate in parallel in preExecute. */
+  private static final int PARALLEL_VALIDATION_MIN_PARTS = 1000;
+
   private BiFunction<OzoneManagerProtocolProtos.Part, PartKeyInfo, MultipartCommitRequestPart> eTagBasedValidator =
       (part, partKeyInfo) -> {
         String eTag = part.getETag();
@@ -130,9 +138,71 @@ public OMRequest preExecute(OzoneManager ozoneManager) throws IOException {
     KeyArgs resolvedArgs = resolveBucketAndCheckKeyAcls(newKeyArgs,
         ozoneManager, ACLType.WRITE);
 
+    MultipartUploadCompleteRequest.Builder newRequest =
+        multipartUploadCompleteRequest.toBuilder().setKeyArgs(resolvedArgs)
+            .clearValidatedUpdateID();
+    OmMultipartKeyInfo validatedInfo = validatePartsList(ozoneManager,
+        resolvedArgs, multipartUploadCompleteRequest.getPartsListList());
+    if (validatedInfo != null) {
+      newRequest.setValidatedUpdateID(validatedInfo.getUpdateID());
+    }
+
     return getOmRequest().toBuilder().setCompleteMultiPartUploadRequest(
-        multipartUploadCompleteRequest.toBuilder().setKeyArgs(
-            resolvedArgs)).setUserInfo(getUserInfo()).build();
+        newRequest).setUserInfo(getUserInfo()).build();
+  }
+
+  /**
+   * Validate the parts to complete the upload with against the committed
+   * parts, in parallel for large uploads, so that each part need not be
+   * validated again while the request is applied, unless the upload changed
+   * in the meantime.
+   *
+   * @return the multipart upload info if all the parts are valid, otherwise
+   *         null to leave the validation, and reporting the failure, to
+   *         {@link #validateAndUpdateCache}.
+   */
+  private OmMultipartKeyInfo validatePartsList(OzoneManager ozoneManager,
+      KeyArgs keyArgs, List<OzoneManagerProtocolProtos.Part> partsList)
+      throws IOException {
+    if (partsList.isEmpty()) {
+      return null;
+    }
+    for (int i = 1; i < partsList.size(); i++) {
+      if (partsList.get(i - 1).getPartNumber()
+          >= partsList.get(i).getPartNumber()) {
+        return null;
+      }
+    }
+
+    OMMetadataManager omMetadataManager = ozoneManager.getMetadataManager();
+    OmMultipartKeyInfo multipartKeyInfo = omMetadataManager
+        .getMultipartInfoTable().get(omMetadataManager.getMultipartKey(
+            keyArgs.getVolumeName(), keyArgs.getBucketName(),
+            keyArgs.getKeyName(), keyArgs.getMultipartUploadID()));
+    if (multipartKeyInfo == null) {
+      return null;
+    }
+
+    final OmMultipartKeyInfo.PartKeyInfoMap partKeyInfoMap =
+        multipartKeyInfo.getPartKeyInfoMap();
+    final boolean eTagBased = isETagBasedValidation(partsList);
+    final long minPartSize = ozoneManager.getMinMultipartUploadPartSize();
+    final int lastIndex = partsList.size() - 1;
+    IntStream indexes = IntStream.rangeClosed(0, lastIndex);
+    if (partsList.size() >= PARALLEL_VALIDATION_MIN_PARTS) {
+      indexes = indexes.parallel();
+    }
+    boolean valid = indexes.allMatch(i -> {
+      OzoneManagerProtocolProtos.Part part = partsList.get(i);
+      try {
+        validatePart(part, partKeyInfoMap.get(part.getPartNumber()),
+            eTagBased, i == lastIndex, minPartSize, "");
+        return true;
+      } catch (OMException e) {
+        return false;
+      }
+    });
+    return valid ? multipartKeyInfo : null;
   }
 
   @Override
@@ -289,14 +359,20 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager, Execut
         }
 
         // First Check for Invalid Part Order.
-        List< Integer > partNumbers = new ArrayList<>();
+        Set<Integer> partNumbers = new HashSet<>();
         int partsListSize = getPartsListSize(requestedVolume,
                 requestedBucket, keyName, ozoneKey, partNumbers, partsList);
 
+        // Parts validated in preExecute, if the upload is still the same.
+        boolean partsValidated =
+            multipartUploadCompleteRequest.hasValidatedUpdateID()
+            && multipartUploadCompleteRequest.getValidatedUpdateID()
+            == multipartKeyInfo.getUpdateID();
+
         List<OmKeyLocationInfo> partLocationInfos = new ArrayList<>();
         long dataSize = getMultipartDataSize(requestedVolume, requestedBucket,
                 keyName, ozoneKey, partKeyInfoMap, partsListSize,
-                partLocationInfos, partsList, ozoneManager);
+                partLocationInfos, partsList, partsValidated, ozoneManager);
 
         // All parts have same replication information. Here getting from last
         // part.
@@ -574,7 +650,7 @@ protected void addKeyTableCacheEntry(OMMetadataManager omMetadataManager,
 
   private int getPartsListSize(String requestedVolume,
       String requestedBucket, String keyName, String ozoneKey,
-      List<Integer> partNumbers,
+      Collection<Integer> partNumbers,
       List<OzoneManagerProtocolProtos.Part> partsList) throws OMException {
     int prevPartNumber = partsList.get(0).getPartNumber();
     int partsListSize = partsList.size();
@@ -602,46 +678,30 @@ private long getMultipartDataSize(String requestedVolume,
       String requestedBucket, String keyName, String ozoneKey,
       OmMultipartKeyInfo.PartKeyInfoMap partKeyInfoMap,
       int partsListSize, List<OmKeyLocationInfo> partLocationInfos,
-      List<OzoneManagerProtocolProtos.Part> partsList,
+      List<OzoneManagerProtocolProtos.Part> partsList, boolean partsValidated,
       OzoneManager ozoneManager) throws OMException {
     long dataSize = 0;
     int currentPartCount = 0;
-    boolean eTagBasedValidationAvailable = partsList.stream().allMatch(OzoneManagerProtocolProtos.Part::hasETag);
+    final boolean eTagBased = isETagBasedValidation(partsList);
+    final String failureMessage =
+        failureMessage(requestedVolume, requestedBucket, keyName);
     // Now do actual logic, and check for any Invalid part during this.
     for (OzoneManagerProtocolProtos.Part part : partsList) {
       currentPartCount++;
       int partNumber = part.getPartNumber();
       PartKeyInfo partKeyInfo = partKeyInfoMap.get(partNumber);
-      MultipartCommitRequestPart requestPart = eTagBasedValidationAvailable ?
-          eTagBasedValidator.apply(part, partKeyInfo) : partNameBasedValidator.apply(part, partKeyInfo);
-      if (!requestPart.isValid()) {
-        throw new OMException(
-            failureMessage(requestedVolume, requestedBucket, keyName) +
-            ". Provided Part info is { " + requestPart.getRequestPartId() + ", " + partNumber +
-            "}, whereas OM has eTag " + requestPart.getOmPartId(),
-            OMException.ResultCodes.INVALID_PART);
+      if (!partsValidated) {
+        // Except for last part all parts should have minimum size.
+        validatePart(part, partKeyInfo, eTagBased,
+            currentPartCount == partsListSize,
+            ozoneManager.getMinMultipartUploadPartSize(), failureMessage);
       }
 
-      final OmKeyInfo currentPartKeyInfo = OmKeyInfo.getFromProtobuf(partKeyInfo.getPartKeyInfo());
-
-      // Except for last part all parts should have minimum size.
-      if (currentPartCount != partsListSize) {
-        if (currentPartKeyInfo.getDataSize() <
-            ozoneManager.getMinMultipartUploadPartSize()) {
-          LOG.error("MultipartUpload: {} Part number: {} size {}  is less" +
-                  " than minimum part size {}", ozoneKey,
-              partKeyInfo.getPartNumber(), currentPartKeyInfo.getDataSize(),
-              ozoneManager.getMinMultipartUploadPartSize());
-          throw new OMException(
-              failureMessage(requestedVolume, requestedBucket, keyName) +
-                  ". Entity too small.",
-              OMException.ResultCodes.ENTITY_TOO_SMALL);
-        }
-      }
-
-      // As all part keys will have only one version.
-      OmKeyLocationInfoGroup currentKeyInfoGroup = currentPartKeyInfo
-          .getKeyLocationVersions().get(0);
+      // Only the locations and size of the part are needed, not the whole
+      // OmKeyInfo. As all part keys will have only one version.
+      final KeyInfo currentPartKeyInfo = partKeyInfo.getPartKeyInfo();
+      OmKeyLocationInfoGroup currentKeyInfoGroup = OmKeyLocationInfoGroup
+          .getFromProtobuf(currentPartKeyInfo.getKeyLocationList(0));
 
       // Set partNumber in each block.
       currentKeyInfoGroup.getLocationList().forEach(
@@ -653,6 +713,39 @@ private long getMultipartDataSize(String requestedVolume,
     return dataSize;
   }
 
+  private static boolean isETagBasedValidation(
+      List<OzoneManagerProtocolProtos.Part> partsList) {
+    return partsList.stream()
+        .allMatch(OzoneManagerProtocolProtos.Part::hasETag);
+  }
+
+  /**
+   * Check that the part given in the request was committed with the same
+   * eTag or name, and that it has the minimum size unless it is the last.
+   */
+  private void validatePart(OzoneManagerProtocolProtos.Part part,
+      PartKeyInfo partKeyInfo, boolean eTagBased, boolean lastPart,
+      long minPartSize, String failureMessage) throws OMException {
+    MultipartCommitRequestPart requestPart = eTagBased ?
+        eTagBasedValidator.apply(part, partKeyInfo) :
+        partNameBasedValidator.apply(part, partKeyInfo);
+    if (!requestPart.isValid()) {
+      throw new OMException(failureMessage +
+          ". Provided Part info is { " + requestPart.getRequestPartId() +
+          ", " + part.getPartNumber() + "}, whereas OM has eTag " +
+          requestPart.getOmPartId(),
+          OMException.ResultCodes.INVALID_PART);
+    }
+
+    long partSize = partKeyInfo.getPartKeyInfo().getDataSize();
+    if (!lastPart && partSize < minPartSize) {
+      LOG.debug("Part number: {} size {} is less than minimum part size {}",
+          part.getPartNumber(), partSize, minPartSize);
+      throw new OMException(failureMessage + ". Entity too small.",
+          OMException.ResultCodes.ENTITY_TOO_SMALL);
+    }
+  }
+
   private static String failureMessage(String volume, String bucket,
       String keyName) {
     return "Complete Multipart Upload Failed: volume: " +
@@ -743,12 +836,14 @@ public static OMRequest blockMPUCompleteWithBucketLayoutFromOldClient(
 
   private String multipartUploadedKeyHash(
       OmMultipartKeyInfo.PartKeyInfoMap partsList) {
-    StringBuffer keysConcatenated = new StringBuffer();
+    StringBuilder keysConcatenated = new StringBuilder();
     for (PartKeyInfo partKeyInfo: partsList) {
-      String partPropertyToComputeHash = KeyValueUtil.getFromProtobuf(partKeyInfo.getPartKeyInfo().getMetadataList())
-          .get(OzoneConsts.ETAG);
-      if (partPropertyToComputeHash == null) {
-        partPropertyToComputeHash = partKeyInfo.getPartName();
+      String partPropertyToComputeHash = partKeyInfo.getPartName();
+      for (HddsProtos.KeyValue keyValue
+          : partKeyInfo.getPartKeyInfo().getMetadataList()) {
+        if (keyValue.getKey().equals(OzoneConsts.ETAG)) {
+          partPropertyToComputeHash = keyValue.getValue();
+        }
       }
       keysConcatenated.append(partPropertyToComputeHash);
     }
@@ -17,6 +17,7 @@
 
 package org.apache.hadoop.ozone.om.response.key;
 
+import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.BLOCK_REFERENCE_TABLE;
 import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.BUCKET_TABLE;
 import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.DELETED_TABLE;
 import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.KEY_TABLE;
@@ -27,6 +28,7 @@
 import java.io.IOException;
 import java.util.Map;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.helpers.BucketLayout;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
@@ -39,7 +41,7 @@
  * Response for CommitKey request.
  */
 @CleanupTableInfo(cleanupTables = {OPEN_KEY_TABLE, KEY_TABLE, DELETED_TABLE,
-    BUCKET_TABLE})
+    BUCKET_TABLE, BLOCK_REFERENCE_TABLE})
 public class OMKeyCommitResponse extends OmKeyResponse {
 
   private OmKeyInfo omKeyInfo;
@@ -51,6 +53,7 @@ public class OMKeyCommitResponse extends OmKeyResponse {
   private OmKeyInfo newOpenKeyInfo;
   private OmKeyInfo openKeyToUpdate;
   private String openKeyNameToUpdate;
+  private Map<String, Long> blockReferences;
 
   @SuppressWarnings("checkstyle:ParameterNumber")
   public OMKeyCommitResponse(
@@ -60,6 +63,24 @@ public OMKeyCommitResponse(
       Map<String, RepeatedOmKeyInfo> keyToDeleteMap,
       boolean isHSync,
       OmKeyInfo newOpenKeyInfo, String openKeyNameToUpdate, OmKeyInfo openKeyToUpdate) {
+    this(omResponse, omKeyInfo, ozoneKeyName, openKeyName, omBucketInfo,
+        keyToDeleteMap, isHSync, newOpenKeyInfo, openKeyNameToUpdate,
+        openKeyToUpdate, null);
+  }
+
+  /**
+   * @param blockReferences reference counts of the blocks shared with the
+   *                        source of a server-side copy, or null
+   */
+  @SuppressWarnings("checkstyle:ParameterNumber")
+  public OMKeyCommitResponse(
+      @Nonnull OMResponse omResponse,
+      @Nonnull OmKeyInfo omKeyInfo, String ozoneKeyName, String openKeyName,
+      @Nonnull OmBucketInfo omBucketInfo,
+      Map<String, RepeatedOmKeyInfo> keyToDeleteMap,
+      boolean isHSync,
+      OmKeyInfo newOpenKeyInfo, String openKeyNameToUpdate, OmKeyInfo openKeyToUpdate,
+      Map<String, Long> blockReferences) {
     super(omResponse, omBucketInfo.getBucketLayout());
     this.omKeyInfo = omKeyInfo;
     this.ozoneKeyName = ozoneKeyName;
@@ -70,6 +91,7 @@ public OMKeyCommitResponse(
     this.newOpenKeyInfo = newOpenKeyInfo;
     this.openKeyNameToUpdate = openKeyNameToUpdate;
     this.openKeyToUpdate = openKeyToUpdate;
+    this.blockReferences = blockReferences;
   }
 
   /**
@@ -100,6 +122,8 @@ public void addToDBBatch(OMMetadataManager omMetadataManager,
 
     updateDeletedTable(omMetadataManager, batchOperation);
     handleOpenKeyToUpdate(omMetadataManager, batchOperation);
+    BlockReferences.addToDBBatch(omMetadataManager, batchOperation,
+        blockReferences);
 
     // update bucket usedBytes.
     omMetadataManager.getBucketTable().putWithBatch(batchOperation,
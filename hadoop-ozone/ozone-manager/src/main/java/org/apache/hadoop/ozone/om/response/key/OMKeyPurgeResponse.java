@@ -17,6 +17,7 @@
 
 package org.apache.hadoop.ozone.om.response.key;
 
+import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.BLOCK_REFERENCE_TABLE;
 import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.DELETED_TABLE;
 import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.SNAPSHOT_INFO_TABLE;
 import static org.apache.hadoop.ozone.om.lock.DAGLeveledResource.SNAPSHOT_DB_CONTENT_LOCK;
@@ -26,9 +27,11 @@
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
 import org.apache.hadoop.hdds.utils.db.DBStore;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.OmMetadataManagerImpl;
 import org.apache.hadoop.ozone.om.OmSnapshot;
@@ -49,13 +52,15 @@
 /**
  * Response for {@link OMKeyPurgeRequest} request.
  */
-@CleanupTableInfo(cleanupTables = {DELETED_TABLE, SNAPSHOT_INFO_TABLE})
+@CleanupTableInfo(cleanupTables = {DELETED_TABLE, SNAPSHOT_INFO_TABLE,
+    BLOCK_REFERENCE_TABLE})
 public class OMKeyPurgeResponse extends OmKeyResponse {
   private List<OmBucketInfo> bucketInfosToBeUpdated;
   private List<String> purgeKeyList;
   private List<String> renamedList;
   private SnapshotInfo fromSnapshot;
   private List<SnapshotMoveKeyInfos> keysToUpdateList;
+  private Map<String, Long> blockReferences;
 
   public OMKeyPurgeResponse(@Nonnull OMResponse omResponse,
       @Nonnull List<String> keyList,
@@ -63,12 +68,29 @@ public OMKeyPurgeResponse(@Nonnull OMResponse omResponse,
       SnapshotInfo fromSnapshot,
       List<SnapshotMoveKeyInfos> keysToUpdate,
       List<OmBucketInfo> bucketInfosToBeUpdated) {
+    this(omResponse, keyList, renamedList, fromSnapshot, keysToUpdate,
+        bucketInfosToBeUpdated, null);
+  }
+
+  /**
+   * @param blockReferences reference counts of the shared blocks released by
+   *                        the purged keys, or null. They are kept in the
+   *                        active DB even when purging keys of a snapshot.
+   */
+  public OMKeyPurgeResponse(@Nonnull OMResponse omResponse,
+      @Nonnull List<String> keyList,
+      @Nonnull List<String> renamedList,
+      SnapshotInfo fromSnapshot,
+      List<SnapshotMoveKeyInfos> keysToUpdate,
+      List<OmBucketInfo> bucketInfosToBeUpdated,
+      Map<String, Long> blockReferences) {
     super(omResponse);
     this.purgeKeyList = keyList;
     this.renamedList = renamedList;
     this.fromSnapshot = fromSnapshot;
     this.keysToUpdateList = keysToUpdate;
     this.bucketInfosToBeUpdated = bucketInfosToBeUpdated == null ? Collections.emptyList() : bucketInfosToBeUpdated;
+    this.blockReferences = blockReferences;
   }
 
   /**
@@ -117,6 +139,7 @@ public void addToDBBatch(OMMetadataManager omMetadataManager,
       String bucketKey = omMetadataManager.getBucketKey(bucketInfo.getVolumeName(), bucketInfo.getBucketName());
       omMetadataManager.getBucketTable().putWithBatch(batchOperation, bucketKey, bucketInfo);
     }
+    BlockReferences.addToDBBatch(omMetadataManager, batchOperation, blockReferences);
   }
 
   private void processKeysToUpdate(BatchOperation batchOp,
@@ -17,6 +17,7 @@
 
 package org.apache.hadoop.ozone.om.response.s3.multipart;
 
+import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.BLOCK_REFERENCE_TABLE;
 import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.BUCKET_TABLE;
 import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.DELETED_TABLE;
 import static org.apache.hadoop.ozone.om.codec.OMDBDefinition.MULTIPART_INFO_TABLE;
@@ -31,6 +32,7 @@
 import java.util.Map;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
 import org.apache.hadoop.ozone.OmUtils;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.helpers.BucketLayout;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
@@ -45,7 +47,7 @@
  * Response for S3MultipartUploadCommitPart request.
  */
 @CleanupTableInfo(cleanupTables = {OPEN_KEY_TABLE, DELETED_TABLE,
-    MULTIPART_INFO_TABLE, BUCKET_TABLE})
+    MULTIPART_INFO_TABLE, BUCKET_TABLE, BLOCK_REFERENCE_TABLE})
 public class S3MultipartUploadCommitPartResponse extends OmKeyResponse {
 
   private final String multipartKey;
@@ -55,6 +57,7 @@ public class S3MultipartUploadCommitPartResponse extends OmKeyResponse {
   private final OmKeyInfo openPartKeyInfoToBeDeleted;
   private final OmBucketInfo omBucketInfo;
   private final long bucketId;
+  private final Map<String, Long> blockReferences;
 
   /**
    * Regular response.
@@ -71,6 +74,24 @@ public S3MultipartUploadCommitPartResponse(@Nonnull OMResponse omResponse,
       @Nonnull OmBucketInfo omBucketInfo,
       long bucketId,
       @Nonnull BucketLayout bucketLayout) {
+    this(omResponse, multipartKey, openKey, omMultipartKeyInfo, keyToDeleteMap,
+        openPartKeyInfoToBeDeleted, omBucketInfo, bucketId, bucketLayout, null);
+  }
+
+  /**
+   * Regular response for a part copied on the server, which also updates the
+   * reference counts of the blocks shared with the copy source.
+   */
+  @SuppressWarnings("checkstyle:ParameterNumber")
+  public S3MultipartUploadCommitPartResponse(@Nonnull OMResponse omResponse,
+      String multipartKey, String openKey,
+      @Nullable OmMultipartKeyInfo omMultipartKeyInfo,
+      @Nullable Map<String, RepeatedOmKeyInfo> keyToDeleteMap,
+      @Nullable OmKeyInfo openPartKeyInfoToBeDeleted,
+      @Nonnull OmBucketInfo omBucketInfo,
+      long bucketId,
+      @Nonnull BucketLayout bucketLayout,
+      @Nullable Map<String, Long> blockReferences) {
     super(omResponse, bucketLayout);
     this.multipartKey = multipartKey;
     this.openKey = openKey;
@@ -79,6 +100,7 @@ public S3MultipartUploadCommitPartResponse(@Nonnull OMResponse omResponse,
     this.openPartKeyInfoToBeDeleted = openPartKeyInfoToBeDeleted;
     this.omBucketInfo = omBucketInfo;
     this.bucketId = bucketId;
+    this.blockReferences = blockReferences;
   }
 
   @Override
@@ -124,6 +146,9 @@ public void addToDBBatch(OMMetadataManager omMetadataManager,
     omMetadataManager.getOpenKeyTable(getBucketLayout())
         .deleteWithBatch(batchOperation, openKey);
 
+    BlockReferences.addToDBBatch(omMetadataManager, batchOperation,
+        blockReferences);
+
     // update bucket usedBytes.
     omMetadataManager.getBucketTable().putWithBatch(batchOperation,
         omMetadataManager.getBucketKey(omBucketInfo.getVolumeName(),
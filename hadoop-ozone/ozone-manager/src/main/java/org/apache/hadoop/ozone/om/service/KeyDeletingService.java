@@ -41,8 +41,10 @@
 import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.hdds.HddsUtils;
+import org.apache.hadoop.hdds.client.ContainerBlockID;
 import org.apache.hadoop.hdds.conf.ConfigurationSource;
 import org.apache.hadoop.hdds.conf.StorageUnit;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
 import org.apache.hadoop.hdds.scm.protocol.ScmBlockLocationProtocol;
 import org.apache.hadoop.hdds.tracing.TracingUtil;
 import org.apache.hadoop.hdds.utils.BackgroundTask;
@@ -50,9 +52,13 @@
 import org.apache.hadoop.hdds.utils.BackgroundTaskResult.EmptyTaskResult;
 import org.apache.hadoop.hdds.utils.db.Table;
 import org.apache.hadoop.ozone.ClientVersion;
+import org.apache.hadoop.ozone.common.BlockGroup;
 import org.apache.hadoop.ozone.common.DeleteBlockGroupResult;
+import org.apache.hadoop.ozone.common.DeletedBlock;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.KeyManager;
 import org.apache.hadoop.ozone.om.OMConfigKeys;
+import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.OmMetadataManagerImpl;
 import org.apache.hadoop.ozone.om.OmSnapshot;
 import org.apache.hadoop.ozone.om.OmSnapshotManager;
@@ -135,11 +141,15 @@ public AtomicLong getDeletedKeyCount() {
     return deletedKeyCount;
   }
 
-  Pair<Pair<Integer, Long>, Boolean> processKeyDeletes(Map<String, PurgedKey> keyBlocksList,
+  Pair<Pair<Integer, Long>, Boolean> processKeyDeletes(Map<String, PurgedKey> purgedKeys,
       Map<String, RepeatedOmKeyInfo> keysToModify, List<String> renameEntries,
       String snapTableKey, UUID expectedPreviousSnapshotId) throws IOException {
     long startTime = Time.monotonicNow();
     Pair<Pair<Integer, Long>, Boolean> purgeResult = Pair.of(Pair.of(0, 0L), false);
+
+    // Blocks shared with other keys are deleted only with the last of them.
+    Map<String, List<ContainerBlockID>> releasedBlocks = new HashMap<>();
+    Map<String, PurgedKey> keyBlocksList = excludeSharedBlocks(purgedKeys, releasedBlocks);
     
     // Filter out empty files (files with no blocks) before sending to SCM
     Map<String, PurgedKey> nonEmptyKeyBlocksList = keyBlocksList.entrySet().stream()
@@ -191,7 +201,7 @@ Pair<Pair<Integer, Long>, Boolean> processKeyDeletes(Map<String, PurgedKey> keyB
     if (blockDeletionResults != null) {
       long purgeStartTime = Time.monotonicNow();
       purgeResult = submitPurgeKeysRequest(blockDeletionResults, keyBlocksList, keysToModify, renameEntries,
-          snapTableKey, expectedPreviousSnapshotId, ratisByteLimit);
+          releasedBlocks, snapTableKey, expectedPreviousSnapshotId, ratisByteLimit);
       int limit = getOzoneManager().getConfiguration().getInt(OMConfigKeys.OZONE_KEY_DELETING_LIMIT_PER_TASK,
           OMConfigKeys.OZONE_KEY_DELETING_LIMIT_PER_TASK_DEFAULT);
       LOG.info("Blocks for {} (out of {}) keys are deleted from DB in {} ms. Limit per task is {}.",
@@ -201,6 +211,101 @@ Pair<Pair<Integer, Long>, Boolean> processKeyDeletes(Map<String, PurgedKey> keyB
     return purgeResult;
   }
 
+  /**
+   * Exclude the blocks shared with other keys, see {@link BlockReferences}, from the blocks to be deleted by SCM.
+   * The references of the purged keys to those blocks are released along with the purge instead, and a shared
+   * block is deleted with the last key referring to it.
+   * <p>
+   * Concurrent tasks purging keys which share a block may each leave the block to the other, leaking it, but a
+   * block still referred to by another key is never deleted.
+   *
+   * @param releasedBlocks filled with the shared blocks released by each purged key, by block group ID
+   * @return the keys to purge, with their shared blocks excluded
+   */
+  private Map<String, PurgedKey> excludeSharedBlocks(Map<String, PurgedKey> purgedKeys,
+      Map<String, List<ContainerBlockID>> releasedBlocks) throws IOException {
+    OMMetadataManager metadataManager = getOzoneManager().getMetadataManager();
+    // Reference count of each shared block, and the number of those references released by the purged keys.
+    Map<ContainerBlockID, long[]> sharedBlocks = new HashMap<>();
+    for (PurgedKey purgedKey : purgedKeys.values()) {
+      if (purgedKey.getBlockGroup() == null || purgedKey.getBlockGroup().getDeletedBlocks() == null) {
+        continue;
+      }
+      Set<ContainerBlockID> keyBlocks = new HashSet<>();
+      for (DeletedBlock block : purgedKey.getBlockGroup().getDeletedBlocks()) {
+        ContainerBlockID id = block.getBlockID().getContainerBlockID();
+        if (keyBlocks.add(id)) {
+          long count = BlockReferences.getCount(metadataManager, id);
+          if (count > 1) {
+            sharedBlocks.computeIfAbsent(id, k -> new long[] {count, 0})[1]++;
+          }
+        }
+      }
+    }
+    if (sharedBlocks.isEmpty()) {
+      return purgedKeys;
+    }
+
+    Set<ContainerBlockID> deletedSharedBlocks = new HashSet<>();
+    Map<String, PurgedKey> result = new HashMap<>();
+    for (Map.Entry<String, PurgedKey> entry : purgedKeys.entrySet()) {
+      PurgedKey purgedKey = entry.getValue();
+      BlockGroup group = purgedKey.getBlockGroup();
+      if (group == null || group.getDeletedBlocks() == null) {
+        result.put(entry.getKey(), purgedKey);
+        continue;
+      }
+      List<DeletedBlock> blocksToDelete = new ArrayList<>();
+      Set<ContainerBlockID> keySharedBlocks = new HashSet<>();
+      List<ContainerBlockID> released = new ArrayList<>();
+      for (DeletedBlock block : group.getDeletedBlocks()) {
+        ContainerBlockID id = block.getBlockID().getContainerBlockID();
+        long[] references = sharedBlocks.get(id);
+        if (references == null) {
+          blocksToDelete.add(block);
+          continue;
+        }
+        if (!keySharedBlocks.add(id)) {
+          continue;
+        }
+        if (references[1] >= references[0] && deletedSharedBlocks.add(id)) {
+          // All the keys referring to the block are purged, delete it once with this key, the others release it.
+          blocksToDelete.add(block);
+        } else {
+          released.add(id);
+        }
+      }
+      if (keySharedBlocks.isEmpty()) {
+        result.put(entry.getKey(), purgedKey);
+        continue;
+      }
+      if (!released.isEmpty()) {
+        releasedBlocks.put(group.getGroupID(), released);
+      }
+      BlockGroup filteredGroup = BlockGroup.newBuilder().setKeyName(group.getGroupID())
+          .addAllDeletedBlocks(blocksToDelete).build();
+      result.put(entry.getKey(), new PurgedKey(purgedKey.getVolume(), purgedKey.getBucket(),
+          purgedKey.getBucketId(), filteredGroup, purgedKey.getDeleteKeyName(), purgedKey.getPurgedBytes(),
+          purgedKey.isCommittedKey()));
+    }
+    LOG.debug("Releasing {} shared block(s) of {} key(s) instead of deleting them.",
+        sharedBlocks.size() - deletedSharedBlocks.size(), releasedBlocks.size());
+    return result;
+  }
+
+  private static int addReleasedBlocks(PurgeKeysRequest.Builder requestBuilder, List<ContainerBlockID> blocks) {
+    int estimatedSize = 0;
+    if (blocks != null) {
+      for (ContainerBlockID block : blocks) {
+        HddsProtos.ContainerBlockID proto = block.getProtobuf();
+        requestBuilder.addReleasedBlocks(proto);
+        // Field tag and length of the message.
+        estimatedSize += proto.getSerializedSize() + 2;
+      }
+    }
+    return estimatedSize;
+  }
+
   private static final class BucketPurgeSize {
     private BucketNameInfo bucket;
     private long purgedBytes;
@@ -260,6 +365,7 @@ private int increaseBucketPurgeSize(Map<Long, BucketPurgeSize> bucketPurgeSizeMa
    * by SCM.
    * @param results DeleteBlockGroups returned by SCM.
    * @param keysToModify Updated list of RepeatedOmKeyInfo
+   * @param releasedBlocks shared blocks released by each purged key, by block group ID
    */
   @SuppressWarnings("checkstyle:MethodLength")
   private Pair<Pair<Integer, Long>, Boolean> submitPurgeKeysRequest(
@@ -267,6 +373,7 @@ private Pair<Pair<Integer, Long>, Boolean> submitPurgeKeysRequest(
       Map<String, PurgedKey> purgedKeys,
       Map<String, RepeatedOmKeyInfo> keysToModify,
       List<String> renameEntriesToBeDeleted,
+      Map<String, List<ContainerBlockID>> releasedBlocks,
       String snapTableKey,
       UUID expectedPreviousSnapshotId,
       int ratisLimit) {
@@ -374,7 +481,9 @@ private Pair<Pair<Integer, Long>, Boolean> submitPurgeKeysRequest(
           if (purgedKey.isCommittedKey()) {
             currSize += increaseBucketPurgeSize(bucketPurgeKeysSizeMap, purgedKey);
           }
-        } else if (purgedKey.isCommittedKey()) {
+          currSize += addReleasedBlocks(requestBuilder,
+              releasedBlocks.get(purgedKey.getBlockGroup().getGroupID()));
+        } else {
           modifiedKeyPurgedKeys.computeIfAbsent(deletedKey, k -> new ArrayList<>()).add(purgedKey);
         }
         purgeKeyIndex++;
@@ -390,6 +499,8 @@ private Pair<Pair<Integer, Long>, Boolean> submitPurgeKeysRequest(
             if (purgedKey.isCommittedKey()) {
               currSize += increaseBucketPurgeSize(bucketPurgeKeysSizeMap, purgedKey);
             }
+            currSize += addReleasedBlocks(requestBuilder,
+                releasedBlocks.get(purgedKey.getBlockGroup().getGroupID()));
           }
         }
         currSize += estimatedSize;
@@ -75,11 +75,19 @@ private static byte[] sign(byte[] key, String msg) {
     }
   }
 
+  /**
+   * Returns the credential scope of the string to sign, e.g.
+   * 20130524/us-east-1/s3/aws4_request.
+   */
+  public static String getCredentialScope(String strToSign) {
+    return StringUtils.split(strToSign, '\n')[2];
+  }
+
   /**
    * Returns signing key.
    *
    * @param key
-   * @param strToSign
+   * @param scope credential scope, see {@link #getCredentialScope}
    *
    * SignatureKey = HMAC-SHA256(HMAC-SHA256(HMAC-SHA256(HMAC-SHA256("AWS4" +
    * "<YourSecretAccessKey>","20130524"),"us-east-1"),"s3"),"aws4_request")
@@ -88,9 +96,8 @@ private static byte[] sign(byte[] key, String msg) {
    * .com/AmazonS3/latest/API/sig-v4-header-based-auth.html
    *
    * */
-  private static byte[] getSigningKey(String key, String strToSign) {
-    String[] signData = StringUtils.split(StringUtils.split(strToSign,
-        '\n')[2], '/');
+  public static byte[] getSigningKey(String key, String scope) {
+    String[] signData = StringUtils.split(scope, '/');
     String dateStamp = signData[0];
     String regionName = signData[1];
     String serviceName = signData[2];
@@ -115,8 +122,16 @@ private static byte[] getSigningKey(String key, String strToSign) {
    */
   public static boolean validateRequest(String strToSign, String signature,
       String userKey) {
-    String expectedSignature = Hex.encode(sign(getSigningKey(userKey,
-        strToSign), strToSign));
+    return validateRequest(strToSign, signature,
+        getSigningKey(userKey, getCredentialScope(strToSign)));
+  }
+
+  /**
+   * Validate request with a signing key derived by {@link #getSigningKey}.
+   */
+  public static boolean validateRequest(String strToSign, String signature,
+      byte[] signingKey) {
+    String expectedSignature = Hex.encode(sign(signingKey, strToSign));
     return expectedSignature.equals(signature);
   }
 }
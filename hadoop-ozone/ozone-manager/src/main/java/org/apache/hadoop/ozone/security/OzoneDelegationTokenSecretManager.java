@@ -44,8 +44,10 @@
 import org.apache.hadoop.hdds.security.x509.certificate.client.CertificateClient;
 import org.apache.hadoop.hdds.security.x509.exception.CertificateException;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.ozone.om.OMPerformanceMetrics;
 import org.apache.hadoop.ozone.om.OzoneManager;
 import org.apache.hadoop.ozone.om.S3SecretManager;
+import org.apache.hadoop.ozone.om.S3SigningKeyCache;
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.exceptions.OMLeaderNotReadyException;
 import org.apache.hadoop.ozone.om.exceptions.OMNotLeaderException;
@@ -465,6 +467,20 @@ public boolean verifySignature(OzoneTokenIdentifier identifier,
    * */
   private byte[] validateS3AuthInfo(OzoneTokenIdentifier identifier)
       throws InvalidToken {
+    final long startNanos = Time.monotonicNowNanos();
+    try {
+      return validateS3Signature(identifier);
+    } finally {
+      final OMPerformanceMetrics perfMetrics = ozoneManager.getPerfMetrics();
+      if (perfMetrics != null) {
+        perfMetrics.addS3AuthLatencyNs(
+            Time.monotonicNowNanos() - startNanos);
+      }
+    }
+  }
+
+  private byte[] validateS3Signature(OzoneTokenIdentifier identifier)
+      throws InvalidToken {
     LOG.trace("Validating S3AuthInfo for identifier:{}", identifier);
     if (identifier.getOwner() == null) {
       throw new InvalidToken(
@@ -479,10 +495,11 @@ private byte[] validateS3AuthInfo(OzoneTokenIdentifier identifier)
           "Invalid S3 identifier: owner=" + identifier.getOwner()
               + ", awsAccessId=" + identifier.getAwsAccessId());
     }
-    String awsSecret;
+    final byte[] signingKey;
     try {
-      awsSecret = s3SecretManager.getSecretString(identifier
-          .getAwsAccessId());
+      signingKey = getSigningKey(identifier);
+    } catch (InvalidToken e) {
+      throw e;
     } catch (IOException e) {
       LOG.warn("S3 identifier validation failed:{}",
           identifier, e);
@@ -490,20 +507,51 @@ private byte[] validateS3AuthInfo(OzoneTokenIdentifier identifier)
           + identifier);
     }
 
-    if (awsSecret == null) {
-      throw new InvalidToken("No S3 secret found for S3 identifier:"
-          + identifier);
-    }
-
     if (AWSV4AuthValidator.validateRequest(identifier.getStrToSign(),
-        identifier.getSignature(), awsSecret)) {
+        identifier.getSignature(), signingKey)) {
       return identifier.getSignature().getBytes(UTF_8);
     }
     throw new InvalidToken("Invalid S3 identifier:"
         + identifier);
+  }
 
+  /**
+   * Get the signing key for the credential scope of the request, from the
+   * signing key cache if enabled.
+   */
+  private byte[] getSigningKey(OzoneTokenIdentifier identifier)
+      throws IOException {
+    final String accessId = identifier.getAwsAccessId();
+    final String scope =
+        AWSV4AuthValidator.getCredentialScope(identifier.getStrToSign());
+    final S3SigningKeyCache cache = s3SecretManager.signingKeyCache();
+    if (cache == null) {
+      return loadSigningKey(identifier, scope);
+    }
+    return cache.get(accessId, scope,
+        () -> loadSigningKey(identifier, scope));
   }
 
+  private byte[] loadSigningKey(OzoneTokenIdentifier identifier,
+      String scope) throws IOException {
+    final long startNanos = Time.monotonicNowNanos();
+    final String awsSecret =
+        s3SecretManager.getSecretString(identifier.getAwsAccessId());
+    if (awsSecret == null) {
+      throw new InvalidToken("No S3 secret found for S3 identifier:"
+          + identifier);
+    }
+    final byte[] signingKey =
+        AWSV4AuthValidator.getSigningKey(awsSecret, scope);
+    final OMPerformanceMetrics perfMetrics = ozoneManager.getPerfMetrics();
+    if (perfMetrics != null) {
+      perfMetrics.addS3AuthSigningKeyLoadLatencyNs(
+          Time.monotonicNowNanos() - startNanos);
+    }
+    return signingKey;
+  }
+
+
   /**
    * Load delegation tokens from DB into memory.
    * HDDS-8829 changes the delegation token from sign by OM's RSA private key to secret key supported by SCM.
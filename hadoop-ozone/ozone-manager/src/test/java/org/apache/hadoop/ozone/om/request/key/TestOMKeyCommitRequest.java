@@ -47,6 +47,7 @@
 import org.apache.hadoop.ozone.OzoneAcl;
 import org.apache.hadoop.ozone.OzoneConfigKeys;
 import org.apache.hadoop.ozone.OzoneConsts;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.helpers.BucketLayout;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
@@ -58,6 +59,7 @@
 import org.apache.hadoop.ozone.om.request.OMRequestTestUtils;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.om.response.key.OMKeyCommitResponse;
+import org.apache.hadoop.ozone.om.upgrade.OMLayoutFeature;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.CommitKeyRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.KeyArgs;
@@ -220,6 +222,123 @@ public void testValidateAndUpdateCache() throws Exception {
         omKeyInfo.getLatestVersionLocations().getLocationList());
   }
 
+  @Test
+  public void testValidateAndUpdateCacheWithCopySource() throws Exception {
+    String sourceKeyName = UUID.randomUUID().toString();
+    OMRequest copyRequest = createCopyKeyRequest(sourceKeyName, null);
+    allowServerSideCopy();
+
+    if (getBucketLayout().isFileSystemOptimized()) {
+      OMException e = assertThrows(OMException.class,
+          () -> getOmKeyCommitRequest(copyRequest).preExecute(ozoneManager));
+      assertEquals(OMException.ResultCodes.NOT_SUPPORTED_OPERATION, e.getResult());
+      return;
+    }
+
+    OMRequest modifiedOmRequest = doPreExecute(copyRequest);
+    OMKeyCommitRequest omKeyCommitRequest = getOmKeyCommitRequest(modifiedOmRequest);
+
+    OMRequestTestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager, omKeyCommitRequest.getBucketLayout());
+    List<OmKeyLocationInfo> sourceLocations = getKeyLocation(DEFAULT_COMMIT_BLOCK_SIZE).stream()
+        .map(OmKeyLocationInfo::getFromProtobuf)
+        .collect(Collectors.toList());
+    addCopySourceToTable(sourceKeyName, sourceLocations);
+    OmKeyInfo sourceKeyInfo = omMetadataManager.getKeyTable(getBucketLayout())
+        .get(omMetadataManager.getOzoneKey(volumeName, bucketName, sourceKeyName));
+    addKeyToOpenKeyTable(Collections.emptyList());
+
+    OMClientResponse omClientResponse =
+        omKeyCommitRequest.validateAndUpdateCache(ozoneManager, 100L);
+    assertEquals(OK, omClientResponse.getOMResponse().getStatus());
+
+    // The copy shares the blocks of the source, which are now referred to by both keys.
+    OmKeyInfo omKeyInfo = omMetadataManager.getKeyTable(getBucketLayout())
+        .get(getOzonePathKey());
+    assertNotNull(omKeyInfo);
+    assertEquals(sourceKeyInfo.getDataSize(), omKeyInfo.getDataSize());
+    assertEquals("source-etag", omKeyInfo.getMetadata().get(OzoneConsts.ETAG));
+    List<OmKeyLocationInfo> copyLocations = omKeyInfo.getLatestVersionLocations().getLocationList();
+    assertEquals(sourceLocations.size(), copyLocations.size());
+    for (int i = 0; i < sourceLocations.size(); i++) {
+      assertEquals(sourceLocations.get(i).getBlockID(), copyLocations.get(i).getBlockID());
+      assertEquals(2, BlockReferences.getCount(omMetadataManager,
+          sourceLocations.get(i).getBlockID().getContainerBlockID()));
+    }
+  }
+
+  @Test
+  public void testCopySourceRejectedBeforeFinalization() throws Exception {
+    OMRequest copyRequest = createCopyKeyRequest(UUID.randomUUID().toString(), null);
+
+    OMException e = assertThrows(OMException.class,
+        () -> getOmKeyCommitRequest(copyRequest).preExecute(ozoneManager));
+    assertEquals(OMException.ResultCodes.NOT_SUPPORTED_OPERATION, e.getResult());
+  }
+
+  @Test
+  public void testCopySourceGenerationMismatch() throws Exception {
+    if (getBucketLayout().isFileSystemOptimized()) {
+      return;
+    }
+    String sourceKeyName = UUID.randomUUID().toString();
+    allowServerSideCopy();
+    OMRequestTestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager, getBucketLayout());
+    List<OmKeyLocationInfo> sourceLocations = getKeyLocation(DEFAULT_COMMIT_BLOCK_SIZE).stream()
+        .map(OmKeyLocationInfo::getFromProtobuf)
+        .collect(Collectors.toList());
+    addCopySourceToTable(sourceKeyName, sourceLocations);
+    OmKeyInfo sourceKeyInfo = omMetadataManager.getKeyTable(getBucketLayout())
+        .get(omMetadataManager.getOzoneKey(volumeName, bucketName, sourceKeyName));
+    addKeyToOpenKeyTable(Collections.emptyList());
+
+    // The source was replaced after the client read its generation.
+    OMRequest modifiedOmRequest = doPreExecute(
+        createCopyKeyRequest(sourceKeyName, sourceKeyInfo.getUpdateID() + 1));
+    OMClientResponse omClientResponse = getOmKeyCommitRequest(modifiedOmRequest)
+        .validateAndUpdateCache(ozoneManager, 100L);
+
+    assertEquals(ATOMIC_WRITE_CONFLICT, omClientResponse.getOMResponse().getStatus());
+    assertNull(omMetadataManager.getKeyTable(getBucketLayout()).get(getOzonePathKey()));
+    for (OmKeyLocationInfo location : sourceLocations) {
+      assertEquals(1, BlockReferences.getCount(omMetadataManager,
+          location.getBlockID().getContainerBlockID()));
+    }
+  }
+
+  private OMRequest createCopyKeyRequest(String sourceKeyName, Long sourceGeneration) {
+    OMRequest commitRequest = createCommitKeyRequest(Collections.emptyList(), false);
+    KeyArgs.Builder copySource = KeyArgs.newBuilder().setVolumeName(volumeName)
+        .setBucketName(bucketName).setKeyName(sourceKeyName);
+    if (sourceGeneration != null) {
+      copySource.setExpectedDataGeneration(sourceGeneration);
+    }
+    KeyArgs keyArgs = commitRequest.getCommitKeyRequest().getKeyArgs().toBuilder()
+        .setCopySource(copySource)
+        .build();
+    return commitRequest.toBuilder()
+        .setCommitKeyRequest(commitRequest.getCommitKeyRequest().toBuilder().setKeyArgs(keyArgs))
+        .build();
+  }
+
+  private void allowServerSideCopy() {
+    when(ozoneManager.getVersionManager().isAllowed(OMLayoutFeature.SERVER_SIDE_COPY))
+        .thenReturn(true);
+  }
+
+  /** Add the source of a copy, with a quoted ETag as written by old gateways. */
+  private void addCopySourceToTable(String sourceKeyName,
+      List<OmKeyLocationInfo> locations) throws Exception {
+    OMRequestTestUtils.addKeyToTable(false, volumeName, bucketName, sourceKeyName,
+        clientID, replicationConfig, omMetadataManager, locations, version);
+    String sourceKey = omMetadataManager.getOzoneKey(volumeName, bucketName, sourceKeyName);
+    Table<String, OmKeyInfo> keyTable = omMetadataManager.getKeyTable(getBucketLayout());
+    keyTable.put(sourceKey, keyTable.get(sourceKey).toBuilder()
+        .addMetadata(OzoneConsts.ETAG, "\"source-etag\"")
+        .build());
+  }
+
   @Test
   public void testAtomicRewrite() throws Exception {
     Table<String, OmKeyInfo> openKeyTable = omMetadataManager.getOpenKeyTable(getBucketLayout());
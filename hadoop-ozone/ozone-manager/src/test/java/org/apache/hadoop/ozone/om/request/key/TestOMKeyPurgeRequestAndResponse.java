@@ -21,6 +21,7 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -36,10 +37,13 @@
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hadoop.hdds.client.ContainerBlockID;
 import org.apache.hadoop.hdds.client.RatisReplicationConfig;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
 import org.apache.hadoop.hdds.utils.TransactionInfo;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
+import org.apache.hadoop.hdds.utils.db.Table;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.OmSnapshot;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.SnapshotInfo;
@@ -194,6 +198,45 @@ public void testValidateAndUpdateCache() throws Exception {
     }
   }
 
+  @Test
+  public void testReleaseSharedBlocks() throws Exception {
+    List<String> deletedKeys = createAndDeleteKeysAndRenamedEntry(1, null).getKey();
+    ContainerBlockID sharedBlock = new ContainerBlockID(1, 1);
+    String blockKey = BlockReferences.getKey(sharedBlock);
+    Table<String, Long> blockReferenceTable = omMetadataManager.getBlockReferenceTable();
+    // The block is shared by a key and two copies of it.
+    blockReferenceTable.put(blockKey, 3L);
+
+    // Purging the source key releases its reference, the copies still refer to the block.
+    purgeAndReleaseBlock(deletedKeys.get(0), sharedBlock, 100L);
+    assertEquals(2, BlockReferences.getCount(omMetadataManager, sharedBlock));
+    assertEquals(2L, blockReferenceTable.getSkipCache(blockKey));
+
+    // Once the last copy is the only key referring to the block, it is no longer shared.
+    purgeAndReleaseBlock(deletedKeys.get(1), sharedBlock, 101L);
+    assertEquals(1, BlockReferences.getCount(omMetadataManager, sharedBlock));
+    assertNull(blockReferenceTable.getSkipCache(blockKey));
+    assertFalse(omMetadataManager.getDeletedTable().isExist(deletedKeys.get(1)));
+  }
+
+  private void purgeAndReleaseBlock(String deletedKey, ContainerBlockID block, long trxnIndex) throws Exception {
+    OMRequest omRequest = createPurgeKeysRequest(Collections.singletonList(deletedKey),
+        Collections.emptyList(), null);
+    omRequest = omRequest.toBuilder()
+        .setPurgeKeysRequest(omRequest.getPurgeKeysRequest().toBuilder()
+            .addReleasedBlocks(block.getProtobuf()))
+        .build();
+    OMKeyPurgeRequest omKeyPurgeRequest = new OMKeyPurgeRequest(preExecute(omRequest));
+
+    OMKeyPurgeResponse omKeyPurgeResponse =
+        (OMKeyPurgeResponse) omKeyPurgeRequest.validateAndUpdateCache(ozoneManager, trxnIndex);
+    assertEquals(Status.OK, omKeyPurgeResponse.getOMResponse().getStatus());
+    try (BatchOperation batchOperation = omMetadataManager.getStore().initBatchOperation()) {
+      omKeyPurgeResponse.addToDBBatch(omMetadataManager, batchOperation);
+      omMetadataManager.getStore().commitBatchOperation(batchOperation);
+    }
+  }
+
   @Test
   public void testKeyPurgeInSnapshot() throws Exception {
     when(ozoneManager.getDefaultReplicationConfig())
@@ -18,11 +18,13 @@
 package org.apache.hadoop.ozone.om.request.s3.multipart;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -33,17 +35,25 @@
 import org.apache.hadoop.hdds.client.RatisReplicationConfig;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.hdds.utils.db.BatchOperation;
+import org.apache.hadoop.hdds.utils.db.Table;
+import org.apache.hadoop.ozone.OzoneConsts;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.helpers.BucketLayout;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.om.request.OMRequestTestUtils;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.om.response.s3.multipart.S3MultipartUploadCommitPartResponse;
+import org.apache.hadoop.ozone.om.upgrade.OMLayoutFeature;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.KeyArgs;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.KeyLocation;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.Part;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.PartKeyInfo;
 import org.apache.hadoop.util.Time;
 import org.junit.jupiter.api.Test;
@@ -615,6 +625,191 @@ public void testValidateAndUpdateCacheWithUncommittedBlockForEmptyPart() throws
     assertNull(toDeleteKeyMap);
   }
 
+  @Test
+  public void testCopyPartThenAbort() throws Exception {
+    if (getBucketLayout().isFileSystemOptimized()) {
+      // Parts are copied on the server only in buckets without FSO layout.
+      return;
+    }
+    String volumeName = UUID.randomUUID().toString();
+    String bucketName = UUID.randomUUID().toString();
+    String keyName = getKeyName();
+    String sourceKeyName = UUID.randomUUID().toString();
+    List<OmKeyLocationInfo> sourceLocations =
+        addCopySource(volumeName, bucketName, sourceKeyName);
+
+    String multipartUploadID =
+        copyPart(volumeName, bucketName, keyName, sourceKeyName);
+    assertBlockReferences(2, sourceLocations);
+
+    OMRequest abortRequest = doPreExecuteAbortMPU(volumeName, bucketName,
+        keyName, multipartUploadID);
+    OMClientResponse omClientResponse = getS3MultipartUploadAbortReq(
+        abortRequest).validateAndUpdateCache(ozoneManager, 3L);
+    assertSame(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    commitToDB(omClientResponse);
+
+    // The aborted part refers to the blocks until it is purged, when the key
+    // deleting service releases its reference instead of deleting them.
+    assertBlockReferences(2, sourceLocations);
+    for (OmKeyLocationInfo location : sourceLocations) {
+      assertTrue(isPendingDeletion(location));
+    }
+    assertNotNull(omMetadataManager.getKeyTable(getBucketLayout()).get(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, sourceKeyName)));
+  }
+
+  @Test
+  public void testCopyPartThenComplete() throws Exception {
+    if (getBucketLayout().isFileSystemOptimized()) {
+      // Parts are copied on the server only in buckets without FSO layout.
+      return;
+    }
+    String volumeName = UUID.randomUUID().toString();
+    String bucketName = UUID.randomUUID().toString();
+    String keyName = getKeyName();
+    String sourceKeyName = UUID.randomUUID().toString();
+    List<OmKeyLocationInfo> sourceLocations =
+        addCopySource(volumeName, bucketName, sourceKeyName);
+
+    String multipartUploadID =
+        copyPart(volumeName, bucketName, keyName, sourceKeyName);
+
+    String multipartKey = omMetadataManager.getMultipartKey(volumeName,
+        bucketName, keyName, multipartUploadID);
+    String eTag = OmKeyInfo.getFromProtobuf(omMetadataManager
+        .getMultipartInfoTable().get(multipartKey).getPartKeyInfo(1)
+        .getPartKeyInfo()).getMetadata().get(OzoneConsts.ETAG);
+    List<Part> partList = new ArrayList<>();
+    partList.add(Part.newBuilder().setETag(eTag).setPartName(eTag)
+        .setPartNumber(1).build());
+    OMRequest completeRequest = doPreExecuteCompleteMPU(volumeName,
+        bucketName, keyName, multipartUploadID, partList);
+    OMClientResponse omClientResponse = getS3MultipartUploadCompleteReq(
+        completeRequest).validateAndUpdateCache(ozoneManager, 3L);
+    assertSame(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    commitToDB(omClientResponse);
+
+    // The completed key takes over the reference of the part, and the blocks
+    // stay shared with the source.
+    OmKeyInfo completedKey = omMetadataManager.getKeyTable(getBucketLayout())
+        .get(omMetadataManager.getOzoneKey(volumeName, bucketName, keyName));
+    assertNotNull(completedKey);
+    assertEquals(sourceLocations.stream().map(OmKeyLocationInfo::getBlockID)
+            .collect(Collectors.toList()),
+        completedKey.getLatestVersionLocations().getLocationList().stream()
+            .map(OmKeyLocationInfo::getBlockID)
+            .collect(Collectors.toList()));
+    assertBlockReferences(2, sourceLocations);
+    for (OmKeyLocationInfo location : sourceLocations) {
+      assertFalse(isPendingDeletion(location));
+    }
+  }
+
+  /**
+   * Add the volume, the bucket, and a key to be copied to a part.
+   *
+   * @return the locations of the key
+   */
+  private List<OmKeyLocationInfo> addCopySource(String volumeName,
+      String bucketName, String sourceKeyName) throws Exception {
+    OMRequestTestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager, getBucketLayout());
+    List<OmKeyLocationInfo> locations = getKeyLocation(2).stream()
+        .map(OmKeyLocationInfo::getFromProtobuf)
+        .collect(Collectors.toList());
+    OMRequestTestUtils.addKeyToTable(false, volumeName, bucketName,
+        sourceKeyName, Time.now(),
+        RatisReplicationConfig.getInstance(ReplicationFactor.ONE),
+        omMetadataManager, locations, 0L);
+    return locations;
+  }
+
+  /**
+   * Initiate an upload and commit part 1 as a server-side copy of the given
+   * key.
+   *
+   * @return the multipart upload ID
+   */
+  private String copyPart(String volumeName, String bucketName,
+      String keyName, String sourceKeyName) throws Exception {
+    when(ozoneManager.getVersionManager()
+        .isAllowed(OMLayoutFeature.SERVER_SIDE_COPY)).thenReturn(true);
+
+    OMClientResponse omClientResponse = getS3InitiateMultipartUploadReq(
+        doPreExecuteInitiateMPU(volumeName, bucketName, keyName))
+        .validateAndUpdateCache(ozoneManager, 1L);
+    String multipartUploadID = omClientResponse.getOMResponse()
+        .getInitiateMultiPartUploadResponse().getMultipartUploadID();
+
+    // The part is opened without blocks, and shares those of the source.
+    long clientID = Time.now();
+    addKeyToOpenKeyTable(volumeName, bucketName, keyName, clientID);
+    OMRequest commitRequest = OMRequestTestUtils.createCommitPartMPURequest(
+        volumeName, bucketName, keyName, clientID, 0, multipartUploadID, 1,
+        new ArrayList<>());
+    KeyArgs keyArgs = commitRequest.getCommitMultiPartUploadRequest()
+        .getKeyArgs().toBuilder()
+        .setCopySource(KeyArgs.newBuilder().setVolumeName(volumeName)
+            .setBucketName(bucketName).setKeyName(sourceKeyName))
+        .build();
+    commitRequest = commitRequest.toBuilder()
+        .setCommitMultiPartUploadRequest(commitRequest
+            .getCommitMultiPartUploadRequest().toBuilder().setKeyArgs(keyArgs))
+        .build();
+
+    S3MultipartUploadCommitPartRequest s3MultipartUploadCommitPartRequest =
+        getS3MultipartUploadCommitReq(getS3MultipartUploadCommitReq(
+            commitRequest).preExecute(ozoneManager));
+    omClientResponse = s3MultipartUploadCommitPartRequest
+        .validateAndUpdateCache(ozoneManager, 2L);
+    assertSame(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    commitToDB(omClientResponse);
+    return multipartUploadID;
+  }
+
+  private void commitToDB(OMClientResponse omClientResponse)
+      throws IOException {
+    try (BatchOperation batchOperation =
+        omMetadataManager.getStore().initBatchOperation()) {
+      omClientResponse.checkAndUpdateDB(omMetadataManager, batchOperation);
+      omMetadataManager.getStore().commitBatchOperation(batchOperation);
+    }
+  }
+
+  private void assertBlockReferences(long expected,
+      List<OmKeyLocationInfo> locations) throws IOException {
+    for (OmKeyLocationInfo location : locations) {
+      String blockKey = BlockReferences.getKey(
+          location.getBlockID().getContainerBlockID());
+      assertEquals(expected, omMetadataManager.getBlockReferenceTable()
+          .getSkipCache(blockKey));
+    }
+  }
+
+  /** @return whether a deleted key refers to the block of the location. */
+  private boolean isPendingDeletion(OmKeyLocationInfo location)
+      throws IOException {
+    try (Table.KeyValueIterator<String, RepeatedOmKeyInfo> iterator =
+        omMetadataManager.getDeletedTable().iterator()) {
+      while (iterator.hasNext()) {
+        for (OmKeyInfo keyInfo : iterator.next().getValue().getOmKeyInfoList()) {
+          for (OmKeyLocationInfoGroup group : keyInfo.getKeyLocationVersions()) {
+            for (OmKeyLocationInfo deleted : group.getLocationList()) {
+              if (deleted.getBlockID().equals(location.getBlockID())) {
+                return true;
+              }
+            }
+          }
+        }
+      }
+    }
+    return false;
+  }
+
   protected void addKeyToOpenKeyTable(String volumeName, String bucketName,
       String keyName, long clientID) throws Exception {
     OMRequestTestUtils.addKeyToTable(true, true, volumeName, bucketName,
@@ -20,6 +20,7 @@
 import static org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor.ONE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -268,6 +269,79 @@ public void testInvalidPartOrderError() throws Exception {
         .INVALID_PART_ORDER, omClientResponse.getOMResponse().getStatus());
   }
 
+  @Test
+  public void testPartsValidatedInPreExecute() throws Exception {
+    String volumeName = UUID.randomUUID().toString();
+    String bucketName = UUID.randomUUID().toString();
+    String keyName = getKeyName();
+
+    OMRequestTestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager, getBucketLayout());
+
+    OMRequest initiateMPURequest = doPreExecuteInitiateMPU(volumeName,
+        bucketName, keyName);
+    OMClientResponse omClientResponse =
+        getS3InitiateMultipartUploadReq(initiateMPURequest)
+            .validateAndUpdateCache(ozoneManager, 1L);
+    String multipartUploadID = omClientResponse.getOMResponse()
+        .getInitiateMultiPartUploadResponse().getMultipartUploadID();
+
+    long clientID = Time.now();
+    OMRequest commitMultipartRequest = doPreExecuteCommitMPU(volumeName,
+        bucketName, keyName, clientID, multipartUploadID, 1);
+    addKeyToTable(volumeName, bucketName, keyName, clientID);
+    getS3MultipartUploadCommitReq(commitMultipartRequest)
+        .validateAndUpdateCache(ozoneManager, 2L);
+
+    String eTag = commitMultipartRequest.getCommitMultiPartUploadRequest()
+        .getKeyArgs().getMetadataList().stream()
+        .filter(keyValue -> keyValue.getKey().equals(OzoneConsts.ETAG))
+        .findFirst().get().getValue();
+    List<Part> partList = new ArrayList<>();
+    partList.add(Part.newBuilder().setETag(eTag).setPartName(eTag)
+        .setPartNumber(1).build());
+
+    // Valid parts are marked with the version of the upload validated.
+    OMRequest completeMultipartRequest = doPreExecuteCompleteMPU(volumeName,
+        bucketName, keyName, multipartUploadID, partList);
+    assertEquals(2L, completeMultipartRequest
+        .getCompleteMultiPartUploadRequest().getValidatedUpdateID());
+
+    // Invalid parts are not, even if the client claims so, and are rejected
+    // when applied.
+    List<Part> invalidPartList = new ArrayList<>();
+    invalidPartList.add(Part.newBuilder().setETag("invalid")
+        .setPartName("invalid").setPartNumber(1).build());
+    OMRequest invalidRequest = OMRequestTestUtils.createCompleteMPURequest(
+        volumeName, bucketName, keyName, multipartUploadID, invalidPartList);
+    invalidRequest = invalidRequest.toBuilder()
+        .setCompleteMultiPartUploadRequest(invalidRequest
+            .getCompleteMultiPartUploadRequest().toBuilder()
+            .setValidatedUpdateID(2L))
+        .build();
+    invalidRequest = getS3MultipartUploadCompleteReq(invalidRequest)
+        .preExecute(ozoneManager);
+    assertFalse(invalidRequest.getCompleteMultiPartUploadRequest()
+        .hasValidatedUpdateID());
+    omClientResponse = getS3MultipartUploadCompleteReq(invalidRequest)
+        .validateAndUpdateCache(ozoneManager, 3L);
+    assertEquals(OzoneManagerProtocolProtos.Status.INVALID_PART,
+        omClientResponse.getOMResponse().getStatus());
+
+    // Parts are validated again if the upload changed since preExecute.
+    clientID = Time.now() + 1;
+    commitMultipartRequest = doPreExecuteCommitMPU(volumeName,
+        bucketName, keyName, clientID, multipartUploadID, 2);
+    addKeyToTable(volumeName, bucketName, keyName, clientID);
+    getS3MultipartUploadCommitReq(commitMultipartRequest)
+        .validateAndUpdateCache(ozoneManager, 4L);
+
+    omClientResponse = getS3MultipartUploadCompleteReq(completeMultipartRequest)
+        .validateAndUpdateCache(ozoneManager, 5L);
+    assertEquals(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+  }
+
   @Test
   public void testValidateAndUpdateCacheVolumeNotFound() throws Exception {
     String volumeName = UUID.randomUUID().toString();
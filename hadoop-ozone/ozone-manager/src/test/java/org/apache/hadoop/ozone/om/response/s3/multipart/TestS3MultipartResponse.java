@@ -292,7 +292,7 @@ public S3MultipartUploadCommitPartResponse createS3CommitMPUResponseFSO(
     return new S3MultipartUploadCommitPartResponseWithFSO(omResponse,
         multipartKey, openKey, multipartKeyInfo, keyToDeleteMap,
         openPartKeyInfoToBeDeleted, omBucketInfo, omBucketInfo.getObjectID(),
-        getBucketLayout());
+        getBucketLayout(), null);
   }
 
   @SuppressWarnings("checkstyle:ParameterNumber")
@@ -75,6 +75,7 @@
 import org.apache.hadoop.hdds.utils.db.Table;
 import org.apache.hadoop.ozone.common.BlockGroup;
 import org.apache.hadoop.ozone.common.DeletedBlock;
+import org.apache.hadoop.ozone.om.BlockReferences;
 import org.apache.hadoop.ozone.om.DeletingServiceMetrics;
 import org.apache.hadoop.ozone.om.KeyManager;
 import org.apache.hadoop.ozone.om.KeyManagerImpl;
@@ -303,6 +304,62 @@ void checkIfDeleteServiceIsDeletingMixedSizedKeys()
       testService.shutdown();
     }
 
+    /**
+     * A block shared by server-side copies is released by each key purged while other keys still refer to it, and
+     * deleted by SCM only with the last key referring to it.
+     */
+    @Test
+    void checkSharedBlocksDeletedWithLastKey() throws Exception {
+      ScmBlockLocationTestingClient scmClientSpy = Mockito.spy(scmBlockTestingClient);
+      KeyDeletingService testService = new KeyDeletingService(
+          om, scmClientSpy, 100, 10000, conf, 10, false);
+      long containerID = 1_000_000L + OBJECT_COUNTER.incrementAndGet();
+      BlockID sharedBlock = new BlockID(containerID, 1);
+      BlockID sourceBlock = new BlockID(containerID, 2);
+      String blockKey = BlockReferences.getKey(sharedBlock.getContainerBlockID());
+      Table<String, Long> blockReferenceTable = metadataManager.getBlockReferenceTable();
+      // A source key and two copies of it share the block.
+      blockReferenceTable.put(blockKey, 3L);
+
+      // The source key is purged, SCM only deletes the block it does not share.
+      Map<String, PurgedKey> sourceKey = new HashMap<>();
+      addPurgedKey(sourceKey, "source/1", sharedBlock, sourceBlock);
+      testService.processKeyDeletes(sourceKey, new HashMap<>(), new ArrayList<>(), null, null);
+      assertEquals(Collections.singletonList(sourceBlock), getBlocksDeletedBySCM(scmClientSpy));
+      assertEquals(2, BlockReferences.getCount(metadataManager, sharedBlock.getContainerBlockID()));
+
+      // Both copies are purged together, the block is deleted once and no longer counted.
+      clearInvocations(scmClientSpy);
+      Map<String, PurgedKey> copies = new HashMap<>();
+      addPurgedKey(copies, "copy1/2", sharedBlock);
+      addPurgedKey(copies, "copy2/3", sharedBlock);
+      testService.processKeyDeletes(copies, new HashMap<>(), new ArrayList<>(), null, null);
+      assertEquals(Collections.singletonList(sharedBlock), getBlocksDeletedBySCM(scmClientSpy));
+      assertFalse(blockReferenceTable.isExist(blockKey));
+      testService.shutdown();
+    }
+
+    private void addPurgedKey(Map<String, PurgedKey> purgedKeys, String groupID, BlockID... blocks) {
+      List<DeletedBlock> deletedBlocks = new ArrayList<>();
+      for (BlockID block : blocks) {
+        deletedBlocks.add(new DeletedBlock(block, 1, 3, 1));
+      }
+      BlockGroup blockGroup = BlockGroup.newBuilder().setKeyName(groupID)
+          .addAllDeletedBlocks(deletedBlocks).build();
+      purgedKeys.put(blockGroup.getGroupID(),
+          new PurgedKey("vol", "buck", 1, blockGroup, groupID, 0, true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BlockID> getBlocksDeletedBySCM(ScmBlockLocationTestingClient scmClient) throws IOException {
+      ArgumentCaptor<List<BlockGroup>> captor = ArgumentCaptor.forClass(List.class);
+      verify(scmClient).deleteKeyBlocks(captor.capture());
+      return captor.getValue().stream()
+          .flatMap(group -> group.getDeletedBlocks().stream())
+          .map(DeletedBlock::getBlockID)
+          .collect(Collectors.toList());
+    }
+
     @Test
     void checkDeletionForKeysWithMultipleVersions() throws Exception {
       final long initialDeletedCount = getDeletedKeyCount();
@@ -47,6 +47,7 @@
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import org.apache.hadoop.hdds.conf.OzoneConfiguration;
 import org.apache.hadoop.hdds.security.SecurityConfig;
 import org.apache.hadoop.hdds.security.symmetric.ManagedSecretKey;
@@ -63,6 +64,7 @@
 import org.apache.hadoop.ozone.om.S3SecretLockedManager;
 import org.apache.hadoop.ozone.om.S3SecretManager;
 import org.apache.hadoop.ozone.om.S3SecretManagerImpl;
+import org.apache.hadoop.ozone.om.S3SigningKeyCache;
 import org.apache.hadoop.ozone.om.exceptions.OMLeaderNotReadyException;
 import org.apache.hadoop.ozone.om.exceptions.OMNotLeaderException;
 import org.apache.hadoop.ozone.om.helpers.S3SecretValue;
@@ -517,6 +519,45 @@ public void testValidateS3AUTHINFOFailure() throws Exception {
         .startsWith("No S3 secret found for S3 identifier"));
   }
 
+  @Test
+  public void testValidateS3AUTHINFOWithSigningKeyCache() throws Exception {
+    final Map<String, S3SecretValue> s3Secrets = new HashMap<>();
+    s3Secrets.put("testuser1",
+        S3SecretValue.of("testuser1", "dbaksbzljandlkandlsd"));
+    S3SecretStoreMap store = spy(new S3SecretStoreMap(s3Secrets));
+    s3SecretManager = new S3SecretLockedManager(
+        new S3SecretManagerImpl(store, mock(S3SecretCache.class),
+            new S3SigningKeyCache(100, 1, TimeUnit.HOURS)),
+        om.getMetadataManager().getLock());
+    secretManager = createSecretManager(conf, TOKEN_MAX_LIFETIME,
+        expiryTime, TOKEN_REMOVER_SCAN_INTERVAL);
+    secretManager.start(certificateClient);
+
+    OzoneTokenIdentifier identifier = new OzoneTokenIdentifier();
+    identifier.setTokenType(S3AUTHINFO);
+    identifier.setSignature("56ec73ba1974f8feda8365c3caef89c5d4a688d" +
+        "5f9baccf4765f46a14cd745ad");
+    identifier.setStrToSign("AWS4-HMAC-SHA256\n" +
+        "20190221T002037Z\n" +
+        "20190221/us-west-1/s3/aws4_request\n" +
+        "c297c080cce4e0927779823d3fd1f5cae71481a8f7dfc7e18d91851294efc47d");
+    identifier.setAwsAccessId("testuser1");
+    identifier.setOwner(new Text("testuser1"));
+
+    // The secret is looked up once for the same credential scope.
+    secretManager.retrievePassword(identifier);
+    secretManager.retrievePassword(identifier);
+    verify(store, times(1)).getSecret("testuser1");
+
+    // Revoking the secret invalidates the signing key.
+    s3SecretManager.revokeSecret("testuser1");
+    SecretManager.InvalidToken invalidToken =
+        assertThrows(SecretManager.InvalidToken.class,
+            () -> secretManager.retrievePassword(identifier));
+    assertTrue(invalidToken.getMessage()
+        .startsWith("No S3 secret found for S3 identifier"));
+  }
+
   /**
    * Validate hash using public key of KeyPair.
    */
@@ -126,6 +126,7 @@ public class BasicRootedOzoneFileSystem extends FileSystem {
   private boolean isRatisStreamingEnabled
       = OzoneConfigKeys.OZONE_FS_DATASTREAM_ENABLED_DEFAULT;
   private int streamingAutoThreshold;
+  private FileStatusCache statusCache;
 
   private static final String URI_EXCEPTION_TEXT =
       "URL should be one of the following formats: " +
@@ -207,6 +208,8 @@ public void initialize(URI name, Configuration conf) throws IOException {
         OzoneConfigKeys.OZONE_FS_DATASTREAM_AUTO_THRESHOLD,
         OzoneConfigKeys.OZONE_FS_DATASTREAM_AUTO_THRESHOLD_DEFAULT,
         StorageUnit.BYTES);
+    statusCache = FileStatusCache.create(ozoneConfiguration,
+        this::incrementCounter);
   }
 
   protected OzoneClientAdapter createAdapter(ConfigurationSource conf,
@@ -309,12 +312,31 @@ private FSDataOutputStream createOutputStream(String key, short replication,
       final CheckedFunction<Integer, OutputStream, IOException> selector
           = byteWritten -> selectOutputStream(
           key, replication, overwrite, recursive, byteWritten);
-      return new FSDataOutputStream(new SelectorOutputStream<>(
-          streamingAutoThreshold, selector), statistics);
+      return newFSDataOutputStream(key, new SelectorOutputStream<>(
+          streamingAutoThreshold, selector));
     }
-    return new FSDataOutputStream(createFSOutputStream(
+    return newFSDataOutputStream(key, createFSOutputStream(
             adapter.createFile(key,
-        replication, overwrite, recursive)), statistics);
+        replication, overwrite, recursive)));
+  }
+
+  private FSDataOutputStream newFSDataOutputStream(String key,
+      OutputStream out) {
+    if (statusCache == null) {
+      return new FSDataOutputStream(out, statistics);
+    }
+    statusCache.invalidate(key);
+    // the length of the file is only known once it is closed
+    return new FSDataOutputStream(out, statistics) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          statusCache.invalidate(key);
+        }
+      }
+    };
   }
 
   protected OzoneFSOutputStream createFSOutputStream(
@@ -391,8 +413,13 @@ boolean processKeyPath(List<String> keyPathList) throws IOException {
    */
   @Override
   public boolean rename(Path src, Path dst) throws IOException {
-    return TracingUtil.executeInNewSpan("ofs rename",
-        () -> renameInSpan(src, dst));
+    try {
+      return TracingUtil.executeInNewSpan("ofs rename",
+          () -> renameInSpan(src, dst));
+    } finally {
+      invalidateTree(src);
+      invalidateTree(dst);
+    }
   }
 
   private boolean renameInSpan(Path src, Path dst) throws IOException {
@@ -436,7 +463,7 @@ private boolean renameInSpan(Path src, Path dst) throws IOException {
     // Check if the source exists
     FileStatus srcStatus;
     try {
-      srcStatus = getFileStatus(src);
+      srcStatus = getFileStatusUncached(src);
     } catch (FileNotFoundException fnfe) {
       // source doesn't exist, return
       return false;
@@ -445,7 +472,7 @@ private boolean renameInSpan(Path src, Path dst) throws IOException {
     // Check if the destination exists
     FileStatus dstStatus;
     try {
-      dstStatus = getFileStatus(dst);
+      dstStatus = getFileStatusUncached(dst);
     } catch (FileNotFoundException fnde) {
       dstStatus = null;
     }
@@ -453,7 +480,7 @@ private boolean renameInSpan(Path src, Path dst) throws IOException {
     if (dstStatus == null) {
       // If dst doesn't exist, check whether dst parent dir exists or not
       // if the parent exists, the source can still be renamed to dst path
-      dstStatus = getFileStatus(dst.getParent());
+      dstStatus = getFileStatusUncached(dst.getParent());
       if (!dstStatus.isDirectory()) {
         throw new IOException(String.format(
             "Failed to rename %s to %s, %s is a file", src, dst,
@@ -470,7 +497,7 @@ private boolean renameInSpan(Path src, Path dst) throws IOException {
         dst = new Path(dst, src.getName());
         FileStatus[] statuses;
         try {
-          statuses = listStatus(dst);
+          statuses = listStatusUncached(dst);
         } catch (FileNotFoundException fnde) {
           statuses = null;
         }
@@ -699,8 +726,12 @@ private boolean innerDelete(Path f, boolean recursive) throws IOException {
    */
   @Override
   public boolean delete(Path f, boolean recursive) throws IOException {
-    return TracingUtil.executeInNewSpan("ofs delete",
-        () -> deleteInSpan(f, recursive));
+    try {
+      return TracingUtil.executeInNewSpan("ofs delete",
+          () -> deleteInSpan(f, recursive));
+    } finally {
+      invalidateTree(f);
+    }
   }
 
   private boolean deleteInSpan(Path f, boolean recursive) throws IOException {
@@ -740,7 +771,7 @@ private boolean deleteInSpan(Path f, boolean recursive) throws IOException {
     // delete files and directory
     FileStatus status;
     try {
-      status = getFileStatus(f);
+      status = getFileStatusUncached(f);
     } catch (FileNotFoundException ex) {
       LOG.warn("delete: Path does not exist: {}", f);
       return false;
@@ -789,7 +820,7 @@ private boolean deleteBucket(Path f, boolean recursive, OFSPath ofsPath)
     }
     // check status of normal bucket
     try {
-      getFileStatus(f);
+      getFileStatusUncached(f);
     } catch (FileNotFoundException ex) {
       // remove orphan link bucket directly
       if (bucket.isLink()) {
@@ -843,7 +874,7 @@ private boolean deleteVolume(Path f, OFSPath ofsPath)
       throws IOException {
     // verify volume exist
     try {
-      getFileStatus(f);
+      getFileStatusUncached(f);
     } catch (FileNotFoundException ex) {
       LOG.warn("delete: Path does not exist: {}", f);
       return false;
@@ -910,7 +941,7 @@ private void createFakeDirectoryIfNecessary(Path f) throws IOException {
   private boolean o3Exists(final Path f) throws IOException {
     Path path = makeQualified(f);
     try {
-      getFileStatus(path);
+      getFileStatusUncached(path);
       return true;
     } catch (FileNotFoundException ex) {
       return false;
@@ -920,7 +951,10 @@ private boolean o3Exists(final Path f) throws IOException {
   @Override
   public FileStatus[] listStatus(Path f) throws IOException {
     return TracingUtil.executeInNewSpan("ofs listStatus",
-        () -> convertFileStatusArr(listStatusAdapter(f, true)));
+        () -> convertFileStatusArr(statusCache == null
+            ? listStatusAdapter(f, true)
+            : statusCache.getListing(pathToKey(f),
+                () -> listStatusAdapter(f, true))));
   }
 
   private FileStatus[] convertFileStatusArr(
@@ -1053,8 +1087,12 @@ public boolean mkdirs(Path f, FsPermission permission) throws IOException {
     if (isEmpty(key)) {
       return false;
     }
-    return TracingUtil.executeInNewSpan("ofs mkdirs",
-        () -> mkdir(f));
+    try {
+      return TracingUtil.executeInNewSpan("ofs mkdirs",
+          () -> mkdir(f));
+    } finally {
+      invalidate(f);
+    }
   }
 
   @Override
@@ -1066,7 +1104,22 @@ public long getDefaultBlockSize() {
   @Override
   public FileStatus getFileStatus(Path f) throws IOException {    
     return TracingUtil.executeInNewSpan("ofs getFileStatus",
-        () -> convertFileStatus(getFileStatusAdapter(f)));
+        () -> convertFileStatus(statusCache == null
+            ? getFileStatusAdapter(f)
+            : statusCache.getStatus(pathToKey(f),
+                () -> getFileStatusAdapter(f))));
+  }
+
+  /**
+   * Same as {@link #getFileStatus}, but bypassing the metadata cache, for
+   * operations about to change the path.
+   */
+  private FileStatus getFileStatusUncached(Path f) throws IOException {
+    return convertFileStatus(getFileStatusAdapter(f));
+  }
+
+  private FileStatus[] listStatusUncached(Path f) throws IOException {
+    return convertFileStatusArr(listStatusAdapter(f, true));
   }
 
   public FileStatusAdapter getFileStatusAdapter(Path f) throws IOException {
@@ -1643,8 +1696,26 @@ public void setTimes(Path f, long mtime, long atime) throws IOException {
     if (key.equals("NONE")) {
       throw new FileNotFoundException("File not found. path /NONE.");
     }
-    TracingUtil.executeInNewSpan("ofs setTimes",
-        () -> adapter.setTimes(key, mtime, atime));
+    try {
+      TracingUtil.executeInNewSpan("ofs setTimes",
+          () -> adapter.setTimes(key, mtime, atime));
+    } finally {
+      invalidate(f);
+    }
+  }
+
+  /** Drop cached metadata of a path created or modified by this client. */
+  private void invalidate(Path f) {
+    if (statusCache != null) {
+      statusCache.invalidate(pathToKey(f));
+    }
+  }
+
+  /** Drop cached metadata of a path deleted or renamed by this client. */
+  private void invalidateTree(Path f) {
+    if (statusCache != null) {
+      statusCache.invalidateTree(pathToKey(f));
+    }
   }
 
   protected boolean setSafeModeUtil(SafeModeAction action,
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.fs.ozone;
+
+import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_FS_METADATA_CACHE_MAX_ENTRIES;
+import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_FS_METADATA_CACHE_MAX_ENTRIES_DEFAULT;
+import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_FS_METADATA_CACHE_NEGATIVE_TTL;
+import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_FS_METADATA_CACHE_NEGATIVE_TTL_DEFAULT;
+import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_FS_METADATA_CACHE_TTL;
+import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_FS_METADATA_CACHE_TTL_DEFAULT;
+import static org.apache.hadoop.ozone.OzoneConsts.OZONE_URI_DELIMITER;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.apache.hadoop.hdds.conf.ConfigurationSource;
+import org.apache.hadoop.util.Time;
+import org.apache.ratis.util.function.CheckedSupplier;
+
+/**
+ * Client-side cache of file statuses and directory listings, used by
+ * {@link BasicRootedOzoneFileSystem} to avoid looking up the same paths in OM
+ * repeatedly, e.g. while a query is being planned.
+ * <p>
+ * Entries expire a fixed time after being loaded. Paths missing in OM may be
+ * cached too, with their own expiry. Changes made through the same file
+ * system instance invalidate the affected entries immediately, changes made
+ * by other clients are seen once the entries expire.
+ * <p>
+ * Keys are Ozone keys as returned by
+ * {@link BasicRootedOzoneFileSystem#pathToKey}, e.g. {@code vol/bucket/dir}.
+ */
+final class FileStatusCache {
+
+  private final long ttlMillis;
+  private final long negativeTtlMillis;
+  private final Cache<String, Entry<FileStatusAdapter>> statuses;
+  private final Cache<String, Entry<List<FileStatusAdapter>>> listings;
+  private final Consumer<Statistic> counter;
+  /** Incremented on each invalidation, so that loads racing with it are not cached. */
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * @return a cache configured by {@code ozone.fs.metadata.cache.*}, or null
+   *         if the cache is disabled.
+   */
+  static FileStatusCache create(ConfigurationSource conf,
+      Consumer<Statistic> counter) {
+    final long ttl = conf.getTimeDuration(OZONE_FS_METADATA_CACHE_TTL,
+        OZONE_FS_METADATA_CACHE_TTL_DEFAULT, TimeUnit.MILLISECONDS);
+    if (ttl <= 0) {
+      return null;
+    }
+    final long negativeTtl = conf.getTimeDuration(
+        OZONE_FS_METADATA_CACHE_NEGATIVE_TTL,
+        OZONE_FS_METADATA_CACHE_NEGATIVE_TTL_DEFAULT, TimeUnit.MILLISECONDS);
+    final int maxEntries = conf.getInt(OZONE_FS_METADATA_CACHE_MAX_ENTRIES,
+        OZONE_FS_METADATA_CACHE_MAX_ENTRIES_DEFAULT);
+    return new FileStatusCache(ttl, negativeTtl, maxEntries, counter);
+  }
+
+  FileStatusCache(long ttlMillis, long negativeTtlMillis, long maxEntries,
+      Consumer<Statistic> counter) {
+    this.ttlMillis = ttlMillis;
+    this.negativeTtlMillis = negativeTtlMillis;
+    this.statuses = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .build();
+    this.listings = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .build();
+    this.counter = counter;
+  }
+
+  /**
+   * Get the status of the given key, loading it on a miss.
+   *
+   * @throws FileNotFoundException if the key does not exist, either as
+   *         reported by the loader or as cached from a previous load.
+   */
+  FileStatusAdapter getStatus(String key,
+      CheckedSupplier<FileStatusAdapter, IOException> loader)
+      throws IOException {
+    final Entry<FileStatusAdapter> cached = statuses.getIfPresent(key);
+    if (cached != null && !cached.isExpired()) {
+      counter.accept(Statistic.METADATA_CACHE_HITS);
+      if (cached.value == null) {
+        throw new FileNotFoundException("File not found. path:" + key);
+      }
+      return cached.value;
+    }
+
+    counter.accept(Statistic.METADATA_CACHE_MISSES);
+    final long gen = generation.get();
+    final FileStatusAdapter status;
+    try {
+      status = loader.get();
+    } catch (FileNotFoundException e) {
+      if (negativeTtlMillis > 0) {
+        put(statuses, key, new Entry<>(null, negativeTtlMillis), gen);
+      }
+      throw e;
+    }
+    put(statuses, key, new Entry<>(status, ttlMillis), gen);
+    return status;
+  }
+
+  /**
+   * Get the listing of the given directory key, loading it on a miss.
+   */
+  List<FileStatusAdapter> getListing(String key,
+      CheckedSupplier<List<FileStatusAdapter>, IOException> loader)
+      throws IOException {
+    final Entry<List<FileStatusAdapter>> cached = listings.getIfPresent(key);
+    if (cached != null && !cached.isExpired()) {
+      counter.accept(Statistic.METADATA_CACHE_HITS);
+      return cached.value;
+    }
+
+    counter.accept(Statistic.METADATA_CACHE_MISSES);
+    final long gen = generation.get();
+    final List<FileStatusAdapter> listing =
+        Collections.unmodifiableList(new ArrayList<>(loader.get()));
+    put(listings, key, new Entry<>(listing, ttlMillis), gen);
+    return listing;
+  }
+
+  private <T> void put(Cache<String, Entry<T>> cache, String key,
+      Entry<T> entry, long gen) {
+    cache.put(key, entry);
+    // Drop the entry if the key may have been changed while it was loaded.
+    if (generation.get() != gen) {
+      cache.invalidate(key);
+    }
+  }
+
+  /**
+   * Invalidate a key whose file or directory was created or modified, along
+   * with the statuses and listings of its ancestors.
+   */
+  void invalidate(String key) {
+    generation.incrementAndGet();
+    for (String k = trim(key); k != null; k = parent(k)) {
+      statuses.invalidate(k);
+      listings.invalidate(k);
+    }
+  }
+
+  /**
+   * Invalidate a key that was deleted or renamed, along with its ancestors
+   * and all of its descendants.
+   */
+  void invalidateTree(String key) {
+    invalidate(key);
+    final String trimmed = trim(key);
+    final String prefix = trimmed.isEmpty() ? "" : trimmed + OZONE_URI_DELIMITER;
+    statuses.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+    listings.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+  }
+
+  long size() {
+    return statuses.size() + listings.size();
+  }
+
+  private static String trim(String key) {
+    String k = key;
+    while (k.endsWith(OZONE_URI_DELIMITER)) {
+      k = k.substring(0, k.length() - 1);
+    }
+    return k;
+  }
+
+  /** @return the parent key, "" for the root, or null for the root itself. */
+  private static String parent(String key) {
+    if (key.isEmpty()) {
+      return null;
+    }
+    final int i = key.lastIndexOf(OZONE_URI_DELIMITER);
+    return i < 0 ? "" : key.substring(0, i);
+  }
+
+  /** A cached value with its expiry time. */
+  private static final class Entry<T> {
+    private final T value;
+    private final long expiry;
+
+    Entry(T value, long ttlMillis) {
+      this.value = value;
+      this.expiry = Time.monotonicNow() + ttlMillis;
+    }
+
+    boolean isExpired() {
+      return Time.monotonicNow() >= expiry;
+    }
+  }
+}
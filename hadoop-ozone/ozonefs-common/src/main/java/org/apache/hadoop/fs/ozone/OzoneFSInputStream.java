@@ -22,16 +22,20 @@
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ReadOnlyBufferException;
+import java.util.List;
+import java.util.function.IntFunction;
 import org.apache.hadoop.fs.ByteBufferPositionedReadable;
 import org.apache.hadoop.fs.ByteBufferReadable;
 import org.apache.hadoop.fs.CanUnbuffer;
 import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileRange;
 import org.apache.hadoop.fs.FileSystem.Statistics;
 import org.apache.hadoop.fs.Seekable;
 import org.apache.hadoop.hdds.annotation.InterfaceAudience;
 import org.apache.hadoop.hdds.annotation.InterfaceStability;
 import org.apache.hadoop.hdds.scm.storage.ExtendedInputStream;
 import org.apache.hadoop.hdds.tracing.TracingUtil;
+import org.apache.hadoop.ozone.client.io.KeyInputStream;
 
 /**
  * The input stream for Ozone file system.
@@ -207,4 +211,33 @@ public void readFully(long position, ByteBuffer buf) throws IOException {
       }
     }
   }
+
+  /**
+   * Vectored read. For unencrypted keys the ranges are coalesced and the
+   * blocks they fall into are fetched in parallel by
+   * {@link KeyInputStream#readVectored}, otherwise the default implementation
+   * reads the ranges one by one.
+   *
+   * @param ranges the byte ranges to read
+   * @param allocate the function to allocate ByteBuffer
+   * @throws IOException if the ranges are invalid or the read fails
+   */
+  @Override
+  public void readVectored(List<? extends FileRange> ranges,
+      IntFunction<ByteBuffer> allocate) throws IOException {
+    if (!(inputStream instanceof KeyInputStream)) {
+      super.readVectored(ranges, allocate);
+      return;
+    }
+    TracingUtil.executeInNewSpan("OzoneFSInputStream.readVectored",
+        () -> ((KeyInputStream) inputStream).readVectored(ranges, allocate,
+            minSeekForVectorReads(), maxReadSizeForVectorReads()));
+    if (statistics != null) {
+      long bytesRead = 0;
+      for (FileRange range : ranges) {
+        bytesRead += range.getLength();
+      }
+      statistics.incrementBytesRead(bytesRead);
+    }
+  }
 }
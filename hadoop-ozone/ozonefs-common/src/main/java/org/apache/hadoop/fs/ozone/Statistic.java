@@ -39,6 +39,10 @@ public enum Statistic {
       "Total number of objects queried from the object store."),
   OBJECTS_LIST("objects_list",
       "Total number of object list query from the object store."),
+  METADATA_CACHE_HITS("metadata_cache_hits",
+      "Number of file statuses and listings served from the client cache."),
+  METADATA_CACHE_MISSES("metadata_cache_misses",
+      "Number of file statuses and listings not found in the client cache."),
   INVOCATION_COPY_FROM_LOCAL_FILE(CommonStatisticNames.OP_COPY_FROM_LOCAL_FILE,
       "Calls of copyFromLocalFile()"),
   INVOCATION_CREATE(CommonStatisticNames.OP_CREATE,
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.fs.ozone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.ozone.OzoneConfigKeys;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link FileStatusCache}.
+ */
+public class TestFileStatusCache {
+
+  private final Map<Statistic, Integer> counters =
+      new EnumMap<>(Statistic.class);
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final FileStatusCache cache =
+      new FileStatusCache(60_000, 60_000, 100,
+          s -> counters.merge(s, 1, Integer::sum));
+
+  @Test
+  public void testDisabledByDefault() {
+    assertNull(FileStatusCache.create(new OzoneConfiguration(), s -> { }));
+
+    OzoneConfiguration conf = new OzoneConfiguration();
+    conf.set(OzoneConfigKeys.OZONE_FS_METADATA_CACHE_TTL, "10s");
+    assertEquals(0, FileStatusCache.create(conf, s -> { }).size());
+  }
+
+  @Test
+  public void testRepeatedLookupServedFromCache() throws IOException {
+    FileStatusAdapter status = status("vol/bucket/dir/file");
+
+    assertSame(status, getStatus("vol/bucket/dir/file", status));
+    assertSame(status, getStatus("vol/bucket/dir/file", status));
+
+    assertEquals(1, lookups.get());
+    assertEquals(1, counters.get(Statistic.METADATA_CACHE_HITS));
+    assertEquals(1, counters.get(Statistic.METADATA_CACHE_MISSES));
+  }
+
+  @Test
+  public void testMissingPathCached() throws IOException {
+    assertThrows(FileNotFoundException.class,
+        () -> getStatus("vol/bucket/missing", null));
+    assertThrows(FileNotFoundException.class,
+        () -> getStatus("vol/bucket/missing", null));
+    assertEquals(1, lookups.get());
+
+    FileStatusCache noNegative = new FileStatusCache(60_000, 0, 100, s -> { });
+    for (int i = 0; i < 2; i++) {
+      assertThrows(FileNotFoundException.class,
+          () -> noNegative.getStatus("vol/bucket/missing", this::notFound));
+    }
+    assertEquals(3, lookups.get());
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    FileStatusCache shortLived = new FileStatusCache(1, 1, 100, s -> { });
+    FileStatusAdapter status = status("vol/bucket/file");
+    shortLived.getStatus("vol/bucket/file", () -> load(status));
+    Thread.sleep(10);
+    shortLived.getStatus("vol/bucket/file", () -> load(status));
+
+    assertEquals(2, lookups.get());
+  }
+
+  @Test
+  public void testWriteInvalidatesPathAndAncestors() throws IOException {
+    FileStatusAdapter dir = status("vol/bucket/dir");
+    getStatus("vol/bucket/dir", dir);
+    getListing("vol/bucket/dir");
+    assertThrows(FileNotFoundException.class,
+        () -> getStatus("vol/bucket/dir/file", null));
+    FileStatusAdapter sibling = status("vol/bucket/other");
+    getStatus("vol/bucket/other", sibling);
+    assertEquals(3, lookups.get());
+
+    cache.invalidate("vol/bucket/dir/file");
+
+    getStatus("vol/bucket/dir/file", status("vol/bucket/dir/file"));
+    getStatus("vol/bucket/dir", dir);
+    getListing("vol/bucket/dir");
+    getStatus("vol/bucket/other", sibling);
+    assertEquals(6, lookups.get());
+  }
+
+  @Test
+  public void testDeleteInvalidatesDescendants() throws IOException {
+    getStatus("vol/bucket/dir/a", status("vol/bucket/dir/a"));
+    getListing("vol/bucket/dir/sub");
+    getStatus("vol/bucket/dir2", status("vol/bucket/dir2"));
+    assertEquals(3, lookups.get());
+
+    cache.invalidateTree("vol/bucket/dir");
+
+    getStatus("vol/bucket/dir/a", status("vol/bucket/dir/a"));
+    getListing("vol/bucket/dir/sub");
+    getStatus("vol/bucket/dir2", status("vol/bucket/dir2"));
+    assertEquals(5, lookups.get());
+  }
+
+  @Test
+  public void testLoadRacingWithInvalidationNotCached() throws IOException {
+    FileStatusAdapter status = status("vol/bucket/file");
+    cache.getStatus("vol/bucket/file", () -> {
+      cache.invalidate("vol/bucket/file");
+      return load(status);
+    });
+    getStatus("vol/bucket/file", status);
+
+    assertEquals(2, lookups.get());
+  }
+
+  private FileStatusAdapter getStatus(String key, FileStatusAdapter result)
+      throws IOException {
+    return cache.getStatus(key,
+        () -> result == null ? notFound() : load(result));
+  }
+
+  private List<FileStatusAdapter> getListing(String key) throws IOException {
+    return cache.getListing(key, () -> {
+      lookups.incrementAndGet();
+      return Collections.emptyList();
+    });
+  }
+
+  private FileStatusAdapter load(FileStatusAdapter result) {
+    lookups.incrementAndGet();
+    return result;
+  }
+
+  private FileStatusAdapter notFound() throws FileNotFoundException {
+    lookups.incrementAndGet();
+    throw new FileNotFoundException("not found");
+  }
+
+  private static FileStatusAdapter status(String key) {
+    return new FileStatusAdapter(0, 0, new Path("ofs://om/" + key), false,
+        (short) 3, 256L << 20, 0, 0, (short) 0, "user", "group", null,
+        new BlockLocation[0], false, false);
+  }
+}
@@ -32,10 +32,13 @@
 import javax.ws.rs.ext.Provider;
 import org.apache.hadoop.ozone.s3.exception.OS3Exception;
 import org.apache.hadoop.ozone.s3.exception.S3ErrorTable;
+import org.apache.hadoop.ozone.s3.metrics.RequestTrace;
+import org.apache.hadoop.ozone.s3.metrics.S3GatewayMetrics;
 import org.apache.hadoop.ozone.s3.signature.SignatureInfo;
 import org.apache.hadoop.ozone.s3.signature.SignatureInfo.Version;
 import org.apache.hadoop.ozone.s3.signature.SignatureProcessor;
 import org.apache.hadoop.ozone.s3.signature.StringToSignProducer;
+import org.apache.hadoop.util.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +66,7 @@ public class AuthorizationFilter implements ContainerRequestFilter {
   @Override
   public void filter(ContainerRequestContext context) throws
       IOException {
+    long startNanos = Time.monotonicNowNanos();
     try {
       signatureInfo.initialize(signatureProcessor.parseSignature());
       if (signatureInfo.getVersion() == Version.V4) {
@@ -88,6 +92,19 @@ public void filter(ContainerRequestContext context) throws
       // error.
       LOG.debug("Error during Client Creation: ", e);
       throw wrapOS3Exception(S3ErrorTable.newError(INTERNAL_ERROR, e));
+    } finally {
+      updateAuthStats(context, startNanos);
+    }
+  }
+
+  private static void updateAuthStats(ContainerRequestContext context,
+      long startNanos) {
+    S3GatewayMetrics metrics = S3GatewayMetrics.getMetrics();
+    long authNanos = metrics != null ? metrics.updateAuthStats(startNanos)
+        : Time.monotonicNowNanos() - startNanos;
+    RequestTrace trace = RequestTrace.get(context);
+    if (trace != null) {
+      trace.add(RequestTrace.Phase.AUTH, authNanos);
     }
   }
 
@@ -0,0 +1,424 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3;
+
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_ASYNC_MAX_QUEUED_REQUESTS;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_ASYNC_MAX_QUEUED_REQUESTS_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_ASYNC_MAX_THREADS;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_ASYNC_MAX_THREADS_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_ASYNC_VIRTUAL_THREADS_ENABLED;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_ASYNC_VIRTUAL_THREADS_ENABLED_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_BUCKET_MAX_QUEUE_TIME;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_BUCKET_MAX_QUEUE_TIME_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_DOMAIN_NAME;
+import static org.apache.hadoop.ozone.s3.exception.S3ErrorTable.INTERNAL_ERROR;
+import static org.apache.hadoop.ozone.s3.exception.S3ErrorTable.SLOW_DOWN;
+import static org.apache.hadoop.ozone.s3.exception.S3ErrorTable.newError;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.enterprise.context.control.RequestContextController;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.CDI;
+import javax.servlet.AsyncContext;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.MediaType;
+import org.apache.hadoop.hdds.conf.ConfigurationSource;
+import org.apache.hadoop.ozone.s3.exception.OS3Exception;
+import org.apache.hadoop.ozone.s3.metrics.RequestTrace;
+import org.apache.hadoop.ozone.s3.metrics.S3GatewayMetrics;
+import org.apache.hadoop.util.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Filter to handle S3 requests off the HTTP server's thread pool, enabled by
+ * {@code ozone.s3g.async.enabled}.
+ * <p>
+ * Each request is put into asynchronous mode, and the rest of the filter
+ * chain, including Jersey, runs on a virtual thread, or on a separate pool of
+ * platform threads if virtual threads are not available. The Jetty thread is
+ * released as soon as the request is dispatched, while endpoints keep using
+ * blocking calls to OM and datanodes. The CDI request context is activated on
+ * that thread, as the one of the Jetty thread is not visible to it.
+ * Requests which passed a filter without asynchronous support, e.g. for
+ * authentication, are handled on the Jetty thread instead.
+ * <p>
+ * The number of requests to a bucket handled concurrently can be limited.
+ * Requests over the limit wait for their turn without holding a thread, and
+ * fail with SlowDown if they wait longer than
+ * {@code ozone.s3g.bucket.max-queue-time}.
+ */
+public class RequestExecutionFilter implements Filter {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(RequestExecutionFilter.class);
+
+  private final ExecutorService executor;
+  private final String[] domains;
+  private final int maxBucketRequests;
+  private final long maxQueueTimeNanos;
+  /** Requests of buckets with requests in progress, released when unused. */
+  private final LoadingCache<String, BucketRequests> bucketRequests;
+  /** Fails requests waiting too long for their bucket. */
+  private final ScheduledThreadPoolExecutor queueTimer;
+  /** Controllers of the CDI request context, null if CDI is not used. */
+  private volatile Instance<RequestContextController> requestContexts;
+
+  public RequestExecutionFilter(ConfigurationSource conf) {
+    this(newExecutor(conf), conf);
+  }
+
+  @VisibleForTesting
+  RequestExecutionFilter(ExecutorService executor, ConfigurationSource conf) {
+    this.executor = executor;
+    this.domains = conf.getTrimmedStrings(OZONE_S3G_DOMAIN_NAME);
+    this.maxBucketRequests = conf.getInt(
+        OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS,
+        OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS_DEFAULT);
+    this.maxQueueTimeNanos = conf.getTimeDuration(
+        OZONE_S3G_BUCKET_MAX_QUEUE_TIME,
+        OZONE_S3G_BUCKET_MAX_QUEUE_TIME_DEFAULT, TimeUnit.NANOSECONDS);
+    this.bucketRequests = CacheBuilder.newBuilder()
+        .weakValues()
+        .build(new CacheLoader<String, BucketRequests>() {
+          @Override
+          public BucketRequests load(String bucket) {
+            return new BucketRequests(bucket);
+          }
+        });
+    if (maxBucketRequests > 0) {
+      queueTimer = new ScheduledThreadPoolExecutor(1,
+          new ThreadFactoryBuilder()
+              .setNameFormat("s3g-request-queue-timer")
+              .setDaemon(true)
+              .build());
+      queueTimer.setRemoveOnCancelPolicy(true);
+    } else {
+      queueTimer = null;
+    }
+  }
+
+  /**
+   * @return an executor starting a virtual thread for each task if enabled
+   *         and supported by the JVM, otherwise a bounded pool of platform
+   *         threads.
+   */
+  private static ExecutorService newExecutor(ConfigurationSource conf) {
+    if (conf.getBoolean(OZONE_S3G_ASYNC_VIRTUAL_THREADS_ENABLED,
+        OZONE_S3G_ASYNC_VIRTUAL_THREADS_ENABLED_DEFAULT)) {
+      try {
+        // Java 21+, looked up as the build targets older versions
+        ExecutorService executor = (ExecutorService) Executors.class
+            .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        LOG.info("Handling S3 requests on virtual threads");
+        return executor;
+      } catch (ReflectiveOperationException e) {
+        LOG.info("Virtual threads are not supported by this JVM");
+      }
+    }
+    int maxThreads = conf.getInt(OZONE_S3G_ASYNC_MAX_THREADS,
+        OZONE_S3G_ASYNC_MAX_THREADS_DEFAULT);
+    int maxQueued = conf.getInt(OZONE_S3G_ASYNC_MAX_QUEUED_REQUESTS,
+        OZONE_S3G_ASYNC_MAX_QUEUED_REQUESTS_DEFAULT);
+    LOG.info("Handling S3 requests on up to {} threads, with up to {} "
+        + "waiting", maxThreads, maxQueued);
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+        maxQueued > 0 ? new LinkedBlockingQueue<>(maxQueued)
+            : new SynchronousQueue<>(),
+        new ThreadFactoryBuilder()
+            .setNameFormat("s3g-request-%d")
+            .setDaemon(true)
+            .build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Look up the CDI request context. Listeners, including the one starting
+   * Weld, are initialized before filters.
+   */
+  @Override
+  public void init(FilterConfig filterConfig) {
+    try {
+      requestContexts = CDI.current().select(RequestContextController.class);
+    } catch (IllegalStateException e) {
+      LOG.warn("CDI is not available, request scoped beans cannot be used "
+          + "by asynchronous requests", e);
+    }
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response,
+      FilterChain chain) throws IOException, ServletException {
+    if (!request.isAsyncSupported()) {
+      // behind a filter registered without async support
+      chain.doFilter(request, response);
+      return;
+    }
+
+    long startNanos = Time.monotonicNowNanos();
+    String bucket = getBucketName((HttpServletRequest) request);
+    AsyncContext async = request.startAsync(request, response);
+    // Objects may take longer to transfer than the default timeout.
+    async.setTimeout(0);
+    if (maxBucketRequests > 0 && bucket != null) {
+      BucketRequests requests = bucketRequests.getUnchecked(bucket);
+      submit(requests.add(
+          new Request(async, chain, bucket, requests, startNanos)));
+    } else {
+      submit(new Request(async, chain, bucket, null, startNanos));
+    }
+  }
+
+  /**
+   * Run the request on the executor, or fail it with SlowDown if the executor
+   * is full. In that case the next request waiting for the bucket is run
+   * instead.
+   */
+  private void submit(Request request) {
+    Request next = request;
+    while (next != null) {
+      final Request current = next;
+      try {
+        executor.execute(() -> handle(current));
+        return;
+      } catch (RejectedExecutionException e) {
+        sendError(current.async, newError(SLOW_DOWN, current.bucket, e));
+        next = current.bucketRequests != null
+            ? current.bucketRequests.done() : null;
+      }
+    }
+  }
+
+  private void handle(Request request) {
+    AsyncContext async = request.async;
+    Instance<RequestContextController> contexts = requestContexts;
+    RequestContextController requestContext = null;
+    try {
+      long queueNanos = updateRequestQueueStats(request.startNanos);
+      async.getRequest().setAttribute(RequestTrace.QUEUE_NANOS_ATTRIBUTE,
+          queueNanos);
+      if (contexts != null) {
+        RequestContextController controller = contexts.get();
+        controller.activate();
+        requestContext = controller;
+      }
+      request.chain.doFilter(async.getRequest(), async.getResponse());
+    } catch (IOException | ServletException | RuntimeException e) {
+      writeError(async, newError(INTERNAL_ERROR, request.bucket, e));
+    } finally {
+      // also on an Error, which would otherwise leave the request open
+      complete(async);
+      if (requestContext != null) {
+        // destroys the request scoped beans of the request
+        requestContext.deactivate();
+        contexts.destroy(requestContext);
+      }
+      if (request.bucketRequests != null) {
+        Request next = request.bucketRequests.done();
+        if (next != null) {
+          submit(next);
+        }
+      }
+    }
+  }
+
+  /** Send the error unless the response is already committed, and complete. */
+  private static void sendError(AsyncContext async, OS3Exception error) {
+    try {
+      writeError(async, error);
+    } finally {
+      complete(async);
+    }
+  }
+
+  /** Write the error unless the response is already committed. */
+  private static void writeError(AsyncContext async, OS3Exception error) {
+    HttpServletResponse response = (HttpServletResponse) async.getResponse();
+    try {
+      if (!response.isCommitted()) {
+        response.resetBuffer();
+        response.setStatus(error.getHttpCode());
+        response.setContentType(MediaType.APPLICATION_XML);
+        response.getOutputStream().write(
+            error.toXml().getBytes(StandardCharsets.UTF_8));
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Failed to send error {}", error.getCode(), e);
+    }
+  }
+
+  private static void complete(AsyncContext async) {
+    try {
+      async.complete();
+    } catch (RuntimeException e) {
+      LOG.debug("Failed to complete request", e);
+    }
+  }
+
+  /**
+   * @return the bucket of the request, either virtual host or path style,
+   *         or null for requests to the service.
+   */
+  @VisibleForTesting
+  String getBucketName(HttpServletRequest request) {
+    String host = request.getServerName();
+    String domain = null;
+    for (String d : domains) {
+      if (host != null && host.endsWith("." + d)
+          && (domain == null || d.length() > domain.length())) {
+        domain = d;
+      }
+    }
+    if (domain != null) {
+      return host.substring(0, host.length() - domain.length() - 1);
+    }
+
+    String path = request.getRequestURI();
+    int start = request.getContextPath().length();
+    while (start < path.length() && path.charAt(start) == '/') {
+      start++;
+    }
+    int end = path.indexOf('/', start);
+    String bucket = end < 0 ? path.substring(start)
+        : path.substring(start, end);
+    return bucket.isEmpty() ? null : bucket;
+  }
+
+  private static long updateRequestQueueStats(long startNanos) {
+    S3GatewayMetrics metrics = S3GatewayMetrics.getMetrics();
+    return metrics != null ? metrics.updateRequestQueueStats(startNanos)
+        : Time.monotonicNowNanos() - startNanos;
+  }
+
+  private static void incRequestQueueTimeouts() {
+    S3GatewayMetrics metrics = S3GatewayMetrics.getMetrics();
+    if (metrics != null) {
+      metrics.incRequestQueueTimeouts();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+    if (queueTimer != null) {
+      queueTimer.shutdownNow();
+    }
+  }
+
+  /** A request dispatched to the executor, or waiting for its bucket. */
+  private static final class Request {
+    private final AsyncContext async;
+    private final FilterChain chain;
+    private final String bucket;
+    /** Requests of the bucket, if limited. */
+    private final BucketRequests bucketRequests;
+    private final long startNanos;
+    private ScheduledFuture<?> timeout;
+
+    private Request(AsyncContext async, FilterChain chain, String bucket,
+        BucketRequests bucketRequests, long startNanos) {
+      this.async = async;
+      this.chain = chain;
+      this.bucket = bucket;
+      this.bucketRequests = bucketRequests;
+      this.startNanos = startNanos;
+    }
+  }
+
+  /**
+   * Requests to a bucket, up to {@code maxBucketRequests} of which run
+   * concurrently. The others wait in order of arrival, without a thread.
+   */
+  private final class BucketRequests {
+    private final String bucket;
+    private final Deque<Request> waiting = new ArrayDeque<>();
+    private int running;
+
+    private BucketRequests(String bucket) {
+      this.bucket = bucket;
+    }
+
+    /** @return the request if it may run now, otherwise null. */
+    private synchronized Request add(Request request) {
+      if (running < maxBucketRequests) {
+        running++;
+        return request;
+      }
+      waiting.add(request);
+      request.timeout = queueTimer.schedule(() -> expire(request),
+          maxQueueTimeNanos, TimeUnit.NANOSECONDS);
+      return null;
+    }
+
+    /**
+     * Release the slot of a request which is done.
+     *
+     * @return the next waiting request, which takes over the slot, or null.
+     */
+    private Request done() {
+      Request next;
+      synchronized (this) {
+        next = waiting.poll();
+        if (next == null) {
+          running--;
+          return null;
+        }
+      }
+      next.timeout.cancel(false);
+      return next;
+    }
+
+    private void expire(Request request) {
+      synchronized (this) {
+        if (!waiting.remove(request)) {
+          return;
+        }
+      }
+      incRequestQueueTimeouts();
+      sendError(request.async, newError(SLOW_DOWN, bucket));
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3;
+
+import java.io.IOException;
+import javax.annotation.Priority;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.apache.hadoop.ozone.s3.metrics.RequestTrace;
+import org.apache.hadoop.ozone.s3.metrics.RequestTrace.Phase;
+import org.apache.hadoop.ozone.s3.metrics.S3GatewayMetrics;
+import org.apache.hadoop.util.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Filter to trace the time spent by each request in the phases of
+ * {@link RequestTrace}, and keep the traces of slow requests in the
+ * {@link org.apache.hadoop.ozone.s3.metrics.SlowRequestLog}.
+ * <p>
+ * The trace is completed once the response entity is written, as the data of
+ * GetObject is transferred while writing it.
+ */
+@Provider
+@PreMatching
+@Priority(RequestTraceFilter.PRIORITY)
+public class RequestTraceFilter implements ContainerRequestFilter,
+    ContainerResponseFilter, WriterInterceptor {
+
+  /** Before {@link AuthorizationFilter}, to include it in the trace. */
+  public static final int PRIORITY = 10;
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(RequestTraceFilter.class);
+
+  @Context
+  private HttpServletRequest httpServletRequest;
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    RequestTrace trace = new RequestTrace(requestContext.getMethod(),
+        requestContext.getUriInfo().getRequestUri().getRawPath());
+    Object queueNanos = httpServletRequest == null ? null
+        : httpServletRequest.getAttribute(RequestTrace.QUEUE_NANOS_ATTRIBUTE);
+    if (queueNanos instanceof Long) {
+      trace.add(Phase.QUEUE, (Long) queueNanos);
+    }
+    requestContext.setProperty(RequestTrace.PROPERTY, trace);
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext,
+      ContainerResponseContext responseContext) {
+    RequestTrace trace = RequestTrace.get(requestContext);
+    if (trace == null) {
+      return;
+    }
+    trace.setStatus(responseContext.getStatus());
+    if (!responseContext.hasEntity()) {
+      complete(trace);
+    }
+  }
+
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext context)
+      throws IOException {
+    Object property = context.getProperty(RequestTrace.PROPERTY);
+    if (!(property instanceof RequestTrace)) {
+      context.proceed();
+      return;
+    }
+    RequestTrace trace = (RequestTrace) property;
+    long dataNanos = trace.getPhaseNanos(Phase.DATA);
+    long startNanos = Time.monotonicNowNanos();
+    try {
+      context.proceed();
+    } finally {
+      long writeNanos = Time.monotonicNowNanos() - startNanos
+          - (trace.getPhaseNanos(Phase.DATA) - dataNanos);
+      trace.add(Phase.RESPONSE, writeNanos);
+      S3GatewayMetrics metrics = S3GatewayMetrics.getMetrics();
+      if (metrics != null) {
+        metrics.addResponseWriteLatency(writeNanos);
+      }
+      complete(trace);
+    }
+  }
+
+  private static void complete(RequestTrace trace) {
+    trace.complete();
+    S3GatewayMetrics metrics = S3GatewayMetrics.getMetrics();
+    if (metrics != null && metrics.getSlowRequestLog().add(trace)) {
+      LOG.debug("Slow request {} {} ({}) took {} ms: {}", trace.getMethod(),
+          trace.getPath(), trace.getAction(), trace.getTotalMillis(),
+          trace.getPhaseMillis());
+    }
+  }
+}
@@ -95,13 +95,109 @@ public final class S3GatewayConfigKeys {
   public static final boolean OZONE_S3G_LIST_KEYS_SHALLOW_ENABLED_DEFAULT =
       true;
 
+  /**
+   * Configuration key that enables copying objects and parts by sharing the
+   * blocks of the source key in OM, instead of reading and writing the data
+   * through S3 Gateway.
+   */
+  public static final String OZONE_S3G_SERVER_SIDE_COPY_ENABLED =
+      "ozone.s3g.server-side-copy.enabled";
+  public static final boolean OZONE_S3G_SERVER_SIDE_COPY_ENABLED_DEFAULT =
+      true;
+
+  /**
+   * Configuration key that enables writing GetObject data to the response
+   * from the buffers received from datanodes, without copying it through an
+   * intermediate buffer. Small buffers are gathered into writes of up to
+   * 1MB.
+   */
+  public static final String OZONE_S3G_GET_TRANSFER_ENABLED =
+      "ozone.s3g.get.transfer.enabled";
+  public static final boolean OZONE_S3G_GET_TRANSFER_ENABLED_DEFAULT = true;
+
+  /**
+   * Configuration key that enables reading GetObject responses of at least
+   * {@link #OZONE_S3G_GET_PARALLEL_MIN_SIZE} as ranges of
+   * {@link #OZONE_S3G_GET_PARALLEL_RANGE_SIZE}, up to
+   * {@link #OZONE_S3G_GET_PARALLEL_RANGES} of them concurrently per request,
+   * by up to {@link #OZONE_S3G_GET_PARALLEL_MAX_THREADS} threads shared by all
+   * requests.
+   */
+  public static final String OZONE_S3G_GET_PARALLEL_ENABLED =
+      "ozone.s3g.get.parallel.enabled";
+  public static final boolean OZONE_S3G_GET_PARALLEL_ENABLED_DEFAULT = false;
+  public static final String OZONE_S3G_GET_PARALLEL_MIN_SIZE =
+      "ozone.s3g.get.parallel.min-size";
+  public static final String OZONE_S3G_GET_PARALLEL_MIN_SIZE_DEFAULT = "64MB";
+  public static final String OZONE_S3G_GET_PARALLEL_RANGE_SIZE =
+      "ozone.s3g.get.parallel.range-size";
+  public static final String OZONE_S3G_GET_PARALLEL_RANGE_SIZE_DEFAULT = "8MB";
+  public static final String OZONE_S3G_GET_PARALLEL_RANGES =
+      "ozone.s3g.get.parallel.ranges";
+  public static final int OZONE_S3G_GET_PARALLEL_RANGES_DEFAULT = 4;
+  public static final String OZONE_S3G_GET_PARALLEL_MAX_THREADS =
+      "ozone.s3g.get.parallel.max-threads";
+  public static final int OZONE_S3G_GET_PARALLEL_MAX_THREADS_DEFAULT = 64;
+
+  /**
+   * Configuration key that enables caching object metadata in S3 Gateway for
+   * HeadObject and conditional GetObject requests. Entries are invalidated
+   * by writes through this gateway, other writes are seen after
+   * {@link #OZONE_S3G_METADATA_CACHE_TTL}.
+   */
+  public static final String OZONE_S3G_METADATA_CACHE_ENABLED =
+      "ozone.s3g.metadata-cache.enabled";
+  public static final boolean OZONE_S3G_METADATA_CACHE_ENABLED_DEFAULT = false;
+  public static final String OZONE_S3G_METADATA_CACHE_MAX_ENTRIES =
+      "ozone.s3g.metadata-cache.max-entries";
+  public static final long OZONE_S3G_METADATA_CACHE_MAX_ENTRIES_DEFAULT =
+      10000;
+  public static final String OZONE_S3G_METADATA_CACHE_TTL =
+      "ozone.s3g.metadata-cache.ttl";
+  public static final String OZONE_S3G_METADATA_CACHE_TTL_DEFAULT = "5s";
+
   public static final String OZONE_S3G_METRICS_PERCENTILES_INTERVALS_SECONDS_KEY
       = "ozone.s3g.metrics.percentiles.intervals.seconds";
 
+  /**
+   * Requests taking longer than this are kept with their phase timings in the
+   * slow request log, exposed by the web admin server.
+   */
+  public static final String OZONE_S3G_SLOW_REQUEST_THRESHOLD =
+      "ozone.s3g.slow-request.threshold";
+  public static final String OZONE_S3G_SLOW_REQUEST_THRESHOLD_DEFAULT = "1s";
+  public static final String OZONE_S3G_SLOW_REQUEST_LOG_SIZE =
+      "ozone.s3g.slow-request.log.size";
+  public static final int OZONE_S3G_SLOW_REQUEST_LOG_SIZE_DEFAULT = 100;
+
   // S3 ListObjects max-keys limit (default: 1000, AWS compatible)
   public static final String OZONE_S3G_LIST_MAX_KEYS_LIMIT = "ozone.s3g.list.max.keys.limit";
   public static final int OZONE_S3G_LIST_MAX_KEYS_LIMIT_DEFAULT = 1000;
 
+  public static final String OZONE_S3G_LIST_STREAMING_ENABLED =
+      "ozone.s3g.list.streaming.enabled";
+  public static final boolean OZONE_S3G_LIST_STREAMING_ENABLED_DEFAULT = false;
+
+  public static final String OZONE_S3G_ASYNC_ENABLED =
+      "ozone.s3g.async.enabled";
+  public static final boolean OZONE_S3G_ASYNC_ENABLED_DEFAULT = false;
+  public static final String OZONE_S3G_ASYNC_VIRTUAL_THREADS_ENABLED =
+      "ozone.s3g.async.virtual-threads.enabled";
+  public static final boolean OZONE_S3G_ASYNC_VIRTUAL_THREADS_ENABLED_DEFAULT =
+      true;
+  public static final String OZONE_S3G_ASYNC_MAX_THREADS =
+      "ozone.s3g.async.max-threads";
+  public static final int OZONE_S3G_ASYNC_MAX_THREADS_DEFAULT = 1000;
+  public static final String OZONE_S3G_ASYNC_MAX_QUEUED_REQUESTS =
+      "ozone.s3g.async.max-queued-requests";
+  public static final int OZONE_S3G_ASYNC_MAX_QUEUED_REQUESTS_DEFAULT = 1000;
+  public static final String OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS =
+      "ozone.s3g.bucket.max-concurrent-requests";
+  public static final int OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS_DEFAULT = 0;
+  public static final String OZONE_S3G_BUCKET_MAX_QUEUE_TIME =
+      "ozone.s3g.bucket.max-queue-time";
+  public static final String OZONE_S3G_BUCKET_MAX_QUEUE_TIME_DEFAULT = "10s";
+
   /**
    * Never constructed.
    */
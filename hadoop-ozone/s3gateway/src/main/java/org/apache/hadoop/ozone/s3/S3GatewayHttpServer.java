@@ -17,9 +17,23 @@
 
 package org.apache.hadoop.ozone.s3;
 
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_ASYNC_ENABLED;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_ASYNC_ENABLED_DEFAULT;
+
+import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
+import java.util.Set;
+import org.apache.hadoop.hdds.conf.ConfigurationSource;
 import org.apache.hadoop.hdds.conf.MutableConfigurationSource;
 import org.apache.hadoop.hdds.server.http.BaseHttpServer;
+import org.apache.hadoop.hdds.server.http.HttpServer2;
+import org.apache.hadoop.hdds.server.http.NoCacheFilter;
+import org.apache.hadoop.hdds.server.http.ServletElementsFactory;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.FilterMapping;
+import org.eclipse.jetty.servlet.ServletHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Http server to provide S3-compatible API.
@@ -31,9 +45,55 @@ public class S3GatewayHttpServer extends BaseHttpServer {
    */
   public static final int FILTER_PRIORITY_DO_AFTER = 50;
 
+  private static final Logger LOG =
+      LoggerFactory.getLogger(S3GatewayHttpServer.class);
+
+  private static final String REQUEST_EXECUTION_FILTER = "request-execution";
+
+  /**
+   * Filters added by the HTTP server which only wrap the request before
+   * passing it on, so they can be part of an asynchronous request.
+   */
+  private static final Set<String> ASYNC_FILTERS = ImmutableSet.of(
+      NoCacheFilter.class.getName(),
+      HttpServer2.QuotingInputFilter.class.getName());
+
   public S3GatewayHttpServer(MutableConfigurationSource conf, String name)
       throws IOException {
     super(conf, name);
+    if (conf.getBoolean(OZONE_S3G_ASYNC_ENABLED,
+        OZONE_S3G_ASYNC_ENABLED_DEFAULT)) {
+      addRequestExecutionFilter(conf);
+    }
+  }
+
+  /**
+   * Handle requests off the Jetty thread pool, see
+   * {@link RequestExecutionFilter}.
+   */
+  private void addRequestExecutionFilter(ConfigurationSource conf) {
+    ServletHandler handler = getWebAppContext().getServletHandler();
+    // Other filters, e.g. for authentication, are not known to support
+    // asynchronous requests. Requests passing them are handled on the
+    // Jetty thread.
+    for (FilterHolder filter : handler.getFilters()) {
+      if (ASYNC_FILTERS.contains(filter.getClassName())) {
+        filter.setAsyncSupported(true);
+      } else {
+        LOG.info("Filter {} does not support asynchronous requests, "
+            + "requests passing it are handled synchronously",
+            filter.getName());
+      }
+    }
+
+    FilterHolder holder =
+        new FilterHolder(new RequestExecutionFilter(conf));
+    holder.setName(REQUEST_EXECUTION_FILTER);
+    holder.setAsyncSupported(true);
+    FilterMapping mapping = ServletElementsFactory.createFilterMapping(
+        REQUEST_EXECUTION_FILTER, new String[] {"/*"});
+    mapping.setDispatches(FilterMapping.REQUEST);
+    handler.addFilter(holder, mapping);
   }
 
   @Override
@@ -37,14 +37,20 @@
 
 import com.google.common.base.Strings;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.apache.hadoop.hdds.conf.MutableConfigurationSource;
+import org.apache.hadoop.hdds.server.JsonUtils;
 import org.apache.hadoop.hdds.server.http.BaseHttpServer;
+import org.apache.hadoop.hdds.server.http.HttpServer2;
 import org.apache.hadoop.hdds.server.http.ServletElementsFactory;
+import org.apache.hadoop.ozone.s3.metrics.RequestTrace;
+import org.apache.hadoop.ozone.s3.metrics.S3GatewayMetrics;
 import org.apache.hadoop.security.SecurityUtil;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.security.authentication.server.AuthenticationFilter;
@@ -65,6 +71,7 @@ class S3GatewayWebAdminServer extends BaseHttpServer {
   S3GatewayWebAdminServer(MutableConfigurationSource conf, String name) throws IOException {
     super(conf, name);
     addServlet("icon", "/favicon.ico", IconServlet.class);
+    addServlet("slowRequests", "/slow-requests", SlowRequestServlet.class);
     addSecretAuthentication(conf);
   }
 
@@ -183,4 +190,28 @@ public void doGet(HttpServletRequest request, HttpServletResponse response)
       response.sendRedirect("/images/ozone.ico");
     }
   }
+
+  /**
+   * Servlet for the phase timings of the slowest recent requests. Access is
+   * restricted to admins like /jmx if
+   * {@code hadoop.security.instrumentation.requires.admin} is set.
+   */
+  public static class SlowRequestServlet extends HttpServlet {
+    private static final long serialVersionUID = -1L;
+
+    @Override
+    public void doGet(HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+      if (!HttpServer2.isInstrumentationAccessAllowed(getServletContext(),
+          request, response)) {
+        return;
+      }
+      S3GatewayMetrics metrics = S3GatewayMetrics.getMetrics();
+      List<RequestTrace> traces = metrics == null ? Collections.emptyList()
+          : metrics.getSlowRequestLog().getSlowest();
+      response.setContentType("application/json; charset=utf-8");
+      response.getWriter().write(
+          JsonUtils.toJsonStringWithDefaultPrettyPrinter(traces));
+    }
+  }
 }
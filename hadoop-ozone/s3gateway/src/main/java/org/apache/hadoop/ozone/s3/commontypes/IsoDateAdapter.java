@@ -27,12 +27,13 @@
  */
 public class IsoDateAdapter extends XmlAdapter<String, Instant> {
 
-  private DateTimeFormatter iso8861Formatter;
+  private static final DateTimeFormatter ISO_8601_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX")
+          .withZone(ZoneOffset.UTC);
 
-  public IsoDateAdapter() {
-    iso8861Formatter =
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX")
-            .withZone(ZoneOffset.UTC);
+  /** @return the date in the format used by S3 responses. */
+  public static String format(Instant instant) {
+    return ISO_8601_FORMATTER.format(instant);
   }
 
   @Override
@@ -42,6 +43,6 @@ public Instant unmarshal(String v) throws Exception {
 
   @Override
   public String marshal(Instant v) throws Exception {
-    return iso8861Formatter.format(v);
+    return format(v);
   }
 }
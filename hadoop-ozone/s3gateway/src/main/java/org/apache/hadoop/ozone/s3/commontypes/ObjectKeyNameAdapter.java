@@ -35,10 +35,16 @@ public EncodingTypeObject unmarshal(String s) {
   @Override
   public String marshal(EncodingTypeObject s)
       throws UnsupportedEncodingException {
-    if (s.getEncodingType() != null && s.getEncodingType().equals("url")) {
-      return S3Utils.urlEncode(s.getName())
+    return encode(s.getName(), s.getEncodingType());
+  }
+
+  /** @return the key name encoded as requested by {@code encodingType}. */
+  public static String encode(String name, String encodingType)
+      throws UnsupportedEncodingException {
+    if (encodingType != null && encodingType.equals("url")) {
+      return S3Utils.urlEncode(name)
           .replaceAll("%2F", "/");
     }
-    return s.getName();
+    return name;
   }
 }
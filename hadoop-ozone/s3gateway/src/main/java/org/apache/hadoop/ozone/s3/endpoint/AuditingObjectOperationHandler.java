@@ -43,6 +43,8 @@ Response handleDeleteRequest(ObjectRequestContext context, String keyName) throw
     } catch (Exception e) {
       auditWriteFailure(context.getAction(), e);
       throw e;
+    } finally {
+      invalidateMetadata(context.getBucketName(), keyName);
     }
   }
 
@@ -83,6 +85,8 @@ Response handlePutRequest(ObjectRequestContext context, String keyName, InputStr
     } catch (Exception e) {
       auditWriteFailure(context.getAction(), e);
       throw e;
+    } finally {
+      invalidateMetadata(context.getBucketName(), keyName);
     }
   }
 
@@ -23,6 +23,8 @@
 import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_LIST_KEYS_SHALLOW_ENABLED_DEFAULT;
 import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_LIST_MAX_KEYS_LIMIT;
 import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_LIST_MAX_KEYS_LIMIT_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_LIST_STREAMING_ENABLED;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_LIST_STREAMING_ENABLED_DEFAULT;
 import static org.apache.hadoop.ozone.s3.exception.S3ErrorTable.newError;
 import static org.apache.hadoop.ozone.s3.util.S3Consts.ENCODING_TYPE;
 import static org.apache.hadoop.ozone.s3.util.S3Utils.wrapInQuotes;
@@ -33,7 +35,6 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.HEAD;
@@ -45,7 +46,7 @@
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import org.apache.commons.lang3.StringUtils;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.hadoop.ozone.audit.AuditEventStatus;
 import org.apache.hadoop.ozone.audit.AuditMessage;
 import org.apache.hadoop.ozone.audit.S3GAction;
@@ -81,6 +82,7 @@ public class BucketEndpoint extends BucketOperationHandler {
 
   private boolean listKeysShallowEnabled;
   private int maxKeysLimit = 1000;
+  private boolean listStreamingEnabled;
 
   private BucketOperationHandler handler;
 
@@ -170,73 +172,33 @@ Response handleGetRequest(S3RequestContext context, String bucketName) throws IO
     response.setMarker(marker == null ? "" : marker);
     response.setMaxKeys(maxKeys);
     response.setEncodingType(encodingType);
-    response.setTruncated(false);
     response.setContinueToken(continueToken);
     response.setStartAfter(EncodingTypeObject.createNullable(startAfter, encodingType));
 
-    String prevDir = continueToken != null ? decodedToken.getLastDir() : null;
-    String lastKey = null;
-    int count = 0;
-    if (maxKeys > 0) {
-      while (ozoneKeyIterator != null && ozoneKeyIterator.hasNext()) {
-        OzoneKey next = ozoneKeyIterator.next();
-        if (StringUtils.isNotEmpty(prefix) && !next.getName().startsWith(prefix)) {
-          continue;
-        }
-        if (startAfter != null && count == 0 && Objects.equals(startAfter, next.getName())) {
-          continue;
-        }
-        String relativeKeyName = next.getName().substring(prefix.length());
-
-        int depth = StringUtils.countMatches(relativeKeyName, delimiter);
-        if (!StringUtils.isEmpty(delimiter)) {
-          if (depth > 0) {
-            // means key has multiple delimiters in its value.
-            // ex: dir/dir1/dir2, where delimiter is "/" and prefix is dir/
-            String dirName = relativeKeyName.substring(0, relativeKeyName
-                .indexOf(delimiter));
-            if (!dirName.equals(prevDir)) {
-              response.addPrefix(EncodingTypeObject.createNullable(
-                  prefix + dirName + delimiter, encodingType));
-              prevDir = dirName;
-              count++;
-            }
-          } else if (relativeKeyName.endsWith(delimiter)) {
-            // means or key is same as prefix with delimiter at end and ends with
-            // delimiter. ex: dir/, where prefix is dir and delimiter is /
-            response.addPrefix(
-                EncodingTypeObject.createNullable(relativeKeyName, encodingType));
-            count++;
-          } else {
-            // means our key is matched with prefix if prefix is given and it
-            // does not have any common prefix.
-            addKey(response, next);
-            count++;
-          }
-        } else {
-          addKey(response, next);
-          count++;
-        }
+    ObjectListing listing = new ObjectListing(prefix, delimiter, startAfter,
+        continueToken != null ? decodedToken.getLastDir() : null, maxKeys);
+    if (listStreamingEnabled) {
+      return streamListing(context, response, listing, ozoneKeyIterator);
+    }
 
-        if (count == maxKeys) {
-          lastKey = next.getName();
-          break;
-        }
+    listing.list(ozoneKeyIterator, new ObjectListing.Sink() {
+      @Override
+      public void addKey(OzoneKey key) {
+        BucketEndpoint.this.addKey(response, key);
       }
-    }
 
-    response.setKeyCount(count);
+      @Override
+      public void addPrefix(String commonPrefix) {
+        response.addPrefix(
+            EncodingTypeObject.createNullable(commonPrefix, encodingType));
+      }
+    });
 
-    if (count < maxKeys) {
-      response.setTruncated(false);
-    } else if (ozoneKeyIterator.hasNext() && lastKey != null) {
-      response.setTruncated(true);
-      ContinueToken nextToken = new ContinueToken(lastKey, prevDir);
-      response.setNextToken(nextToken.encodeToString());
+    response.setTruncated(listing.isTruncated());
+    if (listing.isTruncated()) {
+      response.setNextToken(listing.getNextToken());
       // Set nextMarker to be lastKey. for the compatibility of aws api v1
-      response.setNextMarker(lastKey);
-    } else {
-      response.setTruncated(false);
+      response.setNextMarker(listing.getNextMarker());
     }
 
     int keyCount = response.getCommonPrefixes().size() + response.getContents().size();
@@ -248,6 +210,34 @@ Response handleGetRequest(S3RequestContext context, String bucketName) throws IO
     return Response.ok(response).build();
   }
 
+  /**
+   * Write the listing to the response as the keys are listed.
+   * The first batch of keys is fetched by {@link OzoneBucket#listKeys}, so
+   * failing to list it is still reported as an S3 error.
+   */
+  private Response streamListing(S3RequestContext context,
+      ListObjectResponse header, ObjectListing listing,
+      Iterator<? extends OzoneKey> keys) {
+    StreamingOutput output = out -> {
+      try {
+        ListObjectResponseWriter writer =
+            new ListObjectResponseWriter(out, header.getEncodingType());
+        writer.writeHeader(header);
+        listing.list(keys, writer);
+        writer.writeTrailer(listing);
+      } catch (IOException | RuntimeException e) {
+        getMetrics().updateGetBucketFailureStats(context.getStartNanos());
+        throw e;
+      }
+      long opLatencyNs =
+          getMetrics().updateGetBucketSuccessStats(context.getStartNanos());
+      getMetrics().incListKeyCount(listing.getCount());
+      context.getPerf().appendCount(listing.getCount());
+      context.getPerf().appendOpLatencyNanos(opLatencyNs);
+    };
+    return Response.ok(output, MediaType.APPLICATION_XML_TYPE).build();
+  }
+
   private int validateMaxKeys(int maxKeys) throws OS3Exception {
     if (maxKeys < 0) {
       throw newError(S3ErrorTable.INVALID_ARGUMENT, "maxKeys must be >= 0");
@@ -372,6 +362,9 @@ public MultiDeleteResponse multiDelete(
             new Error("ALL", "InternalError",
                 ex.getMessage()));
       }
+      for (DeleteObject d : request.getObjects()) {
+        invalidateMetadata(bucketName, d.getKey());
+      }
     }
 
     AuditMessage.Builder message = auditMessageFor(s3GAction);
@@ -412,6 +405,9 @@ protected void init() {
     maxKeysLimit = getOzoneConfiguration().getInt(
         OZONE_S3G_LIST_MAX_KEYS_LIMIT,
         OZONE_S3G_LIST_MAX_KEYS_LIMIT_DEFAULT);
+    listStreamingEnabled = getOzoneConfiguration().getBoolean(
+        OZONE_S3G_LIST_STREAMING_ENABLED,
+        OZONE_S3G_LIST_STREAMING_ENABLED_DEFAULT);
 
     // initialize handlers
     BucketOperationHandler chain = BucketOperationHandlerChain.newBuilder(this)
@@ -150,6 +150,8 @@ public abstract class EndpointBase {
   protected SignatureInfo signatureInfo;
   @Inject
   private RequestIdentifier requestIdentifier;
+  @Inject
+  private ObjectMetadataCache metadataCache;
 
   private S3Auth s3Auth;
   private int bufferSize;
@@ -512,6 +514,22 @@ public void setSignatureInfo(SignatureInfo signatureInfo) {
     this.signatureInfo = signatureInfo;
   }
 
+  @VisibleForTesting
+  public void setMetadataCache(ObjectMetadataCache metadataCache) {
+    this.metadataCache = metadataCache;
+  }
+
+  protected ObjectMetadataCache getMetadataCache() {
+    return metadataCache;
+  }
+
+  /** Invalidate the cached metadata of a key modified by this request. */
+  protected void invalidateMetadata(String bucketName, String keyPath) {
+    if (metadataCache != null) {
+      metadataCache.invalidate(bucketName, keyPath);
+    }
+  }
+
   public OzoneClient getClient() {
     return client;
   }
@@ -540,6 +558,7 @@ protected void copyDependenciesTo(EndpointBase target) {
     target.setHeaders(this.headers);
     target.setRequestIdentifier(this.requestIdentifier);
     target.setSignatureInfo(this.signatureInfo);
+    target.setMetadataCache(this.metadataCache);
     target.init();
   }
 
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.endpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import org.apache.ratis.util.function.CheckedConsumer;
+
+/**
+ * Gathers the buffers passed by
+ * {@link org.apache.hadoop.ozone.client.io.OzoneInputStream#transferTo}
+ * into writes of up to {@link #MAX_WRITE_SIZE} bytes.
+ * <p>
+ * Buffers of at least {@link #MIN_DIRECT_WRITE_SIZE} bytes are written as
+ * they are. Smaller ones, e.g. the checksum sized buffers received from
+ * datanodes, are copied into a buffer written once it is full, so that each
+ * blocking write to the response carries a large amount of data. Buffers
+ * passed to {@link #accept} are only valid until it returns, so they cannot
+ * be kept for a later write without copying.
+ */
+final class GatheringWriter implements CheckedConsumer<ByteBuffer, IOException> {
+
+  static final int MAX_WRITE_SIZE = 1 << 20;
+  static final int MIN_DIRECT_WRITE_SIZE = 1 << 16;
+
+  private final CheckedConsumer<ByteBuffer, IOException> out;
+  private final ByteBuffer pending;
+
+  /**
+   * @param out blocking write of the whole buffer to the response
+   * @param length number of bytes to be written, to size the buffer
+   */
+  GatheringWriter(CheckedConsumer<ByteBuffer, IOException> out, long length) {
+    this.out = Objects.requireNonNull(out, "out == null");
+    this.pending = ByteBuffer.allocate(
+        (int) Math.max(1, Math.min(length, MAX_WRITE_SIZE)));
+  }
+
+  @Override
+  public void accept(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() >= MIN_DIRECT_WRITE_SIZE) {
+      flush();
+      out.accept(buffer);
+      return;
+    }
+    while (buffer.hasRemaining()) {
+      final int n = Math.min(buffer.remaining(), pending.remaining());
+      final ByteBuffer slice = buffer.duplicate();
+      slice.limit(slice.position() + n);
+      pending.put(slice);
+      buffer.position(buffer.position() + n);
+      if (!pending.hasRemaining()) {
+        flush();
+      }
+    }
+  }
+
+  /** Write the gathered data. */
+  void flush() throws IOException {
+    if (pending.position() == 0) {
+      return;
+    }
+    pending.flip();
+    try {
+      out.accept(pending);
+    } finally {
+      pending.clear();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.endpoint;
+
+import static org.apache.hadoop.ozone.OzoneConsts.ETAG;
+import static org.apache.hadoop.ozone.s3.util.S3Utils.wrapInQuotes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.apache.hadoop.ozone.client.OzoneKey;
+import org.apache.hadoop.ozone.s3.commontypes.EncodingTypeObject;
+import org.apache.hadoop.ozone.s3.commontypes.IsoDateAdapter;
+import org.apache.hadoop.ozone.s3.commontypes.ObjectKeyNameAdapter;
+import org.apache.hadoop.ozone.s3.util.S3Consts;
+import org.apache.hadoop.ozone.s3.util.S3StorageType;
+
+/**
+ * Writes a ListObjects response with StAX while the keys are listed, instead
+ * of building all the entries of a {@link ListObjectResponse} to be marshalled
+ * by JAXB.
+ * <p>
+ * The elements are the same as those written by JAXB, except that the ones
+ * only known at the end of the page (KeyCount, IsTruncated,
+ * NextContinuationToken and NextMarker) follow the Contents and
+ * CommonPrefixes.
+ */
+class ListObjectResponseWriter implements ObjectListing.Sink {
+
+  private static final XMLOutputFactory XML_OUTPUT_FACTORY =
+      XMLOutputFactory.newInstance();
+
+  private final XMLStreamWriter xml;
+  private final String encodingType;
+
+  ListObjectResponseWriter(OutputStream out, String encodingType)
+      throws IOException {
+    try {
+      this.xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(out,
+          StandardCharsets.UTF_8.name());
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+    this.encodingType = encodingType;
+  }
+
+  /**
+   * Write the elements preceding the entries.
+   *
+   * @param header the response without entries.
+   */
+  void writeHeader(ListObjectResponse header) throws IOException {
+    try {
+      xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+      xml.setDefaultNamespace(S3Consts.S3_XML_NAMESPACE);
+      xml.writeStartElement(S3Consts.S3_XML_NAMESPACE, "ListBucketResult");
+      xml.writeDefaultNamespace(S3Consts.S3_XML_NAMESPACE);
+      writeElement("Name", header.getName());
+      writeElement("Prefix", encode(header.getPrefix()));
+      writeElement("Marker", header.getMarker());
+      writeElement("MaxKeys", String.valueOf(header.getMaxKeys()));
+      writeElement("Delimiter", encode(header.getDelimiter()));
+      writeElement("EncodingType", header.getEncodingType());
+      writeElement("continueToken", header.getContinueToken());
+      writeElement("StartAfter", encode(header.getStartAfter()));
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public void addKey(OzoneKey key) throws IOException {
+    try {
+      xml.writeStartElement("Contents");
+      writeElement("Key",
+          ObjectKeyNameAdapter.encode(key.getName(), encodingType));
+      xml.writeStartElement("Owner");
+      writeElement("DisplayName", key.getOwner());
+      writeElement("ID", S3Owner.DEFAULT_S3OWNER_ID);
+      xml.writeEndElement();
+      writeElement("LastModified",
+          IsoDateAdapter.format(key.getModificationTime()));
+      String eTag = key.getMetadata().get(ETAG);
+      if (eTag != null) {
+        writeElement(ETAG, wrapInQuotes(eTag));
+      }
+      writeElement("Size", String.valueOf(key.getDataSize()));
+      writeElement("StorageClass", S3StorageType.fromReplicationConfig(
+          key.getReplicationConfig()).toString());
+      xml.writeEndElement();
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public void addPrefix(String commonPrefix) throws IOException {
+    try {
+      xml.writeStartElement("CommonPrefixes");
+      writeElement("Prefix",
+          ObjectKeyNameAdapter.encode(commonPrefix, encodingType));
+      xml.writeEndElement();
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /** Write the elements following the entries, and end the document. */
+  void writeTrailer(ObjectListing listing) throws IOException {
+    try {
+      writeElement("KeyCount", String.valueOf(listing.getCount()));
+      writeElement("IsTruncated", String.valueOf(listing.isTruncated()));
+      writeElement("NextContinuationToken", listing.getNextToken());
+      writeElement("NextMarker", listing.getNextMarker());
+      xml.writeEndElement();
+      xml.writeEndDocument();
+      xml.flush();
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /** Write an element, unless the value is null as with JAXB. */
+  private void writeElement(String name, String value)
+      throws XMLStreamException {
+    if (value != null) {
+      xml.writeStartElement(name);
+      xml.writeCharacters(value);
+      xml.writeEndElement();
+    }
+  }
+
+  private static String encode(EncodingTypeObject value) throws IOException {
+    return value == null ? null
+        : ObjectKeyNameAdapter.encode(value.getName(), value.getEncodingType());
+  }
+}
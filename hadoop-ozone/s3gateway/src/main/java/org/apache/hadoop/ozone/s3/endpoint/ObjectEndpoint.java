@@ -21,6 +21,20 @@
 import static org.apache.hadoop.ozone.audit.AuditLogger.PerformanceStringBuilder;
 import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_FSO_DIRECTORY_CREATION_ENABLED;
 import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_FSO_DIRECTORY_CREATION_ENABLED_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_ENABLED;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_ENABLED_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_MAX_THREADS;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_MAX_THREADS_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_MIN_SIZE;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_MIN_SIZE_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_RANGES;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_RANGES_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_RANGE_SIZE;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_PARALLEL_RANGE_SIZE_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_TRANSFER_ENABLED;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_GET_TRANSFER_ENABLED_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_SERVER_SIDE_COPY_ENABLED;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_SERVER_SIDE_COPY_ENABLED_DEFAULT;
 import static org.apache.hadoop.ozone.s3.exception.S3ErrorTable.INVALID_ARGUMENT;
 import static org.apache.hadoop.ozone.s3.exception.S3ErrorTable.INVALID_REQUEST;
 import static org.apache.hadoop.ozone.s3.exception.S3ErrorTable.NO_SUCH_UPLOAD;
@@ -49,6 +63,9 @@
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.time.Instant;
@@ -57,6 +74,9 @@
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -66,6 +86,7 @@
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
@@ -79,6 +100,8 @@
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.hdds.client.ECReplicationConfig;
 import org.apache.hadoop.hdds.client.ReplicationConfig;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.conf.StorageUnit;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.audit.S3GAction;
 import org.apache.hadoop.ozone.client.OzoneBucket;
@@ -87,6 +110,7 @@
 import org.apache.hadoop.ozone.client.OzoneVolume;
 import org.apache.hadoop.ozone.client.io.OzoneInputStream;
 import org.apache.hadoop.ozone.client.io.OzoneOutputStream;
+import org.apache.hadoop.ozone.client.protocol.ClientProtocol;
 import org.apache.hadoop.ozone.om.OmConfig;
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes;
@@ -98,6 +122,7 @@
 import org.apache.hadoop.ozone.s3.MultiDigestInputStream;
 import org.apache.hadoop.ozone.s3.exception.OS3Exception;
 import org.apache.hadoop.ozone.s3.exception.S3ErrorTable;
+import org.apache.hadoop.ozone.s3.metrics.RequestTrace.Phase;
 import org.apache.hadoop.ozone.s3.util.RFC1123Util;
 import org.apache.hadoop.ozone.s3.util.RangeHeader;
 import org.apache.hadoop.ozone.s3.util.RangeHeaderParserUtil;
@@ -108,6 +133,8 @@
 import org.apache.hadoop.util.Time;
 import org.apache.http.HttpStatus;
 import org.apache.ratis.util.function.CheckedRunnable;
+import org.apache.ratis.util.function.CheckedSupplier;
+import org.eclipse.jetty.server.HttpOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -125,6 +152,9 @@ public class ObjectEndpoint extends ObjectOperationHandler {
 
   private ObjectOperationHandler handler;
 
+  @Context
+  private HttpServletResponse servletResponse;
+
   /*FOR the feature Overriding Response Header
   https://docs.aws.amazon.com/de_de/AmazonS3/latest/API/API_GetObject.html */
   private final Map<String, String> overrideQueryParameter;
@@ -229,7 +259,7 @@ Response handlePutRequest(ObjectRequestContext context, String keyPath, InputStr
         //Copy object, as copy source available.
         context.setAction(S3GAction.COPY_OBJECT);
         CopyObjectResponse copyObjectResponse = copyObject(volume,
-            bucketName, keyPath, replicationConfig, perf);
+            bucket, keyPath, replicationConfig, perf);
         return Response.status(Status.OK).entity(copyObjectResponse).header(
             "Connection", "close").build();
       }
@@ -253,6 +283,7 @@ Response handlePutRequest(ObjectRequestContext context, String keyPath, InputStr
         long metadataLatencyNs =
             getMetrics().updatePutKeyMetadataStats(startNanos);
         perf.appendMetaLatencyNanos(metadataLatencyNs);
+        context.addPhaseNanos(Phase.METADATA, metadataLatencyNs);
         return Response.ok().status(HttpStatus.SC_OK).build();
       }
 
@@ -291,7 +322,11 @@ customMetadata, tags, multiDigestInputStream, getHeaders(),
           long metadataLatencyNs =
               getMetrics().updatePutKeyMetadataStats(startNanos);
           perf.appendMetaLatencyNanos(metadataLatencyNs);
+          context.addPhaseNanos(Phase.METADATA, metadataLatencyNs);
+          long dataStartNanos = Time.monotonicNowNanos();
           putLength = output.copyFrom(multiDigestInputStream, getIOBufferSize(expectedLength));
+          context.addPhaseNanos(Phase.DATA,
+              getMetrics().updatePutKeyDataStats(dataStartNanos));
           md5Hash = DatatypeConverter.printHexBinary(
                   multiDigestInputStream.getMessageDigest(OzoneConsts.MD5_HASH).digest())
               .toLowerCase();
@@ -379,18 +414,31 @@ Response handleGetRequest(ObjectRequestContext context, String keyPath)
 
       context.setAction(S3GAction.GET_KEY);
 
+      Response conditionalResponse = partNumber == 0
+          ? getNotModifiedFromCache(bucketName, keyPath) : null;
+      if (conditionalResponse != null) {
+        long metadataLatencyNs = getMetrics().updateGetKeyMetadataStats(
+            startNanos);
+        perf.appendMetaLatencyNanos(metadataLatencyNs);
+        context.addPhaseNanos(Phase.METADATA, metadataLatencyNs);
+        long opLatencyNs = getMetrics().updateGetKeySuccessStats(startNanos);
+        perf.appendOpLatencyNanos(opLatencyNs);
+        return conditionalResponse;
+      }
+
       OzoneKeyDetails keyDetails = (partNumber != 0) ?
           getClientProtocol().getS3KeyDetails(bucketName, keyPath, partNumber) :
-          getClientProtocol().getS3KeyDetails(bucketName, keyPath);
+          loadKeyDetails(bucketName, keyPath);
 
       isFile(keyPath, keyDetails);
 
-      Response conditionalResponse = S3ConditionalRequest.evaluatePreconditions(
+      conditionalResponse = S3ConditionalRequest.evaluatePreconditions(
           getHeaders(), keyPath, keyDetails, S3ConditionalRequest.PreconditionContext.READ);
       if (conditionalResponse != null) {
         long metadataLatencyNs = getMetrics().updateGetKeyMetadataStats(
             startNanos);
         perf.appendMetaLatencyNanos(metadataLatencyNs);
+        context.addPhaseNanos(Phase.METADATA, metadataLatencyNs);
         long opLatencyNs = getMetrics().updateGetKeySuccessStats(startNanos);
         perf.appendOpLatencyNanos(opLatencyNs);
         return conditionalResponse;
@@ -417,10 +465,15 @@ Response handleGetRequest(ObjectRequestContext context, String keyPath)
 
       if (rangeHeaderVal == null || rangeHeader.isReadFull()) {
         StreamingOutput output = dest -> {
-          try (OzoneInputStream key = keyDetails.getContent()) {
-            long readLength = IOUtils.copy(key, dest, getIOBufferSize(keyDetails.getDataSize()));
+          long dataStartNanos = Time.monotonicNowNanos();
+          try {
+            long readLength = readKey(keyDetails, 0,
+                keyDetails.getDataSize(), dest);
             getMetrics().incGetKeySuccessLength(readLength);
             perf.appendSizeBytes(readLength);
+          } finally {
+            context.addPhaseNanos(Phase.DATA,
+                getMetrics().updateGetKeyDataStats(dataStartNanos));
           }
           long opLatencyNs = getMetrics().updateGetKeySuccessStats(startNanos);
           perf.appendOpLatencyNanos(opLatencyNs);
@@ -435,12 +488,15 @@ Response handleGetRequest(ObjectRequestContext context, String keyPath)
         long copyLength = endOffset - startOffset + 1;
 
         StreamingOutput output = dest -> {
-          try (OzoneInputStream ozoneInputStream = keyDetails.getContent()) {
-            ozoneInputStream.seek(startOffset);
-            long readLength = IOUtils.copyLarge(ozoneInputStream, dest, 0,
-                copyLength, new byte[getIOBufferSize(copyLength)]);
+          long dataStartNanos = Time.monotonicNowNanos();
+          try {
+            long readLength = readKey(keyDetails, startOffset, copyLength,
+                dest);
             getMetrics().incGetKeySuccessLength(readLength);
             perf.appendSizeBytes(readLength);
+          } finally {
+            context.addPhaseNanos(Phase.DATA,
+                getMetrics().updateGetKeyDataStats(dataStartNanos));
           }
           long opLatencyNs = getMetrics().updateGetKeySuccessStats(startNanos);
           perf.appendOpLatencyNanos(opLatencyNs);
@@ -477,6 +533,7 @@ Response handleGetRequest(ObjectRequestContext context, String keyPath)
 
       long metadataLatencyNs = getMetrics().updateGetKeyMetadataStats(startNanos);
       perf.appendMetaLatencyNanos(metadataLatencyNs);
+      context.addPhaseNanos(Phase.METADATA, metadataLatencyNs);
 
       return responseBuilder.build();
 
@@ -541,7 +598,10 @@ public Response head(
         OzoneBucket bucket = getVolume().getBucket(bucketName);
         S3Owner.verifyBucketOwnerCondition(getHeaders(), bucketName, bucket.getOwner());
       }
-      key = getClientProtocol().headS3Object(bucketName, keyPath);
+      key = getMetadataCache() != null
+          ? getMetadataCache().get(signatureInfo.getAwsAccessId(), bucketName,
+              keyPath, () -> getClientProtocol().headS3Object(bucketName, keyPath))
+          : getClientProtocol().headS3Object(bucketName, keyPath);
 
       isFile(keyPath, key);
       Response conditionalResponse = S3ConditionalRequest.evaluatePreconditions(
@@ -584,6 +644,122 @@ public Response head(
     return response.build();
   }
 
+  /**
+   * Read the key from OM, and cache its metadata for HEAD and conditional GET
+   * requests.
+   */
+  private OzoneKeyDetails loadKeyDetails(String bucketName, String keyPath)
+      throws IOException {
+    return getMetadataCache() != null
+        ? getMetadataCache().load(signatureInfo.getAwsAccessId(), bucketName,
+            keyPath, () -> getClientProtocol().getS3KeyDetails(bucketName, keyPath))
+        : getClientProtocol().getS3KeyDetails(bucketName, keyPath);
+  }
+
+  /**
+   * @return 304 Not Modified if the cached metadata of the key satisfies the
+   *         conditions of the request, or null to read the key from OM.
+   */
+  private Response getNotModifiedFromCache(String bucketName, String keyPath) {
+    if (getMetadataCache() == null
+        || !S3ConditionalRequest.hasNotModifiedConditions(getHeaders())) {
+      return null;
+    }
+    OzoneKey key = getMetadataCache().getIfPresent(
+        signatureInfo.getAwsAccessId(), bucketName, keyPath);
+    if (key == null) {
+      return null;
+    }
+    try {
+      isFile(keyPath, key);
+      return S3ConditionalRequest.evaluatePreconditions(getHeaders(), keyPath,
+          key, S3ConditionalRequest.PreconditionContext.READ);
+    } catch (OMException | OS3Exception e) {
+      // errors are returned based on the current metadata from OM
+      return null;
+    }
+  }
+
+  /**
+   * Write length bytes of the key from offset to the response.
+   * <p>
+   * Large reads are split into ranges read in parallel if enabled by {@link
+   * org.apache.hadoop.ozone.s3.S3GatewayConfigKeys#OZONE_S3G_GET_PARALLEL_ENABLED}.
+   *
+   * @return the number of bytes written
+   */
+  private long readKey(OzoneKeyDetails keyDetails, long offset, long length,
+      OutputStream dest) throws IOException {
+    final OzoneConfiguration conf = getOzoneConfiguration();
+    if (conf.getBoolean(OZONE_S3G_GET_PARALLEL_ENABLED,
+        OZONE_S3G_GET_PARALLEL_ENABLED_DEFAULT)
+        && length >= conf.getStorageSize(OZONE_S3G_GET_PARALLEL_MIN_SIZE,
+            OZONE_S3G_GET_PARALLEL_MIN_SIZE_DEFAULT, StorageUnit.BYTES)) {
+      final int rangeSize = (int) conf.getStorageSize(
+          OZONE_S3G_GET_PARALLEL_RANGE_SIZE,
+          OZONE_S3G_GET_PARALLEL_RANGE_SIZE_DEFAULT, StorageUnit.BYTES);
+      final int ranges = conf.getInt(OZONE_S3G_GET_PARALLEL_RANGES,
+          OZONE_S3G_GET_PARALLEL_RANGES_DEFAULT);
+      if (rangeSize > 0 && ranges > 0) {
+        final ExecutorService executor = ParallelRangeReader.getExecutor(
+            conf.getInt(OZONE_S3G_GET_PARALLEL_MAX_THREADS,
+                OZONE_S3G_GET_PARALLEL_MAX_THREADS_DEFAULT));
+        return new ParallelRangeReader(getClientProtocol(),
+            keyDetails::getContent, rangeSize, ranges, executor)
+            .copy(offset, length, dest);
+      }
+      LOG.warn("Ignoring {} = {} and {} = {}, both must be positive",
+          OZONE_S3G_GET_PARALLEL_RANGE_SIZE, rangeSize,
+          OZONE_S3G_GET_PARALLEL_RANGES, ranges);
+    }
+    try (OzoneInputStream key = keyDetails.getContent()) {
+      if (offset > 0) {
+        key.seek(offset);
+      }
+      return transfer(key, dest, length);
+    }
+  }
+
+  /**
+   * Write length bytes from the current position of the key to the response.
+   * <p>
+   * If enabled by {@link
+   * org.apache.hadoop.ozone.s3.S3GatewayConfigKeys#OZONE_S3G_GET_TRANSFER_ENABLED},
+   * the buffers received from datanodes are written to Jetty's output,
+   * bypassing the stream of Jersey. Small buffers, see
+   * {@code ozone.client.bytes.per.checksum}, are gathered into larger writes
+   * by {@link GatheringWriter}.
+   *
+   * @return the number of bytes written
+   */
+  private long transfer(OzoneInputStream key, OutputStream dest, long length)
+      throws IOException {
+    if (!getOzoneConfiguration().getBoolean(OZONE_S3G_GET_TRANSFER_ENABLED,
+        OZONE_S3G_GET_TRANSFER_ENABLED_DEFAULT)) {
+      return IOUtils.copyLarge(key, dest, 0, length,
+          new byte[getIOBufferSize(length)]);
+    }
+
+    // Commit the status and headers before writing around Jersey.
+    dest.flush();
+    final ServletOutputStream out =
+        servletResponse != null ? servletResponse.getOutputStream() : null;
+    final GatheringWriter writer;
+    if (out instanceof HttpOutput) {
+      writer = new GatheringWriter(((HttpOutput) out)::write, length);
+    } else {
+      final WritableByteChannel channel = Channels.newChannel(dest);
+      writer = new GatheringWriter(buffer -> {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }, length);
+    }
+    final long transferred = key.transferTo(writer, length);
+    writer.flush();
+    return transferred;
+  }
+
   private void isFile(String keyPath, OzoneKey key) throws OMException {
     /*
       Necessary for directories in buckets with FSO layout.
@@ -749,6 +925,7 @@ public Response completeMultipartUpload(
 
       omMultipartUploadCompleteInfo = ozoneBucket.completeMultipartUpload(
           key, uploadID, partsMap, expectedDataGeneration, expectedETag);
+      invalidateMetadata(bucket, key);
       CompleteMultipartUploadResponse completeMultipartUploadResponse =
           new CompleteMultipartUploadResponse();
       completeMultipartUploadResponse.setBucket(bucket);
@@ -832,7 +1009,8 @@ private Response createMultipartKey(OzoneVolume volume, OzoneBucket ozoneBucket,
       }
       // OmMultipartCommitUploadPartInfo can only be gotten after the
       // OzoneOutputStream is closed, so we need to save the OzoneOutputStream
-      final OzoneOutputStream outputStream;
+      OzoneOutputStream outputStream = null;
+      OmMultipartCommitUploadPartInfo omMultipartCommitUploadPartInfo = null;
       long metadataLatencyNs;
       if (copyHeader != null) {
         Pair<String, String> result = parseSourceHeader(copyHeader);
@@ -870,35 +1048,51 @@ private Response createMultipartKey(OzoneVolume volume, OzoneBucket ozoneBucket,
           throw newError(PRECOND_FAILED, sourceBucket + "/" + sourceKey);
         }
 
-        try (OzoneInputStream sourceObject = sourceKeyDetails.getContent()) {
-          long copyLength;
-          if (range != null) {
-            final long skipped =
-                sourceObject.skip(rangeHeader.getStartOffset());
-            if (skipped != rangeHeader.getStartOffset()) {
-              throw new EOFException(
-                  "Bytes to skip: "
-                      + rangeHeader.getStartOffset() + " actual: " + skipped);
+        if (range == null && canCopyOnServer(ozoneBucket, sourceKeyDetails)) {
+          // OM sets the ETag of the source it shares, and fails the copy if
+          // the source was replaced since its conditions were checked.
+          omMultipartCommitUploadPartInfo = copyOnServer(() ->
+              getClientProtocol().copyMultipartKey(volume.getName(),
+                  sourceBucket, sourceKey, sourceKeyDetails.getGeneration(),
+                  volume.getName(), bucketName, key, partNumber, uploadID,
+                  sourceKeyDetails.getMetadata()));
+        }
+        if (omMultipartCommitUploadPartInfo != null) {
+          metadataLatencyNs =
+              getMetrics().updateCopyKeyMetadataStats(startNanos);
+          getMetrics().incCopyObjectSuccessLength(length);
+          perf.appendSizeBytes(length);
+        } else {
+          try (OzoneInputStream sourceObject = sourceKeyDetails.getContent()) {
+            long copyLength;
+            if (range != null) {
+              final long skipped =
+                  sourceObject.skip(rangeHeader.getStartOffset());
+              if (skipped != rangeHeader.getStartOffset()) {
+                throw new EOFException(
+                    "Bytes to skip: "
+                        + rangeHeader.getStartOffset() + " actual: " + skipped);
+              }
             }
-          }
-          final long expectedLength = length;
-          OzoneOutputStream ozoneOutputStream = getClientProtocol()
-              .createMultipartKey(volume.getName(), bucketName, key,
-                  expectedLength, partNumber, uploadID);
-          try (S3ObjectWriteGuard writeGuard =
-              new S3ObjectWriteGuard(ozoneOutputStream, expectedLength, key)) {
-            metadataLatencyNs =
-                getMetrics().updateCopyKeyMetadataStats(startNanos);
-            copyLength = writeGuard.copyFrom(sourceObject, getIOBufferSize(expectedLength));
-            writeGuard.getMetadata().putAll(sourceKeyDetails.getMetadata());
-            String raw = writeGuard.getMetadata().get(OzoneConsts.ETAG);
-            if (raw != null) {
-              writeGuard.getMetadata().put(OzoneConsts.ETAG, stripQuotes(raw));
+            final long expectedLength = length;
+            OzoneOutputStream ozoneOutputStream = getClientProtocol()
+                .createMultipartKey(volume.getName(), bucketName, key,
+                    expectedLength, partNumber, uploadID);
+            try (S3ObjectWriteGuard writeGuard =
+                new S3ObjectWriteGuard(ozoneOutputStream, expectedLength, key)) {
+              metadataLatencyNs =
+                  getMetrics().updateCopyKeyMetadataStats(startNanos);
+              copyLength = writeGuard.copyFrom(sourceObject, getIOBufferSize(expectedLength));
+              writeGuard.getMetadata().putAll(sourceKeyDetails.getMetadata());
+              String raw = writeGuard.getMetadata().get(OzoneConsts.ETAG);
+              if (raw != null) {
+                writeGuard.getMetadata().put(OzoneConsts.ETAG, stripQuotes(raw));
+              }
+              outputStream = ozoneOutputStream;
             }
-            outputStream = ozoneOutputStream;
+            getMetrics().incCopyObjectSuccessLength(copyLength);
+            perf.appendSizeBytes(copyLength);
           }
-          getMetrics().incCopyObjectSuccessLength(copyLength);
-          perf.appendSizeBytes(copyLength);
         }
       } else {
         long putLength;
@@ -926,8 +1120,9 @@ private Response createMultipartKey(OzoneVolume volume, OzoneBucket ozoneBucket,
       }
       perf.appendMetaLatencyNanos(metadataLatencyNs);
 
-      OmMultipartCommitUploadPartInfo omMultipartCommitUploadPartInfo =
-          outputStream.getCommitUploadPartInfo();
+      if (outputStream != null) {
+        omMultipartCommitUploadPartInfo = outputStream.getCommitUploadPartInfo();
+      }
       String eTag = omMultipartCommitUploadPartInfo.getETag();
       // If the OmMultipartCommitUploadPartInfo does not contain eTag,
       // fall back to MPU part name for compatibility in case the (old) OM
@@ -953,6 +1148,10 @@ private Response createMultipartKey(OzoneVolume volume, OzoneBucket ozoneBucket,
       }
       if (ex.getResult() == ResultCodes.NO_SUCH_MULTIPART_UPLOAD_ERROR) {
         throw newError(NO_SUCH_UPLOAD, uploadID, ex);
+      } else if (copyHeader != null
+          && ex.getResult() == ResultCodes.ATOMIC_WRITE_CONFLICT) {
+        // the source was replaced after its copy conditions were checked
+        throw newError(PRECOND_FAILED, copyHeader, ex);
       } else if (ex.getResult() == ResultCodes.INVALID_PART) {
         OS3Exception os3Exception = newError(
             S3ErrorTable.INVALID_ARGUMENT, String.valueOf(partNumber), ex);
@@ -1006,9 +1205,10 @@ srcKeyLen > getDatastreamMinLength()) {
   }
 
   private CopyObjectResponse copyObject(OzoneVolume volume,
-      String destBucket, String destkey, ReplicationConfig replicationConfig,
-      PerformanceStringBuilder perf)
+      OzoneBucket destOzoneBucket, String destkey,
+      ReplicationConfig replicationConfig, PerformanceStringBuilder perf)
       throws OS3Exception, IOException {
+    final String destBucket = destOzoneBucket.getName();
     String copyHeader = getHeaders().getHeaderString(COPY_SOURCE_HEADER);
     String storageType = getHeaders().getHeaderString(STORAGE_CLASS_HEADER);
     boolean storageTypeDefault = StringUtils.isEmpty(storageType);
@@ -1097,12 +1297,34 @@ private CopyObjectResponse copyObject(OzoneVolume volume,
         throw ex;
       }
 
-      try (OzoneInputStream src = getClientProtocol().getKey(volume.getName(),
-          sourceBucket, sourceKey)) {
-        getMetrics().updateCopyKeyMetadataStats(startNanos);
-        sourceDigestInputStream = new DigestInputStream(src, getMD5DigestInstance());
-        copy(volume, sourceDigestInputStream, sourceKeyLen, destkey, destBucket, replicationConfig,
-                customMetadata, perf, startNanos, tags, writeConditions);
+      boolean copied = false;
+      if (!writeConditions.hasIfNoneMatch() && !writeConditions.hasIfMatch()
+          && canCopyOnServer(destOzoneBucket, sourceKeyDetails)
+          && (replicationConfig == null || replicationConfig.equals(
+              sourceKeyDetails.getReplicationConfig()))) {
+        // OM sets the ETag of the source it shares, and fails the copy if
+        // the source was replaced since its conditions were checked.
+        copied = copyOnServer(() -> {
+          getClientProtocol().copyKey(volume.getName(), sourceBucket,
+              sourceKey, sourceKeyDetails.getGeneration(), volume.getName(),
+              destBucket, destkey, customMetadata, tags);
+          return true;
+        }) != null;
+        if (copied) {
+          perf.appendMetaLatencyNanos(
+              getMetrics().updateCopyKeyMetadataStats(startNanos));
+          getMetrics().incCopyObjectSuccessLength(sourceKeyLen);
+          perf.appendSizeBytes(sourceKeyLen);
+        }
+      }
+      if (!copied) {
+        try (OzoneInputStream src = getClientProtocol().getKey(volume.getName(),
+            sourceBucket, sourceKey)) {
+          getMetrics().updateCopyKeyMetadataStats(startNanos);
+          sourceDigestInputStream = new DigestInputStream(src, getMD5DigestInstance());
+          copy(volume, sourceDigestInputStream, sourceKeyLen, destkey, destBucket, replicationConfig,
+                  customMetadata, perf, startNanos, tags, writeConditions);
+        }
       }
 
       final OzoneKeyDetails destKeyDetails = getClientProtocol().getKeyDetails(
@@ -1137,6 +1359,41 @@ private CopyObjectResponse copyObject(OzoneVolume volume,
     }
   }
 
+  /**
+   * @return whether the source key may be copied to the bucket by sharing its
+   *         blocks in OM, see {@link ClientProtocol#copyKey}.
+   */
+  private boolean canCopyOnServer(OzoneBucket destBucket,
+      OzoneKeyDetails source) {
+    return getOzoneConfiguration().getBoolean(
+        OZONE_S3G_SERVER_SIDE_COPY_ENABLED,
+        OZONE_S3G_SERVER_SIDE_COPY_ENABLED_DEFAULT)
+        && destBucket.getBucketLayout() != BucketLayout.FILE_SYSTEM_OPTIMIZED
+        && source.getFileEncryptionInfo() == null
+        && source.getMetadata().get(OzoneConsts.ETAG) != null;
+  }
+
+  /**
+   * Run a server-side copy.
+   *
+   * @return the result of the copy, or null if the data has to be copied
+   *         instead, e.g. the source bucket is FILE_SYSTEM_OPTIMIZED or OM
+   *         does not support it.
+   */
+  private static <T> T copyOnServer(CheckedSupplier<T, IOException> copy)
+      throws IOException {
+    try {
+      return copy.get();
+    } catch (OMException ex) {
+      if (ex.getResult() != ResultCodes.NOT_SUPPORTED_OPERATION) {
+        throw ex;
+      }
+      LOG.debug("Copying data, as the key cannot be copied on the server: {}",
+          ex.getMessage());
+      return null;
+    }
+  }
+
   /**
    * Opens a key for put, applying conditional write logic based on
    * If-None-Match and If-Match headers.
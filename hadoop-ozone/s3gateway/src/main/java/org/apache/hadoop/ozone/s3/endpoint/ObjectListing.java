@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.endpoint;
+
+import java.io.IOException;
+import java.util.Iterator;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.ozone.client.OzoneKey;
+import org.apache.hadoop.ozone.s3.util.ContinueToken;
+
+/**
+ * One page of a ListObjects request: groups the keys returned by
+ * {@link org.apache.hadoop.ozone.client.OzoneBucket#listKeys} into common
+ * prefixes by the delimiter, and passes the entries of the page to a
+ * {@link Sink} as they are listed.
+ */
+class ObjectListing {
+
+  /** Receives the entries of the page, in order. */
+  interface Sink {
+    void addKey(OzoneKey key) throws IOException;
+
+    void addPrefix(String commonPrefix) throws IOException;
+  }
+
+  private final String prefix;
+  private final String delimiter;
+  private final String startAfter;
+  private final int maxKeys;
+
+  /** Last common prefix added, relative to the prefix, without delimiter. */
+  private String prevDir;
+  private String lastKey;
+  private int count;
+  private boolean truncated;
+
+  ObjectListing(String prefix, String delimiter, String startAfter,
+      String prevDir, int maxKeys) {
+    this.prefix = prefix;
+    this.delimiter = delimiter;
+    this.startAfter = startAfter;
+    this.prevDir = prevDir;
+    this.maxKeys = maxKeys;
+  }
+
+  /**
+   * List up to maxKeys entries from the iterator.
+   *
+   * @param keys keys in lexical order, may be null if nothing was found.
+   */
+  void list(Iterator<? extends OzoneKey> keys, Sink sink)
+      throws IOException {
+    if (maxKeys > 0 && keys != null) {
+      final boolean grouped = !StringUtils.isEmpty(delimiter);
+      final int start = prefix.length();
+      while (keys.hasNext()) {
+        OzoneKey next = keys.next();
+        String name = next.getName();
+        if (!name.startsWith(prefix)) {
+          continue;
+        }
+        if (startAfter != null && count == 0 && startAfter.equals(name)) {
+          continue;
+        }
+
+        // With shallow listing most of the entries are directories of the
+        // same prefix, find the first delimiter in place and only build the
+        // common prefix once per directory.
+        int end = grouped ? name.indexOf(delimiter, start) : -1;
+        if (end < 0) {
+          // no common prefix, e.g. dir/key where prefix is dir/
+          sink.addKey(next);
+          count++;
+        } else if (!isPrevDir(name, start, end)) {
+          // ex: dir/dir1/dir2, where delimiter is "/" and prefix is dir/
+          prevDir = name.substring(start, end);
+          sink.addPrefix(name.substring(0, end + delimiter.length()));
+          count++;
+        }
+
+        if (count == maxKeys) {
+          lastKey = name;
+          break;
+        }
+      }
+    }
+    truncated = count == maxKeys && lastKey != null && keys.hasNext();
+  }
+
+  private boolean isPrevDir(String name, int start, int end) {
+    return prevDir != null && prevDir.length() == end - start
+        && name.startsWith(prevDir, start);
+  }
+
+  /** @return the number of keys and common prefixes listed. */
+  int getCount() {
+    return count;
+  }
+
+  boolean isTruncated() {
+    return truncated;
+  }
+
+  /** @return the token to list the next page, null if not truncated. */
+  String getNextToken() {
+    return truncated
+        ? new ContinueToken(lastKey, prevDir).encodeToString() : null;
+  }
+
+  /** @return the marker to list the next page, null if not truncated. */
+  String getNextMarker() {
+    return truncated ? lastKey : null;
+  }
+}
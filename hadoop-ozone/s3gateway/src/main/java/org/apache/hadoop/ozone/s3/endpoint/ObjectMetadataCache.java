@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.endpoint;
+
+import static com.google.common.base.Strings.nullToEmpty;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_METADATA_CACHE_ENABLED;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_METADATA_CACHE_ENABLED_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_METADATA_CACHE_MAX_ENTRIES;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_METADATA_CACHE_MAX_ENTRIES_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_METADATA_CACHE_TTL;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_METADATA_CACHE_TTL_DEFAULT;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.ozone.client.OzoneKey;
+import org.apache.hadoop.ozone.s3.metrics.S3GatewayMetrics;
+import org.apache.ratis.util.function.CheckedSupplier;
+
+/**
+ * Gateway-local cache of object metadata, to answer HeadObject and
+ * conditional GetObject requests without a round trip to OM.
+ * <p>
+ * Entries expire after {@code ozone.s3g.metadata-cache.ttl}, and are
+ * invalidated by writes through this gateway. Writes through other gateways
+ * or clients are only seen once the entry expires.
+ * <p>
+ * An entry is only returned to access IDs for which OM allowed reading the
+ * key within the TTL, as cached metadata skips the ACL check in OM.
+ */
+@Singleton
+public class ObjectMetadataCache {
+
+  private final Cache<String, Entry> cache;
+  private final Ticker ticker;
+  private final long ttlNanos;
+  /**
+   * Keys being loaded, with a version incremented by each invalidation of the
+   * key, to drop metadata loaded before it.
+   */
+  private final Map<String, Loads> loading = new ConcurrentHashMap<>();
+
+  @Inject
+  ObjectMetadataCache(OzoneConfiguration conf) {
+    this(conf.getBoolean(OZONE_S3G_METADATA_CACHE_ENABLED,
+            OZONE_S3G_METADATA_CACHE_ENABLED_DEFAULT)
+            ? conf.getLong(OZONE_S3G_METADATA_CACHE_MAX_ENTRIES,
+                OZONE_S3G_METADATA_CACHE_MAX_ENTRIES_DEFAULT) : 0,
+        conf.getTimeDuration(OZONE_S3G_METADATA_CACHE_TTL,
+            OZONE_S3G_METADATA_CACHE_TTL_DEFAULT, TimeUnit.MILLISECONDS));
+  }
+
+  @VisibleForTesting
+  public ObjectMetadataCache(long maxEntries, long ttlMillis) {
+    this(maxEntries, ttlMillis, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  ObjectMetadataCache(long maxEntries, long ttlMillis, Ticker ticker) {
+    this.ticker = ticker;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    this.cache = maxEntries > 0 && ttlMillis > 0
+        ? CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+            .ticker(ticker)
+            .build()
+        : null;
+  }
+
+  /**
+   * @return the cached metadata of the key, or null if not cached or not
+   *         read by this access ID within the TTL.
+   */
+  OzoneKey getIfPresent(String accessId, String bucket, String key) {
+    if (cache == null) {
+      return null;
+    }
+    Entry entry = cache.getIfPresent(cacheKey(bucket, key));
+    Long checked = entry != null
+        ? entry.accessChecked.get(nullToEmpty(accessId)) : null;
+    boolean hit = checked != null && ticker.read() - checked < ttlNanos;
+    S3GatewayMetrics metrics = S3GatewayMetrics.getMetrics();
+    if (metrics != null) {
+      metrics.updateMetadataCacheStats(hit);
+    }
+    return hit ? entry.key : null;
+  }
+
+  /**
+   * @return the cached metadata of the key, or the metadata from loader,
+   *         which is then cached.
+   */
+  OzoneKey get(String accessId, String bucket, String key,
+      CheckedSupplier<? extends OzoneKey, IOException> loader)
+      throws IOException {
+    OzoneKey cached = getIfPresent(accessId, bucket, key);
+    return cached != null ? cached : load(accessId, bucket, key, loader);
+  }
+
+  /** Read the metadata of the key from loader, and cache it. */
+  <T extends OzoneKey> T load(String accessId, String bucket, String key,
+      CheckedSupplier<T, IOException> loader) throws IOException {
+    if (cache == null) {
+      return loader.get();
+    }
+    final String cacheKey = cacheKey(bucket, key);
+    final long checked = ticker.read();
+    final long[] loadVersion = new long[1];
+    loading.compute(cacheKey, (k, loads) -> {
+      Loads added = loads != null ? loads.add() : new Loads();
+      loadVersion[0] = added.version;
+      return added;
+    });
+    try {
+      T value = loader.get();
+      cache.asMap().compute(cacheKey, (k, entry) -> {
+        if (loading.get(cacheKey).version != loadVersion[0]) {
+          // invalidated while loading, the value may be stale
+          return entry;
+        }
+        Entry updated = entry != null && isSameVersion(entry.key, value)
+            ? entry : new Entry(copyOf(value));
+        updated.accessChecked.put(nullToEmpty(accessId), checked);
+        return updated;
+      });
+      return value;
+    } finally {
+      loading.computeIfPresent(cacheKey, (k, loads) -> loads.remove());
+    }
+  }
+
+  /** Invalidate the metadata of a key modified through this gateway. */
+  void invalidate(String bucket, String key) {
+    if (cache != null) {
+      final String cacheKey = cacheKey(bucket, key);
+      loading.computeIfPresent(cacheKey, (k, loads) -> loads.invalidate());
+      cache.invalidate(cacheKey);
+    }
+  }
+
+  private static String cacheKey(String bucket, String key) {
+    return bucket + "/" + key;
+  }
+
+  private static boolean isSameVersion(OzoneKey cached, OzoneKey loaded) {
+    return cached.getModificationTime().equals(loaded.getModificationTime())
+        && cached.getDataSize() == loaded.getDataSize()
+        && cached.getMetadata().equals(loaded.getMetadata())
+        && cached.getTags().equals(loaded.getTags());
+  }
+
+  /** Copy without the key locations and content of {@code OzoneKeyDetails}. */
+  private static OzoneKey copyOf(OzoneKey key) {
+    return new OzoneKey(key.getVolumeName(), key.getBucketName(),
+        key.getName(), key.getDataSize(),
+        key.getCreationTime().toEpochMilli(),
+        key.getModificationTime().toEpochMilli(),
+        key.getReplicationConfig(), key.getMetadata(), key.isFile(),
+        key.getOwner(), key.getTags());
+  }
+
+  /**
+   * Metadata of a key, and the access IDs allowed to read it by OM, with the
+   * time of the last check.
+   */
+  private static final class Entry {
+    private final OzoneKey key;
+    private final Map<String, Long> accessChecked = new ConcurrentHashMap<>();
+
+    private Entry(OzoneKey key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * Loads of a key in progress. Only modified within
+   * {@link ConcurrentHashMap#compute} of {@link #loading}.
+   */
+  private static final class Loads {
+    private int count = 1;
+    private volatile long version;
+
+    private Loads add() {
+      count++;
+      return this;
+    }
+
+    /** @return this, or null to drop it after the last load. */
+    private Loads remove() {
+      return --count > 0 ? this : null;
+    }
+
+    private Loads invalidate() {
+      version++;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.endpoint;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.ozone.client.io.OzoneInputStream;
+import org.apache.hadoop.ozone.client.protocol.ClientProtocol;
+import org.apache.hadoop.ozone.om.protocol.S3Auth;
+import org.apache.ratis.util.function.CheckedSupplier;
+
+/**
+ * Reads a range of a key as consecutive smaller ranges, several of them
+ * concurrently, each through its own {@link OzoneInputStream}, and writes
+ * them to the output in order.
+ * <p>
+ * At most {@code parallelism} ranges are read or waiting to be written at any
+ * time, which bounds the memory used by a request to
+ * {@code parallelism * rangeSize}. Ranges of all requests are read by a
+ * shared pool of threads, see {@link #getExecutor}.
+ */
+class ParallelRangeReader {
+
+  /** Reads ranges for all requests, created on first use. */
+  private static ThreadPoolExecutor executor;
+
+  private final ClientProtocol client;
+  private final CheckedSupplier<OzoneInputStream, IOException> content;
+  private final int rangeSize;
+  private final int parallelism;
+  private final ExecutorService rangeExecutor;
+
+  /**
+   * @param client client of the request, whose S3 credentials are used by
+   *        the threads reading the ranges, or null
+   * @param content opens a new stream of the key for each range.
+   */
+  ParallelRangeReader(ClientProtocol client,
+      CheckedSupplier<OzoneInputStream, IOException> content,
+      int rangeSize, int parallelism, ExecutorService rangeExecutor) {
+    Preconditions.checkArgument(rangeSize > 0,
+        "rangeSize = %s <= 0", rangeSize);
+    Preconditions.checkArgument(parallelism > 0,
+        "parallelism = %s <= 0", parallelism);
+    this.client = client;
+    this.content = content;
+    this.rangeSize = rangeSize;
+    this.parallelism = parallelism;
+    this.rangeExecutor = rangeExecutor;
+  }
+
+  /**
+   * @return the pool of up to maxThreads threads shared by all requests,
+   *         created with the maxThreads of the first call. Ranges wait for a
+   *         thread if all of them are busy.
+   */
+  static synchronized ExecutorService getExecutor(int maxThreads) {
+    if (executor == null) {
+      executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+          60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+          new ThreadFactoryBuilder()
+              .setNameFormat("s3g-range-reader-%d")
+              .setDaemon(true)
+              .build());
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return executor;
+  }
+
+  /**
+   * Write length bytes of the key from offset to the output.
+   *
+   * @return the number of bytes written
+   */
+  long copy(long offset, long length, OutputStream out) throws IOException {
+    final long end = offset + length;
+    final S3Auth s3Auth = client != null ? client.getThreadLocalS3Auth() : null;
+    final Deque<Future<byte[]>> window = new ArrayDeque<>(parallelism);
+    long next = offset;
+    long written = 0;
+    try {
+      while (next < end || !window.isEmpty()) {
+        while (next < end && window.size() < parallelism) {
+          final long rangeOffset = next;
+          final int rangeLength = (int) Math.min(rangeSize, end - next);
+          window.addLast(rangeExecutor.submit(
+              () -> readRange(s3Auth, rangeOffset, rangeLength)));
+          next += rangeLength;
+        }
+        byte[] data = await(window.removeFirst());
+        out.write(data);
+        written += data.length;
+      }
+    } finally {
+      for (Future<byte[]> pending : window) {
+        pending.cancel(true);
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Read a range on a thread of the executor, with the S3 credentials of the
+   * request, which OM needs e.g. to refresh the locations of the key.
+   */
+  private byte[] readRange(S3Auth s3Auth, long offset, int length)
+      throws IOException {
+    if (s3Auth != null) {
+      client.setThreadLocalS3Auth(s3Auth);
+    }
+    try {
+      byte[] buffer = new byte[length];
+      try (OzoneInputStream in = content.get()) {
+        in.seek(offset);
+        IOUtils.readFully(in, buffer);
+      }
+      return buffer;
+    } finally {
+      if (s3Auth != null) {
+        client.clearThreadLocalS3Auth();
+      }
+    }
+  }
+
+  private static byte[] await(Future<byte[]> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException ex =
+          new InterruptedIOException("Interrupted while reading key range");
+      ex.initCause(e);
+      throw ex;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
@@ -84,6 +84,15 @@ enum PreconditionContext {
     }
   }
 
+  /**
+   * @return true if a GET/HEAD request has conditions which may be answered
+   *         with 304 Not Modified.
+   */
+  static boolean hasNotModifiedConditions(HttpHeaders headers) {
+    return headers.getHeaderString(S3Consts.IF_NONE_MATCH_HEADER) != null
+        || headers.getHeaderString(S3Consts.IF_MODIFIED_SINCE_HEADER) != null;
+  }
+
   /**
    * Evaluates preconditions based on the given context.
    *
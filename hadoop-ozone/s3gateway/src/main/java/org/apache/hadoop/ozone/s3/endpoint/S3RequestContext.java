@@ -22,12 +22,14 @@
 import org.apache.hadoop.ozone.audit.AuditLogger.PerformanceStringBuilder;
 import org.apache.hadoop.ozone.audit.S3GAction;
 import org.apache.hadoop.ozone.client.OzoneVolume;
+import org.apache.hadoop.ozone.s3.metrics.RequestTrace;
 import org.apache.hadoop.util.Time;
 
 class S3RequestContext {
   private final long startNanos;
   private final PerformanceStringBuilder perf;
   private final EndpointBase endpoint;
+  private final RequestTrace trace;
   private S3GAction action;
   private OzoneVolume volume;
 
@@ -35,7 +37,8 @@ class S3RequestContext {
     this.endpoint = endpoint;
     this.startNanos = Time.monotonicNowNanos();
     this.perf = new PerformanceStringBuilder();
-    this.action = action;
+    this.trace = RequestTrace.get(endpoint.getContext());
+    setAction(action);
   }
 
   long getStartNanos() {
@@ -59,6 +62,16 @@ S3GAction getAction() {
 
   void setAction(S3GAction action) {
     this.action = action;
+    if (trace != null && action != null) {
+      trace.setAction(action.name());
+    }
+  }
+
+  /** Add time spent in a phase of the request to its trace, if traced. */
+  void addPhaseNanos(RequestTrace.Phase phase, long nanos) {
+    if (trace != null) {
+      trace.add(phase, nanos);
+    }
   }
 
   /**
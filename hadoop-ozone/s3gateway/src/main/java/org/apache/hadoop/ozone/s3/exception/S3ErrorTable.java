@@ -24,6 +24,7 @@
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_NOT_IMPLEMENTED;
 import static java.net.HttpURLConnection.HTTP_PRECON_FAILED;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static org.apache.hadoop.ozone.OzoneConsts.S3_REQUEST_HEADER_METADATA_SIZE_LIMIT_KB;
 import static org.apache.hadoop.ozone.s3.util.S3Consts.RANGE_NOT_SATISFIABLE;
 
@@ -169,7 +170,10 @@ public enum S3ErrorTable {
       HTTP_BAD_REQUEST),
 
   INVALID_DIGEST(
-      "InvalidDigest", "The Content-MD5 you specified is not valid.", HTTP_BAD_REQUEST);
+      "InvalidDigest", "The Content-MD5 you specified is not valid.", HTTP_BAD_REQUEST),
+
+  SLOW_DOWN(
+      "SlowDown", "Please reduce your request rate.", HTTP_UNAVAILABLE);
 
   private static final Logger LOG = LoggerFactory.getLogger(S3ErrorTable.class);
 
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.ws.rs.container.ContainerRequestContext;
+import org.apache.hadoop.util.Time;
+
+/**
+ * Time spent by a single S3 request in each {@link Phase}.
+ * <p>
+ * Created when the request enters Jersey, and completed once the response is
+ * written. Phases may be recorded by any thread handling the request, e.g.
+ * the data transfer of GetObject happens while the response is written.
+ */
+public final class RequestTrace {
+
+  /** Request property holding the trace of the request. */
+  public static final String PROPERTY = RequestTrace.class.getName();
+  /** Servlet request attribute with the queue time before Jersey. */
+  public static final String QUEUE_NANOS_ATTRIBUTE =
+      RequestTrace.class.getName() + ".queueNanos";
+
+  /** Phases of an S3 request. */
+  public enum Phase {
+    /** Waiting for a thread and a bucket permit. */
+    QUEUE,
+    /** Parsing the signature and building the string to sign. */
+    AUTH,
+    /** OM requests, until the key is opened for read or write. */
+    METADATA,
+    /** Reading or writing the object data from or to datanodes. */
+    DATA,
+    /** Serializing and writing the response, excluding object data. */
+    RESPONSE
+  }
+
+  private final String method;
+  private final String path;
+  private final long startTime;
+  private final long startNanos;
+  private final AtomicLongArray phaseNanos =
+      new AtomicLongArray(Phase.values().length);
+  private volatile String action;
+  private volatile int status;
+  private volatile long totalNanos;
+
+  public RequestTrace(String method, String path) {
+    this.method = method;
+    this.path = path;
+    this.startTime = Time.now();
+    this.startNanos = Time.monotonicNowNanos();
+  }
+
+  /** @return the trace of the request, null if not traced. */
+  public static RequestTrace get(ContainerRequestContext context) {
+    Object trace = context == null ? null : context.getProperty(PROPERTY);
+    return trace instanceof RequestTrace ? (RequestTrace) trace : null;
+  }
+
+  public void add(Phase phase, long nanos) {
+    phaseNanos.addAndGet(phase.ordinal(), nanos);
+  }
+
+  public long getPhaseNanos(Phase phase) {
+    return phaseNanos.get(phase.ordinal());
+  }
+
+  public void setAction(String action) {
+    this.action = action;
+  }
+
+  public void setStatus(int status) {
+    this.status = status;
+  }
+
+  /**
+   * Complete the trace.
+   *
+   * @return total time of the request in nanoseconds, including the time
+   *         queued before the trace was created.
+   */
+  public long complete() {
+    totalNanos = Time.monotonicNowNanos() - startNanos
+        + getPhaseNanos(Phase.QUEUE);
+    return totalNanos;
+  }
+
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public String getAction() {
+    return action;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getTotalMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+  }
+
+  /** @return time spent in each phase in milliseconds. */
+  public Map<Phase, Long> getPhaseMillis() {
+    Map<Phase, Long> millis = new EnumMap<>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      millis.put(phase, TimeUnit.NANOSECONDS.toMillis(getPhaseNanos(phase)));
+    }
+    return millis;
+  }
+}
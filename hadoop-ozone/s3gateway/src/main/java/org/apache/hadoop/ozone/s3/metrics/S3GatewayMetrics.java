@@ -104,7 +104,30 @@ public final class S3GatewayMetrics implements Closeable, MetricsSource {
   private @Metric MutableCounterLong putObjectAclSuccess;
   private @Metric MutableCounterLong putObjectAclFailure;
 
+  // RequestExecutionFilter
+  private @Metric MutableCounterLong requestQueueTimeouts;
+
+  // ObjectMetadataCache
+  private @Metric MutableCounterLong metadataCacheHits;
+  private @Metric MutableCounterLong metadataCacheMisses;
+
   // S3 Gateway Latency Metrics
+  // RequestExecutionFilter
+
+  @Metric(about = "Time requests waited for a thread and a bucket permit " +
+      "before being handled, in nanoseconds")
+  private PerformanceMetrics requestQueueLatencyNs;
+
+  // Request phases
+
+  @Metric(about = "Time spent parsing the signature of requests in " +
+      "nanoseconds")
+  private PerformanceMetrics authLatencyNs;
+
+  @Metric(about = "Time spent writing responses, excluding object data, in " +
+      "nanoseconds")
+  private PerformanceMetrics responseWriteLatencyNs;
+
   // BucketEndpoint
 
   @Metric(about = "Latency for successfully retrieving an S3 bucket in " +
@@ -254,6 +277,12 @@ public final class S3GatewayMetrics implements Closeable, MetricsSource {
   @Metric(about = "Latency for copy metadata of an key in nanoseconds")
   private PerformanceMetrics copyKeyMetadataLatencyNs;
 
+  @Metric(about = "Latency for writing the data of an key in nanoseconds")
+  private PerformanceMetrics putKeyDataLatencyNs;
+
+  @Metric(about = "Latency for reading the data of an key in nanoseconds")
+  private PerformanceMetrics getKeyDataLatencyNs;
+
   @Metric(about = "Latency for successful get object tagging of a key in nanoseconds")
   private PerformanceMetrics getObjectTaggingSuccessLatencyNs;
 
@@ -281,6 +310,7 @@ public final class S3GatewayMetrics implements Closeable, MetricsSource {
   private PerformanceMetrics putObjectAclFailureLatencyNs;
 
   private final Map<String, PerformanceMetrics> performanceMetrics;
+  private final SlowRequestLog slowRequestLog;
 
   /**
    * Private constructor.
@@ -291,6 +321,7 @@ private S3GatewayMetrics(OzoneConfiguration conf) {
         .OZONE_S3G_METRICS_PERCENTILES_INTERVALS_SECONDS_KEY);
     performanceMetrics = PerformanceMetrics.initializeMetrics(
         this, registry, "Ops", "Time", intervals);
+    slowRequestLog = new SlowRequestLog(conf);
   }
 
   @Override
@@ -405,6 +436,8 @@ public void getMetrics(MetricsCollector collector, boolean all) {
     putKeyMetadataLatencyNs.snapshot(recordBuilder, true);
     getKeyMetadataLatencyNs.snapshot(recordBuilder, true);
     copyKeyMetadataLatencyNs.snapshot(recordBuilder, true);
+    putKeyDataLatencyNs.snapshot(recordBuilder, true);
+    getKeyDataLatencyNs.snapshot(recordBuilder, true);
     copyObjectSuccessLength.snapshot(recordBuilder, true);
     putKeySuccessLength.snapshot(recordBuilder, true);
     getKeySuccessLength.snapshot(recordBuilder, true);
@@ -425,6 +458,18 @@ public void getMetrics(MetricsCollector collector, boolean all) {
     putObjectAclSuccessLatencyNs.snapshot(recordBuilder, true);
     putObjectAclFailure.snapshot(recordBuilder, true);
     putObjectAclFailureLatencyNs.snapshot(recordBuilder, true);
+
+    // RequestExecutionFilter
+    requestQueueTimeouts.snapshot(recordBuilder, true);
+    requestQueueLatencyNs.snapshot(recordBuilder, true);
+
+    // ObjectMetadataCache
+    metadataCacheHits.snapshot(recordBuilder, true);
+    metadataCacheMisses.snapshot(recordBuilder, true);
+
+    // Request phases
+    authLatencyNs.snapshot(recordBuilder, true);
+    responseWriteLatencyNs.snapshot(recordBuilder, true);
   }
 
   // INC and UPDATE
@@ -634,6 +679,14 @@ public long updatePutKeyMetadataStats(long startNanos) {
     return updateAndGetStats(putKeyMetadataLatencyNs, startNanos);
   }
 
+  public long updatePutKeyDataStats(long startNanos) {
+    return updateAndGetStats(putKeyDataLatencyNs, startNanos);
+  }
+
+  public long updateGetKeyDataStats(long startNanos) {
+    return updateAndGetStats(getKeyDataLatencyNs, startNanos);
+  }
+
   public void incCopyObjectSuccessLength(long bytes) {
     copyObjectSuccessLength.incr(bytes);
   }
@@ -686,6 +739,38 @@ public void updatePutObjectAclFailureStats(long startNanos) {
     this.putObjectAclFailureLatencyNs.add(Time.monotonicNowNanos() - startNanos);
   }
 
+  // RequestExecutionFilter
+
+  public long updateRequestQueueStats(long startNanos) {
+    return updateAndGetStats(requestQueueLatencyNs, startNanos);
+  }
+
+  public void incRequestQueueTimeouts() {
+    requestQueueTimeouts.incr();
+  }
+
+  public void updateMetadataCacheStats(boolean hit) {
+    if (hit) {
+      metadataCacheHits.incr();
+    } else {
+      metadataCacheMisses.incr();
+    }
+  }
+
+  // Request phases
+
+  public long updateAuthStats(long startNanos) {
+    return updateAndGetStats(authLatencyNs, startNanos);
+  }
+
+  public void addResponseWriteLatency(long nanos) {
+    responseWriteLatencyNs.add(nanos);
+  }
+
+  public SlowRequestLog getSlowRequestLog() {
+    return slowRequestLog;
+  }
+
   // GET
   public long getListS3BucketsSuccess() {
     return listS3BucketsSuccess.value();
@@ -851,6 +936,18 @@ public long getDeleteObjectTaggingFailure() {
     return deleteObjectTaggingFailure.value();
   }
 
+  public long getRequestQueueTimeouts() {
+    return requestQueueTimeouts.value();
+  }
+
+  public long getMetadataCacheHits() {
+    return metadataCacheHits.value();
+  }
+
+  public long getMetadataCacheMisses() {
+    return metadataCacheMisses.value();
+  }
+
   private long updateAndGetStats(PerformanceMetrics metric, long startNanos) {
     long value = Time.monotonicNowNanos() - startNanos;
     metric.add(value);
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.metrics;
+
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_SLOW_REQUEST_LOG_SIZE;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_SLOW_REQUEST_LOG_SIZE_DEFAULT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_SLOW_REQUEST_THRESHOLD;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_SLOW_REQUEST_THRESHOLD_DEFAULT;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hdds.conf.ConfigurationSource;
+
+/**
+ * Keeps the {@link RequestTrace}s of the most recent requests slower than
+ * {@code ozone.s3g.slow-request.threshold}.
+ * <p>
+ * Only slow requests are sampled, others are checked against the threshold
+ * without synchronization.
+ */
+public class SlowRequestLog {
+
+  private final long thresholdNanos;
+  private final int size;
+  private final Deque<RequestTrace> traces;
+
+  public SlowRequestLog(ConfigurationSource conf) {
+    this(conf.getTimeDuration(OZONE_S3G_SLOW_REQUEST_THRESHOLD,
+            OZONE_S3G_SLOW_REQUEST_THRESHOLD_DEFAULT, TimeUnit.NANOSECONDS),
+        conf.getInt(OZONE_S3G_SLOW_REQUEST_LOG_SIZE,
+            OZONE_S3G_SLOW_REQUEST_LOG_SIZE_DEFAULT));
+  }
+
+  SlowRequestLog(long thresholdNanos, int size) {
+    this.thresholdNanos = thresholdNanos;
+    this.size = size;
+    this.traces = new ArrayDeque<>(Math.max(size, 0));
+  }
+
+  /**
+   * Add the completed trace if the request was slow.
+   *
+   * @return true if the trace was added.
+   */
+  public boolean add(RequestTrace trace) {
+    if (size <= 0 || trace.getTotalNanos() < thresholdNanos) {
+      return false;
+    }
+    synchronized (traces) {
+      if (traces.size() == size) {
+        traces.removeFirst();
+      }
+      traces.addLast(trace);
+    }
+    return true;
+  }
+
+  /** @return the traces kept, slowest first. */
+  public List<RequestTrace> getSlowest() {
+    List<RequestTrace> result;
+    synchronized (traces) {
+      result = new ArrayList<>(traces);
+    }
+    result.sort(Comparator.comparingLong(RequestTrace::getTotalNanos)
+        .reversed());
+    return result;
+  }
+}
@@ -37,12 +37,14 @@
 import org.apache.hadoop.ozone.client.io.OzoneInputStream;
 import org.apache.hadoop.ozone.client.io.OzoneOutputStream;
 import org.apache.hadoop.ozone.client.protocol.ClientProtocol;
+import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.helpers.DeleteTenantState;
 import org.apache.hadoop.ozone.om.helpers.ErrorInfo;
 import org.apache.hadoop.ozone.om.helpers.LeaseKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUploadCompleteInfo;
 import org.apache.hadoop.ozone.om.helpers.OmVolumeArgs;
@@ -250,6 +252,16 @@ public OzoneOutputStream rewriteKey(String volumeName, String bucketName, String
         .rewriteKey(keyName, size, existingKeyGeneration, replicationConfig, metadata);
   }
 
+  @Override
+  @SuppressWarnings("checkstyle:parameternumber")
+  public void copyKey(String sourceVolumeName, String sourceBucketName,
+      String sourceKeyName, Long sourceGeneration, String volumeName,
+      String bucketName, String keyName, Map<String, String> metadata,
+      Map<String, String> tags) throws IOException {
+    throw new OMException("Server-side copy is not supported",
+        OMException.ResultCodes.NOT_SUPPORTED_OPERATION);
+  }
+
   @Override
   public OzoneOutputStream createKeyIfNotExists(String volumeName,
       String bucketName, String keyName, long size,
@@ -401,6 +413,17 @@ public OzoneOutputStream createMultipartKey(String volumeName,
         partNumber, uploadID);
   }
 
+  @Override
+  @SuppressWarnings("checkstyle:parameternumber")
+  public OmMultipartCommitUploadPartInfo copyMultipartKey(
+      String sourceVolumeName, String sourceBucketName, String sourceKeyName,
+      Long sourceGeneration, String volumeName, String bucketName,
+      String keyName, int partNumber, String uploadID,
+      Map<String, String> metadata) throws IOException {
+    throw new OMException("Server-side copy is not supported",
+        OMException.ResultCodes.NOT_SUPPORTED_OPERATION);
+  }
+
   @Override
   public OmMultipartUploadCompleteInfo completeMultipartUpload(
       String volumeName, String bucketName, String keyName, String uploadID,
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3;
+
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_BUCKET_MAX_QUEUE_TIME;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_DOMAIN_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RequestExecutionFilter}.
+ */
+public class TestRequestExecutionFilter {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testBucketName() {
+    OzoneConfiguration conf = new OzoneConfiguration();
+    conf.set(OZONE_S3G_DOMAIN_NAME, "s3.example.com");
+    RequestExecutionFilter filter = new RequestExecutionFilter(executor, conf);
+
+    assertEquals("bucket",
+        filter.getBucketName(request("localhost", "/bucket/dir/key")));
+    assertEquals("bucket", filter.getBucketName(request("localhost", "/bucket")));
+    assertNull(filter.getBucketName(request("localhost", "/")));
+    assertEquals("bucket",
+        filter.getBucketName(request("bucket.s3.example.com", "/dir/key")));
+  }
+
+  @Test
+  public void testBucketConcurrencyLimit() throws Exception {
+    OzoneConfiguration conf = new OzoneConfiguration();
+    conf.setInt(OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS, 1);
+    conf.set(OZONE_S3G_BUCKET_MAX_QUEUE_TIME, "100ms");
+    RequestExecutionFilter filter = new RequestExecutionFilter(executor, conf);
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AsyncContext slow = dispatch(filter, "/b1/key", (req, resp) -> {
+      started.countDown();
+      await(release);
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    // Same bucket waits for the slow request, then gives up.
+    FilterChain rejectedChain = mock(FilterChain.class);
+    AsyncContext rejected = dispatch(filter, "/b1/other", rejectedChain);
+    verify(rejected, timeout(10_000)).complete();
+    verify((HttpServletResponse) rejected.getResponse())
+        .setStatus(HTTP_UNAVAILABLE);
+    verify(rejectedChain, never()).doFilter(any(), any());
+
+    // Other buckets are not limited.
+    FilterChain otherChain = mock(FilterChain.class);
+    AsyncContext other = dispatch(filter, "/b2/key", otherChain);
+    verify(other, timeout(10_000)).complete();
+    verify(otherChain).doFilter(any(), any());
+
+    release.countDown();
+    verify(slow, timeout(10_000)).complete();
+
+    FilterChain nextChain = mock(FilterChain.class);
+    AsyncContext next = dispatch(filter, "/b1/key", nextChain);
+    verify(next, timeout(10_000)).complete();
+    verify(nextChain).doFilter(any(), any());
+  }
+
+  @Test
+  public void testWaitingRequestsDoNotHoldThreads() throws Exception {
+    OzoneConfiguration conf = new OzoneConfiguration();
+    conf.setInt(OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS, 1);
+    ExecutorService twoThreads = Executors.newFixedThreadPool(2);
+    try {
+      RequestExecutionFilter filter = new RequestExecutionFilter(twoThreads, conf);
+
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      AsyncContext slow = dispatch(filter, "/b1/key", (req, resp) -> {
+        started.countDown();
+        await(release);
+      });
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      // Waits for the slow request of its bucket without taking a thread, ...
+      FilterChain waitingChain = mock(FilterChain.class);
+      AsyncContext waiting = dispatch(filter, "/b1/other", waitingChain);
+
+      // ... so the other bucket gets the second one.
+      FilterChain otherChain = mock(FilterChain.class);
+      AsyncContext other = dispatch(filter, "/b2/key", otherChain);
+      verify(other, timeout(10_000)).complete();
+      verify(otherChain).doFilter(any(), any());
+      verify(waitingChain, never()).doFilter(any(), any());
+
+      release.countDown();
+      verify(slow, timeout(10_000)).complete();
+      verify(waiting, timeout(10_000)).complete();
+      verify(waitingChain).doFilter(any(), any());
+    } finally {
+      twoThreads.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSlowDownIfNoThreadAvailable() throws Exception {
+    OzoneConfiguration conf = new OzoneConfiguration();
+    conf.setInt(OZONE_S3G_BUCKET_MAX_CONCURRENT_REQUESTS, 2);
+    ExecutorService oneThread = new ThreadPoolExecutor(1, 1, 0,
+        TimeUnit.SECONDS, new SynchronousQueue<>());
+    try {
+      RequestExecutionFilter filter = new RequestExecutionFilter(oneThread, conf);
+
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      AsyncContext slow = dispatch(filter, "/b1/key", (req, resp) -> {
+        started.countDown();
+        await(release);
+      });
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      FilterChain rejectedChain = mock(FilterChain.class);
+      AsyncContext rejected = dispatch(filter, "/b1/other", rejectedChain);
+      verify(rejected).complete();
+      verify((HttpServletResponse) rejected.getResponse())
+          .setStatus(HTTP_UNAVAILABLE);
+      verify(rejectedChain, never()).doFilter(any(), any());
+
+      // The rejected request does not keep its slot of the bucket, so the
+      // next one is not left waiting for it.
+      AsyncContext next = dispatch(filter, "/b1/key", mock(FilterChain.class));
+      verify(next).complete();
+      verify((HttpServletResponse) next.getResponse())
+          .setStatus(HTTP_UNAVAILABLE);
+
+      release.countDown();
+      verify(slow, timeout(10_000)).complete();
+    } finally {
+      oneThread.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRequestCompletedOnError() throws Exception {
+    RequestExecutionFilter filter =
+        new RequestExecutionFilter(executor, new OzoneConfiguration());
+
+    AsyncContext failed = dispatch(filter, "/b1/key", (req, resp) -> {
+      throw new IOException("injected");
+    });
+    verify(failed, timeout(10_000)).complete();
+    verify((HttpServletResponse) failed.getResponse())
+        .setStatus(HTTP_INTERNAL_ERROR);
+
+    AsyncContext error = dispatch(filter, "/b1/key", (req, resp) -> {
+      throw new StackOverflowError("injected");
+    });
+    verify(error, timeout(10_000)).complete();
+  }
+
+  private static AsyncContext dispatch(RequestExecutionFilter filter,
+      String uri, FilterChain chain) throws Exception {
+    HttpServletRequest request = request("localhost", uri);
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    when(response.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+    AsyncContext async = mock(AsyncContext.class);
+    when(async.getRequest()).thenReturn(request);
+    when(async.getResponse()).thenReturn(response);
+    when(request.isAsyncSupported()).thenReturn(true);
+    when(request.startAsync(any(ServletRequest.class),
+        any(ServletResponse.class))).thenReturn(async);
+
+    filter.doFilter(request, response, chain);
+    return async;
+  }
+
+  private static HttpServletRequest request(String host, String uri) {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getServerName()).thenReturn(host);
+    when(request.getRequestURI()).thenReturn(uri);
+    when(request.getContextPath()).thenReturn("");
+    return request;
+  }
+
+  private static void await(CountDownLatch latch) throws IOException {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+  }
+}
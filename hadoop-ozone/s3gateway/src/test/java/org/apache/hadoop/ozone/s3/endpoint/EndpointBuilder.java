@@ -45,6 +45,7 @@
   private ContainerRequestContext requestContext;
   private RequestIdentifier identifier;
   private SignatureInfo signatureInfo;
+  private ObjectMetadataCache metadataCache;
 
   protected EndpointBuilder(Supplier<T> constructor) {
     this.constructor = constructor;
@@ -95,6 +96,11 @@ public EndpointBuilder<T> setSignatureInfo(SignatureInfo newSignatureInfo) {
     return this;
   }
 
+  public EndpointBuilder<T> setMetadataCache(ObjectMetadataCache newCache) {
+    this.metadataCache = newCache;
+    return this;
+  }
+
   public T build() {
     T endpoint = base != null ? base : constructor.get();
 
@@ -113,6 +119,7 @@ public T build() {
     endpoint.setHeaders(httpHeaders);
     endpoint.setRequestIdentifier(identifier);
     endpoint.setSignatureInfo(signatureInfo);
+    endpoint.setMetadataCache(metadataCache);
 
     endpoint.initialization();
 
@@ -18,6 +18,7 @@
 package org.apache.hadoop.ozone.s3.endpoint;
 
 import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_LIST_MAX_KEYS_LIMIT;
+import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_LIST_STREAMING_ENABLED;
 import static org.apache.hadoop.ozone.s3.endpoint.EndpointBuilder.newBucketEndpointBuilder;
 import static org.apache.hadoop.ozone.s3.util.S3Consts.ENCODING_TYPE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -27,8 +28,15 @@
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.stream.IntStream;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.parsers.DocumentBuilderFactory;
 import org.apache.hadoop.hdds.conf.OzoneConfiguration;
 import org.apache.hadoop.ozone.client.OzoneBucket;
 import org.apache.hadoop.ozone.client.OzoneClient;
@@ -36,9 +44,12 @@
 import org.apache.hadoop.ozone.s3.commontypes.EncodingTypeObject;
 import org.apache.hadoop.ozone.s3.exception.OS3Exception;
 import org.apache.hadoop.ozone.s3.exception.S3ErrorTable;
+import org.apache.hadoop.ozone.s3.util.S3Consts;
 import org.apache.hadoop.ozone.s3.util.S3Consts.QueryParams;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
 /**
  * Testing basic object list browsing.
@@ -572,6 +583,57 @@ private void assertEncodingTypeObject(
     assertEquals(exceptEncodingType, object.getEncodingType());
   }
 
+  @Test
+  public void listWithStreamingMatchesJaxb() throws Exception {
+    OzoneClient client = createClientWithKeys("dir1/file2", "dir1/dir2/file2",
+        "dir1/dir3/file1", "dir1/file 3", "dir2/file");
+    OzoneConfiguration config = new OzoneConfiguration();
+    config.setBoolean(OZONE_S3G_LIST_STREAMING_ENABLED, true);
+    BucketEndpoint streaming = newBucketEndpointBuilder()
+        .setClient(client).setConfig(config).build();
+    BucketEndpoint jaxb = newBucketEndpointBuilder().setClient(client).build();
+    for (BucketEndpoint endpoint : new BucketEndpoint[] {streaming, jaxb}) {
+      endpoint.queryParamsForTest().set(QueryParams.DELIMITER, "/");
+      endpoint.queryParamsForTest().set(QueryParams.PREFIX, "dir1/");
+      endpoint.queryParamsForTest().setInt(QueryParams.MAX_KEYS, 3);
+      endpoint.queryParamsForTest().set(QueryParams.ENCODING_TYPE, ENCODING_TYPE);
+    }
+
+    ListObjectResponse expected = (ListObjectResponse) jaxb.get("b1").getEntity();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingOutput) streaming.get("b1").getEntity()).write(out);
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    Element root = factory.newDocumentBuilder()
+        .parse(new ByteArrayInputStream(out.toByteArray())).getDocumentElement();
+
+    assertEquals(S3Consts.S3_XML_NAMESPACE, root.getNamespaceURI());
+    assertEquals("ListBucketResult", root.getLocalName());
+    assertEquals(Arrays.asList("dir1/dir2/", "dir1/dir3/"),
+        texts(root, "CommonPrefixes"));
+    assertEquals(Arrays.asList("dir1/file+3"), texts(root, "Key"));
+    assertEquals(expected.getCommonPrefixes().size(),
+        texts(root, "CommonPrefixes").size());
+    assertEquals(expected.getContents().size(), texts(root, "Key").size());
+    assertEquals(String.valueOf(expected.getKeyCount()),
+        texts(root, "KeyCount").get(0));
+    assertEquals("true", texts(root, "IsTruncated").get(0));
+    assertTrue(expected.isTruncated());
+    assertEquals(expected.getNextToken(),
+        texts(root, "NextContinuationToken").get(0));
+    assertEquals(expected.getNextMarker(), texts(root, "NextMarker").get(0));
+  }
+
+  private static List<String> texts(Element root, String name) {
+    NodeList nodes =
+        root.getElementsByTagNameNS(S3Consts.S3_XML_NAMESPACE, name);
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < nodes.getLength(); i++) {
+      texts.add(nodes.item(i).getTextContent());
+    }
+    return texts;
+  }
+
   private OzoneClient createClientWithKeys(String... keys) throws IOException {
     OzoneClient client = new OzoneClientStub();
 
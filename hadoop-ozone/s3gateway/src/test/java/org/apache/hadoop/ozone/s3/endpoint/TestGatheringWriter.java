@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.endpoint;
+
+import static org.apache.hadoop.ozone.s3.endpoint.GatheringWriter.MAX_WRITE_SIZE;
+import static org.apache.hadoop.ozone.s3.endpoint.GatheringWriter.MIN_DIRECT_WRITE_SIZE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link GatheringWriter}.
+ */
+public class TestGatheringWriter {
+
+  private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+  private final List<Integer> writes = new ArrayList<>();
+
+  @Test
+  public void testSmallBuffersGathered() throws IOException {
+    final int bufferSize = 16 << 10;
+    final byte[] data =
+        RandomUtils.secure().randomBytes(2 * MAX_WRITE_SIZE + bufferSize);
+    final GatheringWriter writer = newWriter(data.length);
+    for (int off = 0; off < data.length; off += bufferSize) {
+      writer.accept(ByteBuffer.wrap(data, off, bufferSize));
+    }
+    writer.flush();
+
+    assertEquals(Arrays.asList(MAX_WRITE_SIZE, MAX_WRITE_SIZE, bufferSize),
+        writes);
+    assertArrayEquals(data, written.toByteArray());
+  }
+
+  @Test
+  public void testLargeBuffersWrittenDirectly() throws IOException {
+    final byte[] data =
+        RandomUtils.secure().randomBytes(2 * MIN_DIRECT_WRITE_SIZE + 100);
+    final GatheringWriter writer = newWriter(data.length);
+    writer.accept(ByteBuffer.wrap(data, 0, 100));
+    writer.accept(ByteBuffer.wrap(data, 100, MIN_DIRECT_WRITE_SIZE));
+    writer.accept(
+        ByteBuffer.wrap(data, 100 + MIN_DIRECT_WRITE_SIZE, MIN_DIRECT_WRITE_SIZE));
+    writer.flush();
+    writer.flush();
+
+    assertEquals(
+        Arrays.asList(100, MIN_DIRECT_WRITE_SIZE, MIN_DIRECT_WRITE_SIZE),
+        writes);
+    assertArrayEquals(data, written.toByteArray());
+  }
+
+  private GatheringWriter newWriter(long length) {
+    return new GatheringWriter(buffer -> {
+      writes.add(buffer.remaining());
+      while (buffer.hasRemaining()) {
+        written.write(buffer.get());
+      }
+    }, length);
+  }
+}
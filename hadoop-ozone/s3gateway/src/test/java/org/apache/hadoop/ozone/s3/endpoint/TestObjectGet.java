@@ -17,6 +17,7 @@
 
 package org.apache.hadoop.ozone.s3.endpoint;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.hadoop.ozone.s3.S3GatewayConfigKeys.OZONE_S3G_FSO_DIRECTORY_CREATION_ENABLED;
 import static org.apache.hadoop.ozone.s3.endpoint.EndpointTestUtils.assertErrorResponse;
 import static org.apache.hadoop.ozone.s3.endpoint.EndpointTestUtils.assertSucceeds;
@@ -40,6 +41,7 @@
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -53,6 +55,8 @@
 import org.apache.hadoop.ozone.client.OzoneClientStub;
 import org.apache.hadoop.ozone.client.OzoneClientTestUtils;
 import org.apache.hadoop.ozone.s3.exception.OS3Exception;
+import org.apache.hadoop.ozone.s3.metrics.S3GatewayMetrics;
+import org.apache.hadoop.ozone.s3.signature.SignatureInfo;
 import org.apache.hadoop.ozone.s3.util.RFC1123Util;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -80,6 +84,7 @@ public class TestObjectGet {
   public static final String CONTENT_ENCODING1 = "gzip";
   public static final String CONTENT_ENCODING2 = "compress";
 
+  private OzoneClient client;
   private HttpHeaders headers;
   private ObjectEndpoint rest;
   private OzoneBucket bucket;
@@ -87,7 +92,7 @@ public class TestObjectGet {
   @BeforeEach
   public void init() throws OS3Exception, IOException {
     //GIVEN
-    OzoneClient client = new OzoneClientStub();
+    client = new OzoneClientStub();
     client.getObjectStore().createS3Bucket(BUCKET_NAME);
     bucket = client.getObjectStore().getS3Bucket(BUCKET_NAME);
 
@@ -154,6 +159,39 @@ public void testGetIfNoneMatchReturnsNotModified() throws IOException, OS3Except
         response.getStatus());
   }
 
+  @Test
+  public void testGetNotModifiedFromMetadataCache()
+      throws IOException, OS3Exception {
+    SignatureInfo signatureInfo = mock(SignatureInfo.class);
+    when(signatureInfo.isSignPayload()).thenReturn(true);
+    when(signatureInfo.getAwsAccessId()).thenReturn("access");
+    ObjectEndpoint cachingEndpoint = EndpointBuilder.newObjectEndpointBuilder()
+        .setClient(client)
+        .setHeaders(headers)
+        .setSignatureInfo(signatureInfo)
+        .setMetadataCache(new ObjectMetadataCache(100, 60_000))
+        .build();
+    Response response = get(cachingEndpoint, BUCKET_NAME, KEY_NAME);
+    String eTag = response.getHeaderString(HttpHeaders.ETAG);
+    assertNotNull(eTag);
+
+    // written by another client, the cached metadata still matches
+    try (OutputStream out = bucket.createKey(KEY_NAME, 3)) {
+      out.write("abc".getBytes(UTF_8));
+    }
+    when(headers.getHeaderString(IF_NONE_MATCH_HEADER)).thenReturn(eTag);
+    long hits = S3GatewayMetrics.getMetrics().getMetadataCacheHits();
+    response = get(cachingEndpoint, BUCKET_NAME, KEY_NAME);
+    assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(),
+        response.getStatus());
+    assertEquals(hits + 1, S3GatewayMetrics.getMetrics().getMetadataCacheHits());
+
+    // not cached for other access IDs, read from OM
+    when(signatureInfo.getAwsAccessId()).thenReturn("other");
+    response = get(cachingEndpoint, BUCKET_NAME, KEY_NAME);
+    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+  }
+
   @Test
   public void testGetIfModifiedSinceReturnsNotModified()
       throws IOException, OS3Exception {
@@ -63,10 +63,11 @@ public class TestObjectHead {
   private ObjectEndpoint keyEndpoint;
   private OzoneBucket bucket;
   private HttpHeaders headers;
+  private OzoneClient clientStub;
 
   @BeforeEach
   public void setup() throws IOException {
-    OzoneClient clientStub = new OzoneClientStub();
+    clientStub = new OzoneClientStub();
     clientStub.getObjectStore().createS3Bucket(bucketName);
     bucket = clientStub.getObjectStore().getS3Bucket(bucketName);
     headers = mock(HttpHeaders.class);
@@ -231,6 +232,31 @@ public void testHeadObjectIncludesTagCount()
     assertEquals("2", response.getHeaderString(TAG_COUNT_HEADER));
   }
 
+  @Test
+  public void testHeadFromMetadataCache() throws Exception {
+    ObjectEndpoint cachingEndpoint = EndpointBuilder.newObjectEndpointBuilder()
+        .setClient(clientStub)
+        .setHeaders(headers)
+        .setMetadataCache(new ObjectMetadataCache(100, 60_000))
+        .build();
+    assertSucceeds(() -> put(cachingEndpoint, bucketName, "key1", "a"));
+    Response response = cachingEndpoint.head(bucketName, "key1");
+    assertEquals("1", response.getHeaderString(HttpHeaders.CONTENT_LENGTH));
+
+    // written by another client, the cached metadata is returned until it expires
+    byte[] bytes = createKey("key1");
+    response = cachingEndpoint.head(bucketName, "key1");
+    assertEquals("1", response.getHeaderString(HttpHeaders.CONTENT_LENGTH));
+    response = keyEndpoint.head(bucketName, "key1");
+    assertEquals(String.valueOf(bytes.length),
+        response.getHeaderString(HttpHeaders.CONTENT_LENGTH));
+
+    // written through the gateway, the cached metadata is invalidated
+    assertSucceeds(() -> put(cachingEndpoint, bucketName, "key1", "abc"));
+    response = cachingEndpoint.head(bucketName, "key1");
+    assertEquals("3", response.getHeaderString(HttpHeaders.CONTENT_LENGTH));
+  }
+
   private byte[] createKey(String keyPath) throws IOException {
     byte[] bytes = RandomStringUtils.secure().nextAlphanumeric(32).getBytes(UTF_8);
     try (OutputStream out = bucket.createKey(keyPath, bytes.length)) {
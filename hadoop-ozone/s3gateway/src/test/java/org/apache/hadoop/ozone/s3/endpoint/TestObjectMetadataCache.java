@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.endpoint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.google.common.base.Ticker;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hadoop.hdds.client.RatisReplicationConfig;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
+import org.apache.hadoop.ozone.client.OzoneKey;
+import org.apache.hadoop.ozone.s3.metrics.S3GatewayMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ObjectMetadataCache}.
+ */
+public class TestObjectMetadataCache {
+
+  private static final String BUCKET = "bucket";
+  private static final String KEY = "key";
+  private static final long TTL_MILLIS = 1000;
+
+  private final AtomicLong nanos = new AtomicLong();
+  private ObjectMetadataCache cache;
+  private S3GatewayMetrics metrics;
+
+  @BeforeEach
+  public void setup() {
+    metrics = S3GatewayMetrics.create(new OzoneConfiguration());
+    cache = new ObjectMetadataCache(100, TTL_MILLIS, new Ticker() {
+      @Override
+      public long read() {
+        return nanos.get();
+      }
+    });
+  }
+
+  @Test
+  public void testHitOnlyForAccessIdCheckedByOM() throws Exception {
+    OzoneKey key = newKey(1);
+    cache.load("alice", BUCKET, KEY, () -> key);
+
+    assertEquals(1, cache.getIfPresent("alice", BUCKET, KEY).getDataSize());
+    assertNull(cache.getIfPresent("bob", BUCKET, KEY));
+    assertNull(cache.getIfPresent("alice", BUCKET, "other"));
+
+    // read from OM by another access ID, the entry is shared
+    OzoneKey cached = cache.getIfPresent("alice", BUCKET, KEY);
+    cache.load("bob", BUCKET, KEY, () -> newKey(1));
+    assertSame(cached, cache.getIfPresent("bob", BUCKET, KEY));
+    assertSame(cached, cache.getIfPresent("alice", BUCKET, KEY));
+  }
+
+  @Test
+  public void testAccessIdExpiresAfterTtl() throws Exception {
+    cache.load("alice", BUCKET, KEY, () -> newKey(1));
+    advance(TTL_MILLIS / 2);
+    cache.load("bob", BUCKET, KEY, () -> newKey(1));
+    advance(TTL_MILLIS / 2);
+
+    // reloading the same version for bob does not extend alice's access
+    assertNull(cache.getIfPresent("alice", BUCKET, KEY));
+    assertEquals(1, cache.getIfPresent("bob", BUCKET, KEY).getDataSize());
+
+    advance(TTL_MILLIS / 2);
+    assertNull(cache.getIfPresent("bob", BUCKET, KEY));
+  }
+
+  @Test
+  public void testNewVersionReplacesEntry() throws Exception {
+    cache.load("alice", BUCKET, KEY, () -> newKey(1));
+    cache.load("bob", BUCKET, KEY, () -> newKey(2));
+
+    assertEquals(2, cache.getIfPresent("bob", BUCKET, KEY).getDataSize());
+    // alice was only allowed to read the previous version
+    assertNull(cache.getIfPresent("alice", BUCKET, KEY));
+  }
+
+  @Test
+  public void testInvalidateWhileLoading() throws Exception {
+    cache.load("alice", BUCKET, KEY, () -> {
+      cache.invalidate(BUCKET, KEY);
+      return newKey(1);
+    });
+    assertNull(cache.getIfPresent("alice", BUCKET, KEY));
+
+    // invalidating another key does not affect the load
+    cache.load("alice", BUCKET, KEY, () -> {
+      cache.invalidate(BUCKET, "other");
+      return newKey(1);
+    });
+    assertEquals(1, cache.getIfPresent("alice", BUCKET, KEY).getDataSize());
+
+    cache.invalidate(BUCKET, KEY);
+    assertNull(cache.getIfPresent("alice", BUCKET, KEY));
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    long hits = metrics.getMetadataCacheHits();
+    long misses = metrics.getMetadataCacheMisses();
+
+    assertEquals(1, cache.get("alice", BUCKET, KEY, () -> newKey(1))
+        .getDataSize());
+    assertEquals(1, cache.get("alice", BUCKET, KEY, () -> newKey(2))
+        .getDataSize());
+    assertNull(cache.getIfPresent("bob", BUCKET, KEY));
+
+    assertEquals(hits + 1, metrics.getMetadataCacheHits());
+    assertEquals(misses + 2, metrics.getMetadataCacheMisses());
+  }
+
+  private void advance(long millis) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  private static OzoneKey newKey(long size) {
+    return new OzoneKey("s3v", BUCKET, KEY, size, 0, size,
+        RatisReplicationConfig.getInstance(HddsProtos.ReplicationFactor.ONE),
+        Collections.emptyMap(), true, "owner", Collections.emptyMap());
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.s3.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.ozone.client.io.OzoneInputStream;
+import org.apache.hadoop.ozone.client.protocol.ClientProtocol;
+import org.apache.hadoop.ozone.om.protocol.S3Auth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ParallelRangeReader}.
+ */
+public class TestParallelRangeReader {
+
+  private final byte[] data = new byte[1000];
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  @AfterEach
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testCopyInOrder() throws IOException {
+    ThreadLocalRandom.current().nextBytes(data);
+    AtomicInteger opened = new AtomicInteger();
+    ParallelRangeReader reader = new ParallelRangeReader(null, () -> {
+      opened.incrementAndGet();
+      return new OzoneInputStream(new SeekableInputStream(data));
+    }, 64, 3, executor);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(900, reader.copy(50, 900, out));
+    assertArrayEquals(Arrays.copyOfRange(data, 50, 950), out.toByteArray());
+    // one stream per range
+    assertEquals(15, opened.get());
+  }
+
+  @Test
+  public void testReadFailure() {
+    AtomicInteger opened = new AtomicInteger();
+    ParallelRangeReader reader = new ParallelRangeReader(null, () -> {
+      if (opened.incrementAndGet() == 2) {
+        throw new IOException("datanode failure");
+      }
+      return new OzoneInputStream(new SeekableInputStream(data));
+    }, 64, 3, executor);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    IOException e = assertThrows(IOException.class,
+        () -> reader.copy(0, data.length, out));
+    assertEquals("datanode failure", e.getMessage());
+    assertThat(out.size()).isLessThanOrEqualTo(64);
+  }
+
+  @Test
+  public void testRangesReadWithS3AuthOfRequest() throws Exception {
+    ThreadLocal<S3Auth> threadAuth = new ThreadLocal<>();
+    ClientProtocol client = mock(ClientProtocol.class);
+    when(client.getThreadLocalS3Auth()).thenAnswer(i -> threadAuth.get());
+    doAnswer(i -> {
+      threadAuth.set(i.getArgument(0));
+      return null;
+    }).when(client).setThreadLocalS3Auth(any());
+    doAnswer(i -> {
+      threadAuth.remove();
+      return null;
+    }).when(client).clearThreadLocalS3Auth();
+
+    List<S3Auth> rangeAuths = new CopyOnWriteArrayList<>();
+    ParallelRangeReader reader = new ParallelRangeReader(client, () -> {
+      rangeAuths.add(threadAuth.get());
+      return new OzoneInputStream(new SeekableInputStream(data));
+    }, 100, 2, executor);
+
+    S3Auth auth = new S3Auth("string-to-sign", "signature", "access", "user");
+    threadAuth.set(auth);
+    reader.copy(0, data.length, new ByteArrayOutputStream());
+
+    assertEquals(10, rangeAuths.size());
+    for (S3Auth rangeAuth : rangeAuths) {
+      assertSame(auth, rangeAuth);
+    }
+    // threads of the executor do not keep the credentials of the request
+    for (int i = 0; i < 2; i++) {
+      assertNull(executor.submit(threadAuth::get).get());
+    }
+  }
+
+  @Test
+  public void testInvalidConfigRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ParallelRangeReader(null, () -> null, 64, 0, executor));
+    assertThrows(IllegalArgumentException.class,
+        () -> new ParallelRangeReader(null, () -> null, 0, 3, executor));
+  }
+
+  /** In-memory stream of the key, seekable like the stream of a real key. */
+  private static class SeekableInputStream extends ByteArrayInputStream
+      implements Seekable {
+
+    SeekableInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public synchronized void seek(long pos) {
+      this.pos = (int) pos;
+    }
+
+    @Override
+    public synchronized long getPos() {
+      return pos;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+      return false;
+    }
+  }
+}
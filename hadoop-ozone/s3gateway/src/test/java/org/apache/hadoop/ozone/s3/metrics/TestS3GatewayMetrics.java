@@ -40,16 +40,21 @@
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
 import org.apache.hadoop.metrics2.impl.MetricsCollectorImpl;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.client.OzoneBucket;
@@ -349,6 +354,46 @@ public void testGetKeySuccess() throws Exception {
     assertEquals(1L, curMetric - oriMetric);
   }
 
+  @Test
+  public void testGetKeyRequestTrace() throws Exception {
+    assertSucceeds(() -> put(keyEndpoint, bucketName, keyName, CONTENT));
+
+    RequestTrace trace = new RequestTrace("GET", "/" + bucketName + "/" + keyName);
+    ContainerRequestContext context = mock(ContainerRequestContext.class);
+    UriInfo uriInfo = mock(UriInfo.class);
+    when(context.getUriInfo()).thenReturn(uriInfo);
+    when(uriInfo.getQueryParameters()).thenReturn(new MultivaluedHashMap<>());
+    when(uriInfo.getPathParameters()).thenReturn(new MultivaluedHashMap<>());
+    when(context.getProperty(RequestTrace.PROPERTY)).thenReturn(trace);
+    ObjectEndpoint tracedEndpoint = EndpointBuilder.newObjectEndpointBuilder()
+        .setClient(clientStub)
+        .setHeaders(headers)
+        .setContext(context)
+        .build();
+
+    Response response = get(tracedEndpoint, bucketName, keyName);
+    StreamingOutput stream = (StreamingOutput) response.getEntity();
+    stream.write(new ByteArrayOutputStream());
+    trace.complete();
+
+    assertEquals("GET_KEY", trace.getAction());
+    long metadataNanos = trace.getPhaseNanos(RequestTrace.Phase.METADATA);
+    long dataNanos = trace.getPhaseNanos(RequestTrace.Phase.DATA);
+    assertThat(metadataNanos).isPositive();
+    assertThat(dataNanos).isPositive();
+    assertThat(trace.getTotalNanos())
+        .isGreaterThanOrEqualTo(metadataNanos + dataNanos);
+
+    // only requests over the threshold are kept, up to the size of the log
+    assertFalse(new SlowRequestLog(Long.MAX_VALUE, 10).add(trace));
+    SlowRequestLog slowRequests = new SlowRequestLog(0, 1);
+    RequestTrace other = new RequestTrace("HEAD", "/" + bucketName);
+    other.complete();
+    assertTrue(slowRequests.add(trace));
+    assertTrue(slowRequests.add(other));
+    assertThat(slowRequests.getSlowest()).containsExactly(other);
+  }
+
   @Test
   public void testGetKeyFailure() {
     long oriMetric = metrics.getGetKeyFailure();
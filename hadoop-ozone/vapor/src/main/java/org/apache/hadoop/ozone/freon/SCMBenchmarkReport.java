@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.freon;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hadoop.ozone.util.OzoneVersionInfo;
+
+/**
+ * Machine-readable result of an {@link SCMThroughputBenchmark} run.
+ * <p>
+ * The report contains one entry per scenario with the operation counts,
+ * throughput, latency percentiles (in microseconds) and the resource usage
+ * samples of SCM, so that runs on different releases can be compared.
+ */
+final class SCMBenchmarkReport {
+
+  private final Map<String, Object> report = new LinkedHashMap<>();
+  private final List<Map<String, Object>> scenarios = new ArrayList<>();
+
+  SCMBenchmarkReport(Map<String, Object> parameters) {
+    report.put("version", OzoneVersionInfo.OZONE_VERSION_INFO.getVersion());
+    report.put("revision", OzoneVersionInfo.OZONE_VERSION_INFO.getRevision());
+    report.put("timestamp", System.currentTimeMillis());
+    report.put("parameters", parameters);
+    report.put("scenarios", scenarios);
+  }
+
+  /**
+   * Add the result of a scenario.
+   *
+   * @param name name of the scenario
+   * @param succeeded number of successful operations
+   * @param failed number of failed operations
+   * @param execTimeNanos execution time of the scenario
+   * @param latencyMicros latencies of the operations
+   * @param extra scenario specific values
+   * @param resourceSamples SCM resource usage samples
+   */
+  @SuppressWarnings("checkstyle:ParameterNumber")
+  void addScenario(String name, long succeeded, long failed,
+      long execTimeNanos, Histogram latencyMicros, Map<String, Object> extra,
+      List<Map<String, Object>> resourceSamples) {
+    Map<String, Object> scenario = new LinkedHashMap<>();
+    scenario.put("name", name);
+    scenario.put("succeeded", succeeded);
+    scenario.put("failed", failed);
+    scenario.put("executionMillis", execTimeNanos / 1_000_000);
+    scenario.put("throughputOpsPerSec", execTimeNanos > 0
+        ? succeeded * 1_000_000_000.0 / execTimeNanos : 0);
+    scenario.put("latencyMicros", summarize(latencyMicros));
+    scenario.putAll(extra);
+    scenario.put("scmResources", resourceSamples);
+    scenarios.add(scenario);
+  }
+
+  void write(File file) throws IOException {
+    new ObjectMapper().writerWithDefaultPrettyPrinter()
+        .writeValue(file, report);
+  }
+
+  private static Map<String, Object> summarize(Histogram histogram) {
+    Snapshot snapshot = histogram.getSnapshot();
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("count", histogram.getCount());
+    summary.put("min", snapshot.getMin());
+    summary.put("mean", snapshot.getMean());
+    summary.put("p50", snapshot.getMedian());
+    summary.put("p75", snapshot.get75thPercentile());
+    summary.put("p90", snapshot.getValue(0.90));
+    summary.put("p95", snapshot.get95thPercentile());
+    summary.put("p99", snapshot.get99thPercentile());
+    summary.put("p999", snapshot.get999thPercentile());
+    summary.put("max", snapshot.getMax());
+    return summary;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.freon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically samples the CPU load and heap usage of the SCM process from
+ * its /jmx endpoint, while a benchmark scenario is running.
+ */
+final class SCMResourceSampler {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(SCMResourceSampler.class);
+
+  private static final String OS_BEAN = "java.lang:type=OperatingSystem";
+  private static final String MEMORY_BEAN = "java.lang:type=Memory";
+  private static final String GC_BEANS = "java.lang:type=GarbageCollector,*";
+
+  private final String scmHttpAddress;
+  private final long intervalMillis;
+  private final CloseableHttpClient client = HttpClientBuilder.create().build();
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final List<Map<String, Object>> samples = new ArrayList<>();
+  private ScheduledExecutorService executor;
+  private long startTime;
+
+  /**
+   * @param scmHttpAddress base address of the SCM http server,
+   *                       like http://host:port
+   * @param intervalMillis sampling interval, zero or negative disables
+   *                       the sampling.
+   */
+  SCMResourceSampler(String scmHttpAddress, long intervalMillis) {
+    this.scmHttpAddress = scmHttpAddress;
+    this.intervalMillis = intervalMillis;
+  }
+
+  void start() {
+    startTime = System.currentTimeMillis();
+    if (intervalMillis <= 0) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "SCMResourceSampler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleAtFixedRate(this::sample, 0, intervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop sampling after a last sample, and release the http client.
+   */
+  void stop() throws InterruptedException {
+    try {
+      if (executor != null) {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+      }
+      sample();
+    } finally {
+      IOUtils.closeQuietly(client);
+    }
+  }
+
+  synchronized List<Map<String, Object>> getSamples() {
+    return new ArrayList<>(samples);
+  }
+
+  private void sample() {
+    try {
+      Map<String, Object> sample = new LinkedHashMap<>();
+      sample.put("elapsedMillis", System.currentTimeMillis() - startTime);
+
+      JsonNode os = queryBeans(OS_BEAN).path(0);
+      sample.put("processCpuLoad", os.path("ProcessCpuLoad").asDouble(-1));
+      sample.put("systemLoadAverage",
+          os.path("SystemLoadAverage").asDouble(-1));
+
+      JsonNode heap = queryBeans(MEMORY_BEAN).path(0).path("HeapMemoryUsage");
+      sample.put("heapUsedBytes", heap.path("used").asLong(-1));
+      sample.put("heapCommittedBytes", heap.path("committed").asLong(-1));
+
+      long gcCount = 0;
+      long gcTimeMillis = 0;
+      for (JsonNode gc : queryBeans(GC_BEANS)) {
+        gcCount += gc.path("CollectionCount").asLong(0);
+        gcTimeMillis += gc.path("CollectionTime").asLong(0);
+      }
+      sample.put("gcCount", gcCount);
+      sample.put("gcTimeMillis", gcTimeMillis);
+
+      synchronized (this) {
+        samples.add(sample);
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to sample SCM resource usage from {}",
+          scmHttpAddress, e);
+    }
+  }
+
+  private JsonNode queryBeans(String query) throws IOException {
+    HttpGet get = new HttpGet(scmHttpAddress + "/jmx?qry=" + query);
+    HttpResponse response = client.execute(get);
+    try (InputStream in = response.getEntity().getContent()) {
+      if (response.getStatusLine().getStatusCode() != 200) {
+        throw new IOException("Can't read jmx endpoint: "
+            + response.getStatusLine().getStatusCode());
+      }
+      return mapper.readTree(in).path("beans");
+    }
+  }
+}
@@ -22,33 +22,49 @@
 import static org.apache.hadoop.hdds.utils.HddsServerUtil.getScmRpcRetryCount;
 import static org.apache.hadoop.hdds.utils.HddsServerUtil.getScmRpcRetryInterval;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hdds.HddsConfigKeys;
 import org.apache.hadoop.hdds.cli.HddsVersionProvider;
 import org.apache.hadoop.hdds.client.RatisReplicationConfig;
 import org.apache.hadoop.hdds.client.ReplicationConfig;
 import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.conf.TimeDurationUtil;
 import org.apache.hadoop.hdds.protocol.DatanodeDetails;
 import org.apache.hadoop.hdds.protocol.DatanodeID;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos.StorageTypeProto;
@@ -60,14 +76,19 @@
 import org.apache.hadoop.hdds.protocol.proto.StorageContainerDatanodeProtocolProtos.SCMHeartbeatRequestProto;
 import org.apache.hadoop.hdds.protocol.proto.StorageContainerDatanodeProtocolProtos.SCMRegisteredResponseProto;
 import org.apache.hadoop.hdds.protocol.proto.StorageContainerDatanodeProtocolProtos.StorageReportProto;
+import org.apache.hadoop.hdds.protocol.proto.StorageContainerLocationProtocolProtos.ContainerBalancerStatusInfoResponseProto;
+import org.apache.hadoop.hdds.protocol.proto.StorageContainerLocationProtocolProtos.StartContainerBalancerResponseProto;
 import org.apache.hadoop.hdds.scm.ScmConfigKeys;
+import org.apache.hadoop.hdds.scm.container.ContainerHealthState;
 import org.apache.hadoop.hdds.scm.container.ContainerInfo;
+import org.apache.hadoop.hdds.scm.container.ReplicationManagerReport;
 import org.apache.hadoop.hdds.scm.container.common.helpers.ContainerWithPipeline;
 import org.apache.hadoop.hdds.scm.container.common.helpers.ExcludeList;
 import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
 import org.apache.hadoop.hdds.scm.protocol.ScmBlockLocationProtocol;
 import org.apache.hadoop.hdds.scm.protocol.StorageContainerLocationProtocol;
 import org.apache.hadoop.hdds.scm.proxy.SCMClientConfig;
+import org.apache.hadoop.hdds.scm.server.StorageContainerManager;
 import org.apache.hadoop.hdds.utils.HAUtils;
 import org.apache.hadoop.hdds.utils.LegacyHadoopConfigurationSource;
 import org.apache.hadoop.io.retry.RetryPolicy;
@@ -75,12 +96,14 @@
 import org.apache.hadoop.ipc_.ProtobufRpcEngine;
 import org.apache.hadoop.ipc_.RPC;
 import org.apache.hadoop.net.NetUtils;
+import org.apache.hadoop.ozone.ClientVersion;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.container.upgrade.UpgradeUtils;
 import org.apache.hadoop.ozone.protocol.StorageContainerDatanodeProtocol;
 import org.apache.hadoop.ozone.protocolPB.StorageContainerDatanodeProtocolClientSideTranslatorPB;
 import org.apache.hadoop.ozone.protocolPB.StorageContainerDatanodeProtocolPB;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hadoop.security.authentication.client.AuthenticationException;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
@@ -95,13 +118,24 @@
  * - allocate blocks (ops)
  * - allocate containers (ops)
  * - process reports(container reports only) (ops)
+ * - heartbeats carrying node and full container reports (ops)
+ * - mass datanode death, until ReplicationManager notices it
+ * - container balancer planning
+ *
+ * Several benchmarks can be run as one suite against the same cluster, in
+ * the given order. The latency percentiles and the CPU and heap usage of SCM
+ * of each benchmark can be written to a JSON report with --report-file. With
+ * --in-process an SCM is started in the benchmark process, so the results of
+ * different releases can be compared on a single box.
  *
  * Remember to add the following configs to your ozone-site.xml:
  * - ozone.scm.heartbeat.thread.interval: 1h
  * - hdds.heartbeat.interval: 1h
  * - ozone.scm.stale.node.interval: 1d
  * - ozone.scm.dead.node.interval: 2d
- * These make the faked datanodes long live.
+ * These make the faked datanodes long live. The DeadNodes benchmark needs
+ * short stale and dead node intervals instead, the live faked datanodes
+ * heartbeat every --heartbeat-interval during that benchmark.
  */
 @CommandLine.Command(name = "scm-throughput-benchmark",
     aliases = "stb",
@@ -120,8 +154,9 @@ public final class SCMThroughputBenchmark implements Callable<Void>, VaporSubcom
   private Freon freon;
 
   @CommandLine.Option(names = {"--benchmark"},
-      description = "Which type of benchmark to run " +
-          "(AllocateBlocks, AllocateContainers, ProcessReports).",
+      description = "Comma separated list of the benchmarks to run in the " +
+          "given order (AllocateBlocks, AllocateContainers, ProcessReports, " +
+          "Heartbeats, DeadNodes, BalancerPlanning).",
       required = true,
       defaultValue = "")
   private String benchmarkType = "";
@@ -156,8 +191,42 @@ public final class SCMThroughputBenchmark implements Callable<Void>, VaporSubcom
       defaultValue = "4")
   private int numHeartbeats = 4;
 
+  @CommandLine.Option(names = {"--dead-nodes"},
+      description = "Percentage of the fake datanodes to stop " +
+          "heartbeating in the DeadNodes benchmark.",
+      defaultValue = "10")
+  private int deadNodesPercentage = 10;
+
+  @CommandLine.Option(names = {"--heartbeat-interval"},
+      description = "Heartbeat interval of the live fake datanodes in " +
+          "the DeadNodes benchmark.",
+      defaultValue = "30s")
+  private String heartbeatInterval = "30s";
+
+  @CommandLine.Option(names = {"--scenario-timeout"},
+      description = "Max time to wait for SCM to react in the DeadNodes " +
+          "and BalancerPlanning benchmarks.",
+      defaultValue = "30m")
+  private String scenarioTimeout = "30m";
+
+  @CommandLine.Option(names = {"--report-file"},
+      description = "Write the results of the benchmarks as JSON to this " +
+          "file.")
+  private File reportFile;
+
+  @CommandLine.Option(names = {"--resource-sample-interval"},
+      description = "Interval of sampling the CPU and heap usage of SCM, " +
+          "0 disables sampling.",
+      defaultValue = "1s")
+  private String resourceSampleInterval = "1s";
+
+  @CommandLine.Option(names = {"--in-process"},
+      description = "Start an SCM in the benchmark process instead of " +
+          "connecting to --scm-host. ozone.metadata.dirs defaults to a " +
+          "temporary directory.")
+  private boolean inProcess;
+
   @CommandLine.Option(names = {"--scmHost", "--scm-host"},
-      required = true,
       description = "The leader scm host x.x.x.x.")
   private String scm;
 
@@ -166,6 +235,8 @@ public final class SCMThroughputBenchmark implements Callable<Void>, VaporSubcom
 
   static final int CHECK_INTERVAL_MILLIS = 5000;
 
+  private static final int LATENCY_RESERVOIR_SIZE = 1 << 16;
+
   private static final Random RANDOM = new Random();
 
   private OzoneConfiguration conf;
@@ -178,20 +249,111 @@ public final class SCMThroughputBenchmark implements Callable<Void>, VaporSubcom
 
   private ScmBlockLocationProtocol scmBlockClient;
 
+  private StorageContainerManager inProcessScm;
+
   @Override
   public Void call() throws Exception {
     conf = freon.getOzoneConf();
+    if (inProcess) {
+      startInProcessScm();
+    } else if (scm == null) {
+      throw new IllegalArgumentException(
+          "Either --scm-host or --in-process is required.");
+    }
 
-    ThroughputBenchmark benchmark = createBenchmark();
-    initCluster(benchmark);
-    benchmark.run();
+    try {
+      List<ThroughputBenchmark> benchmarks = new ArrayList<>();
+      for (String type : benchmarkType.split(",")) {
+        benchmarks.add(createBenchmark(type.trim()));
+      }
+      initCluster(benchmarks);
+
+      SCMBenchmarkReport report = new SCMBenchmarkReport(getParameters());
+      long sampleInterval = TimeDurationUtil.getTimeDurationHelper(
+          "--resource-sample-interval", resourceSampleInterval,
+          TimeUnit.MILLISECONDS);
+      for (ThroughputBenchmark benchmark : benchmarks) {
+        SCMResourceSampler sampler =
+            new SCMResourceSampler(getScmHttpAddress(), sampleInterval);
+        sampler.start();
+        try {
+          benchmark.run();
+        } finally {
+          sampler.stop();
+        }
+        benchmark.addTo(report, sampler.getSamples());
+      }
+
+      if (reportFile != null) {
+        report.write(reportFile);
+        LOG.info("Benchmark report is written to {}", reportFile);
+      }
+    } finally {
+      stopInProcessScm();
+    }
 
     return null;
   }
 
-  private ThroughputBenchmark createBenchmark() {
+  private Map<String, Object> getParameters() {
+    Map<String, Object> parameters = new LinkedHashMap<>();
+    parameters.put("benchmark", benchmarkType);
+    parameters.put("numBlocks", numBlocks);
+    parameters.put("blockSize", blockSize);
+    parameters.put("numContainers", numContainers);
+    parameters.put("numDatanodes", numDatanodes);
+    parameters.put("numThreads", numThreads);
+    parameters.put("numHeartbeats", numHeartbeats);
+    parameters.put("deadNodesPercentage", deadNodesPercentage);
+    parameters.put("inProcess", inProcess);
+    return parameters;
+  }
+
+  /**
+   * Start a single SCM in this process, it is initialized on first use.
+   */
+  private void startInProcessScm() throws IOException,
+      AuthenticationException {
+    if (conf.get(HddsConfigKeys.OZONE_METADATA_DIRS) == null) {
+      Path metadataDir = Files.createTempDirectory("scm-benchmark");
+      conf.set(HddsConfigKeys.OZONE_METADATA_DIRS, metadataDir.toString());
+    }
+    conf.setIfUnset(ScmConfigKeys.OZONE_SCM_NAMES, "localhost");
+    if (!StorageContainerManager.scmInit(conf, null)) {
+      throw new IOException("SCM initialization failed");
+    }
+    inProcessScm = StorageContainerManager.createSCM(conf);
+    inProcessScm.start();
+    scm = "localhost";
+    LOG.info("Started in-process SCM");
+  }
+
+  private void stopInProcessScm() {
+    if (inProcessScm != null) {
+      inProcessScm.stop();
+      inProcessScm.join();
+      inProcessScm = null;
+    }
+  }
+
+  /**
+   * @return the configured ozone.scm.http-address, with the host given by
+   * --scm-host if it is a wildcard address.
+   */
+  private String getScmHttpAddress() {
+    final InetSocketAddress address = NetUtils.createSocketAddr(
+        conf.getTrimmed(ScmConfigKeys.OZONE_SCM_HTTP_ADDRESS_KEY,
+            scm + ":" + ScmConfigKeys.OZONE_SCM_HTTP_BIND_PORT_DEFAULT),
+        ScmConfigKeys.OZONE_SCM_HTTP_BIND_PORT_DEFAULT);
+    final String host = address.getAddress() != null
+        && address.getAddress().isAnyLocalAddress()
+        ? scm : address.getHostString();
+    return String.format("http://%s:%d", host, address.getPort());
+  }
+
+  private ThroughputBenchmark createBenchmark(String benchmarkName) {
     ThroughputBenchmark benchmark = null;
-    BenchmarkType type = BenchmarkType.valueOf(benchmarkType);
+    BenchmarkType type = BenchmarkType.valueOf(benchmarkName);
     switch (type) {
     case AllocateBlocks:
       benchmark = new BlockBenchmark(numThreads, numBlocks, blockSize);
@@ -203,24 +365,34 @@ private ThroughputBenchmark createBenchmark() {
       benchmark = new ReportBenchmark(numDatanodes, numContainers,
           numHeartbeats);
       break;
+    case Heartbeats:
+      benchmark = new HeartbeatBenchmark(numThreads, numContainers,
+          numHeartbeats);
+      break;
+    case DeadNodes:
+      benchmark = new DeadNodeBenchmark(numContainers, deadNodesPercentage);
+      break;
+    case BalancerPlanning:
+      benchmark = new BalancerPlanningBenchmark();
+      break;
     default:
-      throw new IllegalArgumentException(benchmarkType +
+      throw new IllegalArgumentException(benchmarkName +
           " is not a valid benchmarkType.");
     }
 
-    LOG.info("Run benchmark: {}", type);
+    LOG.info("Benchmark to run: {}", type);
 
     return benchmark;
   }
 
-  private void initCluster(ThroughputBenchmark benchmark)
+  private void initCluster(List<ThroughputBenchmark> benchmarks)
       throws IOException, InterruptedException, IllegalArgumentException {
 
     initSCMClients();
 
     registerFakeDatanodes();
 
-    if (benchmark.requiresPipelines()) {
+    if (benchmarks.stream().anyMatch(ThroughputBenchmark::requiresPipelines)) {
       activatePipelines();
     }
 
@@ -348,6 +520,9 @@ private abstract class ThroughputBenchmark {
     private int numThreads;
     private Queue<Runnable> taskQueue;
     private ExecutorService executor;
+    private final Histogram latencyMicros =
+        new Histogram(new UniformReservoir(LATENCY_RESERVOIR_SIZE));
+    private final Map<String, Object> extraResults = new LinkedHashMap<>();
 
     ThroughputBenchmark(int threads) {
       this.numThreads = threads;
@@ -355,6 +530,40 @@ private abstract class ThroughputBenchmark {
       this.executor = Executors.newFixedThreadPool(this.numThreads);
     }
 
+    /**
+     * Add the results of the benchmark to the report.
+     */
+    public void addTo(SCMBenchmarkReport report,
+        List<Map<String, Object>> resourceSamples) {
+      report.addScenario(getClass().getSimpleName(), getSucceeded(),
+          getFailed(), getExecTime(), latencyMicros, extraResults,
+          resourceSamples);
+    }
+
+    protected abstract long getSucceeded();
+
+    protected abstract long getFailed();
+
+    /**
+     * Record the latency of an operation started at the given
+     * {@link System#nanoTime()}.
+     */
+    protected void recordLatency(long startNanos) {
+      latencyMicros.update(
+          TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    protected void addExtraResult(String key, Object value) {
+      extraResults.put(key, value);
+    }
+
+    protected void printLatency() {
+      Snapshot snapshot = latencyMicros.getSnapshot();
+      System.out.printf("Latency (us): p50=%.0f p90=%.0f p99=%.0f max=%d%n",
+          snapshot.getMedian(), snapshot.getValue(0.90),
+          snapshot.get99thPercentile(), snapshot.getMax());
+    }
+
     public void run() throws InterruptedException {
       prepare();
 
@@ -476,6 +685,7 @@ public void showSummary() {
           failBlockCounter.get());
       System.out.printf("Execution Time: %s%n", getFormattedTime());
       System.out.printf("Throughput: %f (ops)%n", blocksPerSec);
+      printLatency();
       System.out.println("***************************************");
     }
 
@@ -488,9 +698,21 @@ public void waitForComplete() throws InterruptedException {
       }
     }
 
+    @Override
+    protected long getSucceeded() {
+      return succBlockCounter.get();
+    }
+
+    @Override
+    protected long getFailed() {
+      return failBlockCounter.get();
+    }
+
     private void doAllocateBlock(long size, ReplicationConfig config) {
       try {
+        long start = System.nanoTime();
         scmBlockClient.allocateBlock(size, 1, config, "STB", excludeList);
+        recordLatency(start);
         succBlockCounter.incrementAndGet();
       } catch (IOException e) {
         LOG.error("Failed to allocate block", e);
@@ -562,6 +784,7 @@ public void showSummary() {
           failContainerCounter.get());
       System.out.printf("Execution Time: %s%n", getFormattedTime());
       System.out.printf("Throughput: %f (ops)%n", containersPerSec);
+      printLatency();
       System.out.println("***************************************");
     }
 
@@ -574,10 +797,22 @@ public void waitForComplete() throws InterruptedException {
       }
     }
 
+    @Override
+    protected long getSucceeded() {
+      return succContainerCounter.get();
+    }
+
+    @Override
+    protected long getFailed() {
+      return failContainerCounter.get();
+    }
+
     private void doAllocateContainer(ReplicationFactor factor) {
       try {
+        long start = System.nanoTime();
         scmContainerClient.allocateContainer(
             ReplicationType.RATIS, factor, "STB");
+        recordLatency(start);
         succContainerCounter.incrementAndGet();
       } catch (IOException e) {
         LOG.error("{}", e);
@@ -698,6 +933,7 @@ public void showSummary() {
       System.out.printf("Containers per report: %d%n", containersPerReport);
       System.out.printf("Execution Time: %s%n", getFormattedTime());
       System.out.printf("Throughput: %f (ops)%n", reportsPerSec);
+      printLatency();
       System.out.println("***************************************");
     }
 
@@ -711,6 +947,16 @@ public void waitForComplete() throws InterruptedException {
       }
     }
 
+    @Override
+    protected long getSucceeded() {
+      return succReportsProcessed;
+    }
+
+    @Override
+    protected long getFailed() {
+      return failReportsProcessed;
+    }
+
     private void getScmReportProcessed() {
       List<String> metricsLines = getScmReportProcessedMetricsLines();
       for (String line : metricsLines) {
@@ -730,8 +976,7 @@ private void getScmReportProcessed() {
 
     private List<String> getScmReportProcessedMetricsLines() {
       HttpClient client = HttpClientBuilder.create().build();
-      String uri = String.format("http://%s:%d/prom", scm,
-          ScmConfigKeys.OZONE_SCM_HTTP_BIND_PORT_DEFAULT);
+      String uri = getScmHttpAddress() + "/prom";
       HttpGet get = new HttpGet(uri);
       try {
         HttpResponse execute = client.execute(get);
@@ -769,7 +1014,9 @@ private class ReportTask implements Runnable {
       public void run() {
         for (int i = 0; i < rounds; i++) {
           try {
+            long start = System.nanoTime();
             datanode.sendHeartbeat();
+            recordLatency(start);
             succReportSendCounter.incrementAndGet();
           } catch (IOException | TimeoutException e) {
             LOG.error("{}", e);
@@ -780,6 +1027,411 @@ public void run() {
     }
   }
 
+  /**
+   * Allocates RATIS/ONE containers and builds the container reports of the
+   * fake datanodes, each container is reported by the datanode of its
+   * pipeline.
+   */
+  private int prepareContainerReports(int count) {
+    Map<DatanodeID, List<ContainerInfo>> containersByNode = new HashMap<>();
+    int allocated = 0;
+    for (int i = 0; i < count; i++) {
+      try {
+        ContainerWithPipeline container = scmContainerClient
+            .allocateContainer(ReplicationType.RATIS, ReplicationFactor.ONE,
+                "STB");
+        containersByNode.computeIfAbsent(
+            container.getPipeline().getFirstNode().getID(),
+            k -> new ArrayList<>()).add(container.getContainerInfo());
+        allocated++;
+      } catch (IOException e) {
+        LOG.error("Failed to allocate container", e);
+      }
+    }
+    for (FakeDatanode dn : datanodes) {
+      dn.buildContainerReports(containersByNode.getOrDefault(
+          dn.getDatanodeDetails().getID(), Collections.emptyList()));
+    }
+    LOG.info("Allocated containers: {}", allocated);
+    return allocated;
+  }
+
+  /**
+   * Benchmarks the latency and throughput of heartbeats which carry a node
+   * report and a full container report, like the heartbeats of a large
+   * cluster after an SCM restart.
+   */
+  private class HeartbeatBenchmark extends ThroughputBenchmark {
+
+    private final AtomicLong succHeartbeatCounter = new AtomicLong();
+    private final AtomicLong failHeartbeatCounter = new AtomicLong();
+    private final int containers;
+    private final int rounds;
+
+    HeartbeatBenchmark(int threads, int containers, int rounds) {
+      super(threads);
+      this.containers = containers;
+      this.rounds = rounds;
+    }
+
+    @Override
+    public void prepare() {
+      addExtraResult("containers", prepareContainerReports(containers));
+      datanodes.forEach(dn -> dn.setNodeReport(
+          createNodeReport(dn.getDatanodeDetails().getID(), 0)));
+
+      super.prepare();
+      for (int i = 0; i < getNumThreads(); i++) {
+        enqueueTask(new HeartbeatTask(i));
+      }
+    }
+
+    @Override
+    public void waitForComplete() throws InterruptedException {
+      long total = (long) datanodes.size() * rounds;
+      while (succHeartbeatCounter.get() + failHeartbeatCounter.get()
+          < total) {
+        Thread.sleep(CHECK_INTERVAL_MILLIS);
+        LOG.info("Heartbeats sent: ({}+{})/{}", succHeartbeatCounter.get(),
+            failHeartbeatCounter.get(), total);
+      }
+    }
+
+    @Override
+    public void showSummary() {
+      super.showSummary();
+
+      long execSecs = TimeUnit.SECONDS.convert(getExecTime(),
+          TimeUnit.NANOSECONDS);
+      long heartbeats = succHeartbeatCounter.get();
+      float heartbeatsPerSec = execSecs != 0 ?
+          (float) heartbeats / execSecs : heartbeats;
+
+      System.out.println("***************************************");
+      System.out.printf("Total heartbeats: %d%n", heartbeats);
+      System.out.printf("Total failed heartbeats: %d%n",
+          failHeartbeatCounter.get());
+      System.out.printf("Execution Time: %s%n", getFormattedTime());
+      System.out.printf("Throughput: %f (ops)%n", heartbeatsPerSec);
+      printLatency();
+      System.out.println("***************************************");
+    }
+
+    @Override
+    protected long getSucceeded() {
+      return succHeartbeatCounter.get();
+    }
+
+    @Override
+    protected long getFailed() {
+      return failHeartbeatCounter.get();
+    }
+
+    private class HeartbeatTask implements Runnable {
+
+      private final int index;
+
+      HeartbeatTask(int index) {
+        this.index = index;
+      }
+
+      @Override
+      public void run() {
+        for (int round = 0; round < rounds; round++) {
+          for (int i = index; i < datanodes.size(); i += getNumThreads()) {
+            try {
+              long start = System.nanoTime();
+              datanodes.get(i).sendHeartbeat();
+              recordLatency(start);
+              succHeartbeatCounter.incrementAndGet();
+            } catch (IOException | TimeoutException e) {
+              LOG.error("Failed to send heartbeat", e);
+              failHeartbeatCounter.incrementAndGet();
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Benchmarks how fast SCM reacts to the death of many datanodes at once.
+   * Some of the fake datanodes stop sending heartbeats, while the others
+   * keep heartbeating. It measures the time until all of them are declared
+   * dead, and until the ReplicationManager report shows the containers
+   * which lost their replicas. The heartbeat latency of the live datanodes
+   * is recorded meanwhile.
+   * <p>
+   * The dead datanodes stay dead, so this benchmark should be the last one
+   * of a suite.
+   */
+  private class DeadNodeBenchmark extends ThroughputBenchmark {
+
+    private final AtomicLong succHeartbeatCounter = new AtomicLong();
+    private final AtomicLong failHeartbeatCounter = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final int containers;
+    private final int deadPercentage;
+    private List<FakeDatanode> liveNodes;
+    private int deadNodes;
+    private boolean completed;
+
+    DeadNodeBenchmark(int containers, int deadPercentage) {
+      super(1);
+      this.containers = containers;
+      this.deadPercentage = deadPercentage;
+    }
+
+    @Override
+    public void prepare() {
+      addExtraResult("containers", prepareContainerReports(containers));
+      // Report the replicas once, so the containers are lost with the nodes.
+      for (FakeDatanode dn : datanodes) {
+        try {
+          dn.sendHeartbeat();
+        } catch (IOException | TimeoutException e) {
+          LOG.error("Failed to send heartbeat", e);
+        }
+      }
+
+      deadNodes = Math.max(1, datanodes.size() * deadPercentage / 100);
+      liveNodes = datanodes.subList(deadNodes, datanodes.size());
+      addExtraResult("deadNodes", deadNodes);
+      LOG.info("Stopping heartbeats of {} datanodes", deadNodes);
+
+      super.prepare();
+      enqueueTask(new LiveHeartbeatTask());
+    }
+
+    @Override
+    public void waitForComplete() throws InterruptedException {
+      long timeout = TimeDurationUtil.getTimeDurationHelper(
+          "--scenario-timeout", scenarioTimeout, TimeUnit.MILLISECONDS);
+      long deadline = System.currentTimeMillis() + timeout;
+      try {
+        while (countDeadNodes() < deadNodes) {
+          if (System.currentTimeMillis() > deadline) {
+            LOG.error("Datanodes are not declared dead in {}",
+                scenarioTimeout);
+            return;
+          }
+          Thread.sleep(1000);
+        }
+        long deadTime = System.currentTimeMillis();
+        addExtraResult("timeToDeadMillis", TimeUnit.NANOSECONDS.toMillis(
+            System.nanoTime() - getStartTime()));
+        LOG.info("All {} datanodes are dead", deadNodes);
+
+        while (true) {
+          ReplicationManagerReport report =
+              scmContainerClient.getReplicationManagerReport();
+          long missing = report.getStat(ContainerHealthState.MISSING);
+          long underReplicated =
+              report.getStat(ContainerHealthState.UNDER_REPLICATED);
+          if (report.getReportTimeStamp() > deadTime
+              && missing + underReplicated > 0) {
+            addExtraResult("timeToReplicationManagerMillis",
+                TimeUnit.NANOSECONDS.toMillis(
+                    System.nanoTime() - getStartTime()));
+            addExtraResult("missingContainers", missing);
+            addExtraResult("underReplicatedContainers", underReplicated);
+            completed = true;
+            return;
+          }
+          if (System.currentTimeMillis() > deadline) {
+            LOG.error("ReplicationManager did not notice the dead " +
+                "datanodes in {}", scenarioTimeout);
+            return;
+          }
+          Thread.sleep(1000);
+        }
+      } catch (IOException e) {
+        LOG.error("Failed to query SCM", e);
+      } finally {
+        addExtraResult("completed", completed);
+        running.set(false);
+      }
+    }
+
+    private int countDeadNodes() throws IOException {
+      return scmContainerClient.queryNode(null, HddsProtos.NodeState.DEAD,
+          HddsProtos.QueryScope.CLUSTER, "", ClientVersion.CURRENT_VERSION)
+          .size();
+    }
+
+    @Override
+    public void showSummary() {
+      super.showSummary();
+
+      System.out.println("***************************************");
+      System.out.printf("Dead datanodes: %d%n", deadNodes);
+      System.out.printf("Completed: %b%n", completed);
+      System.out.printf("Live heartbeats: %d%n", succHeartbeatCounter.get());
+      System.out.printf("Failed live heartbeats: %d%n",
+          failHeartbeatCounter.get());
+      System.out.printf("Execution Time: %s%n", getFormattedTime());
+      printLatency();
+      System.out.println("***************************************");
+    }
+
+    @Override
+    protected long getSucceeded() {
+      return succHeartbeatCounter.get();
+    }
+
+    @Override
+    protected long getFailed() {
+      return failHeartbeatCounter.get();
+    }
+
+    private class LiveHeartbeatTask implements Runnable {
+      @Override
+      public void run() {
+        long interval = TimeDurationUtil.getTimeDurationHelper(
+            "--heartbeat-interval", heartbeatInterval, TimeUnit.MILLISECONDS);
+        while (running.get()) {
+          long roundStart = System.currentTimeMillis();
+          for (FakeDatanode dn : liveNodes) {
+            if (!running.get()) {
+              return;
+            }
+            try {
+              long start = System.nanoTime();
+              dn.sendHeartbeat();
+              recordLatency(start);
+              succHeartbeatCounter.incrementAndGet();
+            } catch (IOException | TimeoutException e) {
+              LOG.error("Failed to send heartbeat", e);
+              failHeartbeatCounter.incrementAndGet();
+            }
+          }
+          long sleep = roundStart + interval - System.currentTimeMillis();
+          try {
+            if (sleep > 0) {
+              Thread.sleep(sleep);
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Benchmarks the planning of the container balancer. Half of the fake
+   * datanodes report high, the other half low disk usage, then one
+   * balancer iteration is started. The containers of the fake datanodes
+   * are open, so no moves are scheduled and the iteration measures the
+   * time to select the sources, targets and candidate containers.
+   */
+  private class BalancerPlanningBenchmark extends ThroughputBenchmark {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private int succeeded;
+    private int failed;
+
+    BalancerPlanningBenchmark() {
+      super(1);
+    }
+
+    @Override
+    public void prepare() {
+      for (int i = 0; i < datanodes.size(); i++) {
+        FakeDatanode dn = datanodes.get(i);
+        dn.setNodeReport(createNodeReport(dn.getDatanodeDetails().getID(),
+            i % 2 == 0 ? 90 : 10));
+        try {
+          dn.sendHeartbeat();
+        } catch (IOException | TimeoutException e) {
+          LOG.error("Failed to send heartbeat", e);
+        }
+      }
+
+      super.prepare();
+      enqueueTask(this::runBalancer);
+    }
+
+    private void runBalancer() {
+      try {
+        long start = System.nanoTime();
+        StartContainerBalancerResponseProto response =
+            scmContainerClient.startContainerBalancer(Optional.empty(),
+                Optional.of(1), Optional.of(100), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty());
+        if (!response.getStart()) {
+          LOG.error("Container balancer did not start: {}",
+              response.getMessage());
+          failed++;
+          return;
+        }
+
+        long timeout = TimeDurationUtil.getTimeDurationHelper(
+            "--scenario-timeout", scenarioTimeout, TimeUnit.MILLISECONDS);
+        long deadline = System.currentTimeMillis() + timeout;
+        while (System.currentTimeMillis() < deadline) {
+          ContainerBalancerStatusInfoResponseProto status =
+              scmContainerClient.getContainerBalancerStatusInfo();
+          int iterations = status.getContainerBalancerStatusInfo()
+              .getIterationsStatusInfoCount();
+          if (iterations > 0 || !status.getIsRunning()) {
+            recordLatency(start);
+            if (iterations > 0) {
+              addExtraResult("iterationResult",
+                  status.getContainerBalancerStatusInfo()
+                      .getIterationsStatusInfo(0).getIterationResult());
+            }
+            succeeded++;
+            return;
+          }
+          Thread.sleep(100);
+        }
+        LOG.error("Container balancer iteration did not finish in {}",
+            scenarioTimeout);
+        scmContainerClient.stopContainerBalancer();
+        failed++;
+      } catch (IOException e) {
+        LOG.error("Container balancer failed", e);
+        failed++;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failed++;
+      } finally {
+        done.countDown();
+      }
+    }
+
+    @Override
+    public void waitForComplete() throws InterruptedException {
+      done.await();
+    }
+
+    @Override
+    public void showSummary() {
+      super.showSummary();
+
+      System.out.println("***************************************");
+      System.out.printf("Balancer iterations planned: %d%n", succeeded);
+      System.out.printf("Execution Time: %s%n", getFormattedTime());
+      printLatency();
+      System.out.println("***************************************");
+    }
+
+    @Override
+    protected long getSucceeded() {
+      return succeeded;
+    }
+
+    @Override
+    protected long getFailed() {
+      return failed;
+    }
+  }
+
   /**
    * This class simulates the register and heartbeat behavior
    * of a normal Datanode, but does not have real daemons.
@@ -787,6 +1439,7 @@ public void run() {
   private class FakeDatanode {
     private DatanodeDetails datanodeDetails;
     private ContainerReportsProto containerReport;
+    private NodeReportProto nodeReport;
 
     FakeDatanode() {
       datanodeDetails = createRandomDatanodeDetails();
@@ -796,7 +1449,7 @@ private class FakeDatanode {
     public void register() throws IOException {
       SCMRegisteredResponseProto response = datanodeScmClient.register(
           datanodeDetails.getExtendedProtoBufMessage(),
-          createNodeReport(datanodeDetails.getID()),
+          createNodeReport(datanodeDetails.getID(), 0),
           createContainerReport(),
           createPipelineReport(),
           UpgradeUtils.defaultLayoutVersionProto());
@@ -812,16 +1465,25 @@ public void register() throws IOException {
     }
 
     public void sendHeartbeat() throws IOException, TimeoutException {
-      SCMHeartbeatRequestProto heartbeatRequest = SCMHeartbeatRequestProto
-          .newBuilder()
-          .setDatanodeDetails(datanodeDetails.getProtoBufMessage())
-          .setContainerReport(containerReport)
-          .setDataNodeLayoutVersion(UpgradeUtils.defaultLayoutVersionProto())
-          .build();
-      datanodeScmClient.sendHeartbeat(heartbeatRequest);
+      SCMHeartbeatRequestProto.Builder heartbeatRequest =
+          SCMHeartbeatRequestProto.newBuilder()
+              .setDatanodeDetails(datanodeDetails.getProtoBufMessage())
+              .setDataNodeLayoutVersion(
+                  UpgradeUtils.defaultLayoutVersionProto());
+      if (containerReport != null) {
+        heartbeatRequest.setContainerReport(containerReport);
+      }
+      if (nodeReport != null) {
+        heartbeatRequest.setNodeReport(nodeReport);
+      }
+      datanodeScmClient.sendHeartbeat(heartbeatRequest.build());
       // scm commands are ignored
     }
 
+    public void setNodeReport(NodeReportProto nodeReport) {
+      this.nodeReport = nodeReport;
+    }
+
     public void buildContainerReports(List<ContainerInfo> containers) {
       ContainerReportsProto.Builder reportBuilder =
           ContainerReportsProto.newBuilder();
@@ -869,11 +1531,12 @@ private static DatanodeDetails createRandomDatanodeDetails() {
     return builder.build();
   }
 
-  private static NodeReportProto createNodeReport(DatanodeID nodeId) {
+  private static NodeReportProto createNodeReport(DatanodeID nodeId,
+      int usedPercentage) {
     List<StorageReportProto> storageReports = new ArrayList<>();
     List<MetadataStorageReportProto> metadataStorageReports =
         new ArrayList<>();
-    storageReports.add(createStorageReport(nodeId));
+    storageReports.add(createStorageReport(nodeId, usedPercentage));
     metadataStorageReports.add(createMetadataStorageReport());
     NodeReportProto.Builder nb = NodeReportProto.newBuilder();
     nb.addAllStorageReport(storageReports)
@@ -881,14 +1544,17 @@ private static NodeReportProto createNodeReport(DatanodeID nodeId) {
     return nb.build();
   }
 
-  private static StorageReportProto createStorageReport(DatanodeID nodeId) {
+  private static StorageReportProto createStorageReport(DatanodeID nodeId,
+      int usedPercentage) {
+    long capacity = 100 * OzoneConsts.TB;
+    long used = capacity / 100 * usedPercentage;
     StorageReportProto.Builder srb = StorageReportProto.newBuilder();
     srb.setStorageUuid(nodeId.toString())
         .setStorageLocation("/data")
-        .setCapacity(100 * OzoneConsts.TB)
-        .setScmUsed(0)
+        .setCapacity(capacity)
+        .setScmUsed(used)
         .setFailed(false)
-        .setRemaining(100 * OzoneConsts.TB)
+        .setRemaining(capacity - used)
         .setStorageType(StorageTypeProto.DISK);
     return srb.build();
   }
@@ -920,5 +1586,8 @@ public enum BenchmarkType {
     AllocateBlocks,
     AllocateContainers,
     ProcessReports,
+    Heartbeats,
+    DeadNodes,
+    BalancerPlanning,
   }
 }